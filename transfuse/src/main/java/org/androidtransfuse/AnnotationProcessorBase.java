@@ -17,6 +17,7 @@ package org.androidtransfuse;
 
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
+import org.androidtransfuse.config.TransfuseOptions;
 import org.androidtransfuse.util.SupportedAnnotations;
 
 import javax.annotation.processing.AbstractProcessor;
@@ -45,6 +46,11 @@ public abstract class AnnotationProcessorBase extends AbstractProcessor {
                 .toImmutableSet();
     }
 
+    @Override
+    public Set<String> getSupportedOptions() {
+        return TransfuseOptions.SUPPORTED_OPTIONS;
+    }
+
     private static class ClassToNameTransform implements Function<Class, String> {
         @Override
         public String apply(Class input) {
@@ -15,18 +15,29 @@
  */
 package org.androidtransfuse;
 
+import org.androidtransfuse.adapter.ASTCaches;
+import org.androidtransfuse.adapter.ASTMaterializationStatistics;
 import org.androidtransfuse.annotations.Parcel;
+import org.androidtransfuse.config.CachingElements;
+import org.androidtransfuse.config.TransfuseSetupGuiceModule;
+import org.androidtransfuse.gen.FilerWriter;
+import org.androidtransfuse.processor.GenerationCache;
 import org.androidtransfuse.processor.ParcelProcessor;
+import org.androidtransfuse.processor.ProcessingRound;
 import org.androidtransfuse.processor.ReloadableASTElementFactory;
+import org.androidtransfuse.util.Logger;
 import org.androidtransfuse.util.SupportedAnnotations;
+import org.androidtransfuse.util.Tracer;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.TypeElement;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import static org.androidtransfuse.config.TransfuseInjector.buildInjector;
 
@@ -46,6 +57,25 @@ public class ParcelAnnotationProcessor extends AnnotationProcessorBase {
     private ParcelProcessor parcelProcessor;
     @Inject
     private ReloadableASTElementFactory reloadableASTElementFactory;
+    @Inject
+    @Named(TransfuseSetupGuiceModule.TRANSACTION_EXECUTOR)
+    private ExecutorService transactionExecutor;
+    @Inject
+    private Tracer tracer;
+    @Inject
+    private CachingElements cachingElements;
+    @Inject
+    private ProcessingRound processingRound;
+    @Inject
+    private GenerationCache generationCache;
+    @Inject
+    private Logger logger;
+    @Inject
+    private FilerWriter filerWriter;
+    @Inject
+    private ASTMaterializationStatistics astStatistics;
+    @Inject
+    private ASTCaches astCaches;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -56,13 +86,37 @@ public class ParcelAnnotationProcessor extends AnnotationProcessorBase {
     @Override
     public boolean process(Set<? extends TypeElement> typeElements, RoundEnvironment roundEnvironment) {
 
+        //elements from previous rounds are stale
+        cachingElements.clear();
+        processingRound.update(roundEnvironment);
+        //types from previous rounds are reused, unless they depend on a type which may have been generated since
+        reloadableASTElementFactory.reloadResolvable();
+
+        Tracer.Span roundSpan = tracer.start(Tracer.ROUND, "parcel round", roundEnvironment.processingOver() ? "(final)" : null);
+
         parcelProcessor.submit(reloadableASTElementFactory.buildProviders(roundEnvironment.getElementsAnnotatedWith(Parcel.class)));
 
-        parcelProcessor.execute();
+        try {
+            parcelProcessor.execute();
 
-        if (roundEnvironment.processingOver()) {
-            // Throws an exception if errors still exist.
-            parcelProcessor.checkForErrors();
+            if (roundEnvironment.processingOver()) {
+                // Throws an exception if errors still exist.
+                parcelProcessor.checkForErrors();
+            }
+        } finally {
+            roundSpan.end();
+            if (roundEnvironment.processingOver()) {
+                transactionExecutor.shutdown();
+                filerWriter.shutdown();
+                tracer.write("parcel");
+                logger.info("Filer writer: " + filerWriter.getFilesWritten() + " files written in " +
+                        filerWriter.getWriteTimeMillis() + "ms, max queue depth " + filerWriter.getMaxQueueDepth());
+                logger.info("AST: " + astStatistics);
+                logger.info("AST caches: " + astCaches);
+                if (generationCache.isEnabled()) {
+                    logger.info("Generation cache: " + generationCache.getHits() + " reused, " + generationCache.getMisses() + " generated");
+                }
+            }
         }
 
         return true;
@@ -18,23 +18,26 @@ package org.androidtransfuse;
 import com.google.inject.ImplementedBy;
 import com.google.inject.Key;
 import com.google.inject.name.Names;
+import org.androidtransfuse.adapter.ASTCaches;
+import org.androidtransfuse.adapter.ASTMaterializationStatistics;
 import org.androidtransfuse.adapter.ASTType;
-import org.androidtransfuse.adapter.element.ASTElementConverterFactory;
 import org.androidtransfuse.analysis.TransfuseAnalysisException;
 import org.androidtransfuse.annotations.*;
+import org.androidtransfuse.config.CachingElements;
 import org.androidtransfuse.config.EnterableScope;
 import org.androidtransfuse.config.TransfuseAndroidModule;
 import org.androidtransfuse.config.TransfuseGenerateGuiceModule;
+import org.androidtransfuse.config.TransfuseSetupGuiceModule;
+import org.androidtransfuse.gen.FilerWriter;
 import org.androidtransfuse.model.manifest.Manifest;
-import org.androidtransfuse.model.r.RBuilder;
 import org.androidtransfuse.model.r.RResource;
-import org.androidtransfuse.model.r.RResourceComposite;
+import org.androidtransfuse.processor.ProcessingContextCache;
+import org.androidtransfuse.processor.ProcessingRound;
 import org.androidtransfuse.processor.ReloadableASTElementFactory;
 import org.androidtransfuse.processor.TransfuseProcessor;
 import org.androidtransfuse.util.Logger;
-import org.androidtransfuse.util.ManifestLocator;
-import org.androidtransfuse.util.ManifestSerializer;
 import org.androidtransfuse.util.SupportedAnnotations;
+import org.androidtransfuse.util.Tracer;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
@@ -45,15 +48,14 @@ import javax.inject.Provider;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
-import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import java.io.File;
 import java.lang.annotation.Annotation;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
-import static com.google.common.collect.Collections2.transform;
 import static org.androidtransfuse.config.TransfuseInjector.buildInjector;
 
 /**
@@ -82,15 +84,15 @@ import static org.androidtransfuse.config.TransfuseInjector.buildInjector;
 public class TransfuseAnnotationProcessor extends AnnotationProcessorBase {
 
     @Inject
-    private ASTElementConverterFactory astElementConverterFactory;
+    private ReloadableASTElementFactory reloadableASTElementFactory;
     @Inject
-    private ManifestSerializer manifestParser;
+    private ProcessingContextCache processingContextCache;
     @Inject
-    private RBuilder rBuilder;
+    private FilerWriter filerWriter;
     @Inject
-    private ReloadableASTElementFactory reloadableASTElementFactory;
+    private ASTMaterializationStatistics astStatistics;
     @Inject
-    private ManifestLocator manifestLocator;
+    private ASTCaches astCaches;
     @Inject
     private Logger logger;
     @Inject
@@ -100,7 +102,26 @@ public class TransfuseAnnotationProcessor extends AnnotationProcessorBase {
     private Provider<TransfuseProcessor> processorProvider;
     @Inject
     private Elements elements;
+    @Inject
+    private Tracer tracer;
+    @Inject
+    private CachingElements cachingElements;
+    @Inject
+    private ProcessingRound processingRound;
+    @Inject
+    @Named(TransfuseSetupGuiceModule.TRANSACTION_EXECUTOR)
+    private ExecutorService transactionExecutor;
+    @Inject
+    @Named(TransfuseSetupGuiceModule.STAGE_EXECUTOR)
+    private ExecutorService stageExecutor;
+    @Inject
+    @Named(TransfuseSetupGuiceModule.ANALYSIS_EXECUTOR)
+    private ExecutorService analysisExecutor;
     private boolean baseModuleConfiguration = false;
+    //processing context of the last round with Transfuse annotations
+    private File manifestFile;
+    private Manifest manifest;
+    private RResource r;
 
     @Override
     public void init(ProcessingEnvironment processingEnv) {
@@ -112,14 +133,30 @@ public class TransfuseAnnotationProcessor extends AnnotationProcessorBase {
     public boolean process(Set<? extends TypeElement> typeElements, RoundEnvironment roundEnvironment) {
 
         long start = System.currentTimeMillis();
+        //elements from previous rounds are stale
+        cachingElements.clear();
+        processingRound.update(roundEnvironment);
+        //types from previous rounds are reused, unless they depend on a type which may have been generated since
+        reloadableASTElementFactory.reloadResolvable();
+
+        Tracer.Span roundSpan = tracer.start(Tracer.ROUND, "round", roundEnvironment.processingOver() ? "(final)" : null);
+
+        //rounds without Transfuse annotations only retry incomplete transactions and, once processing is over,
+        //report the transactions that never completed
+        boolean annotatedRound = !baseModuleConfiguration || !typeElements.isEmpty();
+
+        if (!annotatedRound && !roundEnvironment.processingOver() && processorProvider.get().isComplete()) {
+            //nothing to process or retry this round
+            roundSpan.end();
+            return true;
+        }
 
-        //setup transfuse processor with manifest and R classes
-        File manifestFile = manifestLocator.findManifest();
-        Manifest manifest = manifestParser.readManifest(manifestFile);
-
-        RResourceComposite r = new RResourceComposite(
-                buildR(rBuilder, manifest.getApplicationPackage() + ".R"),
-                buildR(rBuilder, "android.R"));
+        if (annotatedRound) {
+            //setup transfuse processor with manifest and R classes
+            manifestFile = processingContextCache.getManifestFile();
+            manifest = processingContextCache.getManifest();
+            r = processingContextCache.getR();
+        }
 
         configurationScope.enter();
 
@@ -129,6 +166,31 @@ public class TransfuseAnnotationProcessor extends AnnotationProcessorBase {
 
         TransfuseProcessor transfuseProcessor = processorProvider.get();
 
+        if (annotatedRound) {
+            submit(transfuseProcessor, roundEnvironment);
+        }
+
+        try {
+            transfuseProcessor.execute();
+
+            if (roundEnvironment.processingOver()) {
+                transfuseProcessor.checkForErrors();
+            }
+        } finally {
+            roundSpan.end();
+            if (roundEnvironment.processingOver()) {
+                finish();
+            }
+        }
+
+        logger.info("Transfuse took " + (System.currentTimeMillis() - start) + "ms to process");
+
+        configurationScope.exit();
+
+        return true;
+    }
+
+    private void submit(TransfuseProcessor transfuseProcessor, RoundEnvironment roundEnvironment) {
         if (!baseModuleConfiguration) {
             transfuseProcessor.submit(TransfuseModule.class, reloadableASTElementFactory.buildProviders(
                     Collections.singleton(elements.getTypeElement(TransfuseAndroidModule.class.getName())
@@ -156,36 +218,25 @@ public class TransfuseAnnotationProcessor extends AnnotationProcessorBase {
         transfuseProcessor.submit(BroadcastReceiver.class, buildASTCollection(roundEnvironment, BroadcastReceiver.class));
         transfuseProcessor.submit(Service.class, buildASTCollection(roundEnvironment, Service.class));
         transfuseProcessor.submit(Fragment.class, buildASTCollection(roundEnvironment, Fragment.class));
-
-        transfuseProcessor.execute();
-
-        if (roundEnvironment.processingOver()) {
-            transfuseProcessor.checkForErrors();
-        }
-
-        logger.info("Transfuse took " + (System.currentTimeMillis() - start) + "ms to process");
-
-        configurationScope.exit();
-
-        return true;
     }
 
-    private RResource buildR(RBuilder rBuilder, String className) {
-        TypeElement rTypeElement = elements.getTypeElement(className);
-        if (rTypeElement != null) {
-            Collection<? extends ASTType> rInnerTypes = wrapASTCollection(ElementFilter.typesIn(rTypeElement.getEnclosedElements()));
-            return rBuilder.buildR(rInnerTypes);
-        }
-        return null;
+    private void finish() {
+        stageExecutor.shutdown();
+        transactionExecutor.shutdown();
+        analysisExecutor.shutdown();
+        filerWriter.shutdown();
+        tracer.write("transfuse");
+        logger.info("Processing context: manifest read " + processingContextCache.getManifestBuilds() +
+                " times, reused " + processingContextCache.getManifestReuses() +
+                " times; R built " + processingContextCache.getRBuilds() +
+                " times, reused " + processingContextCache.getRReuses() + " times");
+        logger.info("Filer writer: " + filerWriter.getFilesWritten() + " files written in " +
+                filerWriter.getWriteTimeMillis() + "ms, max queue depth " + filerWriter.getMaxQueueDepth());
+        logger.info("AST: " + astStatistics);
+        logger.info("AST caches: " + astCaches);
     }
 
     private Collection<Provider<ASTType>> buildASTCollection(RoundEnvironment round, Class<? extends Annotation> annotation) {
         return reloadableASTElementFactory.buildProviders(round.getElementsAnnotatedWith(annotation));
     }
-
-    private Collection<? extends ASTType> wrapASTCollection(Collection<? extends Element> elementCollection) {
-        return transform(elementCollection,
-                astElementConverterFactory.buildASTElementConverter(ASTType.class)
-        );
-    }
 }
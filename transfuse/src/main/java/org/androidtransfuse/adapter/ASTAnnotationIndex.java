@@ -0,0 +1,112 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable index of the annotations on an ASTBase, keyed by the interned annotation type name.  Replaces the linear
+ * scan of <code>ASTUtils.getAnnotation()</code> with a single hash lookup.
+ *
+ * @author John Ericksen
+ */
+public final class ASTAnnotationIndex {
+
+    private final ImmutableMap<String, ASTAnnotation> annotations;
+
+    private ASTAnnotationIndex(ImmutableMap<String, ASTAnnotation> annotations) {
+        this.annotations = annotations;
+    }
+
+    /**
+     * Builds an index of the given annotations.  If an annotation type is repeated, the first one is indexed, matching
+     * <code>ASTUtils.getAnnotation()</code>.
+     *
+     * @param annotations annotations to index
+     * @return index
+     */
+    public static ASTAnnotationIndex build(Collection<ASTAnnotation> annotations) {
+        ASTUtils astUtils = ASTUtils.getInstance();
+        Map<String, ASTAnnotation> index = new LinkedHashMap<String, ASTAnnotation>();
+        for (ASTAnnotation annotation : annotations) {
+            String name = astUtils.intern(annotation.getASTType().getName());
+            if (!index.containsKey(name)) {
+                index.put(name, annotation);
+            }
+        }
+        return new ASTAnnotationIndex(ImmutableMap.copyOf(index));
+    }
+
+    /**
+     * Builds a supplier of the index of the given annotations, built on first access.  The index is rebuilt if the
+     * annotations supplier hands out a different collection, as it does once a reloaded type reloads its annotations.
+     *
+     * @param annotations annotations supplier, expected to memoize its collection
+     * @return memoizing supplier
+     */
+    public static Supplier<ASTAnnotationIndex> lazy(final Supplier<? extends Collection<ASTAnnotation>> annotations) {
+        return new IndexSupplier(annotations);
+    }
+
+    public static Supplier<ASTAnnotationIndex> lazy(Collection<ASTAnnotation> annotations) {
+        return lazy(Suppliers.ofInstance(annotations));
+    }
+
+    private static final class IndexSupplier implements Supplier<ASTAnnotationIndex> {
+
+        private final Supplier<? extends Collection<ASTAnnotation>> annotations;
+        private volatile IndexedAnnotations indexed;
+
+        private IndexSupplier(Supplier<? extends Collection<ASTAnnotation>> annotations) {
+            this.annotations = annotations;
+        }
+
+        @Override
+        public ASTAnnotationIndex get() {
+            Collection<ASTAnnotation> current = annotations.get();
+            IndexedAnnotations currentIndexed = indexed;
+            if (currentIndexed == null || currentIndexed.annotations != current) {
+                currentIndexed = new IndexedAnnotations(current, build(current));
+                indexed = currentIndexed;
+            }
+            return currentIndexed.index;
+        }
+    }
+
+    private static final class IndexedAnnotations {
+        private final Collection<ASTAnnotation> annotations;
+        private final ASTAnnotationIndex index;
+
+        private IndexedAnnotations(Collection<ASTAnnotation> annotations, ASTAnnotationIndex index) {
+            this.annotations = annotations;
+            this.index = index;
+        }
+    }
+
+    public ASTAnnotation get(Class annotation) {
+        return annotations.get(ASTUtils.getInstance().getCanonicalName(annotation));
+    }
+
+    public boolean contains(Class annotation) {
+        return annotations.containsKey(ASTUtils.getInstance().getCanonicalName(annotation));
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the caches of ASTTypes, and of the analysis derived from them, bounded to the configured size.  Caches are
+ * registered by name to report their hit, miss and eviction counts.
+ *
+ * @author John Ericksen
+ */
+public class ASTCaches {
+
+    private final int maximumSize;
+    private final Map<String, ASTTypeCache<?>> typeCaches = new LinkedHashMap<String, ASTTypeCache<?>>();
+    private final Map<String, Cache<?, ?>> caches = new LinkedHashMap<String, Cache<?, ?>>();
+
+    public ASTCaches() {
+        this(0);
+    }
+
+    /**
+     * @param maximumSize number of recently used entries each cache holds strongly, unbounded if not positive
+     */
+    public ASTCaches(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Builds and registers an ASTTypeCache.
+     *
+     * @param name cache name, as reported
+     * @param <K>  cache key type
+     * @return cache
+     */
+    public synchronized <K> ASTTypeCache<K> buildTypeCache(String name) {
+        ASTTypeCache<K> typeCache = new ASTTypeCache<K>(maximumSize);
+        typeCaches.put(name, typeCache);
+        return typeCache;
+    }
+
+    /**
+     * Builds a CacheBuilder recording statistics, bounded to the configured size.  The built cache is expected to be
+     * registered through <code>register()</code>.
+     *
+     * @return cache builder
+     */
+    public CacheBuilder<Object, Object> newCacheBuilder() {
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+        if (maximumSize > 0) {
+            cacheBuilder.maximumSize(maximumSize);
+        }
+        return cacheBuilder;
+    }
+
+    public synchronized <C extends Cache<?, ?>> C register(String name, C cache) {
+        caches.put(name, cache);
+        return cache;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(maximumSize > 0 ? "at most " + maximumSize + " recently used entries held" : "unbounded");
+        for (Map.Entry<String, ASTTypeCache<?>> entry : typeCaches.entrySet()) {
+            builder.append("; ").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        for (Map.Entry<String, Cache<?, ?>> entry : caches.entrySet()) {
+            CacheStats stats = entry.getValue().stats();
+            builder.append("; ").append(entry.getKey()).append(": ").append(entry.getValue().size()).append(" entries, ")
+                    .append(stats.hitCount()).append(" hits, ")
+                    .append(stats.missCount()).append(" misses, ")
+                    .append(stats.evictionCount()).append(" evictions");
+        }
+        return builder.toString();
+    }
+}
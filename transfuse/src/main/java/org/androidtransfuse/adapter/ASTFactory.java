@@ -20,6 +20,7 @@ import org.androidtransfuse.adapter.element.ASTElementAnnotation;
 import org.androidtransfuse.adapter.element.LazyElementParameterBuilder;
 
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
 import javax.lang.model.type.DeclaredType;
 import java.lang.reflect.ParameterizedType;
 
@@ -30,7 +31,7 @@ import java.lang.reflect.ParameterizedType;
  */
 public interface ASTFactory {
 
-    ASTElementAnnotation buildASTElementAnnotation(AnnotationMirror annotationMirror, ASTType type);
+    ASTElementAnnotation buildASTElementAnnotation(AnnotationMirror annotationMirror, ASTType type, Element annotatedElement);
 
     LazyClassParameterBuilder builderParameterBuilder(ParameterizedType genericType);
 
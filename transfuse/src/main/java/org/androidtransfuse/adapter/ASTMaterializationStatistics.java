@@ -0,0 +1,139 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableCollection;
+
+import javax.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the ASTTypes built and the members materialized from them.  Type members are only built on first access,
+ * these counters show how much of each type is actually used by a compilation and the time spent building it.
+ *
+ * @author John Ericksen
+ */
+@Singleton
+public class ASTMaterializationStatistics {
+
+    public enum Member {
+        CONSTRUCTORS, METHODS, FIELDS, ANNOTATIONS
+    }
+
+    private final AtomicLong types = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong[] materialized = new AtomicLong[Member.values().length];
+    private final AtomicLong[] built = new AtomicLong[Member.values().length];
+    private final AtomicLong nanos = new AtomicLong();
+
+    public ASTMaterializationStatistics() {
+        for (int i = 0; i < materialized.length; i++) {
+            materialized[i] = new AtomicLong();
+            built[i] = new AtomicLong();
+        }
+    }
+
+    public void typeBuilt() {
+        types.incrementAndGet();
+    }
+
+    public void typeReloaded() {
+        reloads.incrementAndGet();
+    }
+
+    /**
+     * Wraps the given member supplier to be built once, on first access, and counted.  Failed builds are not
+     * memoized and will be retried on the next access.
+     *
+     * @param member   kind of member supplied
+     * @param supplier builds the members
+     * @param <T>      member type
+     * @return thread safe memoizing supplier
+     */
+    public <T> Supplier<ImmutableCollection<T>> lazy(Member member, Supplier<ImmutableCollection<T>> supplier) {
+        return Suppliers.memoize(new CountingSupplier<T>(member, supplier));
+    }
+
+    public long getTypes() {
+        return types.get();
+    }
+
+    /**
+     * @return number of types built in an earlier round whose members were reloaded
+     */
+    public long getReloads() {
+        return reloads.get();
+    }
+
+    /**
+     * @param member kind of member
+     * @return number of types the given member kind was materialized for
+     */
+    public long getMaterialized(Member member) {
+        return materialized[member.ordinal()].get();
+    }
+
+    /**
+     * @param member kind of member
+     * @return total number of members of the given kind built
+     */
+    public long getBuilt(Member member) {
+        return built[member.ordinal()].get();
+    }
+
+    public long getMaterializationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.get());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getTypes()).append(" types (").append(getReloads()).append(" reloaded)");
+        for (Member member : Member.values()) {
+            builder.append(", ").append(member.name().toLowerCase()).append(" of ").append(getMaterialized(member))
+                    .append(" (").append(getBuilt(member)).append(" built)");
+        }
+        builder.append(" in ").append(getMaterializationMillis()).append("ms");
+        return builder.toString();
+    }
+
+    private final class CountingSupplier<T> implements Supplier<ImmutableCollection<T>> {
+
+        private final Member member;
+        private final Supplier<ImmutableCollection<T>> delegate;
+
+        private CountingSupplier(Member member, Supplier<ImmutableCollection<T>> delegate) {
+            this.member = member;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ImmutableCollection<T> get() {
+            long start = System.nanoTime();
+            try {
+                ImmutableCollection<T> members = delegate.get();
+                materialized[member.ordinal()].incrementAndGet();
+                built[member.ordinal()].addAndGet(members.size());
+                return members;
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable supertype closure of an ASTType.  The closure is keyed by type name, matching ASTType equality, so
+ * inheritance checks become a single hash lookup instead of a walk of the class hierarchy.
+ *
+ * @author John Ericksen
+ */
+public final class ASTSupertypes {
+
+    private final String name;
+    private final ImmutableSet<String> extended;
+    private final ImmutableSet<String> implemented;
+    private final ImmutableSet<String> inherited;
+
+    private ASTSupertypes(String name, ImmutableSet<String> extended, ImmutableSet<String> implemented, ImmutableSet<String> inherited) {
+        this.name = name;
+        this.extended = extended;
+        this.implemented = implemented;
+        this.inherited = inherited;
+    }
+
+    /**
+     * Walks the superclass and interface graph of the given type once, recording each supertype reachable through
+     * extends only, implements only, and any combination of the two.
+     *
+     * @param astType root type
+     * @return supertype closure
+     */
+    public static ASTSupertypes build(ASTType astType) {
+        ImmutableSet.Builder<String> extended = ImmutableSet.builder();
+        for (ASTType superType = astType; superType != null; superType = superType.getSuperClass()) {
+            extended.add(superType.getName());
+        }
+
+        Set<String> implemented = new HashSet<String>();
+        addInterfaces(astType, implemented);
+
+        Set<String> inherited = new HashSet<String>();
+        addInherited(astType, inherited);
+
+        return new ASTSupertypes(astType.getName(), extended.build(), ImmutableSet.copyOf(implemented), ImmutableSet.copyOf(inherited));
+    }
+
+    private static void addInterfaces(ASTType astType, Set<String> visited) {
+        if (visited.add(astType.getName())) {
+            for (ASTType typeInterface : astType.getInterfaces()) {
+                addInterfaces(typeInterface, visited);
+            }
+        }
+    }
+
+    private static void addInherited(ASTType astType, Set<String> visited) {
+        if (astType != null && visited.add(astType.getName())) {
+            for (ASTType typeInterface : astType.getInterfaces()) {
+                addInherited(typeInterface, visited);
+            }
+            addInherited(astType.getSuperClass(), visited);
+        }
+    }
+
+    /**
+     * Determines if the given type is contained in this closure with the given rules.
+     *
+     * @param inheritable inheritance target
+     * @param implement   include types reached through implements inheritance
+     * @param extend      include types reached through extends inheritance
+     * @return true if the closure contains the inheritable type
+     */
+    public boolean contains(ASTType inheritable, boolean implement, boolean extend) {
+        if (inheritable == null) {
+            return false;
+        }
+        String inheritableName = inheritable.getName();
+        if (implement && extend) {
+            return inherited.contains(inheritableName);
+        }
+        if (implement) {
+            return implemented.contains(inheritableName);
+        }
+        if (extend) {
+            return extended.contains(inheritableName);
+        }
+        return name.equals(inheritableName);
+    }
+
+    public ImmutableSet<String> getInherited() {
+        return inherited;
+    }
+}
@@ -0,0 +1,358 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+import org.androidtransfuse.model.PackageClass;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent cache of built ASTTypes, building each type exactly once while allowing different types to be built
+ * in parallel.
+ * <p/>
+ * The first thread requesting a key claims it and builds the type, other threads requesting the same key wait for
+ * the result.  Types reference each other recursively, so a claimed key is represented by an ASTTypeVirtualProxy
+ * placeholder which is handed out to any type built while the key is in progress, either by the owning thread
+ * (self reference) or by another thread.  To avoid two threads waiting on each other's placeholders, waiting only
+ * happens once a top level request has published everything it built.  The top level request then waits for the
+ * types built by other threads it referenced, transitively, so the returned type is always fully loaded.
+ * <p/>
+ * If a build fails, every type built by the failing request is dropped so it may be rebuilt later, and requests
+ * that referenced them fail with the same exception.
+ * <p/>
+ * A bounded cache holds only the most recently used types strongly.  Colder types are held weakly: they stay cached
+ * while other live types or analysis still reference them, and are rebuilt on request once collected.  Types added
+ * through <code>put()</code> are always held.
+ *
+ * @author John Ericksen
+ */
+public class ASTTypeCache<K> {
+
+    private final ConcurrentMap<K, Entry> entries = new ConcurrentHashMap<K, Entry>();
+    private final ThreadLocal<BuildContext> buildContext = new ThreadLocal<BuildContext>();
+    private final int maximumSize;
+    private final Map<Entry, Boolean> recentlyUsed;
+    private final ReferenceQueue<ASTType> collected = new ReferenceQueue<ASTType>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Builds an unbounded cache, holding every type built.
+     */
+    public ASTTypeCache() {
+        this(0);
+    }
+
+    /**
+     * @param maximumSize number of recently used types held strongly, unbounded if not positive
+     */
+    public ASTTypeCache(final int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.recentlyUsed = new LinkedHashMap<Entry, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Entry, Boolean> eldest) {
+                if (size() > maximumSize) {
+                    eldest.getKey().demote();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Builds an ASTType on request of the cache.
+     */
+    public interface Builder {
+
+        /**
+         * @return class name of the type to build, used by the placeholder of the type while it is built
+         */
+        PackageClass getPackageClass();
+
+        /**
+         * @return fully built type
+         */
+        ASTType build();
+    }
+
+    /**
+     * Associates an already built type with the given key.
+     *
+     * @param key  cache key
+     * @param type built type
+     */
+    public void put(K key, ASTType type) {
+        entries.put(key, new Entry(key, type));
+    }
+
+    /**
+     * Returns the type associated with the given key, building it with the given builder if it is not yet present.
+     *
+     * @param key     cache key
+     * @param builder type builder
+     * @return type, a placeholder of the type if requested while it is being built
+     */
+    public ASTType get(K key, Builder builder) {
+        BuildContext context = buildContext.get();
+        if (context != null) {
+            //nested within a build
+            return resolve(key, builder, context, false);
+        }
+
+        context = new BuildContext();
+        buildContext.set(context);
+        try {
+            ASTType type = resolve(key, builder, context, true);
+            publish(context);
+            return type;
+        } catch (RuntimeException e) {
+            evict(context, e);
+            throw e;
+        } catch (Error e) {
+            //release waiting threads
+            evict(context, new TransfuseAnalysisException("Unable to build type " + key, e));
+            throw e;
+        } finally {
+            buildContext.remove();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isBounded() {
+        return maximumSize > 0;
+    }
+
+    /**
+     * @return number of requests answered by an already built type
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of types built
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of types dropped once collected
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return size() + " entries, " + getHits() + " hits, " + getMisses() + " misses, " + getEvictions() + " evictions";
+    }
+
+    private ASTType resolve(K key, Builder builder, BuildContext context, boolean topLevel) {
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                purgeCollected();
+                Entry claimed = new Entry(key, new ASTTypeVirtualProxy(builder.getPackageClass()));
+                entry = entries.putIfAbsent(key, claimed);
+                if (entry == null) {
+                    misses.incrementAndGet();
+                    context.built.add(claimed);
+                    claimed.load(builder.build());
+                    return claimed.type;
+                }
+            }
+
+            if (context.built.contains(entry)) {
+                //self reference, possibly still the placeholder
+                return entry.type;
+            }
+            if (topLevel) {
+                await(entry);
+            } else if (!entry.complete) {
+                //built by another thread, wait once this build has been published
+                context.foreign.add(entry);
+            }
+            ASTType type = entry.retain();
+            if (type != null) {
+                hits.incrementAndGet();
+                return type;
+            }
+            //collected since it was last used
+            if (entries.remove(key, entry)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void purgeCollected() {
+        for (Object reference = collected.poll(); reference != null; reference = collected.poll()) {
+            Entry entry = ((EntryReference) reference).entry;
+            if (entries.remove(entry.key, entry)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void markRecentlyUsed(Entry entry) {
+        synchronized (recentlyUsed) {
+            recentlyUsed.put(entry, Boolean.TRUE);
+        }
+    }
+
+    private void publish(BuildContext context) {
+        ImmutableSet<Entry> dependencies = ImmutableSet.copyOf(context.foreign);
+        for (Entry entry : context.built) {
+            entry.dependencies = dependencies;
+            entry.release();
+        }
+        for (Entry dependency : dependencies) {
+            await(dependency);
+        }
+        for (Entry entry : context.built) {
+            entry.complete = true;
+            entry.dependencies = Collections.emptySet();
+            if (isBounded()) {
+                entry.reference = new EntryReference(entry, entry.type, collected);
+                markRecentlyUsed(entry);
+            }
+        }
+    }
+
+    private void evict(BuildContext context, RuntimeException failure) {
+        for (Entry entry : context.built) {
+            entry.failure = failure;
+            entries.remove(entry.key, entry);
+            entry.release();
+        }
+    }
+
+    /**
+     * Waits for the given entry and every entry it depends on to be built.
+     */
+    private void await(Entry root) {
+        if (root.complete) {
+            return;
+        }
+        Set<Entry> visited = new HashSet<Entry>();
+        Deque<Entry> pending = new ArrayDeque<Entry>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Entry entry = pending.pop();
+            if (visited.add(entry)) {
+                Uninterruptibles.awaitUninterruptibly(entry.released);
+                if (entry.failure != null) {
+                    throw entry.failure;
+                }
+                if (!entry.complete) {
+                    pending.addAll(entry.dependencies);
+                }
+            }
+        }
+        for (Entry entry : visited) {
+            entry.complete = true;
+        }
+    }
+
+    private final class BuildContext {
+        private final Set<Entry> built = new LinkedHashSet<Entry>();
+        private final Set<Entry> foreign = new LinkedHashSet<Entry>();
+    }
+
+    private final class Entry {
+        private final K key;
+        private final CountDownLatch released = new CountDownLatch(1);
+        private ASTTypeVirtualProxy placeholder;
+        //strong reference, cleared once the entry is no longer recently used
+        private volatile ASTType type;
+        private volatile EntryReference reference;
+        private volatile Set<Entry> dependencies = Collections.emptySet();
+        private volatile RuntimeException failure;
+        private volatile boolean complete;
+
+        private Entry(K key, ASTTypeVirtualProxy placeholder) {
+            this.key = key;
+            this.placeholder = placeholder;
+            this.type = placeholder;
+        }
+
+        private Entry(K key, ASTType type) {
+            this.key = key;
+            this.type = type;
+            this.complete = true;
+            released.countDown();
+        }
+
+        private void load(ASTType built) {
+            placeholder.load(built);
+            placeholder = null;
+            type = built;
+        }
+
+        /**
+         * @return the type, held strongly again if it was released, null if it has been collected
+         */
+        private ASTType retain() {
+            ASTType current = type;
+            EntryReference currentReference = reference;
+            if (currentReference != null) {
+                if (current == null) {
+                    current = currentReference.get();
+                    type = current;
+                }
+                if (current != null) {
+                    markRecentlyUsed(this);
+                }
+            }
+            return current;
+        }
+
+        private void release() {
+            released.countDown();
+        }
+
+        /**
+         * Drops the strong reference to the type once it is no longer recently used.
+         */
+        private void demote() {
+            type = null;
+        }
+    }
+
+    private final class EntryReference extends WeakReference<ASTType> {
+
+        private final Entry entry;
+
+        private EntryReference(Entry entry, ASTType type, ReferenceQueue<ASTType> queue) {
+            super(type, queue);
+            this.entry = entry;
+        }
+    }
+}
@@ -29,7 +29,7 @@ import java.util.List;
 public class ASTTypeVirtualProxy implements ASTType {
 
     private final PackageClass packageClass;
-    private ASTType proxy;
+    private volatile ASTType proxy;
 
     public ASTTypeVirtualProxy(PackageClass packageClass) {
         this.packageClass = packageClass;
@@ -15,6 +15,13 @@
  */
 package org.androidtransfuse.adapter;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
 import java.util.Collection;
 
 /**
@@ -26,6 +33,15 @@ public final class ASTUtils {
 
     private static final ASTUtils INSTANCE = new ASTUtils();
 
+    private final Interner<String> names = Interners.newWeakInterner();
+    private final LoadingCache<Class, String> canonicalNames = CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<Class, String>() {
+        @Override
+        public String load(Class key) {
+            String canonicalName = key.getCanonicalName();
+            return intern(canonicalName == null ? key.getName() : canonicalName);
+        }
+    });
+
     private ASTUtils() {
         //private singleton constructor
     }
@@ -35,7 +51,8 @@ public final class ASTUtils {
     }
 
     /**
-     * Determines if the given ASTType inherits or extends from the given inheritable ASTType
+     * Determines if the given ASTType inherits or extends from the given inheritable ASTType by walking the type
+     * hierarchy.  Class and element types memoize this walk as an ASTSupertypes closure.
      *
      * @param astType     target
      * @param inheritable inheritance target
@@ -60,9 +77,43 @@ public final class ASTUtils {
         return extend && inherits(astType.getSuperClass(), inheritable, implement, extend);
     }
 
+    /**
+     * Returns the canonical instance of the given type name or descriptor.  Equal interned names are the same
+     * instance, so comparing them reduces to a reference check.
+     *
+     * @param name type name or descriptor
+     * @return canonical instance
+     */
+    public String intern(String name) {
+        return names.intern(name);
+    }
+
+    /**
+     * Computes the hash code of an ASTType with the given name, consistent across all name based ASTType
+     * implementations.
+     *
+     * @param name type name
+     * @return hash code
+     */
+    public int hashName(String name) {
+        return new HashCodeBuilder().append(name).hashCode();
+    }
+
+    /**
+     * Returns the interned canonical name of the given class.  <code>Class.getCanonicalName()</code> rebuilds the name
+     * on each call, so it is cached per class.
+     *
+     * @param clazz class
+     * @return interned canonical name
+     */
+    public String getCanonicalName(Class clazz) {
+        return canonicalNames.getUnchecked(clazz);
+    }
+
     public ASTAnnotation getAnnotation(Class resourceClass, Collection<ASTAnnotation> annotations) {
+        String resourceName = getCanonicalName(resourceClass);
         for (ASTAnnotation astAnnotation : annotations) {
-            if (astAnnotation.getASTType().getName().equals(resourceClass.getCanonicalName())) {
+            if (astAnnotation.getASTType().getName().equals(resourceName)) {
                 return astAnnotation;
             }
         }
@@ -15,9 +15,6 @@
  */
 package org.androidtransfuse.adapter;
 
-import org.apache.commons.lang.builder.EqualsBuilder;
-import org.apache.commons.lang.builder.HashCodeBuilder;
-
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,13 +24,19 @@ import java.util.List;
 public class MethodSignature {
 
     private final String methodSignature;
+    private final int hashCode;
 
     public MethodSignature(ASTMethod method) {
-        this.methodSignature = makeDescriptor(method);
+        this(ASTUtils.getInstance().intern(makeDescriptor(method)));
     }
 
     public MethodSignature(ASTType returnType, String methodName, List<ASTType> paramTypes){
-        this.methodSignature = makeDescriptor(returnType, methodName, paramTypes);
+        this(ASTUtils.getInstance().intern(makeDescriptor(returnType, methodName, paramTypes)));
+    }
+
+    private MethodSignature(String methodSignature) {
+        this.methodSignature = methodSignature;
+        this.hashCode = methodSignature.hashCode();
     }
 
     /**
@@ -42,7 +45,7 @@ public class MethodSignature {
      * @param method
      * @return descriptor
      */
-    private String makeDescriptor(ASTMethod method) {
+    private static String makeDescriptor(ASTMethod method) {
         List<ASTType> paramTypes = new ArrayList<ASTType>();
 
         for (ASTParameter parameter : method.getParameters()) {
@@ -52,7 +55,7 @@ public class MethodSignature {
         return makeDescriptor(method.getReturnType(), method.getName(), paramTypes);
     }
 
-    private String makeDescriptor(ASTType returnType, String methodName, List<ASTType> params){
+    private static String makeDescriptor(ASTType returnType, String methodName, List<ASTType> params){
         return methodName + ':' + makeDescriptor(params, returnType);
     }
 
@@ -63,7 +66,7 @@ public class MethodSignature {
      * @param retType return type.
      * @return method descriptor
      */
-    private String makeDescriptor(List<ASTType> paramTypes, ASTType retType) {
+    private static String makeDescriptor(List<ASTType> paramTypes, ASTType retType) {
         StringBuilder builder = new StringBuilder();
         builder.append('(');
         for (ASTType paramType : paramTypes) {
@@ -75,14 +78,14 @@ public class MethodSignature {
         return builder.toString();
     }
 
-    private void makeTypeDescriptor(StringBuilder builder, ASTType type) {
+    private static void makeTypeDescriptor(StringBuilder builder, ASTType type) {
         if (type.isArray()) {
             builder.append('[');
         }
         makeTypeDesc(builder, type);
     }
 
-    private void makeTypeDesc(StringBuilder builder, ASTType type) {
+    private static void makeTypeDesc(StringBuilder builder, ASTType type) {
         if (type instanceof ASTPrimitiveType) {
             builder.append(type.getName());
         } else {
@@ -101,11 +104,12 @@ public class MethodSignature {
 
         MethodSignature that = (MethodSignature) o;
 
-        return new EqualsBuilder().append(methodSignature, that.methodSignature).isEquals();
+        //descriptors are interned, so equal descriptors are the same instance
+        return hashCode == that.hashCode && methodSignature.equals(that.methodSignature);
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(methodSignature).hashCode();
+        return hashCode;
     }
 }
@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.adapter.classes;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import org.androidtransfuse.adapter.*;
 
@@ -34,10 +35,12 @@ public class ASTClassConstructor implements ASTConstructor {
     private final ImmutableList<ASTParameter> parameters;
     private final ASTAccessModifier modifier;
     private final ImmutableList<ASTAnnotation> annotations;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
     private final ImmutableList<ASTType> throwsTypes;
 
     public ASTClassConstructor(ImmutableList<ASTAnnotation> annotations, Constructor<?> constructor, ImmutableList<ASTParameter> parameters, ASTAccessModifier modifier, ImmutableList<ASTType> throwsTypes) {
         this.annotations = annotations;
+        this.annotationIndex = ASTAnnotationIndex.lazy(annotations);
         this.constructor = constructor;
         this.parameters = parameters;
         this.modifier = modifier;
@@ -81,6 +84,6 @@ public class ASTClassConstructor implements ASTConstructor {
 
     @Override
     public ASTAnnotation getASTAnnotation(Class annotation) {
-        return ASTUtils.getInstance().getAnnotation(annotation, getAnnotations());
+        return annotationIndex.get().get(annotation);
     }
 }
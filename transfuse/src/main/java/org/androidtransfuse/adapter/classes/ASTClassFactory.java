@@ -15,32 +15,51 @@
  */
 package org.androidtransfuse.adapter.classes;
 
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.androidtransfuse.adapter.*;
+import org.androidtransfuse.adapter.descriptor.ASTDescriptorFactory;
+import org.androidtransfuse.adapter.descriptor.TypeDescriptor;
+import org.androidtransfuse.adapter.descriptor.TypeDescriptorSource;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
 import org.androidtransfuse.model.PackageClass;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
- * Factory building AST objects from the relevant class attributes
+ * Factory building AST objects from the relevant class attributes.  Types available from the configured
+ * TypeDescriptorSource, the platform type index or class files, are built from their descriptors instead of through
+ * reflection.
  *
  * @author John Ericksen
  */
 @Singleton
 public class ASTClassFactory {
 
-    private final Map<String, ASTType> typeCache = new HashMap<String, ASTType>();
+    private static final String ARRAY_SUFFIX = "[]";
+
+    private final ASTTypeCache<String> typeCache;
     private final ASTFactory astFactory;
+    private final ASTMaterializationStatistics statistics;
+    private final TypeDescriptorSource descriptorSource;
+    private final ASTDescriptorFactory descriptorFactory;
 
     @Inject
-    public ASTClassFactory(ASTFactory astFactory) {
+    public ASTClassFactory(ASTFactory astFactory,
+                           ASTMaterializationStatistics statistics,
+                           TypeDescriptorSource descriptorSource,
+                           ASTDescriptorFactory descriptorFactory,
+                           ASTCaches caches) {
+        this.typeCache = caches.buildTypeCache("class types");
         this.astFactory = astFactory;
+        this.statistics = statistics;
+        this.descriptorSource = descriptorSource;
+        this.descriptorFactory = descriptorFactory;
         //seed with primitives and void
         typeCache.put(ASTVoidType.VOID.getName(), ASTVoidType.VOID);
         for (ASTPrimitiveType primitive : ASTPrimitiveType.values()) {
@@ -58,12 +77,53 @@ public class ASTClassFactory {
         return getType(clazz, null);
     }
 
-    private synchronized ASTType getType(Class<?> clazz, Type genericType) {
-        if (!typeCache.containsKey(clazz.getName())) {
-            typeCache.put(clazz.getName(), buildType(clazz));
+    /**
+     * Build an ASTType from the given descriptor type name, preferring the TypeDescriptorSource over reflection.
+     *
+     * @param name binary or primitive name, followed by [] per array dimension
+     * @return ASTType representing the named type
+     */
+    public ASTType getType(final String name) {
+        if (name.endsWith(ARRAY_SUFFIX)) {
+            return new ASTArrayType(getType(name.substring(0, name.length() - ARRAY_SUFFIX.length())));
         }
+        return typeCache.get(name, new ASTTypeCache.Builder() {
+            @Override
+            public PackageClass getPackageClass() {
+                return ASTDescriptorFactory.getPackageClass(name);
+            }
+
+            @Override
+            public ASTType build() {
+                TypeDescriptor descriptor = descriptorSource.find(name);
+                if (descriptor != null) {
+                    return descriptorFactory.buildType(descriptor);
+                }
+                try {
+                    return buildType(Class.forName(name, false, ASTClassFactory.class.getClassLoader()));
+                } catch (ClassNotFoundException e) {
+                    throw new TransfuseAnalysisException("Unable to find class " + name, e);
+                }
+            }
+        });
+    }
 
-        ASTType astType = typeCache.get(clazz.getName());
+    private ASTType getType(final Class<?> clazz, Type genericType) {
+        ASTType astType = typeCache.get(clazz.getName(), new ASTTypeCache.Builder() {
+            @Override
+            public PackageClass getPackageClass() {
+                return new PackageClass(clazz);
+            }
+
+            @Override
+            public ASTType build() {
+                TypeDescriptor descriptor = descriptorSource.find(clazz.getName());
+                if (descriptor != null) {
+                    return descriptorFactory.buildType(descriptor);
+                }
+                return buildType(clazz);
+            }
+        });
 
         if (genericType instanceof ParameterizedType) {
             //wrap with a parametrized type
@@ -73,11 +133,7 @@ public class ASTClassFactory {
         return astType;
     }
 
-    private ASTType buildType(Class<?> clazz) {
-        ImmutableList.Builder<ASTConstructor> constructorBuilder = ImmutableList.builder();
-        ImmutableList.Builder<ASTMethod> methodBuilder = ImmutableList.builder();
-        ImmutableList.Builder<ASTField> fieldBuilder = ImmutableList.builder();
-
+    private ASTType buildType(final Class<?> clazz) {
         ASTType superClass = null;
         if (clazz.getSuperclass() != null) {
             superClass = getType(clazz.getSuperclass(), clazz.getGenericSuperclass());
@@ -85,14 +141,8 @@ public class ASTClassFactory {
 
         ImmutableSet.Builder<ASTType> interfaceBuilder = ImmutableSet.builder();
 
-        ImmutableSet.Builder<ASTAnnotation> annotationBuilder = ImmutableSet.builder();
-
         PackageClass packageClass = new PackageClass(clazz);
 
-        ASTTypeVirtualProxy astClassTypeProxy = new ASTTypeVirtualProxy(packageClass);
-
-        typeCache.put(clazz.getName(), astClassTypeProxy);
-
         Class<?>[] classInterfaces = clazz.getInterfaces();
         Type[] classGenericInterfaces = clazz.getGenericInterfaces();
 
@@ -100,33 +150,48 @@ public class ASTClassFactory {
             interfaceBuilder.add(getType(classInterfaces[i], classGenericInterfaces[i]));
         }
 
-        //fill in the guts after building the class tree
-        //building after the class types have been defined avoids an infinite loop between
-        //defining classes and their attributes
-        for (Constructor constructor : clazz.getDeclaredConstructors()) {
-            constructorBuilder.add(getConstructor(constructor));
-        }
-
-        for (Method method : clazz.getDeclaredMethods()) {
-            methodBuilder.add(getMethod(method));
-        }
-
-        for (Field field : clazz.getDeclaredFields()) {
-            fieldBuilder.add(getField(field));
-        }
-
-        annotationBuilder.addAll(getAnnotations(clazz));
-
-        ASTType astType = new ASTClassType(clazz, packageClass, annotationBuilder.build(),
-                constructorBuilder.build(),
-                methodBuilder.build(),
-                fieldBuilder.build(),
+        statistics.typeBuilt();
+
+        //the guts are filled in through reflection on first access
+        return new ASTClassType(clazz, packageClass,
+                statistics.lazy(ASTMaterializationStatistics.Member.ANNOTATIONS, new Supplier<ImmutableCollection<ASTAnnotation>>() {
+                    @Override
+                    public ImmutableCollection<ASTAnnotation> get() {
+                        return ImmutableSet.copyOf(getAnnotations(clazz));
+                    }
+                }),
+                statistics.lazy(ASTMaterializationStatistics.Member.CONSTRUCTORS, new Supplier<ImmutableCollection<ASTConstructor>>() {
+                    @Override
+                    public ImmutableCollection<ASTConstructor> get() {
+                        ImmutableList.Builder<ASTConstructor> constructorBuilder = ImmutableList.builder();
+                        for (Constructor constructor : clazz.getDeclaredConstructors()) {
+                            constructorBuilder.add(getConstructor(constructor));
+                        }
+                        return constructorBuilder.build();
+                    }
+                }),
+                statistics.lazy(ASTMaterializationStatistics.Member.METHODS, new Supplier<ImmutableCollection<ASTMethod>>() {
+                    @Override
+                    public ImmutableCollection<ASTMethod> get() {
+                        ImmutableList.Builder<ASTMethod> methodBuilder = ImmutableList.builder();
+                        for (Method method : clazz.getDeclaredMethods()) {
+                            methodBuilder.add(getMethod(method));
+                        }
+                        return methodBuilder.build();
+                    }
+                }),
+                statistics.lazy(ASTMaterializationStatistics.Member.FIELDS, new Supplier<ImmutableCollection<ASTField>>() {
+                    @Override
+                    public ImmutableCollection<ASTField> get() {
+                        ImmutableList.Builder<ASTField> fieldBuilder = ImmutableList.builder();
+                        for (Field field : clazz.getDeclaredFields()) {
+                            fieldBuilder.add(getField(field));
+                        }
+                        return fieldBuilder.build();
+                    }
+                }),
                 superClass,
                 interfaceBuilder.build());
-
-        astClassTypeProxy.load(astType);
-
-        return astType;
     }
 
 
@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.adapter.classes;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableCollection;
 import org.androidtransfuse.adapter.*;
 import org.androidtransfuse.analysis.TransfuseAnalysisException;
@@ -37,12 +38,14 @@ public class ASTClassField implements ASTField {
     private final ASTType astType;
     private final ASTAccessModifier modifier;
     private final ImmutableCollection<ASTAnnotation> annotations;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
 
     public ASTClassField(Field field, ASTType astType, ASTAccessModifier modifier, ImmutableCollection<ASTAnnotation> annotations) {
         this.field = field;
         this.astType = astType;
         this.modifier = modifier;
         this.annotations = annotations;
+        this.annotationIndex = ASTAnnotationIndex.lazy(annotations);
     }
 
     @Override
@@ -76,7 +79,7 @@ public class ASTClassField implements ASTField {
 
     @Override
     public ASTAnnotation getASTAnnotation(Class annotation) {
-        return ASTUtils.getInstance().getAnnotation(annotation, getAnnotations());
+        return annotationIndex.get().get(annotation);
     }
 
     @Override
@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.adapter.classes;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import org.androidtransfuse.adapter.*;
@@ -36,6 +37,7 @@ public class ASTClassMethod implements ASTMethod {
     private final ASTType returnType;
     private final ASTAccessModifier modifier;
     private final ImmutableCollection<ASTAnnotation> annotations;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
     private final ImmutableList<ASTType> throwTypes;
 
     public ASTClassMethod(Method method,
@@ -49,6 +51,7 @@ public class ASTClassMethod implements ASTMethod {
         this.returnType = returnType;
         this.modifier = modifier;
         this.annotations = annotations;
+        this.annotationIndex = ASTAnnotationIndex.lazy(annotations);
         this.throwTypes = throwTypes;
     }
 
@@ -93,6 +96,6 @@ public class ASTClassMethod implements ASTMethod {
 
     @Override
     public ASTAnnotation getASTAnnotation(Class annotation) {
-        return ASTUtils.getInstance().getAnnotation(annotation, getAnnotations());
+        return annotationIndex.get().get(annotation);
     }
 }
@@ -15,12 +15,13 @@
  */
 package org.androidtransfuse.adapter.classes;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableMap;
 import org.androidtransfuse.adapter.ASTAnnotation;
+import org.androidtransfuse.adapter.ASTAnnotationIndex;
 import org.androidtransfuse.adapter.ASTParameter;
 import org.androidtransfuse.adapter.ASTType;
-import org.androidtransfuse.adapter.ASTUtils;
 
 import java.lang.annotation.Annotation;
 import java.util.Collection;
@@ -35,9 +36,11 @@ public class ASTClassParameter implements ASTParameter {
     private final ASTType astType;
     private final ImmutableMap<Class<?>, Annotation> annotationMap;
     private final ImmutableCollection<ASTAnnotation> annotations;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
 
     public ASTClassParameter(Annotation[] annotations, ASTType astType, ImmutableCollection<ASTAnnotation> astAnnotations) {
         this.annotations = astAnnotations;
+        this.annotationIndex = ASTAnnotationIndex.lazy(astAnnotations);
         this.astType = astType;
 
         ImmutableMap.Builder<Class<?>, Annotation> classAnnotationBuilder = ImmutableMap.builder();
@@ -73,6 +76,6 @@ public class ASTClassParameter implements ASTParameter {
 
     @Override
     public ASTAnnotation getASTAnnotation(Class annotation) {
-        return ASTUtils.getInstance().getAnnotation(annotation, getAnnotations());
+        return annotationIndex.get().get(annotation);
     }
 }
@@ -15,11 +15,11 @@
  */
 package org.androidtransfuse.adapter.classes;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableCollection;
 import org.androidtransfuse.adapter.*;
 import org.androidtransfuse.model.PackageClass;
-import org.apache.commons.lang.builder.EqualsBuilder;
-import org.apache.commons.lang.builder.HashCodeBuilder;
 
 import java.lang.annotation.Annotation;
 import java.util.Collection;
@@ -27,7 +27,7 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Class specific AST Type
+ * Class specific AST Type.  Members and annotations are supplied lazily, built through reflection on first access.
  *
  * @author John Ericksen
  */
@@ -35,24 +35,36 @@ public class ASTClassType implements ASTType {
 
     private final Class<?> clazz;
     private final PackageClass packageClass;
-    private final ImmutableCollection<ASTAnnotation> annotationList;
-    private final ImmutableCollection<ASTMethod> methods;
-    private final ImmutableCollection<ASTConstructor> constructors;
-    private final ImmutableCollection<ASTField> fields;
+    private final String name;
+    private final int hashCode;
+    private final Supplier<ImmutableCollection<ASTAnnotation>> annotationList;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
+    private final Supplier<ImmutableCollection<ASTMethod>> methods;
+    private final Supplier<ImmutableCollection<ASTConstructor>> constructors;
+    private final Supplier<ImmutableCollection<ASTField>> fields;
     private final ASTType superClass;
     private final ImmutableCollection<ASTType> interfaces;
+    private final Supplier<ASTSupertypes> supertypes = Suppliers.memoize(new Supplier<ASTSupertypes>() {
+        @Override
+        public ASTSupertypes get() {
+            return ASTSupertypes.build(ASTClassType.this);
+        }
+    });
 
     public ASTClassType(Class<?> clazz,
                         PackageClass packageClass,
-                        ImmutableCollection<ASTAnnotation> annotationList,
-                        ImmutableCollection<ASTConstructor> constructors,
-                        ImmutableCollection<ASTMethod> methods,
-                        ImmutableCollection<ASTField> fields,
+                        Supplier<ImmutableCollection<ASTAnnotation>> annotationList,
+                        Supplier<ImmutableCollection<ASTConstructor>> constructors,
+                        Supplier<ImmutableCollection<ASTMethod>> methods,
+                        Supplier<ImmutableCollection<ASTField>> fields,
                         ASTType superClass,
                         ImmutableCollection<ASTType> interfaces) {
         this.clazz = clazz;
         this.packageClass = packageClass;
+        this.name = ASTUtils.getInstance().intern(packageClass.getCanonicalName());
+        this.hashCode = ASTUtils.getInstance().hashName(name);
         this.annotationList = annotationList;
+        this.annotationIndex = ASTAnnotationIndex.lazy(annotationList);
         this.constructors = constructors;
         this.methods = methods;
         this.fields = fields;
@@ -72,22 +84,22 @@ public class ASTClassType implements ASTType {
 
     @Override
     public Collection<ASTMethod> getMethods() {
-        return methods;
+        return methods.get();
     }
 
     @Override
     public Collection<ASTField> getFields() {
-        return fields;
+        return fields.get();
     }
 
     @Override
     public Collection<ASTConstructor> getConstructors() {
-        return constructors;
+        return constructors.get();
     }
 
     @Override
     public String getName() {
-        return packageClass.getCanonicalName();
+        return name;
     }
 
     @Override
@@ -97,7 +109,7 @@ public class ASTClassType implements ASTType {
 
     @Override
     public Collection<ASTAnnotation> getAnnotations() {
-        return annotationList;
+        return annotationList.get();
     }
 
     @Override
@@ -129,14 +141,13 @@ public class ASTClassType implements ASTType {
             return false;
         }
 
-        ASTType that = (ASTType) o;
-
-        return new EqualsBuilder().append(getName(), that.getName()).isEquals();
+        //names are interned, so equal names are usually the same instance
+        return name.equals(((ASTType) o).getName());
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(getName()).hashCode();
+        return hashCode;
     }
 
     @Override
@@ -146,22 +157,22 @@ public class ASTClassType implements ASTType {
 
     @Override
     public boolean inheritsFrom(ASTType type) {
-        return ASTUtils.getInstance().inherits(this, type, true, true);
+        return supertypes.get().contains(type, true, true);
     }
 
     @Override
     public boolean extendsFrom(ASTType type) {
-        return ASTUtils.getInstance().inherits(this, type, false, true);
+        return supertypes.get().contains(type, false, true);
     }
 
     @Override
     public boolean implementsFrom(ASTType type) {
-        return ASTUtils.getInstance().inherits(this, type, true, false);
+        return supertypes.get().contains(type, true, false);
     }
 
     @Override
     public ASTAnnotation getASTAnnotation(Class annotation) {
-        return ASTUtils.getInstance().getAnnotation(annotation, getAnnotations());
+        return annotationIndex.get().get(annotation);
     }
 
     @Override
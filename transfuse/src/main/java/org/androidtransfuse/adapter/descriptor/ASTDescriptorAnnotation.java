@@ -0,0 +1,210 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.collect.ImmutableList;
+import org.androidtransfuse.adapter.ASTAnnotation;
+import org.androidtransfuse.adapter.ASTAnnotationIndex;
+import org.androidtransfuse.adapter.ASTMethod;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Descriptor specific AST Annotation.  Values are converted from their descriptor representation on access, and
+ * annotation instances are synthesized as proxies of the annotation interface.
+ *
+ * @author John Ericksen
+ */
+public class ASTDescriptorAnnotation implements ASTAnnotation {
+
+    private final AnnotationDescriptor descriptor;
+    private final ASTType type;
+    private final ASTDescriptorFactory descriptorFactory;
+
+    public ASTDescriptorAnnotation(AnnotationDescriptor descriptor, ASTType type, ASTDescriptorFactory descriptorFactory) {
+        this.descriptor = descriptor;
+        this.type = type;
+        this.descriptorFactory = descriptorFactory;
+    }
+
+    @Override
+    public Collection<String> getPropertyNames() {
+        List<String> names = new ArrayList<String>();
+        for (ASTMethod method : type.getMethods()) {
+            names.add(method.getName());
+        }
+        return names;
+    }
+
+    @Override
+    public <T> T getProperty(String name, Class<T> type) {
+        Object value = descriptor.getValues().get(name);
+        if (value == null) {
+            value = descriptorFactory.getDefaultValue(descriptor.getTypeName(), name);
+        }
+        if (value == null) {
+            throw new TransfuseAnalysisException("Annotation method not present: " + name);
+        }
+        return (T) convert(value, type);
+    }
+
+    @Override
+    public ASTType getASTType() {
+        return type;
+    }
+
+    /**
+     * Synthesizes an instance of the given annotation type backed by this descriptor.
+     *
+     * @param annotationClass annotation type
+     * @param <A>             annotation type
+     * @return annotation instance
+     */
+    public <A extends Annotation> A getInstance(Class<A> annotationClass) {
+        return annotationClass.cast(Proxy.newProxyInstance(annotationClass.getClassLoader(),
+                new Class[]{annotationClass},
+                new AnnotationInvocationHandler(annotationClass)));
+    }
+
+    /**
+     * Looks up the given annotation in the index and synthesizes an instance of it.
+     *
+     * @param annotationIndex index of descriptor annotations
+     * @param annotationClass annotation type
+     * @param <A>             annotation type
+     * @return annotation instance, or null if not annotated
+     */
+    public static <A extends Annotation> A getInstance(ASTAnnotationIndex annotationIndex, Class<A> annotationClass) {
+        ASTAnnotation astAnnotation = annotationIndex.get(annotationClass);
+        if (astAnnotation instanceof ASTDescriptorAnnotation) {
+            return ((ASTDescriptorAnnotation) astAnnotation).getInstance(annotationClass);
+        }
+        return null;
+    }
+
+    private Object convert(Object value, Class<?> type) {
+        if (value instanceof ClassReference) {
+            String typeName = ((ClassReference) value).getTypeName();
+            if (type.equals(ASTType.class)) {
+                return descriptorFactory.getType(typeName);
+            }
+            checkType(type, Class.class);
+            return descriptorFactory.loadClass(typeName);
+        }
+        if (value instanceof EnumReference) {
+            EnumReference enumReference = (EnumReference) value;
+            Class enumClass = descriptorFactory.loadClass(enumReference.getTypeName());
+            checkType(type, enumClass);
+            return Enum.valueOf(enumClass, enumReference.getConstantName());
+        }
+        if (value instanceof AnnotationDescriptor) {
+            AnnotationDescriptor annotationDescriptor = (AnnotationDescriptor) value;
+            ASTDescriptorAnnotation annotation = new ASTDescriptorAnnotation(annotationDescriptor,
+                    descriptorFactory.getType(annotationDescriptor.getTypeName()), descriptorFactory);
+            if (type.equals(ASTAnnotation.class)) {
+                return annotation;
+            }
+            return annotation.getInstance(type.asSubclass(Annotation.class));
+        }
+        if (value instanceof ImmutableList) {
+            if (!type.isArray()) {
+                throw new TransfuseAnalysisException("Type not expected: " + type);
+            }
+            List<?> values = (List<?>) value;
+            Object array = Array.newInstance(type.getComponentType(), values.size());
+            for (int i = 0; i < values.size(); i++) {
+                Array.set(array, i, convert(values.get(i), type.getComponentType()));
+            }
+            return array;
+        }
+        return value;
+    }
+
+    private void checkType(Class<?> expected, Class<?> actual) {
+        if (!expected.isAssignableFrom(actual)) {
+            throw new TransfuseAnalysisException("Type not expected: " + expected);
+        }
+    }
+
+    private final class AnnotationInvocationHandler implements InvocationHandler {
+
+        private final Class<? extends Annotation> annotationClass;
+
+        private AnnotationInvocationHandler(Class<? extends Annotation> annotationClass) {
+            this.annotationClass = annotationClass;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("annotationType") && method.getParameterTypes().length == 0) {
+                return annotationClass;
+            }
+            if (name.equals("equals") && method.getParameterTypes().length == 1) {
+                return annotationEquals(proxy, args[0]);
+            }
+            if (name.equals("hashCode") && method.getParameterTypes().length == 0) {
+                return annotationHashCode(proxy);
+            }
+            if (name.equals("toString") && method.getParameterTypes().length == 0) {
+                return ASTDescriptorAnnotation.this.toString();
+            }
+            return getProperty(name, method.getReturnType());
+        }
+
+        private boolean annotationEquals(Object proxy, Object other) throws Exception {
+            if (proxy == other) {
+                return true;
+            }
+            if (!annotationClass.isInstance(other)) {
+                return false;
+            }
+            for (Method property : annotationClass.getDeclaredMethods()) {
+                if (!Arrays.deepEquals(new Object[]{property.invoke(proxy)}, new Object[]{property.invoke(other)})) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Hash as defined by <code>java.lang.annotation.Annotation.hashCode()</code>.
+         */
+        private int annotationHashCode(Object proxy) throws Exception {
+            int hashCode = 0;
+            for (Method property : annotationClass.getDeclaredMethods()) {
+                int valueHash = Arrays.deepHashCode(new Object[]{property.invoke(proxy)}) - 31;
+                hashCode += (127 * property.getName().hashCode()) ^ valueHash;
+            }
+            return hashCode;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return descriptor.toString();
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import org.androidtransfuse.adapter.*;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Descriptor specific AST Constructor
+ *
+ * @author John Ericksen
+ */
+public class ASTDescriptorConstructor implements ASTConstructor {
+
+    private final String name;
+    private final ImmutableList<ASTParameter> parameters;
+    private final ASTAccessModifier modifier;
+    private final ImmutableList<ASTAnnotation> annotations;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
+    private final ImmutableList<ASTType> throwsTypes;
+
+    public ASTDescriptorConstructor(ImmutableList<ASTAnnotation> annotations, String name, ImmutableList<ASTParameter> parameters, ASTAccessModifier modifier, ImmutableList<ASTType> throwsTypes) {
+        this.annotations = annotations;
+        this.annotationIndex = ASTAnnotationIndex.lazy(annotations);
+        this.name = name;
+        this.parameters = parameters;
+        this.modifier = modifier;
+        this.throwsTypes = throwsTypes;
+    }
+
+    @Override
+    public boolean isAnnotated(Class<? extends Annotation> annotation) {
+        return annotationIndex.get().contains(annotation);
+    }
+
+    @Override
+    public <A extends Annotation> A getAnnotation(Class<A> annotation) {
+        return ASTDescriptorAnnotation.getInstance(annotationIndex.get(), annotation);
+    }
+
+    @Override
+    public List<ASTParameter> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return binary name of the declaring type, matching <code>Constructor.getName()</code>
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Collection<ASTAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    @Override
+    public ASTAccessModifier getAccessModifier() {
+        return modifier;
+    }
+
+    @Override
+    public List<ASTType> getThrowsTypes() {
+        return throwsTypes;
+    }
+
+    @Override
+    public ASTAnnotation getASTAnnotation(Class annotation) {
+        return annotationIndex.get().get(annotation);
+    }
+}
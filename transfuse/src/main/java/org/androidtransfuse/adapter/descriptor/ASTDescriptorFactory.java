@@ -0,0 +1,306 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.androidtransfuse.adapter.*;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+import org.androidtransfuse.model.PackageClass;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Factory building AST objects from TypeDescriptors.  Referenced types are resolved by name through the
+ * ASTClassFactory, so descriptor and reflection backed types share a single type cache.  Generic supertypes and member
+ * types are wrapped with the type arguments of their signatures, as the reflection backed types are.
+ *
+ * @author John Ericksen
+ */
+@Singleton
+public class ASTDescriptorFactory {
+
+    private static final String ARRAY_SUFFIX = "[]";
+    private static final ImmutableMap<String, Class<?>> PRIMITIVES = ImmutableMap.<String, Class<?>>builder()
+            .put("boolean", boolean.class)
+            .put("byte", byte.class)
+            .put("char", char.class)
+            .put("short", short.class)
+            .put("int", int.class)
+            .put("long", long.class)
+            .put("float", float.class)
+            .put("double", double.class)
+            .put("void", void.class)
+            .build();
+
+    private final Provider<ASTClassFactory> astClassFactoryProvider;
+    private final TypeDescriptorSource descriptorSource;
+    private final ASTMaterializationStatistics statistics;
+    private final ASTFactory astFactory;
+    private final ReflectionDescriptorReader reflectionReader = new ReflectionDescriptorReader();
+    private final ConcurrentMap<String, Boolean> availableTypes = new ConcurrentHashMap<String, Boolean>();
+
+    @Inject
+    public ASTDescriptorFactory(Provider<ASTClassFactory> astClassFactoryProvider,
+                                TypeDescriptorSource descriptorSource,
+                                ASTMaterializationStatistics statistics,
+                                ASTFactory astFactory) {
+        this.astClassFactoryProvider = astClassFactoryProvider;
+        this.descriptorSource = descriptorSource;
+        this.statistics = statistics;
+        this.astFactory = astFactory;
+    }
+
+    /**
+     * Builds the PackageClass of the given binary name.
+     *
+     * @param binaryName binary class name
+     * @return package class
+     */
+    public static PackageClass getPackageClass(String binaryName) {
+        int packageEnd = binaryName.lastIndexOf('.');
+        if (packageEnd < 0) {
+            return new PackageClass(null, binaryName.replace('$', '.'));
+        }
+        return new PackageClass(binaryName.substring(0, packageEnd), binaryName.substring(packageEnd + 1).replace('$', '.'));
+    }
+
+    /**
+     * Resolves the given descriptor type name through the ASTClassFactory.
+     *
+     * @param typeName descriptor type name
+     * @return ASTType
+     */
+    public ASTType getType(String typeName) {
+        return astClassFactoryProvider.get().getType(typeName);
+    }
+
+    /**
+     * Builds an ASTType from the given descriptor.  The supertypes are resolved immediately, members and annotations
+     * on first access.
+     *
+     * @param descriptor type descriptor
+     * @return ASTType
+     */
+    public ASTType buildType(final TypeDescriptor descriptor) {
+        SignatureParser.ClassSignature signature = null;
+        if (descriptor.getSignature() != null) {
+            signature = SignatureParser.parseClass(descriptor.getSignature());
+        }
+
+        ASTType superClass = null;
+        if (descriptor.getSuperClassName() != null) {
+            superClass = getType(descriptor.getSuperClassName(), signature == null ? null : signature.getSuperClass());
+        }
+
+        ImmutableSet.Builder<ASTType> interfaceBuilder = ImmutableSet.builder();
+        for (int i = 0; i < descriptor.getInterfaceNames().size(); i++) {
+            interfaceBuilder.add(getType(descriptor.getInterfaceNames().get(i),
+                    signature == null ? null : nullSafeAccess(signature.getInterfaces(), i)));
+        }
+
+        statistics.typeBuilt();
+
+        return new ASTDescriptorType(descriptor, getPackageClass(descriptor.getName()),
+                statistics.lazy(ASTMaterializationStatistics.Member.ANNOTATIONS, new Supplier<ImmutableCollection<ASTAnnotation>>() {
+                    @Override
+                    public ImmutableCollection<ASTAnnotation> get() {
+                        return ImmutableSet.copyOf(getAnnotations(descriptor.getAnnotations()));
+                    }
+                }),
+                statistics.lazy(ASTMaterializationStatistics.Member.CONSTRUCTORS, new Supplier<ImmutableCollection<ASTConstructor>>() {
+                    @Override
+                    public ImmutableCollection<ASTConstructor> get() {
+                        ImmutableList.Builder<ASTConstructor> constructorBuilder = ImmutableList.builder();
+                        for (MethodDescriptor method : descriptor.getMethods()) {
+                            if (method.isConstructor()) {
+                                constructorBuilder.add(getConstructor(descriptor.getName(), method));
+                            }
+                        }
+                        return constructorBuilder.build();
+                    }
+                }),
+                statistics.lazy(ASTMaterializationStatistics.Member.METHODS, new Supplier<ImmutableCollection<ASTMethod>>() {
+                    @Override
+                    public ImmutableCollection<ASTMethod> get() {
+                        ImmutableList.Builder<ASTMethod> methodBuilder = ImmutableList.builder();
+                        for (MethodDescriptor method : descriptor.getMethods()) {
+                            if (!method.isConstructor() && !method.getName().equals(MethodDescriptor.STATIC_INITIALIZER_NAME)) {
+                                methodBuilder.add(getMethod(method));
+                            }
+                        }
+                        return methodBuilder.build();
+                    }
+                }),
+                statistics.lazy(ASTMaterializationStatistics.Member.FIELDS, new Supplier<ImmutableCollection<ASTField>>() {
+                    @Override
+                    public ImmutableCollection<ASTField> get() {
+                        ImmutableList.Builder<ASTField> fieldBuilder = ImmutableList.builder();
+                        for (FieldDescriptor field : descriptor.getFields()) {
+                            fieldBuilder.add(getField(field));
+                        }
+                        return fieldBuilder.build();
+                    }
+                }),
+                superClass,
+                interfaceBuilder.build());
+    }
+
+    /**
+     * Wraps the named type with the type arguments of the given signature, if parameterized.
+     */
+    private ASTType getType(String typeName, SignatureParser.TypeSignature signature) {
+        ASTType type = getType(typeName);
+        if (signature != null && signature.getTypeArguments() != null) {
+            type = astFactory.buildGenericTypeWrapper(type, new LazyDescriptorParameterBuilder(signature.getTypeArguments(), this));
+        }
+        return type;
+    }
+
+    private <T> T nullSafeAccess(List<T> values, int i) {
+        if (values.size() > i) {
+            return values.get(i);
+        }
+        return null;
+    }
+
+    private SignatureParser.MethodSignature getSignature(MethodDescriptor method) {
+        if (method.getSignature() == null) {
+            return null;
+        }
+        return SignatureParser.parseMethod(method.getSignature());
+    }
+
+    private ASTMethod getMethod(MethodDescriptor method) {
+        SignatureParser.MethodSignature signature = getSignature(method);
+        return new ASTDescriptorMethod(method.getName(),
+                getType(method.getReturnTypeName(), signature == null ? null : signature.getReturnType()),
+                getParameters(method, signature),
+                ASTAccessModifier.getModifier(method.getModifiers()),
+                getAnnotations(method.getAnnotations()),
+                getTypes(method.getExceptionTypeNames()));
+    }
+
+    private ASTConstructor getConstructor(String typeName, MethodDescriptor constructor) {
+        return new ASTDescriptorConstructor(getAnnotations(constructor.getAnnotations()),
+                typeName,
+                getParameters(constructor, getSignature(constructor)),
+                ASTAccessModifier.getModifier(constructor.getModifiers()),
+                getTypes(constructor.getExceptionTypeNames()));
+    }
+
+    private ASTField getField(FieldDescriptor field) {
+        return new ASTDescriptorField(field.getName(),
+                getType(field.getTypeName(), field.getSignature() == null ? null : SignatureParser.parseField(field.getSignature())),
+                ASTAccessModifier.getModifier(field.getModifiers()),
+                getAnnotations(field.getAnnotations()),
+                field.getConstantValue());
+    }
+
+    /**
+     * Signatures omit synthetic parameters, the generic parameter types are matched by position as reflection does.
+     */
+    private ImmutableList<ASTParameter> getParameters(MethodDescriptor method, SignatureParser.MethodSignature signature) {
+        ImmutableList.Builder<ASTParameter> parameterBuilder = ImmutableList.builder();
+        for (int i = 0; i < method.getParameterTypeNames().size(); i++) {
+            parameterBuilder.add(new ASTDescriptorParameter(
+                    getType(method.getParameterTypeNames().get(i), signature == null ? null : nullSafeAccess(signature.getParameters(), i)),
+                    getAnnotations(method.getParameterAnnotations().get(i))));
+        }
+        return parameterBuilder.build();
+    }
+
+    private ImmutableList<ASTType> getTypes(List<String> typeNames) {
+        ImmutableList.Builder<ASTType> typesBuilder = ImmutableList.builder();
+        for (String typeName : typeNames) {
+            typesBuilder.add(getType(typeName));
+        }
+        return typesBuilder.build();
+    }
+
+    private ImmutableList<ASTAnnotation> getAnnotations(List<AnnotationDescriptor> annotations) {
+        ImmutableList.Builder<ASTAnnotation> annotationBuilder = ImmutableList.builder();
+        for (AnnotationDescriptor annotation : annotations) {
+            if (isAvailable(annotation.getTypeName())) {
+                annotationBuilder.add(new ASTDescriptorAnnotation(annotation, getType(annotation.getTypeName()), this));
+            }
+        }
+        return annotationBuilder.build();
+    }
+
+    /**
+     * Class retention annotations may reference types absent from the classpath, these annotations are omitted.
+     */
+    private boolean isAvailable(String typeName) {
+        Boolean available = availableTypes.get(typeName);
+        if (available == null) {
+            available = ASTDescriptorFactory.class.getClassLoader().getResource(typeName.replace('.', '/') + ".class") != null
+                    || descriptorSource.find(typeName) != null;
+            availableTypes.put(typeName, available);
+        }
+        return available;
+    }
+
+    /**
+     * Looks up the default value of the given annotation property.
+     *
+     * @param annotationTypeName binary name of the annotation type
+     * @param propertyName       property
+     * @return default value in its descriptor representation, or null if none
+     */
+    public Object getDefaultValue(String annotationTypeName, String propertyName) {
+        TypeDescriptor annotationType = descriptorSource.find(annotationTypeName);
+        if (annotationType == null) {
+            annotationType = reflectionReader.read(loadClass(annotationTypeName));
+        }
+        for (MethodDescriptor method : annotationType.getMethods()) {
+            if (method.getName().equals(propertyName) && method.getParameterTypeNames().isEmpty()) {
+                return method.getDefaultValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads the class of the given descriptor type name.
+     *
+     * @param typeName descriptor type name
+     * @return class
+     */
+    public Class<?> loadClass(String typeName) {
+        if (typeName.endsWith(ARRAY_SUFFIX)) {
+            return Array.newInstance(loadClass(typeName.substring(0, typeName.length() - ARRAY_SUFFIX.length())), 0).getClass();
+        }
+        if (PRIMITIVES.containsKey(typeName)) {
+            return PRIMITIVES.get(typeName);
+        }
+        try {
+            return Class.forName(typeName, false, ASTDescriptorFactory.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new TransfuseAnalysisException("Unable to load class " + typeName, e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableCollection;
+import org.androidtransfuse.adapter.*;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+
+/**
+ * Descriptor specific AST Field
+ *
+ * @author John Ericksen
+ */
+public class ASTDescriptorField implements ASTField {
+
+    private final String name;
+    private final ASTType astType;
+    private final ASTAccessModifier modifier;
+    private final ImmutableCollection<ASTAnnotation> annotations;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
+    private final Object constantValue;
+
+    public ASTDescriptorField(String name, ASTType astType, ASTAccessModifier modifier, ImmutableCollection<ASTAnnotation> annotations, Object constantValue) {
+        this.name = name;
+        this.astType = astType;
+        this.modifier = modifier;
+        this.annotations = annotations;
+        this.annotationIndex = ASTAnnotationIndex.lazy(annotations);
+        this.constantValue = constantValue;
+    }
+
+    @Override
+    public ASTType getASTType() {
+        return astType;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isAnnotated(Class<? extends Annotation> annotation) {
+        return annotationIndex.get().contains(annotation);
+    }
+
+    @Override
+    public <A extends Annotation> A getAnnotation(Class<A> annotation) {
+        return ASTDescriptorAnnotation.getInstance(annotationIndex.get(), annotation);
+    }
+
+    @Override
+    public Collection<ASTAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    public ASTAccessModifier getAccessModifier() {
+        return modifier;
+    }
+
+    @Override
+    public ASTAnnotation getASTAnnotation(Class annotation) {
+        return annotationIndex.get().get(annotation);
+    }
+
+    @Override
+    public Object getConstantValue() {
+        return constantValue;
+    }
+}
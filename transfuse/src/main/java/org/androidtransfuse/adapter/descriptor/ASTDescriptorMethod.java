@@ -0,0 +1,100 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
+import org.androidtransfuse.adapter.*;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Descriptor specific AST Method
+ *
+ * @author John Ericksen
+ */
+public class ASTDescriptorMethod implements ASTMethod {
+
+    private final String name;
+    private final ImmutableList<ASTParameter> parameters;
+    private final ASTType returnType;
+    private final ASTAccessModifier modifier;
+    private final ImmutableCollection<ASTAnnotation> annotations;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
+    private final ImmutableList<ASTType> throwTypes;
+
+    public ASTDescriptorMethod(String name,
+                               ASTType returnType,
+                               ImmutableList<ASTParameter> parameters,
+                               ASTAccessModifier modifier,
+                               ImmutableCollection<ASTAnnotation> annotations,
+                               ImmutableList<ASTType> throwTypes) {
+        this.name = name;
+        this.parameters = parameters;
+        this.returnType = returnType;
+        this.modifier = modifier;
+        this.annotations = annotations;
+        this.annotationIndex = ASTAnnotationIndex.lazy(annotations);
+        this.throwTypes = throwTypes;
+    }
+
+    @Override
+    public <A extends Annotation> A getAnnotation(Class<A> annotation) {
+        return ASTDescriptorAnnotation.getInstance(annotationIndex.get(), annotation);
+    }
+
+    @Override
+    public boolean isAnnotated(Class<? extends Annotation> annotation) {
+        return annotationIndex.get().contains(annotation);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public List<ASTParameter> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public ASTType getReturnType() {
+        return returnType;
+    }
+
+    @Override
+    public Collection<ASTAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    public ASTAccessModifier getAccessModifier() {
+        return modifier;
+    }
+
+    @Override
+    public List<ASTType> getThrowsTypes() {
+        return throwTypes;
+    }
+
+    @Override
+    public ASTAnnotation getASTAnnotation(Class annotation) {
+        return annotationIndex.get().get(annotation);
+    }
+}
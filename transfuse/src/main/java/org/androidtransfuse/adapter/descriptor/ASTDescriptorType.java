@@ -0,0 +1,190 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableCollection;
+import org.androidtransfuse.adapter.*;
+import org.androidtransfuse.model.PackageClass;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Descriptor specific AST Type.  Members and annotations are supplied lazily, decoded from the TypeDescriptor on first
+ * access.
+ *
+ * @author John Ericksen
+ */
+public class ASTDescriptorType implements ASTType {
+
+    private static final int SYNTHETIC = 0x1000;
+
+    private final TypeDescriptor descriptor;
+    private final PackageClass packageClass;
+    private final String name;
+    private final int hashCode;
+    private final Supplier<ImmutableCollection<ASTAnnotation>> annotationList;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
+    private final Supplier<ImmutableCollection<ASTMethod>> methods;
+    private final Supplier<ImmutableCollection<ASTConstructor>> constructors;
+    private final Supplier<ImmutableCollection<ASTField>> fields;
+    private final ASTType superClass;
+    private final ImmutableCollection<ASTType> interfaces;
+    private final Supplier<ASTSupertypes> supertypes = Suppliers.memoize(new Supplier<ASTSupertypes>() {
+        @Override
+        public ASTSupertypes get() {
+            return ASTSupertypes.build(ASTDescriptorType.this);
+        }
+    });
+
+    public ASTDescriptorType(TypeDescriptor descriptor,
+                             PackageClass packageClass,
+                             Supplier<ImmutableCollection<ASTAnnotation>> annotationList,
+                             Supplier<ImmutableCollection<ASTConstructor>> constructors,
+                             Supplier<ImmutableCollection<ASTMethod>> methods,
+                             Supplier<ImmutableCollection<ASTField>> fields,
+                             ASTType superClass,
+                             ImmutableCollection<ASTType> interfaces) {
+        this.descriptor = descriptor;
+        this.packageClass = packageClass;
+        this.name = ASTUtils.getInstance().intern(packageClass.getCanonicalName());
+        this.hashCode = ASTUtils.getInstance().hashName(name);
+        this.annotationList = annotationList;
+        this.annotationIndex = ASTAnnotationIndex.lazy(annotationList);
+        this.constructors = constructors;
+        this.methods = methods;
+        this.fields = fields;
+        this.superClass = superClass;
+        this.interfaces = interfaces;
+    }
+
+    public TypeDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    @Override
+    public <A extends Annotation> A getAnnotation(Class<A> annotation) {
+        return ASTDescriptorAnnotation.getInstance(annotationIndex.get(), annotation);
+    }
+
+    @Override
+    public boolean isAnnotated(Class<? extends Annotation> annotation) {
+        return annotationIndex.get().contains(annotation);
+    }
+
+    @Override
+    public Collection<ASTMethod> getMethods() {
+        return methods.get();
+    }
+
+    @Override
+    public Collection<ASTField> getFields() {
+        return fields.get();
+    }
+
+    @Override
+    public Collection<ASTConstructor> getConstructors() {
+        return constructors.get();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isConcreteClass() {
+        return !Modifier.isInterface(descriptor.getModifiers()) && (descriptor.getModifiers() & SYNTHETIC) == 0;
+    }
+
+    @Override
+    public Collection<ASTAnnotation> getAnnotations() {
+        return annotationList.get();
+    }
+
+    @Override
+    public ASTType getSuperClass() {
+        return superClass;
+    }
+
+    @Override
+    public Collection<ASTType> getInterfaces() {
+        return interfaces;
+    }
+
+    @Override
+    public boolean isArray() {
+        return false;
+    }
+
+    @Override
+    public PackageClass getPackageClass() {
+        return packageClass;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ASTType)) {
+            return false;
+        }
+
+        //names are interned, so equal names are usually the same instance
+        return name.equals(((ASTType) o).getName());
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public List<ASTType> getGenericParameters() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean inheritsFrom(ASTType type) {
+        return supertypes.get().contains(type, true, true);
+    }
+
+    @Override
+    public boolean extendsFrom(ASTType type) {
+        return supertypes.get().contains(type, false, true);
+    }
+
+    @Override
+    public boolean implementsFrom(ASTType type) {
+        return supertypes.get().contains(type, true, false);
+    }
+
+    @Override
+    public ASTAnnotation getASTAnnotation(Class annotation) {
+        return annotationIndex.get().get(annotation);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+/**
+ * Description of an annotation instance.  Property values are represented as boxed primitives, Strings,
+ * ClassReferences, EnumReferences, nested AnnotationDescriptors, or ImmutableLists of these for arrays.
+ *
+ * @author John Ericksen
+ */
+public class AnnotationDescriptor {
+
+    private final String typeName;
+    private final ImmutableMap<String, Object> values;
+
+    public AnnotationDescriptor(String typeName, ImmutableMap<String, Object> values) {
+        this.typeName = typeName;
+        this.values = values;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * @return explicitly given property values, defaults are described by the annotation type methods
+     */
+    public ImmutableMap<String, Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AnnotationDescriptor)) {
+            return false;
+        }
+        AnnotationDescriptor that = (AnnotationDescriptor) o;
+        return new EqualsBuilder().append(typeName, that.typeName).append(values, that.values).isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(typeName).append(values).hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "@" + typeName + values;
+    }
+}
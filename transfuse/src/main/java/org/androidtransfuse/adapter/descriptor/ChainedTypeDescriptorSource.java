@@ -0,0 +1,45 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Consults each of the given sources in order, returning the first descriptor found.
+ *
+ * @author John Ericksen
+ */
+public class ChainedTypeDescriptorSource implements TypeDescriptorSource {
+
+    private final ImmutableList<TypeDescriptorSource> sources;
+
+    public ChainedTypeDescriptorSource(List<? extends TypeDescriptorSource> sources) {
+        this.sources = ImmutableList.copyOf(sources);
+    }
+
+    @Override
+    public TypeDescriptor find(String name) {
+        for (TypeDescriptorSource source : sources) {
+            TypeDescriptor descriptor = source.find(name);
+            if (descriptor != null) {
+                return descriptor;
+            }
+        }
+        return null;
+    }
+}
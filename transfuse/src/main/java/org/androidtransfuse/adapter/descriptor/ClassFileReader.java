@@ -0,0 +1,596 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses class file bytes into TypeDescriptors without loading the described class.  The constant pool, names and
+ * supertypes are read up front, fields, methods and annotations are decoded from the retained bytes on first access.
+ * <p/>
+ * Member types are read from the erased descriptors, generic Signature attributes are decoded alongside them and
+ * the class Signature on first access.  Both
+ * RuntimeVisible and RuntimeInvisible annotations are described, matching the annotations visible to the annotation
+ * processing environment rather than to reflection.
+ *
+ * @author John Ericksen
+ */
+public class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private static final String CONSTANT_VALUE = "ConstantValue";
+    private static final String EXCEPTIONS = "Exceptions";
+    private static final String INNER_CLASSES = "InnerClasses";
+    private static final String SIGNATURE = "Signature";
+    private static final String ANNOTATION_DEFAULT = "AnnotationDefault";
+    private static final String VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private static final String INVISIBLE_ANNOTATIONS = "RuntimeInvisibleAnnotations";
+    private static final String VISIBLE_PARAMETER_ANNOTATIONS = "RuntimeVisibleParameterAnnotations";
+    private static final String INVISIBLE_PARAMETER_ANNOTATIONS = "RuntimeInvisibleParameterAnnotations";
+
+    /**
+     * Parses the given class file.
+     *
+     * @param bytes class file contents, retained and decoded lazily, so must not be modified afterwards
+     * @return descriptor
+     */
+    public TypeDescriptor read(byte[] bytes) {
+        return new ClassFile(bytes).read();
+    }
+
+    /**
+     * Converts a field descriptor into a descriptor type name.
+     *
+     * @param descriptor field descriptor, such as <code>[Ljava/lang/String;</code>
+     * @return type name, such as <code>java.lang.String[]</code>
+     */
+    public static String getTypeName(String descriptor) {
+        return getTypeName(descriptor, 0, descriptor.length());
+    }
+
+    private static String getTypeName(String descriptor, int start, int end) {
+        switch (descriptor.charAt(start)) {
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'D':
+                return "double";
+            case 'F':
+                return "float";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'S':
+                return "short";
+            case 'Z':
+                return "boolean";
+            case 'V':
+                return "void";
+            case '[':
+                return getTypeName(descriptor, start + 1, end) + "[]";
+            case 'L':
+                return descriptor.substring(start + 1, end - 1).replace('/', '.');
+            default:
+                throw new TransfuseAnalysisException("Malformed descriptor " + descriptor);
+        }
+    }
+
+    /**
+     * @param descriptor method descriptor
+     * @param start      index of the field descriptor
+     * @return index following the field descriptor
+     */
+    private static int getTypeEnd(String descriptor, int start) {
+        int end = start;
+        while (descriptor.charAt(end) == '[') {
+            end++;
+        }
+        if (descriptor.charAt(end) == 'L') {
+            end = descriptor.indexOf(';', end);
+        }
+        return end + 1;
+    }
+
+    private static final class ClassFile {
+
+        private final byte[] bytes;
+        private final int[] constantOffsets;
+        private final String[] utf8Cache;
+        private final int constantPoolEnd;
+
+        private ClassFile(byte[] bytes) {
+            this.bytes = bytes;
+            if (bytes.length < 10 || readInt(0) != MAGIC) {
+                throw new TransfuseAnalysisException("Not a class file");
+            }
+            int count = readShort(8);
+            this.constantOffsets = new int[count];
+            this.utf8Cache = new String[count];
+            this.constantPoolEnd = readConstantPool(count);
+        }
+
+        private TypeDescriptor read() {
+            Cursor cursor = new Cursor(constantPoolEnd);
+
+            int accessFlags = cursor.readShort();
+            final String name = getClassName(cursor.readShort());
+            int superClassIndex = cursor.readShort();
+            //interfaces name Object as their super class, Class.getSuperclass() does not
+            String superClassName = superClassIndex == 0 || Modifier.isInterface(accessFlags) ? null : getClassName(superClassIndex);
+
+            int interfaceCount = cursor.readShort();
+            ImmutableList.Builder<String> interfaceNames = ImmutableList.builder();
+            for (int i = 0; i < interfaceCount; i++) {
+                interfaceNames.add(getClassName(cursor.readShort()));
+            }
+
+            final int fieldsOffset = cursor.position;
+            skipMembers(cursor);
+            final int methodsOffset = cursor.position;
+            skipMembers(cursor);
+            final int attributesOffset = cursor.position;
+
+            int modifiers = getModifiers(name, accessFlags, attributesOffset);
+
+            return new TypeDescriptor(name, modifiers, superClassName, interfaceNames.build(),
+                    new Supplier<String>() {
+                        @Override
+                        public String get() {
+                            return readSignatureAttribute(new Cursor(attributesOffset));
+                        }
+                    },
+                    new Supplier<ImmutableList<AnnotationDescriptor>>() {
+                        @Override
+                        public ImmutableList<AnnotationDescriptor> get() {
+                            return readAnnotationAttributes(new Cursor(attributesOffset));
+                        }
+                    },
+                    new Supplier<ImmutableList<FieldDescriptor>>() {
+                        @Override
+                        public ImmutableList<FieldDescriptor> get() {
+                            return readFields(new Cursor(fieldsOffset));
+                        }
+                    },
+                    new Supplier<ImmutableList<MethodDescriptor>>() {
+                        @Override
+                        public ImmutableList<MethodDescriptor> get() {
+                            return readMethods(new Cursor(methodsOffset));
+                        }
+                    });
+        }
+
+        /**
+         * Records the offset of each constant pool entry.
+         *
+         * @return offset following the constant pool
+         */
+        private int readConstantPool(int count) {
+            Cursor cursor = new Cursor(10);
+            for (int i = 1; i < count; i++) {
+                constantOffsets[i] = cursor.position;
+                int tag = cursor.readByte();
+                switch (tag) {
+                    case CONSTANT_UTF8:
+                        int length = cursor.readShort();
+                        cursor.position += length;
+                        break;
+                    case CONSTANT_LONG:
+                    case CONSTANT_DOUBLE:
+                        cursor.position += 8;
+                        //occupies two entries
+                        i++;
+                        break;
+                    case CONSTANT_INTEGER:
+                    case CONSTANT_FLOAT:
+                    case CONSTANT_FIELDREF:
+                    case CONSTANT_METHODREF:
+                    case CONSTANT_INTERFACE_METHODREF:
+                    case CONSTANT_NAME_AND_TYPE:
+                    case CONSTANT_DYNAMIC:
+                    case CONSTANT_INVOKE_DYNAMIC:
+                        cursor.position += 4;
+                        break;
+                    case CONSTANT_METHOD_HANDLE:
+                        cursor.position += 3;
+                        break;
+                    case CONSTANT_CLASS:
+                    case CONSTANT_STRING:
+                    case CONSTANT_METHOD_TYPE:
+                    case CONSTANT_MODULE:
+                    case CONSTANT_PACKAGE:
+                        cursor.position += 2;
+                        break;
+                    default:
+                        throw new TransfuseAnalysisException("Unknown constant pool tag " + tag);
+                }
+            }
+            return cursor.position;
+        }
+
+        /**
+         * Mirrors <code>Class.getModifiers()</code>: member classes report the flags of their InnerClasses entry, and
+         * ACC_SUPER is never reported.
+         */
+        private int getModifiers(String name, int accessFlags, int attributesOffset) {
+            Cursor cursor = new Cursor(attributesOffset);
+            int attributeCount = cursor.readShort();
+            for (int i = 0; i < attributeCount; i++) {
+                String attributeName = getUtf8(cursor.readShort());
+                int length = cursor.readInt();
+                int end = cursor.position + length;
+                if (attributeName.equals(INNER_CLASSES)) {
+                    int classCount = cursor.readShort();
+                    for (int j = 0; j < classCount; j++) {
+                        int innerClassIndex = cursor.readShort();
+                        cursor.position += 4;
+                        int innerAccessFlags = cursor.readShort();
+                        if (innerClassIndex != 0 && getClassName(innerClassIndex).equals(name)) {
+                            return innerAccessFlags & ~ACC_SUPER;
+                        }
+                    }
+                }
+                cursor.position = end;
+            }
+            return accessFlags & ~ACC_SUPER;
+        }
+
+        private void skipMembers(Cursor cursor) {
+            int count = cursor.readShort();
+            for (int i = 0; i < count; i++) {
+                cursor.position += 6;
+                skipAttributes(cursor);
+            }
+        }
+
+        private void skipAttributes(Cursor cursor) {
+            int count = cursor.readShort();
+            for (int i = 0; i < count; i++) {
+                cursor.position += 2;
+                int length = cursor.readInt();
+                cursor.position += length;
+            }
+        }
+
+        /**
+         * @return the value of the Signature attribute, or null if the class is not generic
+         */
+        private String readSignatureAttribute(Cursor cursor) {
+            int count = cursor.readShort();
+            for (int i = 0; i < count; i++) {
+                String attributeName = getUtf8(cursor.readShort());
+                int length = cursor.readInt();
+                if (attributeName.equals(SIGNATURE)) {
+                    return getUtf8(cursor.readShort());
+                }
+                cursor.position += length;
+            }
+            return null;
+        }
+
+        private ImmutableList<AnnotationDescriptor> readAnnotationAttributes(Cursor cursor) {
+            ImmutableList.Builder<AnnotationDescriptor> annotations = ImmutableList.builder();
+            int count = cursor.readShort();
+            for (int i = 0; i < count; i++) {
+                String attributeName = getUtf8(cursor.readShort());
+                int length = cursor.readInt();
+                int end = cursor.position + length;
+                if (attributeName.equals(VISIBLE_ANNOTATIONS) || attributeName.equals(INVISIBLE_ANNOTATIONS)) {
+                    annotations.addAll(readAnnotations(cursor));
+                }
+                cursor.position = end;
+            }
+            return annotations.build();
+        }
+
+        private ImmutableList<FieldDescriptor> readFields(Cursor cursor) {
+            ImmutableList.Builder<FieldDescriptor> fields = ImmutableList.builder();
+            int count = cursor.readShort();
+            for (int i = 0; i < count; i++) {
+                int accessFlags = cursor.readShort();
+                String name = getUtf8(cursor.readShort());
+                String descriptor = getUtf8(cursor.readShort());
+
+                Object constantValue = null;
+                String signature = null;
+                ImmutableList.Builder<AnnotationDescriptor> annotations = ImmutableList.builder();
+                int attributeCount = cursor.readShort();
+                for (int j = 0; j < attributeCount; j++) {
+                    String attributeName = getUtf8(cursor.readShort());
+                    int length = cursor.readInt();
+                    int end = cursor.position + length;
+                    if (attributeName.equals(CONSTANT_VALUE) && Modifier.isStatic(accessFlags)) {
+                        constantValue = getConstantValue(descriptor.charAt(0), cursor.readShort());
+                    } else if (attributeName.equals(SIGNATURE)) {
+                        signature = getUtf8(cursor.readShort());
+                    } else if (attributeName.equals(VISIBLE_ANNOTATIONS) || attributeName.equals(INVISIBLE_ANNOTATIONS)) {
+                        annotations.addAll(readAnnotations(cursor));
+                    }
+                    cursor.position = end;
+                }
+
+                fields.add(new FieldDescriptor(name, accessFlags, getTypeName(descriptor), signature, annotations.build(), constantValue));
+            }
+            return fields.build();
+        }
+
+        private ImmutableList<MethodDescriptor> readMethods(Cursor cursor) {
+            ImmutableList.Builder<MethodDescriptor> methods = ImmutableList.builder();
+            int count = cursor.readShort();
+            for (int i = 0; i < count; i++) {
+                int accessFlags = cursor.readShort();
+                String name = getUtf8(cursor.readShort());
+                String descriptor = getUtf8(cursor.readShort());
+
+                if (name.equals(MethodDescriptor.STATIC_INITIALIZER_NAME)) {
+                    skipAttributes(cursor);
+                    continue;
+                }
+
+                List<String> parameterTypeNames = new ArrayList<String>();
+                int position = 1;
+                while (descriptor.charAt(position) != ')') {
+                    int end = getTypeEnd(descriptor, position);
+                    parameterTypeNames.add(getTypeName(descriptor, position, end));
+                    position = end;
+                }
+                String returnTypeName = getTypeName(descriptor, position + 1, descriptor.length());
+
+                List<List<AnnotationDescriptor>> parameterAnnotations = new ArrayList<List<AnnotationDescriptor>>();
+                for (int j = 0; j < parameterTypeNames.size(); j++) {
+                    parameterAnnotations.add(new ArrayList<AnnotationDescriptor>());
+                }
+                ImmutableList.Builder<String> exceptionTypeNames = ImmutableList.builder();
+                ImmutableList.Builder<AnnotationDescriptor> annotations = ImmutableList.builder();
+                String signature = null;
+                Object defaultValue = null;
+
+                int attributeCount = cursor.readShort();
+                for (int j = 0; j < attributeCount; j++) {
+                    String attributeName = getUtf8(cursor.readShort());
+                    int length = cursor.readInt();
+                    int end = cursor.position + length;
+                    if (attributeName.equals(EXCEPTIONS)) {
+                        int exceptionCount = cursor.readShort();
+                        for (int k = 0; k < exceptionCount; k++) {
+                            exceptionTypeNames.add(getClassName(cursor.readShort()));
+                        }
+                    } else if (attributeName.equals(SIGNATURE)) {
+                        signature = getUtf8(cursor.readShort());
+                    } else if (attributeName.equals(ANNOTATION_DEFAULT)) {
+                        defaultValue = readElementValue(cursor);
+                    } else if (attributeName.equals(VISIBLE_ANNOTATIONS) || attributeName.equals(INVISIBLE_ANNOTATIONS)) {
+                        annotations.addAll(readAnnotations(cursor));
+                    } else if (attributeName.equals(VISIBLE_PARAMETER_ANNOTATIONS) || attributeName.equals(INVISIBLE_PARAMETER_ANNOTATIONS)) {
+                        int annotatedCount = cursor.readByte();
+                        //synthetic leading parameters, such as the outer instance, may not be listed
+                        int offset = Math.max(0, parameterTypeNames.size() - annotatedCount);
+                        for (int k = 0; k < annotatedCount; k++) {
+                            List<AnnotationDescriptor> parameterAnnotation = readAnnotations(cursor);
+                            if (offset + k < parameterAnnotations.size()) {
+                                parameterAnnotations.get(offset + k).addAll(parameterAnnotation);
+                            }
+                        }
+                    }
+                    cursor.position = end;
+                }
+
+                ImmutableList.Builder<ImmutableList<AnnotationDescriptor>> parameterAnnotationsBuilder = ImmutableList.builder();
+                for (List<AnnotationDescriptor> parameterAnnotation : parameterAnnotations) {
+                    parameterAnnotationsBuilder.add(ImmutableList.copyOf(parameterAnnotation));
+                }
+
+                methods.add(new MethodDescriptor(name, accessFlags, returnTypeName, signature,
+                        ImmutableList.copyOf(parameterTypeNames),
+                        parameterAnnotationsBuilder.build(),
+                        exceptionTypeNames.build(),
+                        annotations.build(),
+                        defaultValue));
+            }
+            return methods.build();
+        }
+
+        private ImmutableList<AnnotationDescriptor> readAnnotations(Cursor cursor) {
+            ImmutableList.Builder<AnnotationDescriptor> annotations = ImmutableList.builder();
+            int count = cursor.readShort();
+            for (int i = 0; i < count; i++) {
+                annotations.add(readAnnotation(cursor));
+            }
+            return annotations.build();
+        }
+
+        private AnnotationDescriptor readAnnotation(Cursor cursor) {
+            String typeName = getTypeName(getUtf8(cursor.readShort()));
+            ImmutableMap.Builder<String, Object> values = ImmutableMap.builder();
+            int count = cursor.readShort();
+            for (int i = 0; i < count; i++) {
+                String name = getUtf8(cursor.readShort());
+                values.put(name, readElementValue(cursor));
+            }
+            return new AnnotationDescriptor(typeName, values.build());
+        }
+
+        private Object readElementValue(Cursor cursor) {
+            char tag = (char) cursor.readByte();
+            switch (tag) {
+                case 'B':
+                case 'C':
+                case 'D':
+                case 'F':
+                case 'I':
+                case 'J':
+                case 'S':
+                case 'Z':
+                    return getConstantValue(tag, cursor.readShort());
+                case 's':
+                    return getUtf8(cursor.readShort());
+                case 'e':
+                    String typeName = getTypeName(getUtf8(cursor.readShort()));
+                    return new EnumReference(typeName, getUtf8(cursor.readShort()));
+                case 'c':
+                    return new ClassReference(getTypeName(getUtf8(cursor.readShort())));
+                case '@':
+                    return readAnnotation(cursor);
+                case '[':
+                    int count = cursor.readShort();
+                    ImmutableList.Builder<Object> values = ImmutableList.builder();
+                    for (int i = 0; i < count; i++) {
+                        values.add(readElementValue(cursor));
+                    }
+                    return values.build();
+                default:
+                    throw new TransfuseAnalysisException("Unknown annotation element value tag " + tag);
+            }
+        }
+
+        /**
+         * Reads the constant at the given index as the given descriptor type.  Booleans, bytes, chars and shorts are
+         * stored as integer constants.
+         */
+        private Object getConstantValue(char type, int index) {
+            int offset = constantOffsets[index];
+            int tag = bytes[offset] & 0xFF;
+            switch (tag) {
+                case CONSTANT_INTEGER:
+                    int value = readInt(offset + 1);
+                    switch (type) {
+                        case 'Z':
+                            return value != 0;
+                        case 'B':
+                            return (byte) value;
+                        case 'C':
+                            return (char) value;
+                        case 'S':
+                            return (short) value;
+                        default:
+                            return value;
+                    }
+                case CONSTANT_FLOAT:
+                    return Float.intBitsToFloat(readInt(offset + 1));
+                case CONSTANT_LONG:
+                    return readLong(offset + 1);
+                case CONSTANT_DOUBLE:
+                    return Double.longBitsToDouble(readLong(offset + 1));
+                case CONSTANT_STRING:
+                    return getUtf8(readShort(offset + 1));
+                default:
+                    throw new TransfuseAnalysisException("Unexpected constant pool tag " + tag);
+            }
+        }
+
+        /**
+         * Reads the class constant at the given index, an internal name or an array descriptor.
+         */
+        private String getClassName(int classIndex) {
+            String internalName = getUtf8(readShort(constantOffsets[classIndex] + 1));
+            if (internalName.charAt(0) == '[') {
+                return getTypeName(internalName);
+            }
+            return internalName.replace('/', '.');
+        }
+
+        /**
+         * Decodes the modified UTF-8 constant at the given index.  Racing threads decode equal Strings, so the cache
+         * needs no synchronization.
+         */
+        private String getUtf8(int index) {
+            String value = utf8Cache[index];
+            if (value == null) {
+                int offset = constantOffsets[index];
+                int length = readShort(offset + 1);
+                try {
+                    value = new DataInputStream(new ByteArrayInputStream(bytes, offset + 1, length + 2)).readUTF();
+                } catch (IOException e) {
+                    throw new TransfuseAnalysisException("Malformed constant pool string", e);
+                }
+                utf8Cache[index] = value;
+            }
+            return value;
+        }
+
+        private int readShort(int offset) {
+            return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+        }
+
+        private int readInt(int offset) {
+            return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                    | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+        }
+
+        private long readLong(int offset) {
+            return ((long) readInt(offset) << 32) | (readInt(offset + 4) & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Sequential reader over the shared class file bytes.
+         */
+        private final class Cursor {
+
+            private int position;
+
+            private Cursor(int position) {
+                this.position = position;
+            }
+
+            private int readByte() {
+                return bytes[position++] & 0xFF;
+            }
+
+            private int readShort() {
+                int value = ClassFile.this.readShort(position);
+                position += 2;
+                return value;
+            }
+
+            private int readInt() {
+                int value = ClassFile.this.readInt(position);
+                position += 4;
+                return value;
+            }
+        }
+    }
+}
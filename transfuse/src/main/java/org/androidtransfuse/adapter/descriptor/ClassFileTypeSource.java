@@ -0,0 +1,60 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Describes types by parsing their class files, located as resources of the given ClassLoader.  Unlike reflection
+ * this neither loads nor links the described classes.
+ *
+ * @author John Ericksen
+ */
+public class ClassFileTypeSource implements TypeDescriptorSource {
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    private final ClassLoader classLoader;
+    private final ClassFileReader reader = new ClassFileReader();
+
+    public ClassFileTypeSource(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public TypeDescriptor find(String name) {
+        if (name.endsWith("[]") || name.indexOf('.') < 0 && Character.isLowerCase(name.charAt(0))) {
+            //arrays and primitives have no class file
+            return null;
+        }
+        InputStream classStream = classLoader.getResourceAsStream(name.replace('.', '/') + CLASS_EXTENSION);
+        if (classStream == null) {
+            return null;
+        }
+        try {
+            return reader.read(ByteStreams.toByteArray(classStream));
+        } catch (IOException e) {
+            throw new TransfuseAnalysisException("Unable to read class file of " + name, e);
+        } finally {
+            Closeables.closeQuietly(classStream);
+        }
+    }
+}
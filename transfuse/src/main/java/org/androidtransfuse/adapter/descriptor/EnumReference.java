@@ -0,0 +1,65 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+/**
+ * Enum constant annotation value, referenced by enum type and constant name.
+ *
+ * @author John Ericksen
+ */
+public final class EnumReference {
+
+    private final String typeName;
+    private final String constantName;
+
+    public EnumReference(String typeName, String constantName) {
+        this.typeName = typeName;
+        this.constantName = constantName;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public String getConstantName() {
+        return constantName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EnumReference)) {
+            return false;
+        }
+        EnumReference that = (EnumReference) o;
+        return new EqualsBuilder().append(typeName, that.typeName).append(constantName, that.constantName).isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(typeName).append(constantName).hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return typeName + "." + constantName;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Description of a declared field.
+ *
+ * @author John Ericksen
+ */
+public class FieldDescriptor {
+
+    private final String name;
+    private final int modifiers;
+    private final String typeName;
+    private final String signature;
+    private final ImmutableList<AnnotationDescriptor> annotations;
+    private final Object constantValue;
+
+    public FieldDescriptor(String name, int modifiers, String typeName, String signature, ImmutableList<AnnotationDescriptor> annotations, Object constantValue) {
+        this.name = name;
+        this.modifiers = modifiers;
+        this.typeName = typeName;
+        this.signature = signature;
+        this.annotations = annotations;
+        this.constantValue = constantValue;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * @return field type Signature, or null if the field type is not generic
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    public ImmutableList<AnnotationDescriptor> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * @return compile time constant value of a static final primitive or String field, or null
+     */
+    public Object getConstantValue() {
+        return constantValue;
+    }
+}
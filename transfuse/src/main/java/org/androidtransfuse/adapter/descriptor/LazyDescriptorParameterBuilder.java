@@ -0,0 +1,72 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import org.androidtransfuse.adapter.ASTEmptyType;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.LazyTypeParameterBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the generic parameters of a descriptor type reference from its parsed signature.  As with reflection,
+ * parameterized arguments are represented by their erased class and wildcards by null, type variables are represented
+ * by an ASTEmptyType of their name as with the element types.
+ *
+ * @author John Ericksen
+ */
+class LazyDescriptorParameterBuilder implements LazyTypeParameterBuilder {
+
+    private final List<SignatureParser.TypeSignature> typeArguments;
+    private final ASTDescriptorFactory descriptorFactory;
+    private List<ASTType> genericParameters = null;
+
+    LazyDescriptorParameterBuilder(List<SignatureParser.TypeSignature> typeArguments, ASTDescriptorFactory descriptorFactory) {
+        this.typeArguments = typeArguments;
+        this.descriptorFactory = descriptorFactory;
+    }
+
+    @Override
+    public List<ASTType> buildGenericParameters() {
+        if (genericParameters == null) {
+            genericParameters = innerBuildGenericParameters();
+        }
+        return genericParameters;
+    }
+
+    private List<ASTType> innerBuildGenericParameters() {
+        List<ASTType> parameters = new ArrayList<ASTType>();
+        for (SignatureParser.TypeSignature typeArgument : typeArguments) {
+            parameters.add(buildParameter(typeArgument));
+        }
+        return Collections.unmodifiableList(parameters);
+    }
+
+    private ASTType buildParameter(SignatureParser.TypeSignature typeArgument) {
+        if (typeArgument == null) {
+            return null;
+        }
+        if (typeArgument.getVariableName() != null) {
+            return new ASTEmptyType(typeArgument.getVariableName());
+        }
+        if (typeArgument.getErasedName() != null) {
+            return descriptorFactory.getType(typeArgument.getErasedName());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Description of a declared method or constructor.
+ *
+ * @author John Ericksen
+ */
+public class MethodDescriptor {
+
+    public static final String CONSTRUCTOR_NAME = "<init>";
+    public static final String STATIC_INITIALIZER_NAME = "<clinit>";
+
+    private final String name;
+    private final int modifiers;
+    private final String returnTypeName;
+    private final String signature;
+    private final ImmutableList<String> parameterTypeNames;
+    private final ImmutableList<ImmutableList<AnnotationDescriptor>> parameterAnnotations;
+    private final ImmutableList<String> exceptionTypeNames;
+    private final ImmutableList<AnnotationDescriptor> annotations;
+    private final Object defaultValue;
+
+    public MethodDescriptor(String name,
+                            int modifiers,
+                            String returnTypeName,
+                            String signature,
+                            ImmutableList<String> parameterTypeNames,
+                            ImmutableList<ImmutableList<AnnotationDescriptor>> parameterAnnotations,
+                            ImmutableList<String> exceptionTypeNames,
+                            ImmutableList<AnnotationDescriptor> annotations,
+                            Object defaultValue) {
+        this.name = name;
+        this.modifiers = modifiers;
+        this.returnTypeName = returnTypeName;
+        this.signature = signature;
+        this.parameterTypeNames = parameterTypeNames;
+        this.parameterAnnotations = parameterAnnotations;
+        this.exceptionTypeNames = exceptionTypeNames;
+        this.annotations = annotations;
+        this.defaultValue = defaultValue;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isConstructor() {
+        return CONSTRUCTOR_NAME.equals(name);
+    }
+
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    public String getReturnTypeName() {
+        return returnTypeName;
+    }
+
+    /**
+     * @return method Signature, declaring the type parameters and the generic parameter and return types, or null if
+     * the method is not generic
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    public ImmutableList<String> getParameterTypeNames() {
+        return parameterTypeNames;
+    }
+
+    /**
+     * @return annotations of each parameter, parallel to the parameter types
+     */
+    public ImmutableList<ImmutableList<AnnotationDescriptor>> getParameterAnnotations() {
+        return parameterAnnotations;
+    }
+
+    public ImmutableList<String> getExceptionTypeNames() {
+        return exceptionTypeNames;
+    }
+
+    public ImmutableList<AnnotationDescriptor> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * @return default value of an annotation type method, in the representation of AnnotationDescriptor values, or null
+     */
+    public Object getDefaultValue() {
+        return defaultValue;
+    }
+}
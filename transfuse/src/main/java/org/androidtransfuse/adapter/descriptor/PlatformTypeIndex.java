@@ -0,0 +1,378 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read only, memory mapped index of prebuilt platform TypeDescriptors, written by the PlatformTypeIndexWriter build
+ * tool.  The file is mapped on first lookup and each type is decoded on demand: a lookup binary searches the sorted
+ * type directory, and the annotations, fields and methods of a type are only decoded when first requested.
+ * <p/>
+ * Layout, all integers big endian:
+ * <pre>
+ * header:     magic, format version, platform version string, type count, string count,
+ *             directory offset, string offsets offset, records offset, strings offset
+ * directory:  (name string, record offset) per type, sorted by name
+ * string offsets: offset of each string within the strings section
+ * records:    per type, modifiers, signature string, super class string, interface strings, annotations offset,
+ *             fields offset, methods offset, followed by the annotation, field and method sections
+ * strings:    (byte length, UTF-8 bytes) per string
+ * </pre>
+ * String references are indexes into the string table, -1 for null.  Record and section offsets are relative to the
+ * records section.
+ *
+ * @author John Ericksen
+ */
+public class PlatformTypeIndex implements TypeDescriptorSource {
+
+    public static final int MAGIC = 0x54524649;
+    public static final int FORMAT_VERSION = 3;
+    public static final int HEADER_SIZE = 9 * 4;
+
+    public static final byte NULL_TAG = 0;
+    public static final byte BOOLEAN_TAG = 'Z';
+    public static final byte BYTE_TAG = 'B';
+    public static final byte CHAR_TAG = 'C';
+    public static final byte SHORT_TAG = 'S';
+    public static final byte INT_TAG = 'I';
+    public static final byte LONG_TAG = 'J';
+    public static final byte FLOAT_TAG = 'F';
+    public static final byte DOUBLE_TAG = 'D';
+    public static final byte STRING_TAG = 's';
+    public static final byte CLASS_TAG = 'c';
+    public static final byte ENUM_TAG = 'e';
+    public static final byte ARRAY_TAG = '[';
+    public static final byte ANNOTATION_TAG = '@';
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private volatile MappedIndex index;
+
+    /**
+     * Disabled index, all lookups miss.
+     */
+    public PlatformTypeIndex() {
+        this(null);
+    }
+
+    public PlatformTypeIndex(File file) {
+        this.file = file;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Looks up the descriptor of the given type.
+     *
+     * @param name binary name
+     * @return descriptor, or null if the index is disabled or does not contain the type
+     */
+    @Override
+    public TypeDescriptor find(String name) {
+        if (!isEnabled()) {
+            return null;
+        }
+        return getIndex().find(name);
+    }
+
+    public String getPlatformVersion() {
+        return isEnabled() ? getIndex().platformVersion : null;
+    }
+
+    public int size() {
+        return isEnabled() ? getIndex().typeCount : 0;
+    }
+
+    private MappedIndex getIndex() {
+        MappedIndex mappedIndex = index;
+        if (mappedIndex == null) {
+            synchronized (this) {
+                mappedIndex = index;
+                if (mappedIndex == null) {
+                    mappedIndex = new MappedIndex(map(file));
+                    index = mappedIndex;
+                }
+            }
+        }
+        return mappedIndex;
+    }
+
+    private static ByteBuffer map(File file) {
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                //the mapping remains valid after the channel is closed
+                MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+                if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                    throw new TransfuseAnalysisException("Not a platform type index: " + file);
+                }
+                if (buffer.getInt(4) != FORMAT_VERSION) {
+                    throw new TransfuseAnalysisException("Unsupported platform type index version " + buffer.getInt(4) + ": " + file);
+                }
+                return buffer;
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            throw new TransfuseAnalysisException("Unable to read platform type index " + file, e);
+        }
+    }
+
+    private static final class MappedIndex {
+
+        private final ByteBuffer buffer;
+        private final String platformVersion;
+        private final int typeCount;
+        private final int directoryOffset;
+        private final int stringOffsetsOffset;
+        private final int recordsOffset;
+        private final int stringsOffset;
+        private final AtomicReferenceArray<String> strings;
+
+        private MappedIndex(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.typeCount = buffer.getInt(12);
+            this.strings = new AtomicReferenceArray<String>(buffer.getInt(16));
+            this.directoryOffset = buffer.getInt(20);
+            this.stringOffsetsOffset = buffer.getInt(24);
+            this.recordsOffset = buffer.getInt(28);
+            this.stringsOffset = buffer.getInt(32);
+            this.platformVersion = getString(buffer.getInt(8));
+        }
+
+        private TypeDescriptor find(String name) {
+            int low = 0;
+            int high = typeCount - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int entry = directoryOffset + middle * 8;
+                int comparison = getString(buffer.getInt(entry)).compareTo(name);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return readType(name, recordsOffset + buffer.getInt(entry + 4));
+                }
+            }
+            return null;
+        }
+
+        private String getString(int stringIndex) {
+            if (stringIndex < 0) {
+                return null;
+            }
+            String value = strings.get(stringIndex);
+            if (value == null) {
+                int offset = stringsOffset + buffer.getInt(stringOffsetsOffset + stringIndex * 4);
+                byte[] bytes = new byte[buffer.getInt(offset)];
+                ByteBuffer view = buffer.duplicate();
+                view.position(offset + 4);
+                view.get(bytes);
+                value = new String(bytes, UTF8);
+                strings.compareAndSet(stringIndex, null, value);
+            }
+            return value;
+        }
+
+        private TypeDescriptor readType(String name, int offset) {
+            Cursor cursor = new Cursor(offset);
+            int modifiers = cursor.readInt();
+            final int signatureIndex = cursor.readInt();
+            String superClassName = cursor.readString();
+            ImmutableList<String> interfaceNames = cursor.readStrings();
+            final int annotationsOffset = recordsOffset + cursor.readInt();
+            final int fieldsOffset = recordsOffset + cursor.readInt();
+            final int methodsOffset = recordsOffset + cursor.readInt();
+
+            return new TypeDescriptor(name, modifiers, superClassName, interfaceNames,
+                    new Supplier<String>() {
+                        @Override
+                        public String get() {
+                            return getString(signatureIndex);
+                        }
+                    },
+                    new Supplier<ImmutableList<AnnotationDescriptor>>() {
+                        @Override
+                        public ImmutableList<AnnotationDescriptor> get() {
+                            return new Cursor(annotationsOffset).readAnnotations();
+                        }
+                    },
+                    new Supplier<ImmutableList<FieldDescriptor>>() {
+                        @Override
+                        public ImmutableList<FieldDescriptor> get() {
+                            return new Cursor(fieldsOffset).readFields();
+                        }
+                    },
+                    new Supplier<ImmutableList<MethodDescriptor>>() {
+                        @Override
+                        public ImmutableList<MethodDescriptor> get() {
+                            return new Cursor(methodsOffset).readMethods();
+                        }
+                    });
+        }
+
+        /**
+         * Sequential reader over the shared buffer using absolute reads, safe for concurrent use of the buffer.
+         */
+        private final class Cursor {
+
+            private int position;
+
+            private Cursor(int position) {
+                this.position = position;
+            }
+
+            private int readInt() {
+                int value = buffer.getInt(position);
+                position += 4;
+                return value;
+            }
+
+            private byte readByte() {
+                return buffer.get(position++);
+            }
+
+            private String readString() {
+                return getString(readInt());
+            }
+
+            private ImmutableList<String> readStrings() {
+                int count = readInt();
+                ImmutableList.Builder<String> values = ImmutableList.builder();
+                for (int i = 0; i < count; i++) {
+                    values.add(readString());
+                }
+                return values.build();
+            }
+
+            private ImmutableList<AnnotationDescriptor> readAnnotations() {
+                int count = readInt();
+                ImmutableList.Builder<AnnotationDescriptor> annotations = ImmutableList.builder();
+                for (int i = 0; i < count; i++) {
+                    annotations.add(readAnnotation());
+                }
+                return annotations.build();
+            }
+
+            private AnnotationDescriptor readAnnotation() {
+                String typeName = readString();
+                int count = readInt();
+                ImmutableMap.Builder<String, Object> values = ImmutableMap.builder();
+                for (int i = 0; i < count; i++) {
+                    String name = readString();
+                    values.put(name, readValue());
+                }
+                return new AnnotationDescriptor(typeName, values.build());
+            }
+
+            private ImmutableList<FieldDescriptor> readFields() {
+                int count = readInt();
+                ImmutableList.Builder<FieldDescriptor> fields = ImmutableList.builder();
+                for (int i = 0; i < count; i++) {
+                    String name = readString();
+                    int modifiers = readInt();
+                    String typeName = readString();
+                    String signature = readString();
+                    ImmutableList<AnnotationDescriptor> annotations = readAnnotations();
+                    fields.add(new FieldDescriptor(name, modifiers, typeName, signature, annotations, readValue()));
+                }
+                return fields.build();
+            }
+
+            private ImmutableList<MethodDescriptor> readMethods() {
+                int count = readInt();
+                ImmutableList.Builder<MethodDescriptor> methods = ImmutableList.builder();
+                for (int i = 0; i < count; i++) {
+                    String name = readString();
+                    int modifiers = readInt();
+                    String returnTypeName = readString();
+                    String signature = readString();
+                    int parameterCount = readInt();
+                    ImmutableList.Builder<String> parameterTypeNames = ImmutableList.builder();
+                    ImmutableList.Builder<ImmutableList<AnnotationDescriptor>> parameterAnnotations = ImmutableList.builder();
+                    for (int j = 0; j < parameterCount; j++) {
+                        parameterTypeNames.add(readString());
+                        parameterAnnotations.add(readAnnotations());
+                    }
+                    ImmutableList<String> exceptionTypeNames = readStrings();
+                    ImmutableList<AnnotationDescriptor> annotations = readAnnotations();
+                    methods.add(new MethodDescriptor(name, modifiers, returnTypeName, signature, parameterTypeNames.build(),
+                            parameterAnnotations.build(), exceptionTypeNames, annotations, readValue()));
+                }
+                return methods.build();
+            }
+
+            private Object readValue() {
+                byte tag = readByte();
+                switch (tag) {
+                    case NULL_TAG:
+                        return null;
+                    case BOOLEAN_TAG:
+                        return readByte() != 0;
+                    case BYTE_TAG:
+                        return readByte();
+                    case CHAR_TAG:
+                        return (char) readInt();
+                    case SHORT_TAG:
+                        return (short) readInt();
+                    case INT_TAG:
+                        return readInt();
+                    case LONG_TAG:
+                        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+                    case FLOAT_TAG:
+                        return Float.intBitsToFloat(readInt());
+                    case DOUBLE_TAG:
+                        return Double.longBitsToDouble(((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL));
+                    case STRING_TAG:
+                        return readString();
+                    case CLASS_TAG:
+                        return new ClassReference(readString());
+                    case ENUM_TAG:
+                        String typeName = readString();
+                        return new EnumReference(typeName, readString());
+                    case ARRAY_TAG:
+                        int count = readInt();
+                        ImmutableList.Builder<Object> values = ImmutableList.builder();
+                        for (int i = 0; i < count; i++) {
+                            values.add(readValue());
+                        }
+                        return values.build();
+                    case ANNOTATION_TAG:
+                        return readAnnotation();
+                    default:
+                        throw new TransfuseAnalysisException("Corrupt platform type index, unknown value tag " + tag);
+                }
+            }
+        }
+    }
+}
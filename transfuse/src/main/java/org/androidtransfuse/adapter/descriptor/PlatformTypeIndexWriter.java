@@ -0,0 +1,312 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static org.androidtransfuse.adapter.descriptor.PlatformTypeIndex.*;
+
+/**
+ * Build time tool writing the PlatformTypeIndex of a platform jar, usually the android.jar of the targeted SDK level.
+ * <p/>
+ * Usage: <code>PlatformTypeIndexWriter &lt;output file&gt; &lt;platform version&gt; &lt;jar&gt;...</code>
+ * <p/>
+ * Classes are described through reflection without being initialized.  Classes that fail to link are skipped, and
+ * classes already provided by the running JVM (<code>java.*</code>) are described as the JVM defines them.
+ *
+ * @author John Ericksen
+ */
+public class PlatformTypeIndexWriter {
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    private final ReflectionDescriptorReader reader = new ReflectionDescriptorReader();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: PlatformTypeIndexWriter <output file> <platform version> <jar>...");
+            System.exit(1);
+        }
+
+        File[] jars = new File[args.length - 2];
+        for (int i = 2; i < args.length; i++) {
+            jars[i - 2] = new File(args[i]);
+        }
+
+        PlatformTypeIndexWriter writer = new PlatformTypeIndexWriter();
+        List<TypeDescriptor> types = writer.readJars(jars);
+        writer.write(new File(args[0]), args[1], types);
+
+        System.out.println("Wrote " + types.size() + " types to " + args[0]);
+    }
+
+    public List<TypeDescriptor> readJars(File... jars) throws IOException {
+        URL[] urls = new URL[jars.length];
+        for (int i = 0; i < jars.length; i++) {
+            urls[i] = jars[i].toURI().toURL();
+        }
+        ClassLoader classLoader = new URLClassLoader(urls, PlatformTypeIndexWriter.class.getClassLoader());
+
+        List<TypeDescriptor> types = new ArrayList<TypeDescriptor>();
+        for (File jar : jars) {
+            JarFile jarFile = new JarFile(jar);
+            try {
+                Enumeration<JarEntry> entries = jarFile.entries();
+                while (entries.hasMoreElements()) {
+                    String entryName = entries.nextElement().getName();
+                    if (entryName.endsWith(CLASS_EXTENSION)) {
+                        String className = entryName.substring(0, entryName.length() - CLASS_EXTENSION.length()).replace('/', '.');
+                        try {
+                            types.add(reader.read(Class.forName(className, false, classLoader)));
+                        } catch (ClassNotFoundException e) {
+                            System.err.println("Skipping " + className + ": " + e.getMessage());
+                        } catch (LinkageError e) {
+                            System.err.println("Skipping " + className + ": " + e);
+                        }
+                    }
+                }
+            } finally {
+                jarFile.close();
+            }
+        }
+        return types;
+    }
+
+    public void write(File output, String platformVersion, Collection<TypeDescriptor> types) throws IOException {
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(output));
+        try {
+            write(outputStream, platformVersion, types);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    public void write(OutputStream outputStream, String platformVersion, Collection<TypeDescriptor> types) throws IOException {
+        //sorted by name for the binary search lookup, last duplicate wins
+        SortedMap<String, TypeDescriptor> sortedTypes = new TreeMap<String, TypeDescriptor>();
+        for (TypeDescriptor type : types) {
+            sortedTypes.put(type.getName(), type);
+        }
+
+        StringTable strings = new StringTable();
+        int platformVersionIndex = strings.get(platformVersion);
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        ByteArrayOutputStream directory = new ByteArrayOutputStream();
+        DataOutputStream directoryOutput = new DataOutputStream(directory);
+        for (TypeDescriptor type : sortedTypes.values()) {
+            directoryOutput.writeInt(strings.get(type.getName()));
+            directoryOutput.writeInt(records.size());
+            writeRecord(new DataOutputStream(records), records.size(), type, strings);
+        }
+
+        ByteArrayOutputStream stringOffsets = new ByteArrayOutputStream();
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        DataOutputStream stringOffsetsOutput = new DataOutputStream(stringOffsets);
+        DataOutputStream stringBytesOutput = new DataOutputStream(stringBytes);
+        for (String value : strings.values()) {
+            stringOffsetsOutput.writeInt(stringBytes.size());
+            byte[] bytes = value.getBytes(UTF8);
+            stringBytesOutput.writeInt(bytes.length);
+            stringBytesOutput.write(bytes);
+        }
+
+        int directoryOffset = HEADER_SIZE;
+        int stringOffsetsOffset = directoryOffset + directory.size();
+        int recordsOffset = stringOffsetsOffset + stringOffsets.size();
+        int stringsOffset = recordsOffset + records.size();
+
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(platformVersionIndex);
+        output.writeInt(sortedTypes.size());
+        output.writeInt(strings.size());
+        output.writeInt(directoryOffset);
+        output.writeInt(stringOffsetsOffset);
+        output.writeInt(recordsOffset);
+        output.writeInt(stringsOffset);
+        directory.writeTo(output);
+        stringOffsets.writeTo(output);
+        records.writeTo(output);
+        stringBytes.writeTo(output);
+        output.flush();
+    }
+
+    private void writeRecord(DataOutputStream output, int recordOffset, TypeDescriptor type, StringTable strings) throws IOException {
+        ByteArrayOutputStream annotations = new ByteArrayOutputStream();
+        writeAnnotations(new DataOutputStream(annotations), type.getAnnotations(), strings);
+
+        ByteArrayOutputStream fields = new ByteArrayOutputStream();
+        DataOutputStream fieldsOutput = new DataOutputStream(fields);
+        fieldsOutput.writeInt(type.getFields().size());
+        for (FieldDescriptor field : type.getFields()) {
+            fieldsOutput.writeInt(strings.get(field.getName()));
+            fieldsOutput.writeInt(field.getModifiers());
+            fieldsOutput.writeInt(strings.get(field.getTypeName()));
+            fieldsOutput.writeInt(strings.get(field.getSignature()));
+            writeAnnotations(fieldsOutput, field.getAnnotations(), strings);
+            writeValue(fieldsOutput, field.getConstantValue(), strings);
+        }
+
+        ByteArrayOutputStream methods = new ByteArrayOutputStream();
+        DataOutputStream methodsOutput = new DataOutputStream(methods);
+        methodsOutput.writeInt(type.getMethods().size());
+        for (MethodDescriptor method : type.getMethods()) {
+            methodsOutput.writeInt(strings.get(method.getName()));
+            methodsOutput.writeInt(method.getModifiers());
+            methodsOutput.writeInt(strings.get(method.getReturnTypeName()));
+            methodsOutput.writeInt(strings.get(method.getSignature()));
+            methodsOutput.writeInt(method.getParameterTypeNames().size());
+            for (int i = 0; i < method.getParameterTypeNames().size(); i++) {
+                methodsOutput.writeInt(strings.get(method.getParameterTypeNames().get(i)));
+                writeAnnotations(methodsOutput, method.getParameterAnnotations().get(i), strings);
+            }
+            writeStrings(methodsOutput, method.getExceptionTypeNames(), strings);
+            writeAnnotations(methodsOutput, method.getAnnotations(), strings);
+            writeValue(methodsOutput, method.getDefaultValue(), strings);
+        }
+
+        //modifiers, signature, super, interfaces and the three section offsets
+        int headerSize = 4 * (3 + 1 + type.getInterfaceNames().size() + 3);
+        int annotationsOffset = recordOffset + headerSize;
+        int fieldsOffset = annotationsOffset + annotations.size();
+        int methodsOffset = fieldsOffset + fields.size();
+
+        output.writeInt(type.getModifiers());
+        output.writeInt(strings.get(type.getSignature()));
+        output.writeInt(strings.get(type.getSuperClassName()));
+        writeStrings(output, type.getInterfaceNames(), strings);
+        output.writeInt(annotationsOffset);
+        output.writeInt(fieldsOffset);
+        output.writeInt(methodsOffset);
+        annotations.writeTo(output);
+        fields.writeTo(output);
+        methods.writeTo(output);
+        output.flush();
+    }
+
+    private void writeStrings(DataOutputStream output, List<String> values, StringTable strings) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            output.writeInt(strings.get(value));
+        }
+    }
+
+    private void writeAnnotations(DataOutputStream output, List<AnnotationDescriptor> annotations, StringTable strings) throws IOException {
+        output.writeInt(annotations.size());
+        for (AnnotationDescriptor annotation : annotations) {
+            writeAnnotation(output, annotation, strings);
+        }
+    }
+
+    private void writeAnnotation(DataOutputStream output, AnnotationDescriptor annotation, StringTable strings) throws IOException {
+        output.writeInt(strings.get(annotation.getTypeName()));
+        output.writeInt(annotation.getValues().size());
+        for (Map.Entry<String, Object> valueEntry : annotation.getValues().entrySet()) {
+            output.writeInt(strings.get(valueEntry.getKey()));
+            writeValue(output, valueEntry.getValue(), strings);
+        }
+    }
+
+    private void writeValue(DataOutputStream output, Object value, StringTable strings) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL_TAG);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN_TAG);
+            output.writeByte((Boolean) value ? 1 : 0);
+        } else if (value instanceof Byte) {
+            output.writeByte(BYTE_TAG);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            output.writeByte(CHAR_TAG);
+            output.writeInt((Character) value);
+        } else if (value instanceof Short) {
+            output.writeByte(SHORT_TAG);
+            output.writeInt((Short) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(INT_TAG);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG_TAG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT_TAG);
+            output.writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE_TAG);
+            output.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof String) {
+            output.writeByte(STRING_TAG);
+            output.writeInt(strings.get((String) value));
+        } else if (value instanceof ClassReference) {
+            output.writeByte(CLASS_TAG);
+            output.writeInt(strings.get(((ClassReference) value).getTypeName()));
+        } else if (value instanceof EnumReference) {
+            EnumReference enumReference = (EnumReference) value;
+            output.writeByte(ENUM_TAG);
+            output.writeInt(strings.get(enumReference.getTypeName()));
+            output.writeInt(strings.get(enumReference.getConstantName()));
+        } else if (value instanceof ImmutableList) {
+            List<?> values = (List<?>) value;
+            output.writeByte(ARRAY_TAG);
+            output.writeInt(values.size());
+            for (Object element : values) {
+                writeValue(output, element, strings);
+            }
+        } else if (value instanceof AnnotationDescriptor) {
+            output.writeByte(ANNOTATION_TAG);
+            writeAnnotation(output, (AnnotationDescriptor) value, strings);
+        } else {
+            throw new IllegalArgumentException("Unsupported descriptor value " + value.getClass());
+        }
+    }
+
+    /**
+     * Assigns each distinct string an index, in order of first use.
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> indexes = new LinkedHashMap<String, Integer>();
+
+        public int get(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = indexes.size();
+                indexes.put(value, index);
+            }
+            return index;
+        }
+
+        public Collection<String> values() {
+            return indexes.keySet();
+        }
+
+        public int size() {
+            return indexes.size();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.*;
+
+/**
+ * Describes loaded classes through reflection.  Used to build the platform type index and as the reference the other
+ * descriptor sources are tested against.
+ *
+ * @author John Ericksen
+ */
+public class ReflectionDescriptorReader {
+
+    private static final ImmutableMap<Class<?>, Character> PRIMITIVE_DESCRIPTORS = ImmutableMap.<Class<?>, Character>builder()
+            .put(boolean.class, 'Z')
+            .put(byte.class, 'B')
+            .put(char.class, 'C')
+            .put(short.class, 'S')
+            .put(int.class, 'I')
+            .put(long.class, 'J')
+            .put(float.class, 'F')
+            .put(double.class, 'D')
+            .put(void.class, 'V')
+            .build();
+
+    public TypeDescriptor read(Class<?> clazz) {
+        ImmutableList.Builder<String> interfaceNames = ImmutableList.builder();
+        for (Class<?> interfaceClass : clazz.getInterfaces()) {
+            interfaceNames.add(getTypeName(interfaceClass));
+        }
+
+        ImmutableList.Builder<FieldDescriptor> fields = ImmutableList.builder();
+        for (Field field : clazz.getDeclaredFields()) {
+            fields.add(new FieldDescriptor(field.getName(), field.getModifiers(), getTypeName(field.getType()), getSignature(field),
+                    getAnnotations(field.getAnnotations()), getConstantValue(field)));
+        }
+
+        ImmutableList.Builder<MethodDescriptor> methods = ImmutableList.builder();
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            methods.add(new MethodDescriptor(MethodDescriptor.CONSTRUCTOR_NAME, constructor.getModifiers(), "void",
+                    getSignature(constructor.getTypeParameters(), constructor.getGenericParameterTypes(), void.class,
+                            constructor.getGenericExceptionTypes()),
+                    getTypeNames(constructor.getParameterTypes()),
+                    getParameterAnnotations(constructor.getParameterAnnotations()),
+                    getTypeNames(constructor.getExceptionTypes()),
+                    getAnnotations(constructor.getAnnotations()), null));
+        }
+        for (Method method : clazz.getDeclaredMethods()) {
+            methods.add(new MethodDescriptor(method.getName(), method.getModifiers(), getTypeName(method.getReturnType()),
+                    getSignature(method.getTypeParameters(), method.getGenericParameterTypes(), method.getGenericReturnType(),
+                            method.getGenericExceptionTypes()),
+                    getTypeNames(method.getParameterTypes()),
+                    getParameterAnnotations(method.getParameterAnnotations()),
+                    getTypeNames(method.getExceptionTypes()),
+                    getAnnotations(method.getAnnotations()),
+                    method.getDefaultValue() == null ? null : getValue(method.getDefaultValue())));
+        }
+
+        return new TypeDescriptor(clazz.getName(),
+                clazz.getModifiers(),
+                clazz.getSuperclass() == null ? null : clazz.getSuperclass().getName(),
+                interfaceNames.build(),
+                Suppliers.ofInstance(getSignature(clazz)),
+                Suppliers.ofInstance(getAnnotations(clazz.getAnnotations())),
+                Suppliers.ofInstance(fields.build()),
+                Suppliers.ofInstance(methods.build()));
+    }
+
+    /**
+     * Mirrors the Signature attribute javac writes for a class: only if the class declares type parameters or extends
+     * or implements a generic type.
+     */
+    private String getSignature(Class<?> clazz) {
+        if (clazz.getTypeParameters().length == 0 && !isGeneric(clazz.getGenericSuperclass()) &&
+                !isGeneric(clazz.getGenericInterfaces())) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        appendTypeParameters(builder, clazz.getTypeParameters());
+        //interfaces name Object as their super class
+        appendType(builder, clazz.getGenericSuperclass() == null ? Object.class : clazz.getGenericSuperclass());
+        for (Type interfaceType : clazz.getGenericInterfaces()) {
+            appendType(builder, interfaceType);
+        }
+        return builder.toString();
+    }
+
+    private String getSignature(Field field) {
+        if (!isGeneric(field.getGenericType())) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        appendType(builder, field.getGenericType());
+        return builder.toString();
+    }
+
+    private String getSignature(TypeVariable<?>[] typeParameters, Type[] parameterTypes, Type returnType, Type[] exceptionTypes) {
+        if (typeParameters.length == 0 && !isGeneric(parameterTypes) && !isGeneric(returnType) && !isGeneric(exceptionTypes)) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        appendTypeParameters(builder, typeParameters);
+        builder.append('(');
+        for (Type parameterType : parameterTypes) {
+            appendType(builder, parameterType);
+        }
+        builder.append(')');
+        appendType(builder, returnType);
+        if (isGeneric(exceptionTypes)) {
+            for (Type exceptionType : exceptionTypes) {
+                builder.append('^');
+                appendType(builder, exceptionType);
+            }
+        }
+        return builder.toString();
+    }
+
+    private void appendTypeParameters(StringBuilder builder, TypeVariable<?>[] typeParameters) {
+        if (typeParameters.length == 0) {
+            return;
+        }
+        builder.append('<');
+        for (TypeVariable<?> typeParameter : typeParameters) {
+            builder.append(typeParameter.getName());
+            Type[] bounds = typeParameter.getBounds();
+            for (int i = 0; i < bounds.length; i++) {
+                //an interface bound leaves the class bound empty
+                if (i == 0 && isInterface(bounds[i])) {
+                    builder.append(':');
+                }
+                builder.append(':');
+                appendType(builder, bounds[i]);
+            }
+        }
+        builder.append('>');
+    }
+
+    private boolean isInterface(Type type) {
+        if (type instanceof ParameterizedType) {
+            return isInterface(((ParameterizedType) type).getRawType());
+        }
+        return type instanceof Class && ((Class<?>) type).isInterface();
+    }
+
+    private void appendType(StringBuilder builder, Type type) {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            if (clazz.isArray()) {
+                builder.append('[');
+                appendType(builder, clazz.getComponentType());
+            } else if (clazz.isPrimitive()) {
+                builder.append(PRIMITIVE_DESCRIPTORS.get(clazz));
+            } else {
+                builder.append('L').append(clazz.getName().replace('.', '/')).append(';');
+            }
+        } else if (type instanceof ParameterizedType) {
+            appendClassType(builder, (ParameterizedType) type);
+            builder.append(';');
+        } else if (type instanceof TypeVariable) {
+            builder.append('T').append(((TypeVariable<?>) type).getName()).append(';');
+        } else if (type instanceof GenericArrayType) {
+            builder.append('[');
+            appendType(builder, ((GenericArrayType) type).getGenericComponentType());
+        } else if (type instanceof WildcardType) {
+            WildcardType wildcardType = (WildcardType) type;
+            if (wildcardType.getLowerBounds().length > 0) {
+                builder.append('-');
+                appendType(builder, wildcardType.getLowerBounds()[0]);
+            } else if (wildcardType.getUpperBounds()[0].equals(Object.class)) {
+                builder.append('*');
+            } else {
+                builder.append('+');
+                appendType(builder, wildcardType.getUpperBounds()[0]);
+            }
+        } else {
+            throw new TransfuseAnalysisException("Unable to describe type " + type);
+        }
+    }
+
+    private void appendClassType(StringBuilder builder, ParameterizedType parameterizedType) {
+        Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+        if (parameterizedType.getOwnerType() instanceof ParameterizedType) {
+            appendClassType(builder, (ParameterizedType) parameterizedType.getOwnerType());
+            builder.append('.').append(rawType.getSimpleName());
+        } else {
+            builder.append('L').append(rawType.getName().replace('.', '/'));
+        }
+        Type[] typeArguments = parameterizedType.getActualTypeArguments();
+        if (typeArguments.length > 0) {
+            builder.append('<');
+            for (Type typeArgument : typeArguments) {
+                appendType(builder, typeArgument);
+            }
+            builder.append('>');
+        }
+    }
+
+    private boolean isGeneric(Type[] types) {
+        for (Type type : types) {
+            if (isGeneric(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isGeneric(Type type) {
+        return type != null && !(type instanceof Class);
+    }
+
+    /**
+     * Builds the descriptor type name of the given class.
+     *
+     * @param clazz class
+     * @return binary or primitive name, followed by [] per array dimension
+     */
+    public static String getTypeName(Class<?> clazz) {
+        if (clazz.isArray()) {
+            return getTypeName(clazz.getComponentType()) + "[]";
+        }
+        return clazz.getName();
+    }
+
+    private ImmutableList<String> getTypeNames(Class<?>[] classes) {
+        ImmutableList.Builder<String> names = ImmutableList.builder();
+        for (Class<?> clazz : classes) {
+            names.add(getTypeName(clazz));
+        }
+        return names.build();
+    }
+
+    private ImmutableList<ImmutableList<AnnotationDescriptor>> getParameterAnnotations(Annotation[][] parameterAnnotations) {
+        ImmutableList.Builder<ImmutableList<AnnotationDescriptor>> annotations = ImmutableList.builder();
+        for (Annotation[] parameterAnnotation : parameterAnnotations) {
+            annotations.add(getAnnotations(parameterAnnotation));
+        }
+        return annotations.build();
+    }
+
+    private ImmutableList<AnnotationDescriptor> getAnnotations(Annotation[] annotations) {
+        ImmutableList.Builder<AnnotationDescriptor> descriptors = ImmutableList.builder();
+        for (Annotation annotation : annotations) {
+            descriptors.add(getAnnotation(annotation));
+        }
+        return descriptors.build();
+    }
+
+    private AnnotationDescriptor getAnnotation(Annotation annotation) {
+        ImmutableMap.Builder<String, Object> values = ImmutableMap.builder();
+        for (Method property : annotation.annotationType().getDeclaredMethods()) {
+            try {
+                property.setAccessible(true);
+                values.put(property.getName(), getValue(property.invoke(annotation)));
+            } catch (IllegalAccessException e) {
+                throw new TransfuseAnalysisException("Unable to read annotation property " + property, e);
+            } catch (InvocationTargetException e) {
+                throw new TransfuseAnalysisException("Unable to read annotation property " + property, e);
+            }
+        }
+        return new AnnotationDescriptor(annotation.annotationType().getName(), values.build());
+    }
+
+    private Object getValue(Object value) {
+        if (value instanceof Class) {
+            return new ClassReference(getTypeName((Class<?>) value));
+        }
+        if (value instanceof Enum) {
+            Enum<?> enumValue = (Enum<?>) value;
+            return new EnumReference(enumValue.getDeclaringClass().getName(), enumValue.name());
+        }
+        if (value instanceof Annotation) {
+            return getAnnotation((Annotation) value);
+        }
+        if (value.getClass().isArray()) {
+            ImmutableList.Builder<Object> values = ImmutableList.builder();
+            for (int i = 0; i < Array.getLength(value); i++) {
+                values.add(getValue(Array.get(value, i)));
+            }
+            return values.build();
+        }
+        return value;
+    }
+
+    private Object getConstantValue(Field field) {
+        int modifiers = field.getModifiers();
+        if (!Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers) ||
+                !(field.getType().isPrimitive() || field.getType().equals(String.class))) {
+            return null;
+        }
+        try {
+            field.setAccessible(true);
+            return field.get(null);
+        } catch (IllegalAccessException e) {
+            return null;
+        } catch (LinkageError e) {
+            //stubbed platform classes may fail to initialize
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses the JVM Signature strings of TypeDescriptors into the generic types of their supertypes and members.  Type
+ * parameter declarations and thrown types are skipped, only the type arguments of the referenced types are kept.
+ *
+ * @author John Ericksen
+ */
+final class SignatureParser {
+
+    private static final ImmutableMap<Character, String> PRIMITIVES = ImmutableMap.<Character, String>builder()
+            .put('Z', "boolean")
+            .put('B', "byte")
+            .put('C', "char")
+            .put('S', "short")
+            .put('I', "int")
+            .put('J', "long")
+            .put('F', "float")
+            .put('D', "double")
+            .put('V', "void")
+            .build();
+
+    private final String signature;
+    private int position = 0;
+
+    private SignatureParser(String signature) {
+        this.signature = signature;
+    }
+
+    public static ClassSignature parseClass(String signature) {
+        SignatureParser parser = new SignatureParser(signature);
+        parser.skipTypeParameters();
+        TypeSignature superClass = parser.parseType();
+        ImmutableList.Builder<TypeSignature> interfaces = ImmutableList.builder();
+        while (parser.position < signature.length()) {
+            interfaces.add(parser.parseType());
+        }
+        return new ClassSignature(superClass, interfaces.build());
+    }
+
+    public static TypeSignature parseField(String signature) {
+        return new SignatureParser(signature).parseType();
+    }
+
+    public static MethodSignature parseMethod(String signature) {
+        SignatureParser parser = new SignatureParser(signature);
+        parser.skipTypeParameters();
+        parser.expect('(');
+        ImmutableList.Builder<TypeSignature> parameters = ImmutableList.builder();
+        while (parser.peek() != ')') {
+            parameters.add(parser.parseType());
+        }
+        parser.expect(')');
+        return new MethodSignature(parameters.build(), parser.parseType());
+    }
+
+    private void skipTypeParameters() {
+        if (peek() != '<') {
+            return;
+        }
+        position++;
+        while (peek() != '>') {
+            //identifier, class bound and interface bounds
+            position = signature.indexOf(':', position) + 1;
+            if (peek() != ':') {
+                parseType();
+            }
+            while (peek() == ':') {
+                position++;
+                parseType();
+            }
+        }
+        position++;
+    }
+
+    private TypeSignature parseType() {
+        char tag = signature.charAt(position++);
+        switch (tag) {
+            case 'L':
+                return parseClassType();
+            case 'T':
+                int end = signature.indexOf(';', position);
+                String variableName = signature.substring(position, end);
+                position = end + 1;
+                return new TypeSignature(null, variableName, null);
+            case '[':
+                TypeSignature componentType = parseType();
+                //generic arrays of type variables have no erased class
+                return new TypeSignature(componentType.getErasedName() == null ? null : componentType.getErasedName() + "[]", null, null);
+            default:
+                String primitive = PRIMITIVES.get(tag);
+                if (primitive == null) {
+                    throw new TransfuseAnalysisException("Unable to parse signature " + signature + " at " + (position - 1));
+                }
+                return new TypeSignature(primitive, null, null);
+        }
+    }
+
+    private TypeSignature parseClassType() {
+        StringBuilder name = new StringBuilder();
+        List<TypeSignature> typeArguments = null;
+        char next = signature.charAt(position++);
+        while (next != ';') {
+            if (next == '/') {
+                name.append('.');
+            } else if (next == '.') {
+                name.append('$');
+                if (typeArguments != null) {
+                    //a member of a parameterized owner only reports its own type arguments
+                    typeArguments = Collections.emptyList();
+                }
+            } else if (next == '<') {
+                typeArguments = parseTypeArguments();
+            } else {
+                name.append(next);
+            }
+            next = signature.charAt(position++);
+        }
+        return new TypeSignature(name.toString(), null, typeArguments);
+    }
+
+    private List<TypeSignature> parseTypeArguments() {
+        List<TypeSignature> typeArguments = new ArrayList<TypeSignature>();
+        while (peek() != '>') {
+            char wildcard = peek();
+            if (wildcard == '*') {
+                position++;
+                typeArguments.add(null);
+            } else if (wildcard == '+' || wildcard == '-') {
+                position++;
+                parseType();
+                typeArguments.add(null);
+            } else {
+                typeArguments.add(parseType());
+            }
+        }
+        position++;
+        return Collections.unmodifiableList(typeArguments);
+    }
+
+    private char peek() {
+        return signature.charAt(position);
+    }
+
+    private void expect(char expected) {
+        if (signature.charAt(position++) != expected) {
+            throw new TransfuseAnalysisException("Unable to parse signature " + signature + ", expected " + expected + " at " + (position - 1));
+        }
+    }
+
+    /**
+     * Generic type referenced by a signature.
+     */
+    public static final class TypeSignature {
+
+        private final String erasedName;
+        private final String variableName;
+        private final List<TypeSignature> typeArguments;
+
+        private TypeSignature(String erasedName, String variableName, List<TypeSignature> typeArguments) {
+            this.erasedName = erasedName;
+            this.variableName = variableName;
+            this.typeArguments = typeArguments;
+        }
+
+        /**
+         * @return descriptor type name of the erased class, null for type variables and their arrays
+         */
+        public String getErasedName() {
+            return erasedName;
+        }
+
+        /**
+         * @return name of the referenced type variable, or null
+         */
+        public String getVariableName() {
+            return variableName;
+        }
+
+        /**
+         * @return type arguments of a parameterized class type, wildcards are null, or null if not parameterized
+         */
+        public List<TypeSignature> getTypeArguments() {
+            return typeArguments;
+        }
+    }
+
+    /**
+     * Generic super class and interfaces of a class Signature.
+     */
+    public static final class ClassSignature {
+
+        private final TypeSignature superClass;
+        private final ImmutableList<TypeSignature> interfaces;
+
+        private ClassSignature(TypeSignature superClass, ImmutableList<TypeSignature> interfaces) {
+            this.superClass = superClass;
+            this.interfaces = interfaces;
+        }
+
+        public TypeSignature getSuperClass() {
+            return superClass;
+        }
+
+        public ImmutableList<TypeSignature> getInterfaces() {
+            return interfaces;
+        }
+    }
+
+    /**
+     * Generic parameter and return types of a method Signature.
+     */
+    public static final class MethodSignature {
+
+        private final ImmutableList<TypeSignature> parameters;
+        private final TypeSignature returnType;
+
+        private MethodSignature(ImmutableList<TypeSignature> parameters, TypeSignature returnType) {
+            this.parameters = parameters;
+            this.returnType = returnType;
+        }
+
+        /**
+         * @return generic parameter types, synthetic parameters such as the outer instance of an inner class are
+         * omitted
+         */
+        public ImmutableList<TypeSignature> getParameters() {
+            return parameters;
+        }
+
+        public TypeSignature getReturnType() {
+            return returnType;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Class loader independent description of a class: its names, supertypes, members and annotations.  Type names are
+ * binary names (<code>Class.getName()</code>), primitive names, or either followed by <code>[]</code> per array
+ * dimension.  Generic types are described by their JVM Signature strings, alongside the erased names.  The signature,
+ * members and annotations are supplied lazily so they may be decoded on first use.
+ *
+ * @author John Ericksen
+ */
+public class TypeDescriptor {
+
+    private final String name;
+    private final int modifiers;
+    private final String superClassName;
+    private final ImmutableList<String> interfaceNames;
+    private final Supplier<String> signature;
+    private final Supplier<ImmutableList<AnnotationDescriptor>> annotations;
+    private final Supplier<ImmutableList<FieldDescriptor>> fields;
+    private final Supplier<ImmutableList<MethodDescriptor>> methods;
+
+    public TypeDescriptor(String name,
+                          int modifiers,
+                          String superClassName,
+                          ImmutableList<String> interfaceNames,
+                          Supplier<String> signature,
+                          Supplier<ImmutableList<AnnotationDescriptor>> annotations,
+                          Supplier<ImmutableList<FieldDescriptor>> fields,
+                          Supplier<ImmutableList<MethodDescriptor>> methods) {
+        this.name = name;
+        this.modifiers = modifiers;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+        this.signature = Suppliers.memoize(signature);
+        this.annotations = Suppliers.memoize(annotations);
+        this.fields = Suppliers.memoize(fields);
+        this.methods = Suppliers.memoize(methods);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return class access flags, as defined by <code>java.lang.reflect.Modifier</code> and the class file format
+     */
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    /**
+     * @return binary name of the super class, or null for <code>java.lang.Object</code> and interfaces
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public ImmutableList<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * @return class Signature, declaring the type parameters and the generic supertypes, or null if the class is not
+     * generic
+     */
+    public String getSignature() {
+        return signature.get();
+    }
+
+    public ImmutableList<AnnotationDescriptor> getAnnotations() {
+        return annotations.get();
+    }
+
+    public ImmutableList<FieldDescriptor> getFields() {
+        return fields.get();
+    }
+
+    /**
+     * @return declared methods and constructors, constructors are named <code>&lt;init&gt;</code>
+     */
+    public ImmutableList<MethodDescriptor> getMethods() {
+        return methods.get();
+    }
+}
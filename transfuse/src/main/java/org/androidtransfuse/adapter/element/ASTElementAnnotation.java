@@ -25,6 +25,7 @@ import org.androidtransfuse.adapter.ASTType;
 import javax.inject.Inject;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import java.util.Map;
 
@@ -37,15 +38,18 @@ public class ASTElementAnnotation implements ASTAnnotation {
 
     private final AnnotationMirror annotationMirror;
     private final ASTType type;
+    private final Element annotatedElement;
     private final ElementConverterFactory elementConverterFactory;
 
     @Inject
     public ASTElementAnnotation(@Assisted AnnotationMirror annotationMirror,
                                 @Assisted ASTType type,
+                                @Assisted Element annotatedElement,
                                 ElementConverterFactory elementConverterFactory) {
         this.annotationMirror = annotationMirror;
         this.elementConverterFactory = elementConverterFactory;
         this.type = type;
+        this.annotatedElement = annotatedElement;
     }
 
     @Override
@@ -66,7 +70,7 @@ public class ASTElementAnnotation implements ASTAnnotation {
     public <T> T getProperty(String value, Class<T> type) {
         for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationMirror.getElementValues().entrySet()) {
             if (value.equals(entry.getKey().getSimpleName().toString())) {
-                return entry.getValue().accept(elementConverterFactory.buildAnnotationValueConverter(type), null);
+                return entry.getValue().accept(elementConverterFactory.buildAnnotationValueConverter(type, annotatedElement), null);
             }
         }
         return null;
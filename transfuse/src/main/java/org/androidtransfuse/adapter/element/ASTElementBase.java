@@ -15,10 +15,12 @@
  */
 package org.androidtransfuse.adapter.element;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableCollection;
 import org.androidtransfuse.adapter.ASTAnnotation;
+import org.androidtransfuse.adapter.ASTAnnotationIndex;
 import org.androidtransfuse.adapter.ASTBase;
-import org.androidtransfuse.adapter.ASTUtils;
 
 import javax.lang.model.element.Element;
 import java.lang.annotation.Annotation;
@@ -32,15 +34,21 @@ import java.util.Collection;
 public class ASTElementBase implements ASTBase {
 
     private final Element element;
-    private final ImmutableCollection<ASTAnnotation> annotations;
+    private final Supplier<ImmutableCollection<ASTAnnotation>> annotations;
+    private final Supplier<ASTAnnotationIndex> annotationIndex;
 
     public ASTElementBase(Element element, ImmutableCollection<ASTAnnotation> annotations) {
+        this(element, Suppliers.ofInstance(annotations));
+    }
+
+    public ASTElementBase(Element element, Supplier<ImmutableCollection<ASTAnnotation>> annotations) {
         this.element = element;
         this.annotations = annotations;
+        this.annotationIndex = ASTAnnotationIndex.lazy(annotations);
     }
 
     public boolean isAnnotated(Class<? extends Annotation> annotation) {
-        return getASTAnnotation(annotation) != null;
+        return annotationIndex.get().contains(annotation);
     }
 
     public <A extends Annotation> A getAnnotation(Class<A> annotation) {
@@ -53,11 +61,11 @@ public class ASTElementBase implements ASTBase {
 
     @Override
     public Collection<ASTAnnotation> getAnnotations() {
-        return annotations;
+        return annotations.get();
     }
 
     @Override
     public ASTAnnotation getASTAnnotation(Class annotation) {
-        return ASTUtils.getInstance().getAnnotation(annotation, getAnnotations());
+        return annotationIndex.get().get(annotation);
     }
 }
@@ -16,43 +16,63 @@
 package org.androidtransfuse.adapter.element;
 
 import com.google.common.base.Predicates;
+import com.google.common.base.Supplier;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import org.androidtransfuse.adapter.*;
 import org.androidtransfuse.model.PackageClass;
+import org.androidtransfuse.processor.MissingTypeDependencies;
+import org.androidtransfuse.processor.MissingTypeException;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.lang.model.element.*;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Factory class to build a specific AST tree element from the provided Element base type
+ * Factory class to build a specific AST tree element from the provided Element base type.
+ * <p/>
+ * Types are cached by qualified name and reused across processing rounds.  Members and annotations are materialized
+ * from the TypeElement of the round they are first accessed in, not the round the type was built in.  Members which
+ * failed to resolve a missing type are recorded in the MissingTypeDependencies and reloaded from the current round's
+ * TypeElement by <code>reload()</code> once the missing type may have been generated.
  *
  * @author John Ericksen
  */
 @Singleton
 public class ASTElementFactory {
 
-    private final Map<TypeElement, ASTType> typeCache = new HashMap<TypeElement, ASTType>();
+    private final ASTTypeCache<Object> typeCache;
+    //held as long as their type, evicted types are rebuilt rather than reloaded
+    private final ConcurrentMap<String, ReloadableMembers> reloadableMembers =
+            CacheBuilder.newBuilder().weakValues().<String, ReloadableMembers>build().asMap();
 
     private final ASTElementConverterFactory astElementConverterFactory;
     private final ASTTypeBuilderVisitor astTypeBuilderVisitor;
     private final ASTFactory astFactory;
     private final Elements elements;
+    private final ASTMaterializationStatistics statistics;
+    private final MissingTypeDependencies missingTypeDependencies;
 
     @Inject
     public ASTElementFactory(Elements elements,
                              ASTFactory astFactory,
                              ASTTypeBuilderVisitor astTypeBuilderVisitor,
-                             ASTElementConverterFactory astElementConverterFactory) {
+                             ASTElementConverterFactory astElementConverterFactory,
+                             ASTMaterializationStatistics statistics,
+                             MissingTypeDependencies missingTypeDependencies,
+                             ASTCaches caches) {
+        this.typeCache = caches.buildTypeCache("element types");
         this.elements = elements;
+        this.statistics = statistics;
+        this.missingTypeDependencies = missingTypeDependencies;
         this.astFactory = astFactory;
         this.astTypeBuilderVisitor = astTypeBuilderVisitor;
         this.astElementConverterFactory = astElementConverterFactory;
@@ -74,21 +94,52 @@ public class ASTElementFactory {
      * @param typeElement required input Element
      * @return ASTType constructed using teh input Element
      */
-    public synchronized ASTType getType(TypeElement typeElement) {
-        if (!typeCache.containsKey(typeElement)) {
-            typeCache.put(typeElement, buildType(typeElement));
-        }
+    public ASTType getType(final TypeElement typeElement) {
+        return typeCache.get(getCacheKey(typeElement), new ASTTypeCache.Builder() {
+            @Override
+            public PackageClass getPackageClass() {
+                return buildPackageClass(typeElement);
+            }
+
+            @Override
+            public ASTType build() {
+                return buildType(typeElement);
+            }
+        });
+    }
 
-        return typeCache.get(typeElement);
+    /**
+     * Reloads the members and annotations of the given previously built type from the TypeElement of the current
+     * round.  The type instance is kept, so types referencing it see the reloaded members.
+     *
+     * @param qualifiedName type name
+     * @return the reloaded type, null if the type was not built before or cannot be found
+     */
+    public ASTType reload(String qualifiedName) {
+        ReloadableMembers members = reloadableMembers.get(qualifiedName);
+        if (members == null) {
+            return null;
+        }
+        TypeElement typeElement = elements.getTypeElement(qualifiedName);
+        if (typeElement == null) {
+            return null;
+        }
+        members.load(typeElement);
+        statistics.typeReloaded();
+        return members.type;
     }
 
-    private ASTType buildType(TypeElement typeElement) {
-        //build placeholder for ASTElementType and contained data structures to allow for children population
-        //while avoiding back link loops
-        ImmutableList.Builder<ASTConstructor> constructors = ImmutableList.builder();
-        ImmutableList.Builder<ASTField> fields = ImmutableList.builder();
-        ImmutableList.Builder<ASTMethod> methods = ImmutableList.builder();
+    private Object getCacheKey(TypeElement typeElement) {
+        String qualifiedName = typeElement.getQualifiedName().toString();
+        if (qualifiedName.length() == 0 || typeElement.asType().getKind() == TypeKind.ERROR) {
+            //local and anonymous types have no name to be found by in later rounds, erroneous types may be generated
+            return typeElement;
+        }
+        return qualifiedName;
+    }
 
+    private ASTType buildType(final TypeElement typeElement) {
+        //the cache hands out a placeholder for this type while it is built, allowing supertypes to refer back to it
         ASTType superClass = null;
         if (typeElement.getSuperclass() != null) {
             superClass = typeElement.getSuperclass().accept(astTypeBuilderVisitor, null);
@@ -98,34 +149,79 @@ public class ASTElementFactory {
                 .transform(astTypeBuilderVisitor)
                 .toImmutableList();
 
-        ImmutableList.Builder<ASTAnnotation> annotations = ImmutableList.builder();
-
         PackageClass packageClass = buildPackageClass(typeElement);
 
-        ASTTypeVirtualProxy astTypeProxy = new ASTTypeVirtualProxy(packageClass);
-        typeCache.put(typeElement, astTypeProxy);
+        statistics.typeBuilt();
 
-        //iterate and build the contained elements within this TypeElement
-        constructors.addAll(transformAST(typeElement.getEnclosedElements(), ASTConstructor.class));
-        fields.addAll(transformAST(typeElement.getEnclosedElements(), ASTField.class));
-        methods.addAll(transformAST(typeElement.getEnclosedElements(), ASTMethod.class));
+        //the contained elements within this TypeElement are built on first access
+        ReloadableMembers members = new ReloadableMembers();
+        members.load(typeElement);
 
-        annotations.addAll(getAnnotations(typeElement));
-
-        ASTType astType = new ASTElementType(packageClass,
+        ASTElementType astType = new ASTElementType(packageClass,
                 typeElement,
-                constructors.build(),
-                methods.build(),
-                fields.build(),
+                members.constructors,
+                members.methods,
+                members.fields,
                 superClass,
                 interfaces,
-                annotations.build());
+                members.annotations);
 
-        astTypeProxy.load(astType);
+        members.type = astType;
+        Object key = getCacheKey(typeElement);
+        if (key instanceof String) {
+            reloadableMembers.put((String) key, members);
+        }
 
         return astType;
     }
 
+    private <T extends ASTBase> Supplier<ImmutableCollection<T>> lazyMembers(ASTMaterializationStatistics.Member member,
+                                                                            final TypeElement typeElement,
+                                                                            final Class<T> astType) {
+        return statistics.lazy(member, new Supplier<ImmutableCollection<T>>() {
+            @Override
+            public ImmutableCollection<T> get() {
+                TypeElement currentElement = getCurrentElement(typeElement);
+                try {
+                    return transformAST(currentElement.getEnclosedElements(), astType);
+                } catch (MissingTypeException e) {
+                    missingTypeDependencies.record(currentElement, e.getMissingType());
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private Supplier<ImmutableCollection<ASTAnnotation>> lazyAnnotations(final TypeElement typeElement) {
+        return statistics.lazy(ASTMaterializationStatistics.Member.ANNOTATIONS, new Supplier<ImmutableCollection<ASTAnnotation>>() {
+            @Override
+            public ImmutableCollection<ASTAnnotation> get() {
+                TypeElement currentElement = getCurrentElement(typeElement);
+                try {
+                    return getAnnotations(currentElement);
+                } catch (MissingTypeException e) {
+                    missingTypeDependencies.record(currentElement, e.getMissingType());
+                    throw e;
+                }
+            }
+        });
+    }
+
+    /**
+     * Looks up the TypeElement of the current round for a type built in an earlier round, the elements of an earlier
+     * round keep the member types that were missing at that time.
+     */
+    private TypeElement getCurrentElement(TypeElement typeElement) {
+        Object key = getCacheKey(typeElement);
+        if (key instanceof String) {
+            TypeElement currentElement = elements.getTypeElement((String) key);
+            if (currentElement != null) {
+                return currentElement;
+            }
+        }
+        return typeElement;
+    }
+
     private PackageClass buildPackageClass(TypeElement typeElement) {
 
         PackageElement packageElement = elements.getPackageOf(typeElement);
@@ -136,7 +232,7 @@ public class ASTElementFactory {
         return new PackageClass(pkg, name);
     }
 
-    private <T extends ASTBase> List<T> transformAST(List<? extends Element> enclosedElements, Class<T> astType) {
+    private <T extends ASTBase> ImmutableList<T> transformAST(List<? extends Element> enclosedElements, Class<T> astType) {
         return FluentIterable
                 .from(enclosedElements)
                 .transform(astElementConverterFactory.buildASTElementConverter(astType))
@@ -238,9 +334,45 @@ public class ASTElementFactory {
         for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
             ASTType type = getType((TypeElement) annotationMirror.getAnnotationType().asElement());
 
-            annotationBuilder.add(astFactory.buildASTElementAnnotation(annotationMirror, type));
+            annotationBuilder.add(astFactory.buildASTElementAnnotation(annotationMirror, type, element));
         }
 
         return annotationBuilder.build();
     }
+
+    /**
+     * Members of a built type, reloadable from the TypeElement of a later round.
+     */
+    private final class ReloadableMembers {
+
+        private final ReloadableSupplier<ImmutableCollection<ASTConstructor>> constructors = new ReloadableSupplier<ImmutableCollection<ASTConstructor>>();
+        private final ReloadableSupplier<ImmutableCollection<ASTMethod>> methods = new ReloadableSupplier<ImmutableCollection<ASTMethod>>();
+        private final ReloadableSupplier<ImmutableCollection<ASTField>> fields = new ReloadableSupplier<ImmutableCollection<ASTField>>();
+        private final ReloadableSupplier<ImmutableCollection<ASTAnnotation>> annotations = new ReloadableSupplier<ImmutableCollection<ASTAnnotation>>();
+        private volatile ASTType type;
+
+        private void load(TypeElement typeElement) {
+            constructors.load(lazyMembers(ASTMaterializationStatistics.Member.CONSTRUCTORS, typeElement, ASTConstructor.class));
+            methods.load(lazyMembers(ASTMaterializationStatistics.Member.METHODS, typeElement, ASTMethod.class));
+            fields.load(lazyMembers(ASTMaterializationStatistics.Member.FIELDS, typeElement, ASTField.class));
+            annotations.load(lazyAnnotations(typeElement));
+        }
+
+        /**
+         * Supplier handed to the type, keeping these members reachable for as long as the type is.
+         */
+        private final class ReloadableSupplier<T> implements Supplier<T> {
+
+            private volatile Supplier<T> delegate;
+
+            private void load(Supplier<T> delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public T get() {
+                return delegate.get();
+            }
+        }
+    }
 }
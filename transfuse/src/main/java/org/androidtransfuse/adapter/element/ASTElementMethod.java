@@ -54,7 +54,7 @@ public class ASTElementMethod extends ASTElementBase implements ASTMethod {
 
         @Override
         protected ASTType buildASTType(ExecutableElement element, ASTTypeBuilderVisitor astTypeBuilderVisitor) {
-            return element.getReturnType().accept(astTypeBuilderVisitor, null);
+            return astTypeBuilderVisitor.resolve(element.getReturnType(), element);
         }
     }
 
@@ -15,11 +15,11 @@
  */
 package org.androidtransfuse.adapter.element;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableCollection;
 import org.androidtransfuse.adapter.*;
 import org.androidtransfuse.model.PackageClass;
-import org.apache.commons.lang.builder.EqualsBuilder;
-import org.apache.commons.lang.builder.HashCodeBuilder;
 
 import javax.lang.model.element.TypeElement;
 import java.util.Collection;
@@ -27,7 +27,7 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Element specific AST Type
+ * Element specific AST Type.  Members and annotations are supplied lazily, built on first access.
  *
  * @author John Ericksen
  */
@@ -35,22 +35,32 @@ public class ASTElementType extends ASTElementBase implements ASTType {
 
     private final TypeElement typeElement;
     private final PackageClass packageClass;
-    private final ImmutableCollection<ASTMethod> methods;
-    private final ImmutableCollection<ASTConstructor> constructors;
-    private final ImmutableCollection<ASTField> fields;
+    private final String name;
+    private final int hashCode;
+    private final Supplier<ImmutableCollection<ASTMethod>> methods;
+    private final Supplier<ImmutableCollection<ASTConstructor>> constructors;
+    private final Supplier<ImmutableCollection<ASTField>> fields;
     private final ImmutableCollection<ASTType> interfaces;
     private final ASTType superClass;
+    private final Supplier<ASTSupertypes> supertypes = Suppliers.memoize(new Supplier<ASTSupertypes>() {
+        @Override
+        public ASTSupertypes get() {
+            return ASTSupertypes.build(ASTElementType.this);
+        }
+    });
 
     public ASTElementType(PackageClass packageClass,
                           TypeElement typeElement,
-                          ImmutableCollection<ASTConstructor> constructors,
-                          ImmutableCollection<ASTMethod> methods,
-                          ImmutableCollection<ASTField> fields,
+                          Supplier<ImmutableCollection<ASTConstructor>> constructors,
+                          Supplier<ImmutableCollection<ASTMethod>> methods,
+                          Supplier<ImmutableCollection<ASTField>> fields,
                           ASTType superClass,
                           ImmutableCollection<ASTType> interfaces,
-                          ImmutableCollection<ASTAnnotation> annotations) {
+                          Supplier<ImmutableCollection<ASTAnnotation>> annotations) {
         super(typeElement, annotations);
         this.packageClass = packageClass;
+        this.name = ASTUtils.getInstance().intern(packageClass.getCanonicalName());
+        this.hashCode = ASTUtils.getInstance().hashName(name);
         this.typeElement = typeElement;
         this.constructors = constructors;
         this.methods = methods;
@@ -61,7 +71,7 @@ public class ASTElementType extends ASTElementBase implements ASTType {
 
     @Override
     public String getName() {
-        return packageClass.getCanonicalName();
+        return name;
     }
 
     @Override
@@ -71,17 +81,17 @@ public class ASTElementType extends ASTElementBase implements ASTType {
 
     @Override
     public Collection<ASTMethod> getMethods() {
-        return methods;
+        return methods.get();
     }
 
     @Override
     public Collection<ASTField> getFields() {
-        return fields;
+        return fields.get();
     }
 
     @Override
     public Collection<ASTConstructor> getConstructors() {
-        return constructors;
+        return constructors.get();
     }
 
     @Override
@@ -113,14 +123,13 @@ public class ASTElementType extends ASTElementBase implements ASTType {
             return false;
         }
 
-        ASTType that = (ASTType) o;
-
-        return new EqualsBuilder().append(getName(), that.getName()).isEquals();
+        //names are interned, so equal names are usually the same instance
+        return name.equals(((ASTType) o).getName());
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(getName()).hashCode();
+        return hashCode;
     }
 
     @Override
@@ -130,22 +139,17 @@ public class ASTElementType extends ASTElementBase implements ASTType {
 
     @Override
     public boolean inheritsFrom(ASTType type) {
-        return ASTUtils.getInstance().inherits(this, type, true, true);
+        return supertypes.get().contains(type, true, true);
     }
 
     @Override
     public boolean extendsFrom(ASTType type) {
-        return ASTUtils.getInstance().inherits(this, type, false, true);
+        return supertypes.get().contains(type, false, true);
     }
 
     @Override
     public boolean implementsFrom(ASTType type) {
-        return ASTUtils.getInstance().inherits(this, type, true, false);
-    }
-
-    @Override
-    public ASTAnnotation getASTAnnotation(Class annotation) {
-        return ASTUtils.getInstance().getAnnotation(annotation, getAnnotations());
+        return supertypes.get().contains(type, true, false);
     }
 
     @Override
@@ -18,10 +18,12 @@ package org.androidtransfuse.adapter.element;
 import com.google.common.base.Function;
 import org.androidtransfuse.adapter.*;
 import org.androidtransfuse.analysis.TransfuseAnalysisException;
-import org.androidtransfuse.processor.TransactionRuntimeException;
+import org.androidtransfuse.processor.MissingTypeDependencies;
+import org.androidtransfuse.processor.MissingTypeException;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.*;
 import javax.lang.model.util.SimpleTypeVisitor6;
@@ -34,10 +36,30 @@ import javax.lang.model.util.SimpleTypeVisitor6;
 public class ASTTypeBuilderVisitor extends SimpleTypeVisitor6<ASTType, Void> implements Function<TypeMirror, ASTType> {
 
     private final Provider<ASTElementFactory> astElementFactoryProvider;
+    private final MissingTypeDependencies missingTypeDependencies;
 
     @Inject
-    public ASTTypeBuilderVisitor(Provider<ASTElementFactory> astElementFactoryProvider) {
+    public ASTTypeBuilderVisitor(Provider<ASTElementFactory> astElementFactoryProvider,
+                                 MissingTypeDependencies missingTypeDependencies) {
         this.astElementFactoryProvider = astElementFactoryProvider;
+        this.missingTypeDependencies = missingTypeDependencies;
+    }
+
+    /**
+     * Builds the ASTType of the given TypeMirror, recording the type enclosing the referencing element as depending
+     * on the missing type if the TypeMirror cannot be resolved.
+     *
+     * @param typeMirror         type to build
+     * @param referencingElement element declaring the type
+     * @return ASTType
+     */
+    public ASTType resolve(TypeMirror typeMirror, Element referencingElement) {
+        try {
+            return typeMirror.accept(this, null);
+        } catch (MissingTypeException e) {
+            missingTypeDependencies.record(referencingElement, e.getMissingType());
+            throw e;
+        }
     }
 
     @Override
@@ -62,7 +84,21 @@ public class ASTTypeBuilderVisitor extends SimpleTypeVisitor6<ASTType, Void> imp
 
     @Override
     public ASTType visitError(ErrorType errorType, Void v) {
-        throw new TransactionRuntimeException("Encountered ErrorType " + errorType.asElement().getSimpleName() + ", unable to recover");
+        throw new MissingTypeException("Encountered ErrorType " + errorType.asElement().getSimpleName() + ", unable to recover",
+                getMissingTypeName(errorType));
+    }
+
+    private String getMissingTypeName(ErrorType errorType) {
+        //erased name, type arguments of a generic reference do not appear among the types of a round
+        Element element = errorType.asElement();
+        if (element instanceof TypeElement) {
+            String qualifiedName = ((TypeElement) element).getQualifiedName().toString();
+            if (qualifiedName.length() > 0) {
+                return qualifiedName;
+            }
+        }
+        //unresolved reference
+        return element.getSimpleName().toString();
     }
 
     @Override
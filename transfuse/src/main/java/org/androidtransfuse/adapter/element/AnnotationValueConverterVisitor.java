@@ -22,6 +22,7 @@ import org.androidtransfuse.processor.TransactionRuntimeException;
 
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.SimpleAnnotationValueVisitor6;
@@ -40,15 +41,18 @@ public class AnnotationValueConverterVisitor<T> extends SimpleAnnotationValueVis
     private static final String ERROR_TYPE = "<error>";
 
     private final Class<T> type;
+    private final Element annotatedElement;
     private final ASTTypeBuilderVisitor astTypeBuilderVisitor;
     private final ElementConverterFactory astTypeElementConverterFactory;
     private final ASTFactory astFactory;
 
     public AnnotationValueConverterVisitor(Class<T> type,
+                                           Element annotatedElement,
                                            ASTTypeBuilderVisitor astTypeBuilderVisitor,
                                            ElementConverterFactory astTypeElementConverterFactory,
                                            ASTFactory astFactory) {
         this.type = type;
+        this.annotatedElement = annotatedElement;
         this.astTypeBuilderVisitor = astTypeBuilderVisitor;
         this.astTypeElementConverterFactory = astTypeElementConverterFactory;
         this.astFactory = astFactory;
@@ -102,7 +106,7 @@ public class AnnotationValueConverterVisitor<T> extends SimpleAnnotationValueVis
     @Override
     public T visitType(TypeMirror typeMirror, Void aVoid) {
         if (type.isAssignableFrom(ASTType.class)) {
-            return (T) typeMirror.accept(astTypeBuilderVisitor, null);
+            return (T) astTypeBuilderVisitor.resolve(typeMirror, annotatedElement);
         }
         return null;
     }
@@ -115,14 +119,20 @@ public class AnnotationValueConverterVisitor<T> extends SimpleAnnotationValueVis
     @Override
     public T visitArray(List<? extends AnnotationValue> annotationValues, Void aVoid) {
         List annotationASTTypes = new ArrayList();
+        // non-array targets (ie: Object) receive the array values as an Object[]
+        Class componentType = type.isArray() ? type.getComponentType() : Object.class;
 
         for (AnnotationValue annotationValue : annotationValues) {
             annotationASTTypes.add(annotationValue.accept(
-                    new AnnotationValueConverterVisitor(type.getComponentType(), astTypeBuilderVisitor, astTypeElementConverterFactory, astFactory),
+                    new AnnotationValueConverterVisitor(componentType, annotatedElement, astTypeBuilderVisitor, astTypeElementConverterFactory, astFactory),
                     null));
         }
 
-        return (T) annotationASTTypes.toArray((Object[]) Array.newInstance(type.getComponentType(), 0));
+        if (!type.isArray() && !type.isAssignableFrom(Object[].class)) {
+            return null;
+        }
+
+        return (T) annotationASTTypes.toArray((Object[]) Array.newInstance(componentType, 0));
     }
 
     private <P> T visitSimple(Class<P> clazz, P value) {
@@ -140,8 +150,8 @@ public class AnnotationValueConverterVisitor<T> extends SimpleAnnotationValueVis
     @Override
     public T visitAnnotation(AnnotationMirror annotationMirror, Void aVoid) {
         if (type.isAssignableFrom(ASTAnnotation.class)){
-            ASTType annotationType = annotationMirror.getAnnotationType().accept(astTypeBuilderVisitor, null);
-            return (T) astFactory.buildASTElementAnnotation(annotationMirror, annotationType);
+            ASTType annotationType = astTypeBuilderVisitor.resolve(annotationMirror.getAnnotationType(), annotatedElement);
+            return (T) astFactory.buildASTElementAnnotation(annotationMirror, annotationType, annotatedElement);
         }
 
         return null;
@@ -32,6 +32,6 @@ public class ElementASTTypeLazyLoader extends ASTTypeLazyLoader<Element> {
 
     @Override
     protected ASTType buildASTType(Element element, ASTTypeBuilderVisitor astTypeBuilderVisitor) {
-        return element.asType().accept(astTypeBuilderVisitor, null);
+        return astTypeBuilderVisitor.resolve(element.asType(), element);
     }
 }
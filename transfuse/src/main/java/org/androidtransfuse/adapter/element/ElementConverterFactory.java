@@ -19,6 +19,7 @@ import org.androidtransfuse.adapter.ASTFactory;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import javax.lang.model.element.Element;
 
 /**
  * Factory to create Element Converters
@@ -44,7 +45,7 @@ public class ElementConverterFactory {
         return new ASTTypeElementConverter<T>(clazz, astElementFactoryProvider.get());
     }
 
-    public <T> AnnotationValueConverterVisitor<T> buildAnnotationValueConverter(Class<T> clazz) {
-        return new AnnotationValueConverterVisitor<T>(clazz, astTypeBuilderVisitor, this, astFactory);
+    public <T> AnnotationValueConverterVisitor<T> buildAnnotationValueConverter(Class<T> clazz, Element annotatedElement) {
+        return new AnnotationValueConverterVisitor<T>(clazz, annotatedElement, astTypeBuilderVisitor, this, astFactory);
     }
 }
@@ -24,8 +24,9 @@ import org.androidtransfuse.adapter.classes.ASTClassFactory;
 import org.androidtransfuse.adapter.element.ASTTypeBuilderVisitor;
 import org.androidtransfuse.analysis.repository.ActivityComponentBuilderRepositoryFactory;
 import org.androidtransfuse.analysis.repository.BindingRepositoryFactory;
+import org.androidtransfuse.analysis.repository.ComponentRepositoryFactory;
+import org.androidtransfuse.analysis.repository.ComponentTypeBindings;
 import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
-import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
 import org.androidtransfuse.annotations.*;
 import org.androidtransfuse.gen.componentBuilder.*;
 import org.androidtransfuse.gen.variableBuilder.InjectionBindingBuilder;
@@ -53,8 +54,7 @@ import static org.androidtransfuse.util.TypeMirrorUtil.getTypeMirror;
 public class ActivityAnalysis implements Analysis<ComponentDescriptor> {
 
     private final InjectionPointFactory injectionPointFactory;
-    private final InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory;
-    private final Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider;
+    private final ComponentRepositoryFactory componentRepositoryFactory;
     private final Provider<org.androidtransfuse.model.manifest.Activity> manifestActivityProvider;
     private final ActivityComponentBuilderRepositoryFactory activityComponentBuilderRepository;
     private final AnalysisContextFactory analysisContextFactory;
@@ -69,11 +69,11 @@ public class ActivityAnalysis implements Analysis<ComponentDescriptor> {
     private final InjectionBindingBuilder injectionBindingBuilder;
     private final ContextScopeComponentBuilder contextScopeComponentBuilder;
     private final ObservesRegistrationGenerator observesExpressionDecorator;
+    private final ComponentTypeBindings activityBindings = new ActivityBindings();
 
     @Inject
     public ActivityAnalysis(InjectionPointFactory injectionPointFactory,
-                            InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory,
-                            Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider,
+                            ComponentRepositoryFactory componentRepositoryFactory,
                             Provider<org.androidtransfuse.model.manifest.Activity> manifestActivityProvider,
                             ActivityComponentBuilderRepositoryFactory activityComponentBuilderRepository,
                             AnalysisContextFactory analysisContextFactory,
@@ -88,8 +88,7 @@ public class ActivityAnalysis implements Analysis<ComponentDescriptor> {
                             InjectionBindingBuilder injectionBindingBuilder,
                             ContextScopeComponentBuilder contextScopeComponentBuilder, ObservesRegistrationGenerator observesExpressionDecorator) {
         this.injectionPointFactory = injectionPointFactory;
-        this.injectionNodeBuilderRepositoryFactory = injectionNodeBuilderRepositoryFactory;
-        this.injectionNodeBuilderRepositoryProvider = injectionNodeBuilderRepositoryProvider;
+        this.componentRepositoryFactory = componentRepositoryFactory;
         this.manifestActivityProvider = manifestActivityProvider;
         this.activityComponentBuilderRepository = activityComponentBuilderRepository;
         this.analysisContextFactory = analysisContextFactory;
@@ -248,27 +247,29 @@ public class ActivityAnalysis implements Analysis<ComponentDescriptor> {
 
     private InjectionNodeBuilderRepository buildVariableBuilderMap(TypeMirror activityType) {
 
-        InjectionNodeBuilderRepository injectionNodeBuilderRepository = injectionNodeBuilderRepositoryProvider.get();
-
-        injectionNodeBuilderRepository.putType(Context.class, injectionBindingBuilder.buildThis(Context.class));
-        injectionNodeBuilderRepository.putType(Application.class, injectionBindingBuilder.dependency(Context.class).invoke(Application.class, "getApplication").build());
-        injectionNodeBuilderRepository.putType(android.app.Activity.class, injectionBindingBuilder.buildThis(android.app.Activity.class));
-        injectionNodeBuilderRepository.putType(ContextScopeHolder.class, injectionBindingBuilder.buildThis(ContextScopeHolder.class));
+        InjectionNodeBuilderRepository injectionNodeBuilderRepository = componentRepositoryFactory.buildComponentRepository(activityBindings);
 
         if (activityType != null && !activityType.toString().equals(android.app.Activity.class.getName())) {
             ASTType activityASTType = activityType.accept(astTypeBuilderVisitor, null);
             injectionNodeBuilderRepository.putType(activityASTType, injectionBindingBuilder.buildThis(activityASTType));
         }
 
-        bindingRepositoryFactory.addBindingAnnotations(injectionNodeBuilderRepository);
-        bindingRepositoryFactory.addViewBindingAnnotation(injectionNodeBuilderRepository);
+        return injectionNodeBuilderRepository;
 
-        injectionNodeBuilderRepositoryFactory.addApplicationInjections(injectionNodeBuilderRepository);
+    }
 
-        injectionNodeBuilderRepositoryFactory.addModuleConfiguration(injectionNodeBuilderRepository);
-
-        return injectionNodeBuilderRepository;
+    private final class ActivityBindings implements ComponentTypeBindings {
 
+        @Override
+        public void addBindings(InjectionNodeBuilderRepository injectionNodeBuilderRepository) {
+            injectionNodeBuilderRepository.putType(Context.class, injectionBindingBuilder.buildThis(Context.class));
+            injectionNodeBuilderRepository.putType(Application.class, injectionBindingBuilder.dependency(Context.class).invoke(Application.class, "getApplication").build());
+            injectionNodeBuilderRepository.putType(android.app.Activity.class, injectionBindingBuilder.buildThis(android.app.Activity.class));
+            injectionNodeBuilderRepository.putType(ContextScopeHolder.class, injectionBindingBuilder.buildThis(ContextScopeHolder.class));
+
+            bindingRepositoryFactory.addBindingAnnotations(injectionNodeBuilderRepository);
+            bindingRepositoryFactory.addViewBindingAnnotation(injectionNodeBuilderRepository);
+        }
     }
 
     private static class ActivityTypeMirrorRunnable extends TypeMirrorRunnable<Activity> {
@@ -37,23 +37,54 @@ public class AnalysisContext {
     private final AnalysisRepository analysisRepository;
     private final InjectionNodeBuilderRepository injectionNodeBuilders;
     private final AOPRepository aopRepository;
+    private final SubgraphRecording subgraphRecording;
 
     @Inject
     public AnalysisContext(@Assisted InjectionNodeBuilderRepository injectionNodeBuilders, AnalysisRepository analysisRepository, AOPRepository aopRepository) {
+        this(injectionNodeBuilders, analysisRepository, aopRepository, new SubgraphRecording());
+    }
+
+    private AnalysisContext(InjectionNodeBuilderRepository injectionNodeBuilders, AnalysisRepository analysisRepository, AOPRepository aopRepository, SubgraphRecording subgraphRecording) {
         this.dependencyHistory = new Stack<InjectionNode>();
         this.analysisRepository = analysisRepository;
         this.injectionNodeBuilders = injectionNodeBuilders;
         this.aopRepository = aopRepository;
+        this.subgraphRecording = subgraphRecording;
     }
 
     private AnalysisContext(InjectionNode node, AnalysisContext previousContext, AnalysisRepository analysisRepository, InjectionNodeBuilderRepository injectionNodeBuilders, AOPRepository aopRepository) {
-        this(injectionNodeBuilders, analysisRepository, aopRepository);
+        this(injectionNodeBuilders, analysisRepository, aopRepository, previousContext.subgraphRecording);
         this.dependents.putAll(previousContext.dependents);
         this.dependents.put(node.getASTType(), node);
         this.dependencyHistory.addAll(previousContext.dependencyHistory);
         this.dependencyHistory.push(node);
     }
 
+    private AnalysisContext(AnalysisContext previousContext, SubgraphRecording subgraphRecording) {
+        this(previousContext.injectionNodeBuilders, previousContext.analysisRepository, previousContext.aopRepository, subgraphRecording);
+        this.dependents.putAll(previousContext.dependents);
+        this.dependencyHistory.addAll(previousContext.dependencyHistory);
+    }
+
+    /**
+     * Builds a copy of this context to analyze a sibling dependency on another thread, recording its subgraph into a
+     * fork of the shared recording.
+     *
+     * @return forked context
+     */
+    AnalysisContext fork() {
+        return new AnalysisContext(this, subgraphRecording.fork());
+    }
+
+    /**
+     * Joins the recording of a completed fork of this context.
+     *
+     * @param fork context returned by fork()
+     */
+    void join(AnalysisContext fork) {
+        subgraphRecording.join(fork.subgraphRecording);
+    }
+
     public AnalysisContext addDependent(InjectionNode node) {
         return new AnalysisContext(node, this, analysisRepository, injectionNodeBuilders, aopRepository);
     }
@@ -78,6 +109,10 @@ public class AnalysisContext {
         return aopRepository;
     }
 
+    SubgraphRecording getSubgraphRecording() {
+        return subgraphRecording;
+    }
+
     public Stack<InjectionNode> getDependencyHistory() {
         Stack<InjectionNode> dependencyHistoryCopy = new Stack<InjectionNode>();
         dependencyHistoryCopy.addAll(dependencyHistory);
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.androidtransfuse.adapter.ASTCaches;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.analysis.astAnalyzer.CachedASTAnalysis;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the contribution of each CachedASTAnalysis to each scanned ASTType, so a base class shared by several
+ * injected types is analyzed once.  Like the AnnotatedMemberIndexFactory, types are held weakly, by identity, bounded
+ * by the ASTCaches size and invalidated when reloaded.
+ *
+ * @author John Ericksen
+ */
+@Singleton
+public class AnalysisContributionCache {
+
+    private final LoadingCache<ASTType, ConcurrentMap<Class<?>, Object>> contributions;
+
+    @Inject
+    public AnalysisContributionCache(ASTCaches caches) {
+        contributions = caches.register("analysis contributions", caches.newCacheBuilder().weakKeys()
+                .build(new CacheLoader<ASTType, ConcurrentMap<Class<?>, Object>>() {
+                    @Override
+                    public ConcurrentMap<Class<?>, Object> load(ASTType astType) {
+                        return new ConcurrentHashMap<Class<?>, Object>();
+                    }
+                }));
+    }
+
+    /**
+     * Returns the contribution of the given analysis to the given type, building it on first request.
+     *
+     * @param astType  scanned type
+     * @param analysis analysis
+     * @param <T>      contribution type
+     * @return contribution
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getContribution(ASTType astType, CachedASTAnalysis<T> analysis) {
+        ConcurrentMap<Class<?>, Object> typeContributions = contributions.getUnchecked(astType);
+        Object contribution = typeContributions.get(analysis.getClass());
+        if (contribution == null) {
+            //built outside of the cache loader, so exceptions such as MissingTypeException surface unwrapped
+            contribution = analysis.buildContribution(astType);
+            Object existing = typeContributions.putIfAbsent(analysis.getClass(), contribution);
+            if (existing != null) {
+                contribution = existing;
+            }
+        }
+        return (T) contribution;
+    }
+
+    /**
+     * Drops the contributions to the given type, rebuilt on next request from the type's current members.
+     *
+     * @param astType scanned type
+     */
+    public void invalidate(ASTType astType) {
+        contributions.invalidate(astType);
+    }
+}
@@ -15,10 +15,13 @@
  */
 package org.androidtransfuse.analysis;
 
+import com.google.common.collect.ImmutableSet;
 import org.androidtransfuse.adapter.ASTField;
 import org.androidtransfuse.adapter.ASTMethod;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.analysis.astAnalyzer.ASTAnalysis;
+import org.androidtransfuse.analysis.astAnalyzer.CachedASTAnalysis;
+import org.androidtransfuse.analysis.astAnalyzer.FilteredASTAnalysis;
 import org.androidtransfuse.analysis.astAnalyzer.VirtualProxyAspect;
 import org.androidtransfuse.gen.variableBuilder.VariableBuilder;
 import org.androidtransfuse.gen.variableBuilder.VariableInjectionBuilder;
@@ -26,6 +29,8 @@ import org.androidtransfuse.model.InjectionNode;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import java.lang.annotation.Annotation;
+import java.util.Collection;
 import java.util.Stack;
 
 /**
@@ -37,6 +42,10 @@ public class Analyzer {
 
     @Inject
     private Provider<VariableInjectionBuilder> variableInjectionBuilderProvider;
+    @Inject
+    private AnnotatedMemberIndexFactory annotatedMemberIndexFactory;
+    @Inject
+    private AnalysisContributionCache analysisContributionCache;
 
     /**
      * Analyze the given ASTType and produces a corresponding InjectionNode with the contained
@@ -64,13 +73,19 @@ public class Analyzer {
                 throw new TransfuseAnalysisException("Unable to find a dependency to proxy");
             }
 
-            VirtualProxyAspect proxyAspect = getProxyAspect(proxyDependency);
-            proxyAspect.getProxyInterfaces().add(proxyDependency.getUsageType());
+            //sibling dependencies analyzed in parallel may loop back to the same node
+            synchronized (proxyDependency) {
+                VirtualProxyAspect proxyAspect = getProxyAspect(proxyDependency);
+                proxyAspect.getProxyInterfaces().add(proxyDependency.getUsageType());
+            }
+
+            context.getSubgraphRecording().dependencyLoop(concreteType);
 
         } else {
             injectionNode = new InjectionNode(instanceType, concreteType);
             //default variable builder
             injectionNode.addAspect(VariableBuilder.class, variableInjectionBuilderProvider.get());
+            context.getSubgraphRecording().analyzed(injectionNode);
 
             AnalysisContext nextContext = context.addDependent(injectionNode);
 
@@ -101,20 +116,50 @@ public class Analyzer {
             scanClassHierarchy(concreteType.getSuperClass(), injectionNode, context);
         }
 
+        AnnotatedMemberIndex memberIndex = null;
+
         for (ASTAnalysis analysis : context.getAnalysisRepository().getAnalysisSet()) {
 
+            if (analysis instanceof CachedASTAnalysis) {
+                applyContribution((CachedASTAnalysis<?>) analysis, injectionNode, concreteType, context);
+                continue;
+            }
+
             analysis.analyzeType(injectionNode, concreteType, context);
 
-            for (ASTMethod astMethod : concreteType.getMethods()) {
+            Collection<ASTMethod> methods;
+            Collection<ASTField> fields;
+            if (analysis instanceof FilteredASTAnalysis) {
+                //only visit the members carrying the annotations consumed by the analysis
+                ImmutableSet<Class<? extends Annotation>> memberAnnotations = ((FilteredASTAnalysis) analysis).getMemberAnnotations();
+                if (memberAnnotations.isEmpty()) {
+                    continue;
+                }
+                if (memberIndex == null) {
+                    memberIndex = annotatedMemberIndexFactory.getIndex(concreteType);
+                }
+                methods = memberIndex.getMethods(memberAnnotations);
+                fields = memberIndex.getFields(memberAnnotations);
+            } else {
+                methods = concreteType.getMethods();
+                fields = concreteType.getFields();
+            }
+
+            for (ASTMethod astMethod : methods) {
                 analysis.analyzeMethod(injectionNode, concreteType, astMethod, context);
             }
 
-            for (ASTField astField : concreteType.getFields()) {
+            for (ASTField astField : fields) {
                 analysis.analyzeField(injectionNode, concreteType, astField, context);
             }
         }
     }
 
+    private <T> void applyContribution(CachedASTAnalysis<T> analysis, InjectionNode injectionNode, ASTType concreteType, AnalysisContext context) {
+        T contribution = analysisContributionCache.getContribution(concreteType, analysis);
+        analysis.applyContribution(injectionNode, concreteType, contribution, context);
+    }
+
     private VirtualProxyAspect getProxyAspect(InjectionNode injectionNode) {
         if (!injectionNode.containsAspect(VirtualProxyAspect.class)) {
             injectionNode.addAspect(new VirtualProxyAspect());
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import org.androidtransfuse.adapter.*;
+
+import java.lang.annotation.Annotation;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Index of the methods and fields declared on a single ASTType by annotation type, built in one pass over the
+ * members.  A method is indexed under its own annotations and the annotations of its parameters.
+ *
+ * @author John Ericksen
+ */
+public class AnnotatedMemberIndex {
+
+    private final ImmutableListMultimap<String, ASTMethod> methods;
+    private final ImmutableListMultimap<String, ASTField> fields;
+
+    public AnnotatedMemberIndex(ASTType astType) {
+        ImmutableListMultimap.Builder<String, ASTMethod> methodBuilder = ImmutableListMultimap.builder();
+        for (ASTMethod method : astType.getMethods()) {
+            Set<String> annotationNames = new LinkedHashSet<String>();
+            addAnnotationNames(annotationNames, method);
+            for (ASTParameter parameter : method.getParameters()) {
+                addAnnotationNames(annotationNames, parameter);
+            }
+            for (String annotationName : annotationNames) {
+                methodBuilder.put(annotationName, method);
+            }
+        }
+        this.methods = methodBuilder.build();
+
+        ImmutableListMultimap.Builder<String, ASTField> fieldBuilder = ImmutableListMultimap.builder();
+        for (ASTField field : astType.getFields()) {
+            Set<String> annotationNames = new LinkedHashSet<String>();
+            addAnnotationNames(annotationNames, field);
+            for (String annotationName : annotationNames) {
+                fieldBuilder.put(annotationName, field);
+            }
+        }
+        this.fields = fieldBuilder.build();
+    }
+
+    private void addAnnotationNames(Set<String> annotationNames, ASTBase astBase) {
+        for (ASTAnnotation annotation : astBase.getAnnotations()) {
+            annotationNames.add(ASTUtils.getInstance().intern(annotation.getASTType().getName()));
+        }
+    }
+
+    /**
+     * Returns the methods annotated with, or having a parameter annotated with, any of the given annotations.  For a
+     * single annotation the methods are in declaration order.
+     *
+     * @param annotations annotation types
+     * @return annotated methods
+     */
+    public ImmutableList<ASTMethod> getMethods(Set<Class<? extends Annotation>> annotations) {
+        return get(methods, annotations);
+    }
+
+    /**
+     * Returns the fields annotated with any of the given annotations.  For a single annotation the fields are in
+     * declaration order.
+     *
+     * @param annotations annotation types
+     * @return annotated fields
+     */
+    public ImmutableList<ASTField> getFields(Set<Class<? extends Annotation>> annotations) {
+        return get(fields, annotations);
+    }
+
+    private <T> ImmutableList<T> get(ImmutableListMultimap<String, T> index, Set<Class<? extends Annotation>> annotations) {
+        ASTUtils astUtils = ASTUtils.getInstance();
+        if (annotations.size() == 1) {
+            return index.get(astUtils.getCanonicalName(annotations.iterator().next()));
+        }
+        ImmutableSet.Builder<T> members = ImmutableSet.builder();
+        for (Class<? extends Annotation> annotation : annotations) {
+            members.addAll(index.get(astUtils.getCanonicalName(annotation)));
+        }
+        return members.build().asList();
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.androidtransfuse.adapter.ASTCaches;
+import org.androidtransfuse.adapter.ASTType;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Builds and caches the AnnotatedMemberIndex of each scanned ASTType.  Types are held weakly, by identity, so
+ * indexes are released with their types, and bounded by the ASTCaches size.  Types are reused across rounds, along with their indexes, unless they are
+ * reloaded.
+ *
+ * @author John Ericksen
+ */
+@Singleton
+public class AnnotatedMemberIndexFactory {
+
+    private final LoadingCache<ASTType, AnnotatedMemberIndex> indexes;
+
+    @Inject
+    public AnnotatedMemberIndexFactory(ASTCaches caches) {
+        indexes = caches.register("member indexes", caches.newCacheBuilder().weakKeys()
+                .build(new CacheLoader<ASTType, AnnotatedMemberIndex>() {
+                    @Override
+                    public AnnotatedMemberIndex load(ASTType astType) {
+                        return new AnnotatedMemberIndex(astType);
+                    }
+                }));
+    }
+
+    public AnnotatedMemberIndex getIndex(ASTType astType) {
+        try {
+            return indexes.getUnchecked(astType);
+        } catch (UncheckedExecutionException e) {
+            //surface exceptions such as MissingTypeException unwrapped, the transaction depends on their type
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Drops the index of the given type, rebuilt on next request from the type's current members.
+     *
+     * @param astType indexed type
+     */
+    public void invalidate(ASTType astType) {
+        indexes.invalidate(astType);
+    }
+}
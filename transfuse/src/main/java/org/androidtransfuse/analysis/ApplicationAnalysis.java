@@ -20,8 +20,9 @@ import android.content.res.Configuration;
 import org.androidtransfuse.adapter.ASTMethod;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.analysis.repository.ComponentRepositoryFactory;
+import org.androidtransfuse.analysis.repository.ComponentTypeBindings;
 import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
-import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
 import org.androidtransfuse.annotations.*;
 import org.androidtransfuse.gen.ManifestBuilder;
 import org.androidtransfuse.gen.componentBuilder.*;
@@ -33,7 +34,6 @@ import org.androidtransfuse.scope.ContextScopeHolder;
 import org.apache.commons.lang.StringUtils;
 
 import javax.inject.Inject;
-import javax.inject.Provider;
 import java.lang.annotation.Annotation;
 
 import static org.androidtransfuse.util.AnnotationUtil.checkBlank;
@@ -44,8 +44,7 @@ import static org.androidtransfuse.util.AnnotationUtil.checkDefault;
  */
 public class ApplicationAnalysis implements Analysis<ComponentDescriptor> {
 
-    private final InjectionNodeBuilderRepositoryFactory variableBuilderRepositoryFactory;
-    private final Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider;
+    private final ComponentRepositoryFactory componentRepositoryFactory;
     private final ComponentBuilderFactory componentBuilderFactory;
     private final ASTClassFactory astClassFactory;
     private final AnalysisContextFactory analysisContextFactory;
@@ -54,10 +53,10 @@ public class ApplicationAnalysis implements Analysis<ComponentDescriptor> {
     private final ContextScopeComponentBuilder contextScopeComponentBuilder;
     private final ObservesRegistrationGenerator observesExpressionDecorator;
     private final ManifestBuilder manifestBuilder;
+    private final ComponentTypeBindings applicationBindings = new ApplicationBindings();
 
     @Inject
-    public ApplicationAnalysis(InjectionNodeBuilderRepositoryFactory variableBuilderRepositoryFactory,
-                               Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider,
+    public ApplicationAnalysis(ComponentRepositoryFactory componentRepositoryFactory,
                                ComponentBuilderFactory componentBuilderFactory,
                                ASTClassFactory astClassFactory,
                                AnalysisContextFactory analysisContextFactory,
@@ -66,8 +65,7 @@ public class ApplicationAnalysis implements Analysis<ComponentDescriptor> {
                                ContextScopeComponentBuilder contextScopeComponentBuilder,
                                ObservesRegistrationGenerator observesExpressionDecorator,
                                ManifestBuilder manifestBuilder) {
-        this.variableBuilderRepositoryFactory = variableBuilderRepositoryFactory;
-        this.injectionNodeBuilderRepositoryProvider = injectionNodeBuilderRepositoryProvider;
+        this.componentRepositoryFactory = componentRepositoryFactory;
         this.componentBuilderFactory = componentBuilderFactory;
         this.astClassFactory = astClassFactory;
         this.analysisContextFactory = analysisContextFactory;
@@ -144,18 +142,17 @@ public class ApplicationAnalysis implements Analysis<ComponentDescriptor> {
     }
 
     private InjectionNodeBuilderRepository buildVariableBuilderMap() {
-        InjectionNodeBuilderRepository injectionNodeBuilderRepository = injectionNodeBuilderRepositoryProvider.get();
-
-        injectionNodeBuilderRepository.putType(Context.class, injectionBindingBuilder.buildThis(Context.class));
-        injectionNodeBuilderRepository.putType(android.app.Application.class, injectionBindingBuilder.buildThis((android.app.Application.class)));
-        injectionNodeBuilderRepository.putType(ContextScopeHolder.class, injectionBindingBuilder.buildThis(ContextScopeHolder.class));
-
-        variableBuilderRepositoryFactory.addApplicationInjections(injectionNodeBuilderRepository);
-
-        variableBuilderRepositoryFactory.addModuleConfiguration(injectionNodeBuilderRepository);
+        return componentRepositoryFactory.buildComponentRepository(applicationBindings);
+    }
 
-        return injectionNodeBuilderRepository;
+    private final class ApplicationBindings implements ComponentTypeBindings {
 
+        @Override
+        public void addBindings(InjectionNodeBuilderRepository injectionNodeBuilderRepository) {
+            injectionNodeBuilderRepository.putType(Context.class, injectionBindingBuilder.buildThis(Context.class));
+            injectionNodeBuilderRepository.putType(android.app.Application.class, injectionBindingBuilder.buildThis((android.app.Application.class)));
+            injectionNodeBuilderRepository.putType(ContextScopeHolder.class, injectionBindingBuilder.buildThis(ContextScopeHolder.class));
+        }
     }
 
     private void setupManifest(Application annotation, String name, String label) {
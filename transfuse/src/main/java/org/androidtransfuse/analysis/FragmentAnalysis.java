@@ -32,8 +32,9 @@ import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.adapter.classes.ASTClassFactory;
 import org.androidtransfuse.adapter.element.ASTTypeBuilderVisitor;
 import org.androidtransfuse.analysis.repository.BindingRepositoryFactory;
+import org.androidtransfuse.analysis.repository.ComponentRepositoryFactory;
+import org.androidtransfuse.analysis.repository.ComponentTypeBindings;
 import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
-import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
 import org.androidtransfuse.annotations.*;
 import org.androidtransfuse.gen.componentBuilder.ComponentBuilderFactory;
 import org.androidtransfuse.gen.componentBuilder.ListenerRegistrationGenerator;
@@ -47,7 +48,6 @@ import org.androidtransfuse.util.TypeMirrorRunnable;
 import org.apache.commons.lang.StringUtils;
 
 import javax.inject.Inject;
-import javax.inject.Provider;
 import javax.lang.model.type.TypeMirror;
 import java.lang.annotation.Annotation;
 
@@ -60,32 +60,30 @@ public class FragmentAnalysis implements Analysis<ComponentDescriptor> {
 
     private final ASTClassFactory astClassFactory;
     private final AnalysisContextFactory analysisContextFactory;
-    private final Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider;
     private final InjectionBindingBuilder injectionBindingBuilder;
     private final ASTTypeBuilderVisitor astTypeBuilderVisitor;
-    private final InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory;
+    private final ComponentRepositoryFactory componentRepositoryFactory;
     private final ComponentBuilderFactory componentBuilderFactory;
     private final BindingRepositoryFactory bindingRepositoryFactory;
     private final ListenerRegistrationGenerator listenerRegistrationGenerator;
     private final ObservesRegistrationGenerator observesExpressionDecorator;
+    private final ComponentTypeBindings fragmentBindings = new FragmentBindings();
 
     @Inject
     public FragmentAnalysis(ASTClassFactory astClassFactory,
                             AnalysisContextFactory analysisContextFactory,
-                            Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider,
                             InjectionBindingBuilder injectionBindingBuilder,
                             ASTTypeBuilderVisitor astTypeBuilderVisitor,
-                            InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory,
+                            ComponentRepositoryFactory componentRepositoryFactory,
                             ComponentBuilderFactory componentBuilderFactory,
                             BindingRepositoryFactory bindingRepositoryFactory,
                             ListenerRegistrationGenerator listenerRegistrationGenerator,
                             ObservesRegistrationGenerator observesExpressionDecorator) {
         this.astClassFactory = astClassFactory;
         this.analysisContextFactory = analysisContextFactory;
-        this.injectionNodeBuilderRepositoryProvider = injectionNodeBuilderRepositoryProvider;
         this.injectionBindingBuilder = injectionBindingBuilder;
         this.astTypeBuilderVisitor = astTypeBuilderVisitor;
-        this.injectionNodeBuilderRepositoryFactory = injectionNodeBuilderRepositoryFactory;
+        this.componentRepositoryFactory = componentRepositoryFactory;
         this.componentBuilderFactory = componentBuilderFactory;
         this.bindingRepositoryFactory = bindingRepositoryFactory;
         this.listenerRegistrationGenerator = listenerRegistrationGenerator;
@@ -190,29 +188,31 @@ public class FragmentAnalysis implements Analysis<ComponentDescriptor> {
 
     private InjectionNodeBuilderRepository buildVariableBuilderMap(TypeMirror type) {
 
-        InjectionNodeBuilderRepository injectionNodeBuilderRepository = injectionNodeBuilderRepositoryProvider.get();
-
-        injectionNodeBuilderRepository.putType(android.support.v4.app.Fragment.class, injectionBindingBuilder.buildThis(android.support.v4.app.Fragment.class));
-        injectionNodeBuilderRepository.putType(Activity.class, injectionBindingBuilder.dependency(android.support.v4.app.Fragment.class).invoke(Activity.class, "getActivity").build());
-        injectionNodeBuilderRepository.putType(Context.class, injectionBindingBuilder.dependency(android.support.v4.app.Fragment.class).invoke(Context.class, "getActivity").build());
-        injectionNodeBuilderRepository.putType(FragmentManager.class, injectionBindingBuilder.dependency(android.support.v4.app.Fragment.class).invoke(FragmentManager.class, "getFragmentManager").build());
-        injectionNodeBuilderRepository.putType(Application.class, injectionBindingBuilder.dependency(Activity.class).invoke(Application.class, "getApplication").build());
-        injectionNodeBuilderRepository.putType(ContextScopeHolder.class, injectionBindingBuilder.dependency(android.support.v4.app.Fragment.class).invoke(Activity.class, "getActivity").build());
+        InjectionNodeBuilderRepository injectionNodeBuilderRepository = componentRepositoryFactory.buildComponentRepository(fragmentBindings);
 
         if (type != null && !type.toString().equals(android.support.v4.app.Fragment.class.getName())) {
             ASTType fragmentASTType = type.accept(astTypeBuilderVisitor, null);
             injectionNodeBuilderRepository.putType(fragmentASTType, injectionBindingBuilder.buildThis(fragmentASTType));
         }
 
-        bindingRepositoryFactory.addBindingAnnotations(injectionNodeBuilderRepository);
-        //bind views
-        bindingRepositoryFactory.addFragmentViewBindingAnnotation(injectionNodeBuilderRepository);
-
-        injectionNodeBuilderRepositoryFactory.addApplicationInjections(injectionNodeBuilderRepository);
+        return injectionNodeBuilderRepository;
+    }
 
-        injectionNodeBuilderRepositoryFactory.addModuleConfiguration(injectionNodeBuilderRepository);
+    private final class FragmentBindings implements ComponentTypeBindings {
 
-        return injectionNodeBuilderRepository;
+        @Override
+        public void addBindings(InjectionNodeBuilderRepository injectionNodeBuilderRepository) {
+            injectionNodeBuilderRepository.putType(android.support.v4.app.Fragment.class, injectionBindingBuilder.buildThis(android.support.v4.app.Fragment.class));
+            injectionNodeBuilderRepository.putType(Activity.class, injectionBindingBuilder.dependency(android.support.v4.app.Fragment.class).invoke(Activity.class, "getActivity").build());
+            injectionNodeBuilderRepository.putType(Context.class, injectionBindingBuilder.dependency(android.support.v4.app.Fragment.class).invoke(Context.class, "getActivity").build());
+            injectionNodeBuilderRepository.putType(FragmentManager.class, injectionBindingBuilder.dependency(android.support.v4.app.Fragment.class).invoke(FragmentManager.class, "getFragmentManager").build());
+            injectionNodeBuilderRepository.putType(Application.class, injectionBindingBuilder.dependency(Activity.class).invoke(Application.class, "getApplication").build());
+            injectionNodeBuilderRepository.putType(ContextScopeHolder.class, injectionBindingBuilder.dependency(android.support.v4.app.Fragment.class).invoke(Activity.class, "getActivity").build());
+
+            bindingRepositoryFactory.addBindingAnnotations(injectionNodeBuilderRepository);
+            //bind views
+            bindingRepositoryFactory.addFragmentViewBindingAnnotation(injectionNodeBuilderRepository);
+        }
     }
 
     private PackageClass buildPackageClass(ASTType input, String fragmentName) {
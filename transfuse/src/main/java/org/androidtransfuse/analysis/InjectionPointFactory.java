@@ -41,11 +41,14 @@ public class InjectionPointFactory {
 
     private final ASTClassFactory astClassFactory;
     private final QualifierPredicate qualifierPredicate;
+    private final ParallelDependencyAnalyzer parallelDependencyAnalyzer;
+    private final ParameterAnalysis parameterAnalysis = new ParameterAnalysis();
 
     @Inject
-    public InjectionPointFactory(ASTClassFactory astClassFactory, QualifierPredicate qualifierPredicate) {
+    public InjectionPointFactory(ASTClassFactory astClassFactory, QualifierPredicate qualifierPredicate, ParallelDependencyAnalyzer parallelDependencyAnalyzer) {
         this.astClassFactory = astClassFactory;
         this.qualifierPredicate = qualifierPredicate;
+        this.parallelDependencyAnalyzer = parallelDependencyAnalyzer;
     }
 
     /**
@@ -60,16 +63,8 @@ public class InjectionPointFactory {
         ConstructorInjectionPoint constructorInjectionPoint = new ConstructorInjectionPoint(astConstructor.getAccessModifier(), concreteType);
         constructorInjectionPoint.addThrows(astConstructor.getThrowsTypes());
 
-        List<ASTAnnotation> methodAnnotations = new ArrayList<ASTAnnotation>();
-        //bindingAnnotations for single parameter from method level
-        if (astConstructor.getParameters().size() == 1) {
-            methodAnnotations.addAll(astConstructor.getAnnotations());
-        }
-
-        for (ASTParameter astParameter : astConstructor.getParameters()) {
-            List<ASTAnnotation> parameterAnnotations = new ArrayList<ASTAnnotation>(methodAnnotations);
-            parameterAnnotations.addAll(astParameter.getAnnotations());
-            constructorInjectionPoint.addInjectionNode(buildInjectionNode(parameterAnnotations, astParameter.getASTType(), context));
+        for (InjectionNode parameterInjectionNode : buildParameterInjectionNodes(astConstructor.getAnnotations(), astConstructor.getParameters(), context)) {
+            constructorInjectionPoint.addInjectionNode(parameterInjectionNode);
         }
 
         return constructorInjectionPoint;
@@ -88,19 +83,29 @@ public class InjectionPointFactory {
         MethodInjectionPoint methodInjectionPoint = new MethodInjectionPoint(concreteType, astMethod.getAccessModifier(), astMethod.getName());
         methodInjectionPoint.addThrows(astMethod.getThrowsTypes());
 
+        for (InjectionNode parameterInjectionNode : buildParameterInjectionNodes(astMethod.getAnnotations(), astMethod.getParameters(), context)) {
+            methodInjectionPoint.addInjectionNode(parameterInjectionNode);
+        }
+
+        return methodInjectionPoint;
+    }
+
+    private List<InjectionNode> buildParameterInjectionNodes(Collection<ASTAnnotation> annotations, List<ASTParameter> parameters, AnalysisContext context) {
         List<ASTAnnotation> methodAnnotations = new ArrayList<ASTAnnotation>();
         //bindingAnnotations for single parameter from method level
-        if (astMethod.getParameters().size() == 1) {
-            methodAnnotations.addAll(astMethod.getAnnotations());
+        if (parameters.size() == 1) {
+            methodAnnotations.addAll(annotations);
         }
 
-        for (ASTParameter astField : astMethod.getParameters()) {
+        List<ParameterDependency> dependencies = new ArrayList<ParameterDependency>();
+        for (ASTParameter astParameter : parameters) {
             List<ASTAnnotation> parameterAnnotations = new ArrayList<ASTAnnotation>(methodAnnotations);
-            parameterAnnotations.addAll(astField.getAnnotations());
-            methodInjectionPoint.addInjectionNode(buildInjectionNode(parameterAnnotations, astField.getASTType(), context));
+            parameterAnnotations.addAll(astParameter.getAnnotations());
+            dependencies.add(new ParameterDependency(parameterAnnotations, astParameter.getASTType()));
         }
 
-        return methodInjectionPoint;
+        //sibling parameters are independent subtrees
+        return parallelDependencyAnalyzer.analyze(dependencies, context, parameterAnalysis);
     }
 
     /**
@@ -140,4 +145,35 @@ public class InjectionPointFactory {
         //specific binding annotation lookup
         return injectionNodeBuilders.buildInjectionNode(astType, context, qualifiers);
     }
+
+    /**
+     * Build an InjectionNode directly from the given ASTType, owned by the caller.  Unlike the InjectionNodes built
+     * by buildInjectionNode(), which may be shared by the components injecting the same type, the returned
+     * InjectionNode may be modified.
+     *
+     * @param astType required type
+     * @param context analysis context
+     * @return Injection Node
+     */
+    public InjectionNode buildExclusiveInjectionNode(ASTType astType, AnalysisContext context) {
+        return context.getInjectionNodeBuilders().buildExclusiveInjectionNode(astType, context, Collections.<ASTAnnotation>emptySet());
+    }
+
+    private static final class ParameterDependency {
+        private final List<ASTAnnotation> annotations;
+        private final ASTType type;
+
+        private ParameterDependency(List<ASTAnnotation> annotations, ASTType type) {
+            this.annotations = annotations;
+            this.type = type;
+        }
+    }
+
+    private final class ParameterAnalysis implements ParallelDependencyAnalyzer.DependencyAnalysis<ParameterDependency> {
+
+        @Override
+        public InjectionNode analyze(ParameterDependency dependency, AnalysisContext context) {
+            return buildInjectionNode(dependency.annotations, dependency.type, context);
+        }
+    }
 }
@@ -0,0 +1,233 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.androidtransfuse.adapter.ASTAnnotation;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
+import org.androidtransfuse.config.ConfigurationScope;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.androidtransfuse.gen.variableBuilder.InjectionNodeBuilder;
+import org.androidtransfuse.model.InjectionNode;
+import org.androidtransfuse.model.InjectionSignature;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+import javax.inject.Inject;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memoizes the InjectionNode subgraphs built for binding lookups across the components analyzed in a round, so a type
+ * injected into many components is analyzed once.  Subgraphs are keyed by type and qualifiers and are only memoized
+ * if every binding looked up while building them is the default binding or a module binding, shared by all
+ * components, and if they do not close a dependency loop outside of themselves.  Component specific bindings, and so
+ * context scoped types, are analyzed by each component.
+ * <p/>
+ * A memoized subgraph is reused if each of its lookups still resolves to the same binding in the current
+ * component, none of its types are dependents of the current context and none of its nodes are already part of the
+ * current graph, as InjectionNodes are generated as distinct instances by identity.
+ *
+ * @author John Ericksen
+ */
+@ConfigurationScope
+public class InjectionSubgraphCache {
+
+    private final ConcurrentMap<SubgraphKey, Subgraph> subgraphs = new ConcurrentHashMap<SubgraphKey, Subgraph>();
+    private final InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory;
+    private final boolean enabled;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Inject
+    public InjectionSubgraphCache(InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory, TransfuseOptions options) {
+        this.injectionNodeBuilderRepositoryFactory = injectionNodeBuilderRepositoryFactory;
+        this.enabled = options.isSubgraphCacheEnabled();
+    }
+
+    /**
+     * Builds the InjectionNode bound to the given signature, reusing the subgraph memoized by another component if
+     * possible.
+     *
+     * @param signature type and qualifiers looked up
+     * @param binding   builder bound to the signature, null for the default binding
+     * @param builder   builder to build the InjectionNode with
+     * @param context   analysis context
+     * @return InjectionNode
+     */
+    public InjectionNode buildInjectionNode(InjectionSignature signature, InjectionNodeBuilder binding, InjectionNodeBuilder builder, AnalysisContext context) {
+        SubgraphRecording recording = context.getSubgraphRecording();
+        SubgraphRecording.Lookup lookup = new SubgraphRecording.Lookup(signature, binding);
+        SubgraphKey key = new SubgraphKey(signature);
+
+        Subgraph subgraph = enabled ? subgraphs.get(key) : null;
+        if (subgraph != null && isReusable(subgraph, binding, context) && recording.reuse(lookup, subgraph)) {
+            hits.incrementAndGet();
+            return subgraph.getRoot();
+        }
+        misses.incrementAndGet();
+
+        recording.open(lookup, isShared(binding));
+        InjectionNode root = null;
+        try {
+            root = builder.buildInjectionNode(signature.getType(), context, signature.getAnnotations());
+            return root;
+        } finally {
+            Subgraph built = recording.close(root);
+            if (enabled && root != null && built != null) {
+                subgraphs.putIfAbsent(key, built);
+            }
+        }
+    }
+
+    /**
+     * Builds the InjectionNode bound to the given signature without reusing or memoizing its subgraph, for callers
+     * that modify the returned node.
+     *
+     * @param signature type and qualifiers looked up
+     * @param binding   builder bound to the signature, null for the default binding
+     * @param builder   builder to build the InjectionNode with
+     * @param context   analysis context
+     * @return InjectionNode
+     */
+    public InjectionNode buildExclusiveInjectionNode(InjectionSignature signature, InjectionNodeBuilder binding, InjectionNodeBuilder builder, AnalysisContext context) {
+        SubgraphRecording recording = context.getSubgraphRecording();
+
+        recording.open(new SubgraphRecording.Lookup(signature, binding), isShared(binding));
+        InjectionNode root = null;
+        try {
+            root = builder.buildInjectionNode(signature.getType(), context, signature.getAnnotations());
+            return root;
+        } finally {
+            recording.close(root);
+        }
+    }
+
+    private boolean isShared(InjectionNodeBuilder binding) {
+        return binding == null || injectionNodeBuilderRepositoryFactory.isModuleBinding(binding);
+    }
+
+    private boolean isReusable(Subgraph subgraph, InjectionNodeBuilder binding, AnalysisContext context) {
+        if (subgraph.getBinding() != binding) {
+            return false;
+        }
+        for (ASTType type : subgraph.getTypes()) {
+            if (context.isDependent(type)) {
+                return false;
+            }
+        }
+        InjectionNodeBuilderRepository injectionNodeBuilders = context.getInjectionNodeBuilders();
+        for (SubgraphRecording.Lookup lookup : subgraph.getLookups()) {
+            if (injectionNodeBuilders.getBinding(lookup.getSignature()) != lookup.getBinding()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return subgraphs.size();
+    }
+
+    @Override
+    public String toString() {
+        return size() + " subgraphs, " + getHits() + " hits, " + getMisses() + " misses";
+    }
+
+    /**
+     * InjectionNode subgraph built for a binding lookup, with the lookups, types and nodes it is made of.
+     */
+    static final class Subgraph {
+
+        private final InjectionNode root;
+        private final InjectionNodeBuilder binding;
+        private final ImmutableList<SubgraphRecording.Lookup> lookups;
+        private final ImmutableSet<ASTType> types;
+        private final ImmutableSet<InjectionNode> nodes;
+
+        Subgraph(InjectionNode root, InjectionNodeBuilder binding, ImmutableList<SubgraphRecording.Lookup> lookups, ImmutableSet<ASTType> types, ImmutableSet<InjectionNode> nodes) {
+            this.root = root;
+            this.binding = binding;
+            this.lookups = lookups;
+            this.types = types;
+            this.nodes = nodes;
+        }
+
+        public InjectionNode getRoot() {
+            return root;
+        }
+
+        public InjectionNodeBuilder getBinding() {
+            return binding;
+        }
+
+        public ImmutableList<SubgraphRecording.Lookup> getLookups() {
+            return lookups;
+        }
+
+        public ImmutableSet<ASTType> getTypes() {
+            return types;
+        }
+
+        public ImmutableSet<InjectionNode> getNodes() {
+            return nodes;
+        }
+    }
+
+    /**
+     * Type and qualifiers of a lookup.  Qualifiers are compared by instance, matching the annotations of the same
+     * injection point.
+     */
+    private static final class SubgraphKey {
+
+        private final ASTType type;
+        private final ImmutableSet<ASTAnnotation> qualifiers;
+
+        private SubgraphKey(InjectionSignature signature) {
+            this.type = signature.getType();
+            this.qualifiers = ImmutableSet.copyOf(signature.getAnnotations());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SubgraphKey)) {
+                return false;
+            }
+            SubgraphKey that = (SubgraphKey) o;
+            return new EqualsBuilder().append(type, that.type).append(qualifiers, that.qualifiers).isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder().append(type).append(qualifiers).hashCode();
+        }
+    }
+}
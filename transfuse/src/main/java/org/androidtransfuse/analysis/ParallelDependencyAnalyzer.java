@@ -0,0 +1,153 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.androidtransfuse.config.EnterableScope;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.androidtransfuse.config.TransfuseSetupGuiceModule;
+import org.androidtransfuse.model.InjectionNode;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Analyzes the sibling dependencies of an injection point, such as the parameters of a constructor, fork-join
+ * style.  Each dependency but the first is handed to the analysis executor while the calling thread analyzes the
+ * first, after which the calling thread runs any dependency not yet picked up by the executor itself and waits for
+ * the rest.  A thread therefore only ever waits on dependencies being analyzed by another thread, so nested
+ * analysis cannot starve the executor.
+ * <p/>
+ * Each dependency is analyzed in a fork of the AnalysisContext, holding the same dependency history to detect
+ * dependency loops, and joined back in declaration order so the resulting InjectionNodes and the recorded subgraphs
+ * are the same as if the dependencies were analyzed one after another.  Dependencies are analyzed sequentially if
+ * the analysis parallelism is 1, the default.
+ *
+ * @author John Ericksen
+ */
+@Singleton
+public class ParallelDependencyAnalyzer {
+
+    private final ExecutorService executorService;
+    private final EnterableScope codeGenerationScope;
+    private final int parallelism;
+
+    /**
+     * Analysis of one dependency.
+     *
+     * @param <T> dependency
+     */
+    public interface DependencyAnalysis<T> {
+
+        InjectionNode analyze(T dependency, AnalysisContext context);
+    }
+
+    @Inject
+    public ParallelDependencyAnalyzer(@Named(TransfuseSetupGuiceModule.ANALYSIS_EXECUTOR) ExecutorService executorService,
+                                      @Named(TransfuseSetupGuiceModule.CODE_GENERATION_SCOPE) EnterableScope codeGenerationScope,
+                                      TransfuseOptions options) {
+        this.executorService = executorService;
+        this.codeGenerationScope = codeGenerationScope;
+        this.parallelism = options.getAnalysisParallelism();
+    }
+
+    /**
+     * Analyzes the given dependencies.
+     *
+     * @param dependencies sibling dependencies
+     * @param context      analysis context shared by the dependencies
+     * @param analysis     analysis of a single dependency
+     * @param <T>          dependency
+     * @return InjectionNodes, in the order of the given dependencies
+     */
+    public <T> List<InjectionNode> analyze(List<T> dependencies, AnalysisContext context, DependencyAnalysis<T> analysis) {
+        List<InjectionNode> injectionNodes = new ArrayList<InjectionNode>();
+
+        if (parallelism < 2 || dependencies.size() < 2) {
+            for (T dependency : dependencies) {
+                injectionNodes.add(analysis.analyze(dependency, context));
+            }
+            return injectionNodes;
+        }
+
+        List<AnalysisContext> forks = new ArrayList<AnalysisContext>();
+        List<FutureTask<InjectionNode>> tasks = new ArrayList<FutureTask<InjectionNode>>();
+        for (T dependency : dependencies) {
+            AnalysisContext fork = context.fork();
+            forks.add(fork);
+            tasks.add(new FutureTask<InjectionNode>(codeGenerationScope.wrap(new DependencyCallable<T>(dependency, fork, analysis))));
+        }
+
+        for (FutureTask<InjectionNode> task : tasks.subList(1, tasks.size())) {
+            try {
+                executorService.execute(task);
+            } catch (RejectedExecutionException e) {
+                //analyzed by the calling thread below
+            }
+        }
+
+        Throwable failure = null;
+        for (FutureTask<InjectionNode> task : tasks) {
+            //runs the task if not already started by the executor
+            task.run();
+            try {
+                injectionNodes.add(Uninterruptibles.getUninterruptibly(task));
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new TransfuseAnalysisException("Error while analyzing dependencies", failure);
+        }
+
+        for (AnalysisContext fork : forks) {
+            context.join(fork);
+        }
+
+        return injectionNodes;
+    }
+
+    private static final class DependencyCallable<T> implements Callable<InjectionNode> {
+
+        private final T dependency;
+        private final AnalysisContext context;
+        private final DependencyAnalysis<T> analysis;
+
+        private DependencyCallable(T dependency, AnalysisContext context, DependencyAnalysis<T> analysis) {
+            this.dependency = dependency;
+            this.context = context;
+            this.analysis = analysis;
+        }
+
+        @Override
+        public InjectionNode call() {
+            return analysis.analyze(dependency, context);
+        }
+    }
+}
@@ -28,8 +28,9 @@ import org.androidtransfuse.adapter.ASTMethod;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.adapter.classes.ASTClassFactory;
 import org.androidtransfuse.adapter.element.ASTTypeBuilderVisitor;
+import org.androidtransfuse.analysis.repository.ComponentRepositoryFactory;
+import org.androidtransfuse.analysis.repository.ComponentTypeBindings;
 import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
-import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
 import org.androidtransfuse.annotations.*;
 import org.androidtransfuse.gen.GeneratorFactory;
 import org.androidtransfuse.gen.componentBuilder.*;
@@ -58,8 +59,7 @@ import static org.androidtransfuse.util.TypeMirrorUtil.getTypeMirror;
  */
 public class ServiceAnalysis implements Analysis<ComponentDescriptor> {
 
-    private final Provider<InjectionNodeBuilderRepository> injectionNodeRepositoryProvider;
-    private final InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory;
+    private final ComponentRepositoryFactory componentRepositoryFactory;
     private final Provider<org.androidtransfuse.model.manifest.Service> manifestServiceProvider;
     private final ComponentBuilderFactory componentBuilderFactory;
     private final AnalysisContextFactory analysisContextFactory;
@@ -73,10 +73,10 @@ public class ServiceAnalysis implements Analysis<ComponentDescriptor> {
     private final GeneratorFactory generatorFactory;
     private final ListenerRegistrationGenerator listenerRegistrationGenerator;
     private final ObservesRegistrationGenerator observesExpressionDecorator;
+    private final ComponentTypeBindings serviceBindings = new ServiceBindings();
 
     @Inject
-    public ServiceAnalysis(Provider<InjectionNodeBuilderRepository> injectionNodeRepositoryProvider,
-                           InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory,
+    public ServiceAnalysis(ComponentRepositoryFactory componentRepositoryFactory,
                            Provider<org.androidtransfuse.model.manifest.Service> manifestServiceProvider,
                            ComponentBuilderFactory componentBuilderFactory,
                            AnalysisContextFactory analysisContextFactory,
@@ -88,8 +88,7 @@ public class ServiceAnalysis implements Analysis<ComponentDescriptor> {
                            ContextScopeComponentBuilder contextScopeComponentBuilder,
                            GeneratorFactory generatorFactory,
                            ListenerRegistrationGenerator listenerRegistrationGenerator, ObservesRegistrationGenerator observesExpressionDecorator) {
-        this.injectionNodeRepositoryProvider = injectionNodeRepositoryProvider;
-        this.injectionNodeBuilderRepositoryFactory = injectionNodeBuilderRepositoryFactory;
+        this.componentRepositoryFactory = componentRepositoryFactory;
         this.manifestServiceProvider = manifestServiceProvider;
         this.componentBuilderFactory = componentBuilderFactory;
         this.analysisContextFactory = analysisContextFactory;
@@ -216,24 +215,26 @@ public class ServiceAnalysis implements Analysis<ComponentDescriptor> {
 
     private InjectionNodeBuilderRepository buildVariableBuilderMap(TypeMirror type) {
 
-        InjectionNodeBuilderRepository injectionNodeRepository = injectionNodeRepositoryProvider.get();
-
-        injectionNodeRepository.putType(Context.class, injectionBindingBuilder.buildThis(Context.class));
-        injectionNodeRepository.putType(Application.class, injectionBindingBuilder.dependency(Context.class).invoke(Application.class, "getApplication").build());
-        injectionNodeRepository.putType(android.app.Service.class, injectionBindingBuilder.buildThis(android.app.Service.class));
-        injectionNodeRepository.putType(ContextScopeHolder.class, injectionBindingBuilder.buildThis(ContextScopeHolder.class));
+        InjectionNodeBuilderRepository injectionNodeRepository = componentRepositoryFactory.buildComponentRepository(serviceBindings);
 
         if (type != null && !type.toString().equals(android.app.Service.class.getName())) {
             ASTType serviceASTType = type.accept(astTypeBuilderVisitor, null);
             injectionNodeRepository.putType(serviceASTType, injectionBindingBuilder.buildThis(serviceASTType));
         }
 
-        injectionNodeBuilderRepositoryFactory.addApplicationInjections(injectionNodeRepository);
+        return injectionNodeRepository;
 
-        injectionNodeBuilderRepositoryFactory.addModuleConfiguration(injectionNodeRepository);
+    }
 
-        return injectionNodeRepository;
+    private final class ServiceBindings implements ComponentTypeBindings {
 
+        @Override
+        public void addBindings(InjectionNodeBuilderRepository injectionNodeRepository) {
+            injectionNodeRepository.putType(Context.class, injectionBindingBuilder.buildThis(Context.class));
+            injectionNodeRepository.putType(Application.class, injectionBindingBuilder.dependency(Context.class).invoke(Application.class, "getApplication").build());
+            injectionNodeRepository.putType(android.app.Service.class, injectionBindingBuilder.buildThis(android.app.Service.class));
+            injectionNodeRepository.putType(ContextScopeHolder.class, injectionBindingBuilder.buildThis(ContextScopeHolder.class));
+        }
     }
 
     private static class ServiceTypeMirrorRunnable extends TypeMirrorRunnable<Service> {
@@ -0,0 +1,243 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.gen.variableBuilder.InjectionNodeBuilder;
+import org.androidtransfuse.model.InjectionNode;
+import org.androidtransfuse.model.InjectionSignature;
+
+import java.util.*;
+
+/**
+ * Records the InjectionNode graph built by one root AnalysisContext, shared with all of its dependent contexts.  Each
+ * binding lookup analyzed through the InjectionSubgraphCache opens a frame collecting the nodes, analyzed types and
+ * nested lookups of its subgraph, from which the subgraph is memoized if it did not depend on the component.
+ * <p/>
+ * Sibling dependencies analyzed in parallel each record into a fork, sharing the graph's nodes but opening frames of
+ * their own.  A fork is joined back by the forking thread, in sibling order, as if its dependency had been analyzed
+ * in place.
+ *
+ * @author John Ericksen
+ */
+class SubgraphRecording {
+
+    //nodes of the whole graph, shared by all forks and guarded by itself
+    private final Set<InjectionNode> nodes;
+    private final Deque<Frame> frames = new ArrayDeque<Frame>();
+    //frame of the forking thread, merged into it on join; null if not a fork
+    private final Frame forkFrame;
+    private final List<ASTType> forkLoops = new ArrayList<ASTType>();
+    private boolean forkComponentSpecific = false;
+
+    public SubgraphRecording() {
+        this(new HashSet<InjectionNode>(), null);
+    }
+
+    private SubgraphRecording(Set<InjectionNode> nodes, Frame forkFrame) {
+        this.nodes = nodes;
+        this.forkFrame = forkFrame;
+        if (forkFrame != null) {
+            frames.push(forkFrame);
+        }
+    }
+
+    /**
+     * Registers a node built by the Analyzer in this graph.
+     *
+     * @param injectionNode analyzed node
+     */
+    public void analyzed(InjectionNode injectionNode) {
+        synchronized (nodes) {
+            nodes.add(injectionNode);
+        }
+        Frame frame = frames.peek();
+        if (frame != null) {
+            frame.nodes.add(injectionNode);
+            frame.types.add(injectionNode.getASTType());
+        }
+    }
+
+    /**
+     * Registers a dependency loop back to the given type.  Subgraphs opened below the node of the given type are
+     * completed by a virtual proxy of a node outside of them, so they are not memoized.
+     *
+     * @param loopType type depended on by one of its dependencies
+     */
+    public void dependencyLoop(ASTType loopType) {
+        for (Frame frame : frames) {
+            if (frame.types.contains(loopType)) {
+                return;
+            }
+            frame.memoizable = false;
+        }
+        if (forkFrame != null) {
+            //loop closes outside of the fork, registered with the forking thread on join
+            forkLoops.add(loopType);
+        }
+    }
+
+    /**
+     * Opens a fork of this recording, recording the analysis of a sibling dependency on another thread.
+     *
+     * @return fork
+     */
+    public SubgraphRecording fork() {
+        return new SubgraphRecording(nodes, new Frame(null, false));
+    }
+
+    /**
+     * Joins a completed fork of this recording back into the innermost frame.
+     *
+     * @param fork recording of a sibling dependency
+     */
+    public void join(SubgraphRecording fork) {
+        Frame frame = frames.peek();
+        if (frame != null) {
+            frame.merge(fork.forkFrame);
+        }
+        if (fork.forkComponentSpecific) {
+            componentSpecific();
+        }
+        for (ASTType loopType : fork.forkLoops) {
+            dependencyLoop(loopType);
+        }
+    }
+
+    /**
+     * Opens the frame of a binding lookup, recording the lookup in the enclosing frame.
+     *
+     * @param lookup binding lookup
+     * @param shared true if the bound builder is shared by all components
+     */
+    public void open(Lookup lookup, boolean shared) {
+        record(lookup, shared);
+        frames.push(new Frame(lookup, shared));
+    }
+
+    /**
+     * Closes the innermost frame, merging it into its enclosing frame.
+     *
+     * @param root node built by the lookup of the frame
+     * @return subgraph built by the lookup, or null if it may not be memoized
+     */
+    public InjectionSubgraphCache.Subgraph close(InjectionNode root) {
+        Frame frame = frames.pop();
+        Frame enclosing = frames.peek();
+        if (enclosing != null) {
+            enclosing.merge(frame);
+        }
+        if (!frame.memoizable) {
+            return null;
+        }
+        return new InjectionSubgraphCache.Subgraph(root, frame.lookup.getBinding(), ImmutableList.copyOf(frame.lookups),
+                ImmutableSet.copyOf(frame.types), ImmutableSet.copyOf(frame.nodes));
+    }
+
+    /**
+     * Adds a memoized subgraph, found by the given lookup, to this graph unless one of its nodes is already part of
+     * the graph, as InjectionNodes are generated as distinct instances by identity.
+     *
+     * @param lookup   binding lookup
+     * @param subgraph memoized subgraph
+     * @return true if the subgraph was added to this graph
+     */
+    public boolean reuse(Lookup lookup, InjectionSubgraphCache.Subgraph subgraph) {
+        synchronized (nodes) {
+            for (InjectionNode subgraphNode : subgraph.getNodes()) {
+                if (nodes.contains(subgraphNode)) {
+                    return false;
+                }
+            }
+            nodes.addAll(subgraph.getNodes());
+        }
+        record(lookup, true);
+        Frame frame = frames.peek();
+        if (frame != null) {
+            frame.lookups.addAll(subgraph.getLookups());
+            frame.types.addAll(subgraph.getTypes());
+            frame.nodes.addAll(subgraph.getNodes());
+        }
+        return true;
+    }
+
+    private void record(Lookup lookup, boolean shared) {
+        if (shared) {
+            Frame frame = frames.peek();
+            if (frame != null) {
+                frame.lookups.add(lookup);
+            }
+        } else {
+            componentSpecific();
+        }
+    }
+
+    private void componentSpecific() {
+        //a component specific binding makes all enclosing subgraphs component specific
+        for (Frame frame : frames) {
+            frame.memoizable = false;
+        }
+        if (forkFrame != null) {
+            forkComponentSpecific = true;
+        }
+    }
+
+    /**
+     * Binding lookup made while building a subgraph, with the builder it resolved to.
+     */
+    public static final class Lookup {
+
+        private final InjectionSignature signature;
+        private final InjectionNodeBuilder binding;
+
+        public Lookup(InjectionSignature signature, InjectionNodeBuilder binding) {
+            this.signature = signature;
+            this.binding = binding;
+        }
+
+        public InjectionSignature getSignature() {
+            return signature;
+        }
+
+        /**
+         * @return bound builder, null for the default binding
+         */
+        public InjectionNodeBuilder getBinding() {
+            return binding;
+        }
+    }
+
+    private static final class Frame {
+        private final Lookup lookup;
+        private final List<Lookup> lookups = new ArrayList<Lookup>();
+        private final Set<ASTType> types = new HashSet<ASTType>();
+        private final Set<InjectionNode> nodes = new HashSet<InjectionNode>();
+        private boolean memoizable;
+
+        private Frame(Lookup lookup, boolean memoizable) {
+            this.lookup = lookup;
+            this.memoizable = memoizable;
+        }
+
+        private void merge(Frame frame) {
+            lookups.addAll(frame.lookups);
+            types.addAll(frame.types);
+            nodes.addAll(frame.nodes);
+        }
+    }
+}
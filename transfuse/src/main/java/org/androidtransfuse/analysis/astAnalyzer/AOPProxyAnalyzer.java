@@ -17,6 +17,7 @@ package org.androidtransfuse.analysis.astAnalyzer;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.androidtransfuse.adapter.ASTAccessModifier;
 import org.androidtransfuse.adapter.ASTAnnotation;
@@ -32,11 +33,12 @@ import java.util.Collections;
 
 /**
  * Analyzer to add Aspect Oriented Programming method interceptors from the AOP Repository to the appropriately
- * annotated methods.
+ * annotated methods.  The annotated methods of each type are found once and cached, the interceptors are looked up
+ * per component as the AOP Repository depends on the context.
  *
  * @author John Ericksen
  */
-public class AOPProxyAnalyzer extends ASTAnalysisAdaptor {
+public class AOPProxyAnalyzer extends ASTAnalysisAdaptor implements CachedASTAnalysis<ImmutableList<ASTMethod>> {
 
     private final InjectionPointFactory injectionPointFactory;
 
@@ -45,6 +47,28 @@ public class AOPProxyAnalyzer extends ASTAnalysisAdaptor {
         this.injectionPointFactory = injectionPointFactory;
     }
 
+    @Override
+    public ImmutableList<ASTMethod> buildContribution(ASTType astType) {
+        ImmutableList.Builder<ASTMethod> annotatedMethods = ImmutableList.builder();
+        for (ASTMethod astMethod : astType.getMethods()) {
+            if (!astMethod.getAnnotations().isEmpty()) {
+                annotatedMethods.add(astMethod);
+            }
+        }
+        return annotatedMethods.build();
+    }
+
+    @Override
+    public void applyContribution(InjectionNode injectionNode, ASTType concreteType, ImmutableList<ASTMethod> contribution, AnalysisContext context) {
+        //AOP is only available on top level
+        if (injectionNode.getASTType().equals(concreteType)) {
+            analyzeType(injectionNode, concreteType, context);
+            for (ASTMethod astMethod : contribution) {
+                analyzeMethod(injectionNode, concreteType, astMethod, context);
+            }
+        }
+    }
+
     @Override
     public void analyzeType(InjectionNode injectionNode, ASTType concreteType, AnalysisContext context) {
         //AOP is only available on top level
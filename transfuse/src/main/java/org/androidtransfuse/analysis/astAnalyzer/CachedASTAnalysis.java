@@ -0,0 +1,51 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis.astAnalyzer;
+
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.analysis.AnalysisContext;
+import org.androidtransfuse.model.InjectionNode;
+
+/**
+ * ASTAnalysis whose findings on each type of a scanned class hierarchy depend on the type alone.  The Analyzer builds
+ * the contribution of each type once, caches it by ASTType, and applies it to every InjectionNode whose hierarchy
+ * includes the type, instead of invoking <code>analyzeType()</code>, <code>analyzeMethod()</code> and
+ * <code>analyzeField()</code>.  Applying a contribution must have the same effect as those invocations.
+ *
+ * @param <T> contribution type
+ * @author John Ericksen
+ */
+public interface CachedASTAnalysis<T> extends ASTAnalysis {
+
+    /**
+     * Builds the contribution of the members declared by the given type.  The result is shared between threads and
+     * InjectionNodes, so it must be immutable and non-null.
+     *
+     * @param astType scanned type
+     * @return contribution
+     */
+    T buildContribution(ASTType astType);
+
+    /**
+     * Applies the contribution of the given type of the hierarchy to the InjectionNode.
+     *
+     * @param injectionNode analyzed node
+     * @param concreteType  scanned type of the node's hierarchy
+     * @param contribution  contribution of the scanned type
+     * @param context       analysis context
+     */
+    void applyContribution(InjectionNode injectionNode, ASTType concreteType, T contribution, AnalysisContext context);
+}
@@ -15,18 +15,21 @@
  */
 package org.androidtransfuse.analysis.astAnalyzer;
 
+import com.google.common.collect.ImmutableSet;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.analysis.AnalysisContext;
 import org.androidtransfuse.model.InjectionNode;
 import org.androidtransfuse.util.DeclareField;
 
+import java.lang.annotation.Annotation;
+
 /**
  * Analysis to determine if a type is annotated with @DeclareField.  If so, it set the AssignmentType of the
  * ASTInjectionAspect to FIELD.
  *
  * @author John Ericksen
  */
-public class DeclareFieldAnalysis extends ASTAnalysisAdaptor {
+public class DeclareFieldAnalysis extends ASTAnalysisAdaptor implements FilteredASTAnalysis {
 
     @Override
     public void analyzeType(InjectionNode injectionNode, ASTType astType, AnalysisContext context) {
@@ -38,4 +41,10 @@ public class DeclareFieldAnalysis extends ASTAnalysisAdaptor {
             injectionNode.getAspect(ASTInjectionAspect.class).setAssignmentType(ASTInjectionAspect.InjectionAssignmentType.FIELD);
         }
     }
+
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> getMemberAnnotations() {
+        //type level analysis only
+        return ImmutableSet.of();
+    }
 }
@@ -0,0 +1,39 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis.astAnalyzer;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * ASTAnalysis that only consumes methods and fields carrying specific annotations.  The Analyzer invokes
+ * <code>analyzeMethod()</code> and <code>analyzeField()</code> only with the members annotated with (or, for methods,
+ * having a parameter annotated with) one of the declared annotations, instead of every member of the scanned type.
+ * <code>analyzeType()</code> is always invoked.  Analyses that do not implement this interface are invoked on every
+ * member.
+ *
+ * @author John Ericksen
+ */
+public interface FilteredASTAnalysis extends ASTAnalysis {
+
+    /**
+     * Declares the annotations of the members this analysis consumes.  An empty set disables member analysis.
+     *
+     * @return member annotations
+     */
+    ImmutableSet<Class<? extends Annotation>> getMemberAnnotations();
+}
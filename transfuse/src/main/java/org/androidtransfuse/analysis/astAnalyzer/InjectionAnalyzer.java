@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.analysis.astAnalyzer;
 
+import com.google.common.collect.ImmutableSet;
 import org.androidtransfuse.adapter.ASTConstructor;
 import org.androidtransfuse.adapter.ASTField;
 import org.androidtransfuse.adapter.ASTMethod;
@@ -24,13 +25,14 @@ import org.androidtransfuse.analysis.InjectionPointFactory;
 import org.androidtransfuse.model.InjectionNode;
 
 import javax.inject.Inject;
+import java.lang.annotation.Annotation;
 
 /**
  * Analyzer to setup InjectionPoints for all @Inject annotated elements
  *
  * @author John Ericksen
  */
-public class InjectionAnalyzer implements ASTAnalysis {
+public class InjectionAnalyzer implements FilteredASTAnalysis {
 
     private final InjectionPointFactory injectionPointFactory;
 
@@ -84,4 +86,9 @@ public class InjectionAnalyzer implements ASTAnalysis {
         }
         return injectionNode.getAspect(ASTInjectionAspect.class);
     }
+
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> getMemberAnnotations() {
+        return ImmutableSet.<Class<? extends Annotation>>of(Inject.class);
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.analysis.astAnalyzer;
 
+import com.google.common.collect.ImmutableList;
 import org.androidtransfuse.adapter.ASTAnnotation;
 import org.androidtransfuse.adapter.ASTMethod;
 import org.androidtransfuse.adapter.ASTType;
@@ -24,18 +25,61 @@ import org.androidtransfuse.model.InjectionNode;
 
 /**
  * Analyzes the given class for listener annotations.  Adds these annotated methods to a ListenerAspect for
- * code generation during the generation phase.
+ * code generation during the generation phase.  The listener methods of each type are found once and cached.
  *
  * @author John Ericksen
  */
-public class ListenerAnalysis extends ASTAnalysisAdaptor {
+public class ListenerAnalysis extends ASTAnalysisAdaptor implements CachedASTAnalysis<ImmutableList<ListenerAnalysis.ListenerMethod>> {
+
+    /**
+     * Method annotated with the given listener annotation.
+     */
+    public static final class ListenerMethod {
+        private final ASTType annotationType;
+        private final ASTMethod method;
+
+        public ListenerMethod(ASTType annotationType, ASTMethod method) {
+            this.annotationType = annotationType;
+            this.method = method;
+        }
+
+        public ASTType getAnnotationType() {
+            return annotationType;
+        }
+
+        public ASTMethod getMethod() {
+            return method;
+        }
+    }
+
+    @Override
+    public ImmutableList<ListenerMethod> buildContribution(ASTType astType) {
+        ImmutableList.Builder<ListenerMethod> listenerMethods = ImmutableList.builder();
+        for (ASTMethod astMethod : astType.getMethods()) {
+            addListenerMethods(listenerMethods, astMethod);
+        }
+        return listenerMethods.build();
+    }
+
+    @Override
+    public void applyContribution(InjectionNode injectionNode, ASTType concreteType, ImmutableList<ListenerMethod> contribution, AnalysisContext context) {
+        for (ListenerMethod listenerMethod : contribution) {
+            addMethod(injectionNode, listenerMethod.getAnnotationType(), listenerMethod.getMethod());
+        }
+    }
 
     @Override
     public void analyzeMethod(InjectionNode injectionNode, ASTType concreteType, ASTMethod astMethod, AnalysisContext context) {
+        ImmutableList.Builder<ListenerMethod> listenerMethods = ImmutableList.builder();
+        addListenerMethods(listenerMethods, astMethod);
+        applyContribution(injectionNode, concreteType, listenerMethods.build(), context);
+    }
+
+    private void addListenerMethods(ImmutableList.Builder<ListenerMethod> listenerMethods, ASTMethod astMethod) {
         for (ASTAnnotation annotation : astMethod.getAnnotations()) {
             ASTType annotationType = annotation.getASTType();
             if (annotationType.isAnnotated(EventListener.class)) {
-                addMethod(injectionNode, annotationType, astMethod);
+                listenerMethods.add(new ListenerMethod(annotationType, astMethod));
             }
         }
     }
@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.analysis.astAnalyzer;
 
+import com.google.common.collect.ImmutableSet;
 import org.androidtransfuse.adapter.ASTField;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.analysis.AnalysisContext;
@@ -23,6 +24,7 @@ import org.androidtransfuse.annotations.NonConfigurationInstance;
 import org.androidtransfuse.model.InjectionNode;
 
 import javax.inject.Inject;
+import java.lang.annotation.Annotation;
 
 /**
  * Analysis class to identify nonConfiguration Instances(NCI).  This analysis triggers the given NCI to be defined as
@@ -31,7 +33,7 @@ import javax.inject.Inject;
  *
  * @author John Ericksen
  */
-public class NonConfigurationAnalysis extends ASTAnalysisAdaptor {
+public class NonConfigurationAnalysis extends ASTAnalysisAdaptor implements FilteredASTAnalysis {
 
     private final InjectionPointFactory injectionPointFactory;
 
@@ -61,4 +63,9 @@ public class NonConfigurationAnalysis extends ASTAnalysisAdaptor {
         }
         return injectionNode.getAspect(NonConfigurationAspect.class);
     }
+
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> getMemberAnnotations() {
+        return ImmutableSet.<Class<? extends Annotation>>of(NonConfigurationInstance.class);
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.analysis.astAnalyzer;
 
+import com.google.common.collect.ImmutableSet;
 import org.androidtransfuse.adapter.ASTMethod;
 import org.androidtransfuse.adapter.ASTParameter;
 import org.androidtransfuse.adapter.ASTType;
@@ -27,6 +28,7 @@ import org.androidtransfuse.event.EventTending;
 import org.androidtransfuse.model.InjectionNode;
 
 import javax.inject.Inject;
+import java.lang.annotation.Annotation;
 
 /**
  * Analysis class to find the methods annotated with @Observes.  When found, an ObservesAspect is populated with the
@@ -34,7 +36,7 @@ import javax.inject.Inject;
  *
  * @author John Ericksen
  */
-public class ObservesAnalysis extends ASTAnalysisAdaptor {
+public class ObservesAnalysis extends ASTAnalysisAdaptor implements FilteredASTAnalysis {
 
     private final Analyzer analyzer;
     private final ASTClassFactory astClassFactory;
@@ -75,4 +77,9 @@ public class ObservesAnalysis extends ASTAnalysisAdaptor {
             aspect.addObserver(firstParameter.getASTType(), astMethod);
         }
     }
+
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> getMemberAnnotations() {
+        return ImmutableSet.<Class<? extends Annotation>>of(Observes.class);
+    }
 }
@@ -20,6 +20,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import org.androidtransfuse.adapter.*;
 import org.androidtransfuse.adapter.classes.ASTClassFactory;
@@ -32,12 +33,13 @@ import org.androidtransfuse.listeners.*;
 import org.androidtransfuse.model.InjectionNode;
 
 import javax.inject.Inject;
+import java.lang.annotation.Annotation;
 import java.util.*;
 
 /**
  * @author John Ericksen
  */
-public class RegistrationAnalyzer implements ASTAnalysis {
+public class RegistrationAnalyzer implements FilteredASTAnalysis {
 
     private final ImmutableMap<ASTType, RegistrationGeneratorFactory> generatorFactories;
     private final ASTClassFactory astClassFactory;
@@ -268,4 +270,9 @@ public class RegistrationAnalyzer implements ASTAnalysis {
         }
         return injectionNode.getAspect(RegistrationAspect.class);
     }
-}
\ No newline at end of file
+
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> getMemberAnnotations() {
+        return ImmutableSet.<Class<? extends Annotation>>of(RegisterListener.class);
+    }
+}
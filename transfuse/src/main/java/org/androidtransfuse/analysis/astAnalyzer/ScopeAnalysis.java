@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.analysis.astAnalyzer;
 
+import com.google.common.collect.ImmutableSet;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.analysis.AnalysisContext;
 import org.androidtransfuse.analysis.repository.ScopeAspectFactoryRepository;
@@ -29,7 +30,7 @@ import java.lang.annotation.Annotation;
  *
  * @author John Ericksen
  */
-public class ScopeAnalysis extends ASTAnalysisAdaptor {
+public class ScopeAnalysis extends ASTAnalysisAdaptor implements FilteredASTAnalysis {
 
     private final ScopeAspectFactoryRepository scopeAspectFactoryRepository;
 
@@ -50,4 +51,10 @@ public class ScopeAnalysis extends ASTAnalysisAdaptor {
             }
         }
     }
+
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> getMemberAnnotations() {
+        //type level analysis only
+        return ImmutableSet.of();
+    }
 }
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis.repository;
+
+import com.google.common.collect.ImmutableSet;
+import org.androidtransfuse.adapter.ASTAnnotation;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+import org.androidtransfuse.gen.variableBuilder.InjectionNodeBuilder;
+import org.androidtransfuse.model.InjectionSignature;
+import org.androidtransfuse.util.matcher.ASTAnnotationMatcher;
+import org.androidtransfuse.util.matcher.ASTAnnotationTypeMatcher;
+import org.androidtransfuse.util.matcher.ASTTypeMatcher;
+import org.androidtransfuse.util.matcher.InjectionSignatureMatcher;
+import org.androidtransfuse.util.matcher.MatchAny;
+import org.androidtransfuse.util.matcher.Matcher;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bindings indexed by the erased type name and the qualifier annotation types their matchers require.  A lookup only
+ * visits the bindings indexed under the input's keys, along with the pattern based matchers which cannot be indexed.
+ * Every visited binding is still confirmed by its matcher, so a lookup resolves the same binding, or fails with the
+ * same error, as a scan of every matcher.
+ *
+ * @param <T> matched input type
+ * @author John Ericksen
+ */
+class BindingIndex<T> {
+
+    private final Map<BindingKey, Map<Matcher<T>, InjectionNodeBuilder>> indexedBindings = new HashMap<BindingKey, Map<Matcher<T>, InjectionNodeBuilder>>();
+    private final Map<Matcher<T>, InjectionNodeBuilder> scannedBindings = new HashMap<Matcher<T>, InjectionNodeBuilder>();
+
+    /**
+     * Adds the given binding, indexed under the given key.  The binding is scanned on every lookup if the key is null.
+     *
+     * @param key     binding key, or null
+     * @param matcher binding matcher
+     * @param builder bound builder
+     */
+    public void put(BindingKey key, Matcher<T> matcher, InjectionNodeBuilder builder) {
+        if (key == null) {
+            scannedBindings.put(matcher, builder);
+        } else {
+            if (!indexedBindings.containsKey(key)) {
+                indexedBindings.put(key, new HashMap<Matcher<T>, InjectionNodeBuilder>());
+            }
+            indexedBindings.get(key).put(matcher, builder);
+        }
+    }
+
+    /**
+     * Resolves the single binding matching the given input among those indexed under the given keys and the scanned
+     * bindings, along with the binding already matched in other layers, if any.
+     *
+     * @param input   matched input
+     * @param matched builder matched in other layers, or null
+     * @param keys    distinct keys of the input
+     * @return matching builder, or null if none match
+     */
+    public InjectionNodeBuilder get(T input, InjectionNodeBuilder matched, BindingKey... keys) {
+        InjectionNodeBuilder builder = matched;
+        for (BindingKey key : keys) {
+            builder = match(indexedBindings.get(key), input, builder);
+        }
+        return match(scannedBindings, input, builder);
+    }
+
+    private InjectionNodeBuilder match(Map<Matcher<T>, InjectionNodeBuilder> bindings, T input, InjectionNodeBuilder matched) {
+        InjectionNodeBuilder builder = matched;
+        if (bindings != null) {
+            for (Map.Entry<Matcher<T>, InjectionNodeBuilder> bindingEntry : bindings.entrySet()) {
+                if (bindingEntry.getKey().matches(input)) {
+                    if (builder != null) {
+                        throw new TransfuseAnalysisException("Multiple types matched on type " + input);
+                    }
+                    builder = bindingEntry.getValue();
+                }
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Erased type name, or null for any type, and qualifier annotation type names.
+     */
+    static final class BindingKey {
+
+        private static final ImmutableSet<String> UNQUALIFIED = ImmutableSet.of();
+
+        private final String typeName;
+        private final ImmutableSet<String> qualifierNames;
+
+        private BindingKey(String typeName, ImmutableSet<String> qualifierNames) {
+            this.typeName = typeName;
+            this.qualifierNames = qualifierNames;
+        }
+
+        public static BindingKey of(ASTType type) {
+            return new BindingKey(type.getName(), UNQUALIFIED);
+        }
+
+        /**
+         * Keys of the given signature, the exact type key and the any type key.
+         */
+        public static BindingKey[] of(InjectionSignature signature) {
+            ImmutableSet.Builder<String> qualifierNames = ImmutableSet.builder();
+            for (ASTAnnotation qualifier : signature.getAnnotations()) {
+                qualifierNames.add(qualifier.getASTType().getName());
+            }
+            ImmutableSet<String> names = qualifierNames.build();
+            return new BindingKey[]{new BindingKey(signature.getType().getName(), names), new BindingKey(null, names)};
+        }
+
+        /**
+         * Derives the key of the types matched by the given matcher.
+         *
+         * @return key, or null if the matcher matches a pattern of types
+         */
+        public static BindingKey ofTypeMatcher(Matcher<? super ASTType> matcher) {
+            if (matcher instanceof ASTTypeMatcher && ((ASTTypeMatcher) matcher).getASTType() != null) {
+                //exact and generics ignoring matches both require the erased name
+                return new BindingKey(((ASTTypeMatcher) matcher).getASTType().getName(), UNQUALIFIED);
+            }
+            return null;
+        }
+
+        /**
+         * Derives the key of the signatures matched by the given matcher.
+         *
+         * @return key, or null if the matcher matches a pattern of types or qualifiers
+         */
+        public static BindingKey ofSignatureMatcher(Matcher<InjectionSignature> matcher) {
+            if (!(matcher instanceof InjectionSignatureMatcher)) {
+                return null;
+            }
+            InjectionSignatureMatcher signatureMatcher = (InjectionSignatureMatcher) matcher;
+
+            Matcher<? super ASTType> typeMatcher = signatureMatcher.getASTTypeMatcher();
+            String typeName = null;
+            if (typeMatcher instanceof ASTTypeMatcher) {
+                ASTType type = ((ASTTypeMatcher) typeMatcher).getASTType();
+                typeName = type == null ? null : type.getName();
+            } else if (!(typeMatcher instanceof MatchAny)) {
+                return null;
+            }
+
+            //each annotation matcher requires exactly its annotation types, any one of them determines the key
+            for (Matcher<Collection<ASTAnnotation>> annotationMatcher : signatureMatcher.getAnnotationMatchers()) {
+                ImmutableSet.Builder<String> qualifierNames = ImmutableSet.builder();
+                if (annotationMatcher instanceof ASTAnnotationTypeMatcher) {
+                    for (ASTType type : ((ASTAnnotationTypeMatcher) annotationMatcher).getTypes()) {
+                        qualifierNames.add(type.getName());
+                    }
+                    return new BindingKey(typeName, qualifierNames.build());
+                }
+                if (annotationMatcher instanceof ASTAnnotationMatcher) {
+                    for (ASTAnnotation annotation : ((ASTAnnotationMatcher) annotationMatcher).getAnnotations()) {
+                        qualifierNames.add(annotation.getASTType().getName());
+                    }
+                    return new BindingKey(typeName, qualifierNames.build());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BindingKey)) {
+                return false;
+            }
+
+            BindingKey that = (BindingKey) o;
+
+            return new EqualsBuilder()
+                    .append(typeName, that.typeName)
+                    .append(qualifierNames, that.qualifierNames)
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder()
+                    .append(typeName)
+                    .append(qualifierNames)
+                    .hashCode();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis.repository;
+
+import org.androidtransfuse.config.ConfigurationScope;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the InjectionNodeBuilderRepository of each component as a small layer over shared, frozen layers instead of
+ * a full copy of every binding:
+ * <ol>
+ * <li>the application layer, holding the application injections and the module configuration, built once</li>
+ * <li>a layer per component type, holding the ComponentTypeBindings shared by the components of the type</li>
+ * <li>the component layer, holding the bindings of the component itself</li>
+ * </ol>
+ * The shared layers are rebuilt if the module configuration changes.
+ *
+ * @author John Ericksen
+ */
+@ConfigurationScope
+public class ComponentRepositoryFactory {
+
+    private final Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider;
+    private final InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory;
+    private final Map<Class<?>, InjectionNodeBuilderRepository> componentTypeRepositories = new HashMap<Class<?>, InjectionNodeBuilderRepository>();
+    private InjectionNodeBuilderRepository applicationRepository = null;
+    private int moduleConfigurationVersion;
+
+    @Inject
+    public ComponentRepositoryFactory(Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider,
+                                      InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory) {
+        this.injectionNodeBuilderRepositoryProvider = injectionNodeBuilderRepositoryProvider;
+        this.injectionNodeBuilderRepositoryFactory = injectionNodeBuilderRepositoryFactory;
+    }
+
+    /**
+     * Builds an empty component layer over the shared layer of the given component type.  The component type is
+     * identified by the class of the given bindings.
+     *
+     * @param componentTypeBindings bindings shared by the components of the type
+     * @return component repository
+     */
+    public synchronized InjectionNodeBuilderRepository buildComponentRepository(ComponentTypeBindings componentTypeBindings) {
+        Class<?> componentType = componentTypeBindings.getClass();
+        //rebuilds the shared layers first if the module configuration changed
+        InjectionNodeBuilderRepository application = getApplicationRepository();
+        InjectionNodeBuilderRepository componentTypeRepository = componentTypeRepositories.get(componentType);
+        if (componentTypeRepository == null) {
+            componentTypeRepository = application.buildLayer();
+            componentTypeBindings.addBindings(componentTypeRepository);
+            componentTypeRepository.freeze();
+            componentTypeRepositories.put(componentType, componentTypeRepository);
+        }
+        return componentTypeRepository.buildLayer();
+    }
+
+    private InjectionNodeBuilderRepository getApplicationRepository() {
+        if (applicationRepository == null || moduleConfigurationVersion != injectionNodeBuilderRepositoryFactory.getModuleConfigurationVersion()) {
+            moduleConfigurationVersion = injectionNodeBuilderRepositoryFactory.getModuleConfigurationVersion();
+            componentTypeRepositories.clear();
+
+            applicationRepository = injectionNodeBuilderRepositoryProvider.get();
+            injectionNodeBuilderRepositoryFactory.addApplicationInjections(applicationRepository);
+            injectionNodeBuilderRepositoryFactory.addModuleConfiguration(applicationRepository);
+            applicationRepository.freeze();
+        }
+        return applicationRepository;
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis.repository;
+
+/**
+ * Bindings shared by every component of a type, such as the Context binding of Activities.
+ *
+ * @author John Ericksen
+ */
+public interface ComponentTypeBindings {
+
+    /**
+     * Adds the bindings shared by the components of this type.  The bindings must not depend on a specific component.
+     *
+     * @param repository component type layer
+     */
+    void addBindings(InjectionNodeBuilderRepository repository);
+}
@@ -19,6 +19,7 @@ import org.androidtransfuse.adapter.ASTAnnotation;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.adapter.classes.ASTClassFactory;
 import org.androidtransfuse.analysis.AnalysisContext;
+import org.androidtransfuse.analysis.InjectionSubgraphCache;
 import org.androidtransfuse.analysis.TransfuseAnalysisException;
 import org.androidtransfuse.config.TransfuseGenerateGuiceModule;
 import org.androidtransfuse.gen.variableBuilder.InjectionNodeBuilder;
@@ -30,25 +31,61 @@ import org.androidtransfuse.util.matcher.Matchers;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
+ * Repository of the bindings of a component.  Bindings are indexed by the exact type and qualifiers they match, so
+ * resolving an injection point does not scan every binding.
+ * <p/>
+ * A repository may be layered over a parent repository, shared with other components, whose bindings are resolved
+ * along with its own without being copied.  Layers do not override each other: an injection point matching bindings
+ * in two layers fails as if they were bound in a single repository.
+ *
  * @author John Ericksen
  */
 public class InjectionNodeBuilderRepository implements InjectionNodeBuilder{
 
-    private final Map<Matcher<InjectionSignature>, InjectionNodeBuilder> typeQualifierBindings = new HashMap<Matcher<InjectionSignature>, InjectionNodeBuilder>();
-    private final Map<Matcher<ASTType>, InjectionNodeBuilder> typeBindings = new HashMap<Matcher<ASTType>, InjectionNodeBuilder>();
+    private final BindingIndex<InjectionSignature> typeQualifierBindings = new BindingIndex<InjectionSignature>();
+    private final BindingIndex<ASTType> typeBindings = new BindingIndex<ASTType>();
     private final InjectionNodeBuilder defaultBinding;
     private final ASTClassFactory astClassFactory;
+    private final InjectionSubgraphCache subgraphCache;
+    private final InjectionNodeBuilderRepository parent;
+    private boolean frozen = false;
 
     @Inject
     public InjectionNodeBuilderRepository(
             @Named(TransfuseGenerateGuiceModule.DEFAULT_BINDING) InjectionNodeBuilder defaultBinding,
-            ASTClassFactory astClassFactory) {
+            ASTClassFactory astClassFactory,
+            InjectionSubgraphCache subgraphCache) {
+        this(defaultBinding, astClassFactory, subgraphCache, null);
+    }
+
+    private InjectionNodeBuilderRepository(InjectionNodeBuilder defaultBinding,
+                                           ASTClassFactory astClassFactory,
+                                           InjectionSubgraphCache subgraphCache,
+                                           InjectionNodeBuilderRepository parent) {
         this.defaultBinding = defaultBinding;
         this.astClassFactory = astClassFactory;
+        this.subgraphCache = subgraphCache;
+        this.parent = parent;
+    }
+
+    /**
+     * Builds an empty repository layered over this one.  Bindings added to the layer are not visible to this
+     * repository.
+     *
+     * @return layer
+     */
+    public InjectionNodeBuilderRepository buildLayer() {
+        return new InjectionNodeBuilderRepository(defaultBinding, astClassFactory, subgraphCache, this);
+    }
+
+    /**
+     * Prevents further bindings, so this repository may be shared between components and threads as the parent of
+     * their layers.
+     */
+    public void freeze() {
+        frozen = true;
     }
 
     public void putAnnotation(Class<?> viewClass, InjectionNodeBuilder viewVariableBuilder) {
@@ -64,47 +101,73 @@ public class InjectionNodeBuilderRepository implements InjectionNodeBuilder{
     }
 
     public void putTypeMatcher(Matcher<ASTType> matcher, InjectionNodeBuilder variableBuilder) {
-        this.typeBindings.put(matcher, variableBuilder);
+        checkNotFrozen();
+        this.typeBindings.put(BindingIndex.BindingKey.ofTypeMatcher(matcher), matcher, variableBuilder);
     }
 
     public void putSignatureMatcher(Matcher<InjectionSignature> matcher, InjectionNodeBuilder variableBuilder) {
-        this.typeQualifierBindings.put(matcher, variableBuilder);
+        checkNotFrozen();
+        this.typeQualifierBindings.put(BindingIndex.BindingKey.ofSignatureMatcher(matcher), matcher, variableBuilder);
     }
 
     @Override
     public InjectionNode buildInjectionNode(ASTType astType, AnalysisContext context, Collection<ASTAnnotation> qualifiers) {
+        InjectionSignature signature = new InjectionSignature(astType, qualifiers);
+        InjectionNodeBuilder binding = getBinding(signature);
+
+        return subgraphCache.buildInjectionNode(signature, binding, binding == null ? defaultBinding : binding, context);
+    }
+
+    /**
+     * Builds an InjectionNode owned by the caller, which may modify it, instead of one possibly shared with other
+     * components.
+     *
+     * @param astType    type
+     * @param context    analysis context
+     * @param qualifiers qualifier annotations
+     * @return InjectionNode
+     */
+    public InjectionNode buildExclusiveInjectionNode(ASTType astType, AnalysisContext context, Collection<ASTAnnotation> qualifiers) {
+        InjectionSignature signature = new InjectionSignature(astType, qualifiers);
+        InjectionNodeBuilder binding = getBinding(signature);
+
+        return subgraphCache.buildExclusiveInjectionNode(signature, binding, binding == null ? defaultBinding : binding, context);
+    }
+
+    /**
+     * Resolves the builder bound to the given type and qualifiers.
+     *
+     * @param signature type and qualifiers
+     * @return bound builder, or null if the default binding applies
+     */
+    public InjectionNodeBuilder getBinding(InjectionSignature signature) {
         //check type and qualifiers
-        InjectionNodeBuilder typeQualifierBuilder = get(typeQualifierBindings, new InjectionSignature(astType, qualifiers));
+        BindingIndex.BindingKey[] signatureKeys = BindingIndex.BindingKey.of(signature);
+        InjectionNodeBuilder typeQualifierBuilder = null;
+        for (InjectionNodeBuilderRepository layer = this; layer != null; layer = layer.parent) {
+            typeQualifierBuilder = layer.typeQualifierBindings.get(signature, typeQualifierBuilder, signatureKeys);
+        }
 
         if(typeQualifierBuilder != null){
-            return typeQualifierBuilder.buildInjectionNode(astType, context, qualifiers);
+            return typeQualifierBuilder;
         }
 
-        if(qualifiers.size() > 0){
+        if(signature.getAnnotations().size() > 0){
             throw new TransfuseAnalysisException("Type Annotation Qualifiers don't match any configuration");
         }
 
         //check type
-        InjectionNodeBuilder typeBindingBuilder = get(typeBindings, astType);
-
-        if (typeBindingBuilder != null) {
-            return typeBindingBuilder.buildInjectionNode(astType, context, qualifiers);
+        BindingIndex.BindingKey typeKey = BindingIndex.BindingKey.of(signature.getType());
+        InjectionNodeBuilder typeBuilder = null;
+        for (InjectionNodeBuilderRepository layer = this; layer != null; layer = layer.parent) {
+            typeBuilder = layer.typeBindings.get(signature.getType(), typeBuilder, typeKey);
         }
-
-        //default case
-        return defaultBinding.buildInjectionNode(astType, context, qualifiers);
+        return typeBuilder;
     }
 
-    private <T> InjectionNodeBuilder get(Map<Matcher<T>, InjectionNodeBuilder> builderMap, T input){
-        InjectionNodeBuilder builder = null;
-        for (Map.Entry<Matcher<T>, InjectionNodeBuilder> bindingEntry : builderMap.entrySet()) {
-            if (bindingEntry.getKey().matches(input)) {
-                if (builder != null) {
-                    throw new TransfuseAnalysisException("Multiple types matched on type " + input);
-                }
-                builder = bindingEntry.getValue();
-            }
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new TransfuseAnalysisException("Unable to add a binding to a shared repository, bind in a layer instead");
         }
-        return builder;
     }
 }
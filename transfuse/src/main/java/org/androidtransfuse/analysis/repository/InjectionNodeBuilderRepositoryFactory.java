@@ -84,6 +84,7 @@ public class InjectionNodeBuilderRepositoryFactory {
     private final Provider<GeneratedProviderInjectionNodeBuilder> generatedProviderInjectionNodeBuilderProvider;
     private final InjectionBindingBuilder injectionBindingBuilder;
     private final ASTClassFactory astClassFactory;
+    private volatile int moduleConfigurationVersion = 0;
 
     @Inject
     public InjectionNodeBuilderRepositoryFactory(Provider<GeneratedProviderInjectionNodeBuilder> generatedProviderInjectionNodeBuilderProvider,
@@ -164,11 +165,32 @@ public class InjectionNodeBuilderRepositoryFactory {
                 generatedProviderInjectionNodeBuilderProvider.get());
     }
 
+    /**
+     * Determines if the given builder is bound by the module configuration, and so shared by all components.
+     *
+     * @param injectionNodeBuilder builder
+     * @return true if the builder is a module binding
+     */
+    public boolean isModuleBinding(InjectionNodeBuilder injectionNodeBuilder) {
+        return moduleConfiguration.containsValue(injectionNodeBuilder) || injectionSignatureConfig.containsValue(injectionNodeBuilder);
+    }
+
+    /**
+     * Counts the changes to the module configuration, so repositories built from an earlier configuration may be
+     * rebuilt.
+     *
+     * @return module configuration version
+     */
+    public int getModuleConfigurationVersion() {
+        return moduleConfigurationVersion;
+    }
+
     public void putModuleConfig(Matcher<ASTType> type, InjectionNodeBuilder injectionNodeBuilder) {
         if(moduleConfiguration.containsKey(type)){
             throw new TransfuseAnalysisException("Binding for type already exists: " + type.toString());
         }
         moduleConfiguration.put(type, injectionNodeBuilder);
+        moduleConfigurationVersion++;
     }
 
     public void putInjectionSignatureConfig(Matcher<InjectionSignature> type, InjectionNodeBuilder injectionNodeBuilder) {
@@ -176,5 +198,6 @@ public class InjectionNodeBuilderRepositoryFactory {
             throw new TransfuseAnalysisException("Binding for type already exists: " + type.toString());
         }
         injectionSignatureConfig.put(type, injectionNodeBuilder);
+        moduleConfigurationVersion++;
     }
 }
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.config;
+
+import org.androidtransfuse.util.TransfuseRuntimeException;
+
+import javax.lang.model.element.*;
+import javax.lang.model.util.Elements;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Thread safe Elements facade memoizing the read-only lookups.  Cached results are returned without locking, only
+ * the first resolution of each key reaches the underlying javac Elements, which is guarded by a single lock as javac
+ * is not thread safe.  Concurrent requests for the same uncached key wait on the one in-flight resolution rather
+ * than resolving it again.
+ * <p/>
+ * Null results are not cached, as types missing in one round may be generated for the next.  Elements are only
+ * valid for the round they were looked up in, so the caches must be cleared at the start of each round.
+ *
+ * @author John Ericksen
+ */
+public class CachingElements implements Elements {
+
+    private final Elements elements;
+    private final Object lock = new Object();
+
+    private final ConcurrentMap<String, FutureTask<TypeElement>> typeElements = new ConcurrentHashMap<String, FutureTask<TypeElement>>();
+    private final ConcurrentMap<String, FutureTask<PackageElement>> packageElements = new ConcurrentHashMap<String, FutureTask<PackageElement>>();
+    private final ConcurrentMap<Element, FutureTask<PackageElement>> packagesOf = new ConcurrentHashMap<Element, FutureTask<PackageElement>>();
+    private final ConcurrentMap<TypeElement, FutureTask<Name>> binaryNames = new ConcurrentHashMap<TypeElement, FutureTask<Name>>();
+    private final ConcurrentMap<TypeElement, FutureTask<List<? extends Element>>> allMembers = new ConcurrentHashMap<TypeElement, FutureTask<List<? extends Element>>>();
+    private final ConcurrentMap<Element, FutureTask<List<? extends AnnotationMirror>>> allAnnotationMirrors = new ConcurrentHashMap<Element, FutureTask<List<? extends AnnotationMirror>>>();
+    private final ConcurrentMap<AnnotationMirror, FutureTask<Map<? extends ExecutableElement, ? extends AnnotationValue>>> elementValuesWithDefaults =
+            new ConcurrentHashMap<AnnotationMirror, FutureTask<Map<? extends ExecutableElement, ? extends AnnotationValue>>>();
+    private final ConcurrentMap<Element, FutureTask<Boolean>> deprecated = new ConcurrentHashMap<Element, FutureTask<Boolean>>();
+
+    public CachingElements(Elements elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Drops all cached lookups.  Called at the start of each processing round.
+     */
+    public void clear() {
+        typeElements.clear();
+        packageElements.clear();
+        packagesOf.clear();
+        binaryNames.clear();
+        allMembers.clear();
+        allAnnotationMirrors.clear();
+        elementValuesWithDefaults.clear();
+        deprecated.clear();
+    }
+
+    @Override
+    public PackageElement getPackageElement(final CharSequence charSequence) {
+        return memoize(packageElements, charSequence.toString(), new Callable<PackageElement>() {
+            @Override
+            public PackageElement call() {
+                synchronized (lock) {
+                    return elements.getPackageElement(charSequence);
+                }
+            }
+        });
+    }
+
+    @Override
+    public TypeElement getTypeElement(final CharSequence charSequence) {
+        return memoize(typeElements, charSequence.toString(), new Callable<TypeElement>() {
+            @Override
+            public TypeElement call() {
+                synchronized (lock) {
+                    return elements.getTypeElement(charSequence);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Map<? extends ExecutableElement, ? extends AnnotationValue> getElementValuesWithDefaults(final AnnotationMirror annotationMirror) {
+        return memoize(elementValuesWithDefaults, annotationMirror, new Callable<Map<? extends ExecutableElement, ? extends AnnotationValue>>() {
+            @Override
+            public Map<? extends ExecutableElement, ? extends AnnotationValue> call() {
+                synchronized (lock) {
+                    return Collections.unmodifiableMap(elements.getElementValuesWithDefaults(annotationMirror));
+                }
+            }
+        });
+    }
+
+    @Override
+    public String getDocComment(Element element) {
+        synchronized (lock) {
+            return elements.getDocComment(element);
+        }
+    }
+
+    @Override
+    public boolean isDeprecated(final Element element) {
+        return memoize(deprecated, element, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                synchronized (lock) {
+                    return elements.isDeprecated(element);
+                }
+            }
+        });
+    }
+
+    @Override
+    public Name getBinaryName(final TypeElement typeElement) {
+        return memoize(binaryNames, typeElement, new Callable<Name>() {
+            @Override
+            public Name call() {
+                synchronized (lock) {
+                    return elements.getBinaryName(typeElement);
+                }
+            }
+        });
+    }
+
+    @Override
+    public PackageElement getPackageOf(final Element element) {
+        return memoize(packagesOf, element, new Callable<PackageElement>() {
+            @Override
+            public PackageElement call() {
+                synchronized (lock) {
+                    return elements.getPackageOf(element);
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<? extends Element> getAllMembers(final TypeElement typeElement) {
+        return memoize(allMembers, typeElement, new Callable<List<? extends Element>>() {
+            @Override
+            public List<? extends Element> call() {
+                synchronized (lock) {
+                    return Collections.unmodifiableList(elements.getAllMembers(typeElement));
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<? extends AnnotationMirror> getAllAnnotationMirrors(final Element element) {
+        return memoize(allAnnotationMirrors, element, new Callable<List<? extends AnnotationMirror>>() {
+            @Override
+            public List<? extends AnnotationMirror> call() {
+                synchronized (lock) {
+                    return Collections.unmodifiableList(elements.getAllAnnotationMirrors(element));
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean hides(Element element, Element element1) {
+        synchronized (lock) {
+            return elements.hides(element, element1);
+        }
+    }
+
+    @Override
+    public boolean overrides(ExecutableElement executableElement, ExecutableElement executableElement1, TypeElement typeElement) {
+        synchronized (lock) {
+            return elements.overrides(executableElement, executableElement1, typeElement);
+        }
+    }
+
+    @Override
+    public String getConstantExpression(Object o) {
+        synchronized (lock) {
+            return elements.getConstantExpression(o);
+        }
+    }
+
+    @Override
+    public void printElements(Writer writer, Element... elements) {
+        synchronized (lock) {
+            this.elements.printElements(writer, elements);
+        }
+    }
+
+    @Override
+    public Name getName(CharSequence charSequence) {
+        synchronized (lock) {
+            return elements.getName(charSequence);
+        }
+    }
+
+    private <K, V> V memoize(ConcurrentMap<K, FutureTask<V>> cache, K key, Callable<V> loader) {
+        FutureTask<V> task = cache.get(key);
+        if (task == null) {
+            FutureTask<V> loadingTask = new FutureTask<V>(loader);
+            task = cache.putIfAbsent(key, loadingTask);
+            if (task == null) {
+                task = loadingTask;
+                loadingTask.run();
+            }
+        }
+        try {
+            V value = task.get();
+            if (value == null) {
+                cache.remove(key, task);
+            }
+            return value;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransfuseRuntimeException("Interrupted while waiting on element lookup", e);
+        } catch (ExecutionException e) {
+            cache.remove(key, task);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new TransfuseRuntimeException("Unable to look up element", e.getCause());
+        }
+    }
+}
@@ -18,6 +18,8 @@ package org.androidtransfuse.config;
 import com.google.inject.Key;
 import com.google.inject.Scope;
 
+import java.util.concurrent.Callable;
+
 /**
  * Scope with enter and exit functionality.
  *
@@ -52,4 +54,14 @@ public interface EnterableScope extends Scope {
      * @param <T>   generic parameter binding key and value
      */
     <T> void seed(Class<T> clazz, T value);
+
+    /**
+     * Wraps the given Callable to run within the scoping block of the calling thread, for work handed to other
+     * threads.
+     *
+     * @param callable to run in scope
+     * @param <T>      generic parameter of the Callable result
+     * @return scoped Callable
+     */
+    <T> Callable<T> wrap(Callable<T> callable);
 }
@@ -20,6 +20,7 @@ import com.google.inject.OutOfScopeException;
 import com.google.inject.Provider;
 
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -47,6 +48,11 @@ public class MapScope implements EnterableScope {
         seed(Key.get(clazz), value);
     }
 
+    public <T> Callable<T> wrap(Callable<T> callable) {
+        //scoped values are shared by all threads
+        return callable;
+    }
+
     public <T> Provider<T> scope(final Key<T> key, final Provider<T> provider) {
         return new MapScopeProvider<T>(key, provider);
     }
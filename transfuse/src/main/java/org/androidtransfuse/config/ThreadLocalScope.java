@@ -21,9 +21,11 @@ import com.google.inject.OutOfScopeException;
 import com.google.inject.Provider;
 
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
- * ThreadLocal based Scope implementation.  May only be used between enter() and exit() calls on a given thread.
+ * ThreadLocal based Scope implementation.  May only be used between enter() and exit() calls on a given thread, or
+ * by Callables wrapped by that thread.
  *
  * @author John Ericksen
  */
@@ -41,7 +43,9 @@ public class ThreadLocalScope implements EnterableScope {
 
     public <T> void seed(Key<T> key, T value) {
         Map<Key<?>, Object> scopedObjects = getScopedObjectMap(key);
-        scopedObjects.put(key, value);
+        synchronized (scopedObjects) {
+            scopedObjects.put(key, value);
+        }
     }
 
     public <T> void seed(Class<T> clazz, T value) {
@@ -53,13 +57,35 @@ public class ThreadLocalScope implements EnterableScope {
             public T get() {
                 Map<Key<?>, Object> scopedObjects = getScopedObjectMap(key);
 
-                @SuppressWarnings("unchecked")
-                T current = (T) scopedObjects.get(key);
-                if (current == null && !scopedObjects.containsKey(key)) {
-                    current = unscoped.get();
-                    scopedObjects.put(key, current);
+                //the scoping block may be shared with wrapped Callables running on other threads
+                synchronized (scopedObjects) {
+                    @SuppressWarnings("unchecked")
+                    T current = (T) scopedObjects.get(key);
+                    if (current == null && !scopedObjects.containsKey(key)) {
+                        current = unscoped.get();
+                        scopedObjects.put(key, current);
+                    }
+                    return current;
+                }
+            }
+        };
+    }
+
+    public <T> Callable<T> wrap(final Callable<T> callable) {
+        final Map<Key<?>, Object> scopedObjects = values.get();
+        return new Callable<T>() {
+            public T call() throws Exception {
+                Map<Key<?>, Object> previous = values.get();
+                values.set(scopedObjects);
+                try {
+                    return callable.call();
+                } finally {
+                    if (previous == null) {
+                        values.remove();
+                    } else {
+                        values.set(previous);
+                    }
                 }
-                return current;
             }
         };
     }
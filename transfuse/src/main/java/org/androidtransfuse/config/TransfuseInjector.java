@@ -33,9 +33,10 @@ public final class TransfuseInjector {
     public static Injector buildInjector(ProcessingEnvironment environment) {
         return Guice.createInjector(new TransfuseSetupGuiceModule(
                 new MessagerLogger(environment.getMessager()),
-                new SynchronizedFiler(environment.getFiler()),
-                new SynchronizedElements(environment.getElementUtils()),
-                new ThreadLocalScope()),
+                environment.getFiler(),
+                environment.getElementUtils(),
+                new ThreadLocalScope(),
+                new TransfuseOptions(environment.getOptions())),
                 new TransfuseGenerateGuiceModule(new MapScope()));
     }
 }
@@ -0,0 +1,207 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.config;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Typed view of the -A options supplied to the annotation processors by javac.
+ *
+ * @author John Ericksen
+ */
+public class TransfuseOptions {
+
+    public static final String PARALLELISM = "transfuse.parallelism";
+    public static final String TRACE = "transfuse.trace";
+    public static final String TRACE_SUMMARY_SIZE = "transfuse.trace.top";
+    public static final String CACHE = "transfuse.cache";
+    public static final String WRITER_QUEUE_SIZE = "transfuse.writer.queue";
+    public static final String MANIFEST = "transfuse.manifest";
+    public static final String PLATFORM_INDEX = "transfuse.platform.index";
+    public static final String AST_BACKEND = "transfuse.ast.backend";
+    public static final String AST_CACHE_SIZE = "transfuse.ast.cache";
+    public static final String SUBGRAPH_CACHE = "transfuse.analysis.subgraphs";
+    public static final String ANALYSIS_PARALLELISM = "transfuse.analysis.parallelism";
+
+    public static final ImmutableSet<String> SUPPORTED_OPTIONS = ImmutableSet.of(PARALLELISM, TRACE, TRACE_SUMMARY_SIZE, CACHE, WRITER_QUEUE_SIZE, MANIFEST, PLATFORM_INDEX, AST_BACKEND, AST_CACHE_SIZE, SUBGRAPH_CACHE, ANALYSIS_PARALLELISM);
+
+    /**
+     * Source of the ASTTypes built for classes on the processor classpath.
+     */
+    public enum ASTBackend {
+        /**
+         * Loaded classes, through reflection.
+         */
+        REFLECTION,
+        /**
+         * Class files, parsed without loading the classes.
+         */
+        CLASSFILE
+    }
+
+    private static final int DEFAULT_TRACE_SUMMARY_SIZE = 25;
+    private static final int DEFAULT_WRITER_QUEUE_SIZE = 64;
+
+    private final Map<String, String> options;
+
+    public TransfuseOptions() {
+        this(Collections.<String, String>emptyMap());
+    }
+
+    public TransfuseOptions(Map<String, String> options) {
+        this.options = options;
+    }
+
+    /**
+     * Number of threads used to execute Transactions.  Defaults to the number of available processors.
+     *
+     * @return parallelism
+     */
+    public int getParallelism() {
+        return getInt(PARALLELISM, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Directory to write the processor timing trace to.  Tracing is disabled if this option is not given.
+     *
+     * @return trace directory, or null
+     */
+    public File getTraceDirectory() {
+        return getFile(TRACE);
+    }
+
+    /**
+     * Number of the longest spans to list in the plain-text trace summary.
+     *
+     * @return summary size
+     */
+    public int getTraceSummarySize() {
+        return getInt(TRACE_SUMMARY_SIZE, DEFAULT_TRACE_SUMMARY_SIZE);
+    }
+
+    /**
+     * Directory holding the incremental generation cache, typically located under the build directory.  Generated
+     * output is not cached if this option is not given.
+     *
+     * @return cache directory, or null
+     */
+    public File getCacheDirectory() {
+        return getFile(CACHE);
+    }
+
+    /**
+     * Number of rendered outputs that may wait on the Filer writer before generating threads block.
+     *
+     * @return writer queue size
+     */
+    public int getWriterQueueSize() {
+        return getInt(WRITER_QUEUE_SIZE, DEFAULT_WRITER_QUEUE_SIZE);
+    }
+
+    /**
+     * Location of the AndroidManifest.xml file.  If this option is not given the manifest is searched for in the
+     * parent directories of the generated source output.
+     *
+     * @return manifest file, or null
+     */
+    public File getManifestFile() {
+        return getFile(MANIFEST);
+    }
+
+    /**
+     * Prebuilt index of the platform types, written by the PlatformTypeIndexWriter for the targeted SDK level.
+     * Platform types are read through reflection if this option is not given.
+     *
+     * @return platform type index file, or null
+     */
+    public File getPlatformIndexFile() {
+        return getFile(PLATFORM_INDEX);
+    }
+
+    /**
+     * Backend building the ASTTypes of classes on the processor classpath.  Defaults to reflection.
+     *
+     * @return AST backend
+     */
+    public ASTBackend getASTBackend() {
+        String value = options.get(AST_BACKEND);
+        if (value != null) {
+            for (ASTBackend backend : ASTBackend.values()) {
+                if (backend.name().equalsIgnoreCase(value.trim())) {
+                    return backend;
+                }
+            }
+        }
+        return ASTBackend.REFLECTION;
+    }
+
+    /**
+     * Number of recently used entries each AST cache holds strongly.  Colder entries are only kept while still
+     * referenced and are rebuilt once collected, bounding the heap used by large compilations.  The caches are
+     * unbounded if this option is not given.
+     *
+     * @return AST cache size, 0 if unbounded
+     */
+    public int getASTCacheSize() {
+        return getInt(AST_CACHE_SIZE, 0);
+    }
+
+    /**
+     * Determines if the InjectionNode subgraphs of types injected into several components are analyzed once and
+     * shared.  Enabled unless this option is given as false.
+     *
+     * @return true if subgraphs are shared
+     */
+    public boolean isSubgraphCacheEnabled() {
+        String value = options.get(SUBGRAPH_CACHE);
+        return value == null || !value.trim().equalsIgnoreCase("false");
+    }
+
+    /**
+     * Number of threads analyzing the sibling dependencies of an injection point together.  Dependencies are
+     * analyzed one after another by the thread analyzing the component unless this option is given above 1.
+     *
+     * @return analysis parallelism
+     */
+    public int getAnalysisParallelism() {
+        return getInt(ANALYSIS_PARALLELISM, 1);
+    }
+
+    private File getFile(String key) {
+        String value = options.get(key);
+        if (value == null || value.trim().length() == 0) {
+            return null;
+        }
+        return new File(value.trim());
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed > 0 ? parsed : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.config;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
@@ -23,21 +24,35 @@ import com.google.inject.util.Providers;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
 import com.thoughtworks.xstream.XStream;
+import org.androidtransfuse.adapter.ASTCaches;
 import org.androidtransfuse.adapter.ASTFactory;
 import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.adapter.descriptor.ChainedTypeDescriptorSource;
+import org.androidtransfuse.adapter.descriptor.ClassFileTypeSource;
+import org.androidtransfuse.adapter.descriptor.PlatformTypeIndex;
+import org.androidtransfuse.adapter.descriptor.TypeDescriptorSource;
 import org.androidtransfuse.analysis.module.BindingConfigurationFactory;
 import org.androidtransfuse.gen.ComponentsGenerator;
 import org.androidtransfuse.gen.FilerResourceWriter;
 import org.androidtransfuse.gen.FilerSourceCodeWriter;
+import org.androidtransfuse.gen.OriginatingElements;
+import org.androidtransfuse.gen.FilerWriter;
 import org.androidtransfuse.gen.invocationBuilder.PackageHelperGenerator;
 import org.androidtransfuse.processor.*;
 import org.androidtransfuse.util.Logger;
+import org.androidtransfuse.util.Tracer;
 
 import javax.annotation.processing.Filer;
 import javax.inject.Named;
 import javax.inject.Provider;
+import javax.inject.Singleton;
 import javax.lang.model.util.Elements;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * @author John Ericksen
@@ -51,17 +66,22 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
     public static final String CODE_GENERATION_SCOPE = "codeGenerationScope";
     public static final String PACKAGE_HELPER_TRANSACTION_WORKER = "packageHelperTransactionWorker";
     public static final String COMPONENTS_TRANSACTION_WORKER = "componentsTransactionWorker";
+    public static final String TRANSACTION_EXECUTOR = "transactionExecutor";
+    public static final String STAGE_EXECUTOR = "stageExecutor";
+    public static final String ANALYSIS_EXECUTOR = "analysisExecutor";
 
     private final Logger logger;
     private final Filer filer;
-    private final Elements elements;
+    private final CachingElements elements;
     private final EnterableScope codeGenerationScope;
+    private final TransfuseOptions options;
 
-    public TransfuseSetupGuiceModule(Logger logger, Filer filer, Elements elementUtils, EnterableScope codeGenerationScope) {
+    public TransfuseSetupGuiceModule(Logger logger, Filer filer, Elements elementUtils, EnterableScope codeGenerationScope, TransfuseOptions options) {
         this.logger = logger;
         this.filer = filer;
-        this.elements = elementUtils;
+        this.elements = new CachingElements(elementUtils);
         this.codeGenerationScope = codeGenerationScope;
+        this.options = options;
     }
 
     @Override
@@ -76,6 +96,8 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
         bind(XStream.class).toProvider(XStreamProvider.class);
         bind(Filer.class).toInstance(filer);
         bind(Elements.class).toInstance(elements);
+        bind(CachingElements.class).toInstance(elements);
+        bind(TransfuseOptions.class).toInstance(options);
 
         bindScope(CodeGenerationScope.class, codeGenerationScope);
         bind(EnterableScope.class).annotatedWith(Names.named(CODE_GENERATION_SCOPE)).toInstance(codeGenerationScope);
@@ -84,6 +106,7 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
 
         bind(FilerSourceCodeWriter.class).in(CodeGenerationScope.class);
         bind(FilerResourceWriter.class).in(CodeGenerationScope.class);
+        bind(OriginatingElements.class).in(CodeGenerationScope.class);
     }
 
     private static class JCodeModelProvider implements Provider<JCodeModel> {
@@ -93,13 +116,109 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
         }
     }
 
+    /**
+     * Long-lived executor shared by every TransactionProcessorPool for the life of the processing session.  Threads are
+     * daemons so an abandoned compilation cannot hold the JVM open; the annotation processors shut the executor down
+     * once the final round completes.
+     */
+    @Provides
+    @Singleton
+    @Named(TRANSACTION_EXECUTOR)
+    public ExecutorService getTransactionExecutor() {
+        return Executors.newFixedThreadPool(options.getParallelism(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("transfuse-transaction-%d").build());
+    }
+
+    @Provides
+    @Singleton
+    public Tracer getTracer() {
+        return new Tracer(options.getTraceDirectory(), options.getTraceSummarySize());
+    }
+
+    @Provides
+    @Singleton
+    public FilerWriter getFilerWriter(Tracer tracer) {
+        return new FilerWriter(filer, options.getWriterQueueSize(), tracer);
+    }
+
+    @Provides
+    @Singleton
+    public GenerationCache getGenerationCache() {
+        return new GenerationCache(options.getCacheDirectory());
+    }
+
+    @Provides
+    @Singleton
+    public TypeFingerprinter getTypeFingerprinter() {
+        //the processor jar is only hashed if its output is cached
+        String processorVersion = options.getCacheDirectory() == null ? "" : ProcessorVersion.of(TypeFingerprinter.class);
+        return new TypeFingerprinter(processorVersion);
+    }
+
+    @Provides
+    @Singleton
+    public ASTCaches getASTCaches() {
+        return new ASTCaches(options.getASTCacheSize());
+    }
+
+    @Provides
+    @Singleton
+    public PlatformTypeIndex getPlatformTypeIndex() {
+        return new PlatformTypeIndex(options.getPlatformIndexFile());
+    }
+
+    @Provides
+    @Singleton
+    public TypeDescriptorSource getTypeDescriptorSource(PlatformTypeIndex platformTypeIndex) {
+        List<TypeDescriptorSource> sources = new ArrayList<TypeDescriptorSource>();
+        if (platformTypeIndex.isEnabled()) {
+            sources.add(platformTypeIndex);
+        }
+        if (options.getASTBackend() == TransfuseOptions.ASTBackend.CLASSFILE) {
+            sources.add(new ClassFileTypeSource(ASTClassFactory.class.getClassLoader()));
+        }
+        return new ChainedTypeDescriptorSource(sources);
+    }
+
+    /**
+     * Executor used by the TransactionProcessorGraph to run each stage.  Stages block while waiting on their
+     * Transactions, so they are run on their own idle-expiring threads rather than the Transaction executor.
+     */
+    @Provides
+    @Singleton
+    @Named(STAGE_EXECUTOR)
+    public ExecutorService getStageExecutor() {
+        return Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("transfuse-stage-%d").build());
+    }
+
+    /**
+     * Executor analyzing sibling dependencies for the ParallelDependencyAnalyzer.  Threads waiting on their siblings
+     * run the siblings not yet started themselves, so nested analysis never waits on a queued task.
+     */
+    @Provides
+    @Singleton
+    @Named(ANALYSIS_EXECUTOR)
+    public ExecutorService getAnalysisExecutor() {
+        return Executors.newFixedThreadPool(options.getAnalysisParallelism(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("transfuse-analysis-%d").build());
+    }
+
     @Provides
     @Named(PARCEL_TRANSACTION_WORKER)
     public TransactionWorker<Provider<ASTType>, JDefinedClass> getParcelTransactionWorker(JCodeModel codeModel,
                                                                                           FilerSourceCodeWriter codeWriter,
                                                                                           FilerResourceWriter resourceWriter,
-                                                                                          ParcelTransactionWorker worker) {
-        return new CodeGenerationScopedTransactionWorker<Provider<ASTType>, JDefinedClass>(codeModel, codeWriter, resourceWriter, worker);
+                                                                                          ParcelTransactionWorker worker,
+                                                                                          Tracer tracer,
+                                                                                          GenerationCache generationCache,
+                                                                                          TypeFingerprinter fingerprinter,
+                                                                                          FilerWriter filerWriter,
+                                                                                          OriginatingElements originatingElements) {
+        if (generationCache.isEnabled()) {
+            return new IncrementalGenerationTransactionWorker(codeModel, filerWriter, originatingElements, worker, generationCache, fingerprinter, tracer);
+        }
+        return new CodeGenerationScopedTransactionWorker<Provider<ASTType>, JDefinedClass>(codeModel, codeWriter, resourceWriter, worker, tracer);
     }
 
     @Provides
@@ -107,8 +226,9 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
     public TransactionWorker<Provider<ASTType>, JDefinedClass> getInjectorTransactionWorker(JCodeModel codeModel,
                                                                                             FilerSourceCodeWriter codeWriter,
                                                                                             FilerResourceWriter resourceWriter,
-                                                                                            InjectorTransactionWorker worker) {
-        return new CodeGenerationScopedTransactionWorker<Provider<ASTType>, JDefinedClass>(codeModel, codeWriter, resourceWriter, worker);
+                                                                                            InjectorTransactionWorker worker,
+                                                                                            Tracer tracer) {
+        return new CodeGenerationScopedTransactionWorker<Provider<ASTType>, JDefinedClass>(codeModel, codeWriter, resourceWriter, worker, tracer);
     }
 
     @Provides
@@ -116,8 +236,9 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
     public TransactionWorker<Map<Provider<ASTType>, JDefinedClass>, Void> getInjectorsTransactionWorker(JCodeModel codeModel,
                                                                                                         FilerSourceCodeWriter codeWriter,
                                                                                                         FilerResourceWriter resourceWriter,
-                                                                                                        InjectorsTransactionWorker worker) {
-        return new CodeGenerationScopedTransactionWorker<Map<Provider<ASTType>, JDefinedClass>, Void>(codeModel, codeWriter, resourceWriter, worker);
+                                                                                                        InjectorsTransactionWorker worker,
+                                                                                                        Tracer tracer) {
+        return new CodeGenerationScopedTransactionWorker<Map<Provider<ASTType>, JDefinedClass>, Void>(codeModel, codeWriter, resourceWriter, worker, tracer);
     }
 
     @Provides
@@ -125,8 +246,9 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
     public TransactionWorker<Map<Provider<ASTType>, JDefinedClass>, Void> getParcelsTransactionWorker(JCodeModel codeModel,
                                                                                                       FilerSourceCodeWriter codeWriter,
                                                                                                       FilerResourceWriter resourceWriter,
-                                                                                                      ParcelsTransactionWorker worker) {
-        return new CodeGenerationScopedTransactionWorker<Map<Provider<ASTType>, JDefinedClass>, Void>(codeModel, codeWriter, resourceWriter, worker);
+                                                                                                      ParcelsTransactionWorker worker,
+                                                                                                      Tracer tracer) {
+        return new CodeGenerationScopedTransactionWorker<Map<Provider<ASTType>, JDefinedClass>, Void>(codeModel, codeWriter, resourceWriter, worker, tracer);
     }
 
     @Provides
@@ -134,8 +256,9 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
     public TransactionWorker<Void, Void> getPHTransactionWorker(JCodeModel codeModel,
                                                                 FilerSourceCodeWriter codeWriter,
                                                                 FilerResourceWriter resourceWriter,
-                                                                PackageHelperGenerator worker) {
-        return new CodeGenerationScopedTransactionWorker<Void, Void>(codeModel, codeWriter, resourceWriter, worker);
+                                                                PackageHelperGenerator worker,
+                                                                Tracer tracer) {
+        return new CodeGenerationScopedTransactionWorker<Void, Void>(codeModel, codeWriter, resourceWriter, worker, tracer);
     }
 
     @Provides
@@ -143,17 +266,19 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
     public TransactionWorker<Map<Provider<ASTType>, JDefinedClass>, Void> getComponentsWorker(JCodeModel codeModel,
                                                                 FilerSourceCodeWriter codeWriter,
                                                                 FilerResourceWriter resourceWriter,
-                                                                ComponentsGenerator worker) {
-        return new CodeGenerationScopedTransactionWorker<Map<Provider<ASTType>, JDefinedClass>, Void>(codeModel, codeWriter, resourceWriter, worker);
+                                                                ComponentsGenerator worker,
+                                                                Tracer tracer) {
+        return new CodeGenerationScopedTransactionWorker<Map<Provider<ASTType>, JDefinedClass>, Void>(codeModel, codeWriter, resourceWriter, worker, tracer);
     }
 
     @Provides
     public InjectorProcessor getInjectorProcessor(InjectorTransactionFactory injectorTransactionFactory,
-                                                  InjectorsTransactionFactory injectorsTransactionFactory) {
+                                                  InjectorsTransactionFactory injectorsTransactionFactory,
+                                                  @Named(TRANSACTION_EXECUTOR) ExecutorService executorService) {
         TransactionProcessorPool<Provider<ASTType>, JDefinedClass> injectorProcessor =
-                new TransactionProcessorPool<Provider<ASTType>, JDefinedClass>();
+                new TransactionProcessorPool<Provider<ASTType>, JDefinedClass>(executorService);
         TransactionProcessorPool<Map<Provider<ASTType>, JDefinedClass>, Void> injectorsProcessor =
-                new TransactionProcessorPool<Map<Provider<ASTType>, JDefinedClass>, Void>();
+                new TransactionProcessorPool<Map<Provider<ASTType>, JDefinedClass>, Void>(executorService);
 
         TransactionProcessor processor =
                 new TransactionProcessorChannel<Provider<ASTType>, JDefinedClass, Void>(injectorProcessor, injectorsProcessor, injectorsTransactionFactory);
@@ -163,12 +288,13 @@ public class TransfuseSetupGuiceModule extends AbstractModule {
 
     @Provides
     public ParcelProcessor getParcelProcessor(ParcelTransactionFactory parcelTransactionFactory,
-                                              ParcelsTransactionFactory parcelsTransactionFactory) {
+                                              ParcelsTransactionFactory parcelsTransactionFactory,
+                                              @Named(TRANSACTION_EXECUTOR) ExecutorService executorService) {
 
         TransactionProcessorPool<Provider<ASTType>, JDefinedClass> parcelProcessor =
-                new TransactionProcessorPool<Provider<ASTType>, JDefinedClass>();
+                new TransactionProcessorPool<Provider<ASTType>, JDefinedClass>(executorService);
         TransactionProcessorPool<Map<Provider<ASTType>, JDefinedClass>, Void> parcelsProcessor =
-                new TransactionProcessorPool<Map<Provider<ASTType>, JDefinedClass>, Void>();
+                new TransactionProcessorPool<Map<Provider<ASTType>, JDefinedClass>, Void>(executorService);
 
         TransactionProcessor processor =
                 new TransactionProcessorChannel<Provider<ASTType>, JDefinedClass, Void>(parcelProcessor, parcelsProcessor, parcelsTransactionFactory);
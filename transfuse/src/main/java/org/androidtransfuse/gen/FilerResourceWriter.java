@@ -18,41 +18,36 @@ package org.androidtransfuse.gen;
 import com.sun.codemodel.CodeWriter;
 import com.sun.codemodel.JPackage;
 
-import javax.annotation.processing.Filer;
 import javax.inject.Inject;
-import javax.tools.FileObject;
-import javax.tools.StandardLocation;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 
+/**
+ * Adapter class to allow codemodel to write its resource output to the Java Annotation Processor Filer
+ *
+ * @author John Ericksen
+ */
 public class FilerResourceWriter extends CodeWriter {
 
-    private final Filer filer;
-    private final Collection<OutputStream> openStreams = new HashSet<OutputStream>();
+    private MemoryCodeWriter memoryCodeWriter = new MemoryCodeWriter();
+    private final FilerWriter filerWriter;
+    private final OriginatingElements originatingElements;
 
     @Inject
-    public FilerResourceWriter(Filer filer) {
-        this.filer = filer;
+    public FilerResourceWriter(FilerWriter filerWriter, OriginatingElements originatingElements) {
+        this.filerWriter = filerWriter;
+        this.originatingElements = originatingElements;
     }
 
     @Override
     public OutputStream openBinary(JPackage pkg, String fileName) throws IOException {
-        FileObject resource = filer.createResource(StandardLocation.SOURCE_OUTPUT, pkg.name(), fileName);
-
-        OutputStream os = resource.openOutputStream();
-        openStreams.add(os);
-
-        return os;
+        return memoryCodeWriter.openBinary(pkg, fileName);
     }
 
-
     @Override
     public void close() throws IOException {
-        for (OutputStream openStream : openStreams) {
-            openStream.flush();
-            openStream.close();
-        }
+        filerWriter.write(Collections.<String, byte[]>emptyMap(), memoryCodeWriter.getOutput(), originatingElements.getElements());
+        memoryCodeWriter = new MemoryCodeWriter();
     }
-}
\ No newline at end of file
+}
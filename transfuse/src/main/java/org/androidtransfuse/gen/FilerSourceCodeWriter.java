@@ -17,15 +17,11 @@ package org.androidtransfuse.gen;
 
 import com.sun.codemodel.CodeWriter;
 import com.sun.codemodel.JPackage;
-import org.androidtransfuse.model.PackageClass;
 
-import javax.annotation.processing.Filer;
 import javax.inject.Inject;
-import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 
 /**
  * Adapter class to allow codemodel to write its output source and source files to the Java Annotation Processor Filer
@@ -34,34 +30,24 @@ import java.util.HashSet;
  */
 public class FilerSourceCodeWriter extends CodeWriter {
 
-    private final Filer filer;
-    private final Collection<OutputStream> openStreams = new HashSet<OutputStream>();
+    private MemoryCodeWriter memoryCodeWriter = new MemoryCodeWriter();
+    private final FilerWriter filerWriter;
+    private final OriginatingElements originatingElements;
 
     @Inject
-    public FilerSourceCodeWriter(Filer filer) {
-        this.filer = filer;
+    public FilerSourceCodeWriter(FilerWriter filerWriter, OriginatingElements originatingElements) {
+        this.filerWriter = filerWriter;
+        this.originatingElements = originatingElements;
     }
 
     @Override
     public OutputStream openBinary(JPackage jPackage, String fileName) throws IOException {
-        //generate a source file based on package and filename
-        JavaFileObject sourceFile = filer.createSourceFile(toQualifiedClassName(jPackage, fileName));
-
-        OutputStream os = sourceFile.openOutputStream();
-        openStreams.add(os);
-
-        return os;
-    }
-
-    private String toQualifiedClassName(JPackage pkg, String fileName) {
-        return new PackageClass(pkg.name(), fileName).getFullyQualifiedName();
+        return memoryCodeWriter.openBinary(jPackage, fileName);
     }
 
     @Override
     public void close() throws IOException {
-        for (OutputStream openStream : openStreams) {
-            openStream.flush();
-            openStream.close();
-        }
+        //hand the rendered files to the single Filer writer and wait for them to be written
+        filerWriter.write(memoryCodeWriter.getOutput(), Collections.<String, byte[]>emptyMap(), originatingElements.getElements());
     }
 }
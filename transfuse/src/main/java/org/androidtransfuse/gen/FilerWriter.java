@@ -0,0 +1,313 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.gen;
+
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.androidtransfuse.model.PackageClass;
+import org.androidtransfuse.util.Tracer;
+import org.androidtransfuse.util.TransfuseRuntimeException;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single writer stage owning all generated output writes to the Filer.  Worker threads render their output in
+ * memory and submit the rendered buffers through a bounded queue, blocking if the writer falls behind.  The writer
+ * thread drains every pending request at once and writes the drained files ordered by path, so the write order
+ * does not depend on which worker submitted first.  Write failures are reported back through the Future returned
+ * to the submitting worker.
+ * <p/>
+ * Buffers are keyed by path, in the form <code>package.name/FileName.ext</code>, as produced by the
+ * MemoryCodeWriter.  Each file is created with the originating elements submitted alongside it so incremental
+ * builds are able to attribute generated files to their inputs.
+ *
+ * @author John Ericksen
+ */
+public class FilerWriter {
+
+    private static final WriteRequest SHUTDOWN = new WriteRequest(
+            Collections.<String, byte[]>emptyMap(), Collections.<String, byte[]>emptyMap(), new Element[0]);
+
+    private final Filer filer;
+    private final BlockingQueue<WriteRequest> queue;
+    private final Tracer tracer;
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicInteger filesWritten = new AtomicInteger();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private Thread writerThread = null;
+    private boolean shutdown = false;
+
+    public FilerWriter(Filer filer, int queueSize, Tracer tracer) {
+        this.filer = filer;
+        this.queue = new ArrayBlockingQueue<WriteRequest>(queueSize);
+        this.tracer = tracer;
+    }
+
+    /**
+     * Submits the given buffers and waits for them to be written.
+     *
+     * @param sources   source files by path
+     * @param resources resource files by path
+     * @throws IOException if the Filer was unable to write any of the given files
+     */
+    public void write(Map<String, byte[]> sources, Map<String, byte[]> resources) throws IOException {
+        write(sources, resources, new Element[0]);
+    }
+
+    /**
+     * Submits the given buffers and waits for them to be written.
+     *
+     * @param sources             source files by path
+     * @param resources           resource files by path
+     * @param originatingElements elements the given files were generated from
+     * @throws IOException if the Filer was unable to write any of the given files
+     */
+    public void write(Map<String, byte[]> sources, Map<String, byte[]> resources, Element[] originatingElements) throws IOException {
+        try {
+            submit(sources, resources, originatingElements).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on Filer writer");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new TransfuseRuntimeException("Unable to write generated files", e.getCause());
+        }
+    }
+
+    /**
+     * Submits the given buffers to be written, blocking while the queue is full.
+     *
+     * @param sources   source files by path
+     * @param resources resource files by path
+     * @return future completed once all given files are written
+     * @throws IOException if interrupted while waiting for queue capacity
+     */
+    public Future<Void> submit(Map<String, byte[]> sources, Map<String, byte[]> resources) throws IOException {
+        return submit(sources, resources, new Element[0]);
+    }
+
+    /**
+     * Submits the given buffers to be written, blocking while the queue is full.
+     *
+     * @param sources             source files by path
+     * @param resources           resource files by path
+     * @param originatingElements elements the given files were generated from
+     * @return future completed once all given files are written
+     * @throws IOException if interrupted while waiting for queue capacity
+     */
+    public Future<Void> submit(Map<String, byte[]> sources, Map<String, byte[]> resources, Element[] originatingElements) throws IOException {
+        WriteRequest request = new WriteRequest(sources, resources, originatingElements);
+        //enqueued under the shutdown lock, so no request is queued behind the SHUTDOWN marker
+        synchronized (this) {
+            if (shutdown) {
+                request.future.setException(new IOException("Filer writer has been shut down"));
+                return request.future;
+            }
+            startWriter();
+            try {
+                queue.put(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting on Filer writer queue");
+            }
+        }
+        updateMaxQueueDepth(queue.size());
+        return request.future;
+    }
+
+    /**
+     * Stops the writer thread once all previously submitted requests are written.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (writerThread != null) {
+            try {
+                queue.put(SHUTDOWN);
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void startWriter() {
+        if (writerThread == null) {
+            writerThread = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("transfuse-filer-%d").build()
+                    .newThread(new WriterRunnable());
+            writerThread.start();
+        }
+    }
+
+    private void updateMaxQueueDepth(int depth) {
+        int currentMax = maxQueueDepth.get();
+        while (depth > currentMax && !maxQueueDepth.compareAndSet(currentMax, depth)) {
+            currentMax = maxQueueDepth.get();
+        }
+    }
+
+    private final class WriterRunnable implements Runnable {
+        @Override
+        public void run() {
+            boolean running = true;
+            while (running) {
+                List<WriteRequest> batch = new ArrayList<WriteRequest>();
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.drainTo(batch);
+                running = !batch.remove(SHUTDOWN);
+                try {
+                    writeBatch(batch);
+                } catch (Throwable e) {
+                    //keeps the writer alive and releases the workers waiting on this batch
+                    for (WriteRequest request : batch) {
+                        request.future.setException(new IOException("Unable to write generated files", e));
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeBatch(List<WriteRequest> batch) {
+        List<PendingFile> files = new ArrayList<PendingFile>();
+        for (WriteRequest request : batch) {
+            for (Map.Entry<String, byte[]> source : request.sources.entrySet()) {
+                files.add(new PendingFile(request, true, source.getKey(), source.getValue()));
+            }
+            for (Map.Entry<String, byte[]> resource : request.resources.entrySet()) {
+                files.add(new PendingFile(request, false, resource.getKey(), resource.getValue()));
+            }
+        }
+        Collections.sort(files);
+
+        Map<WriteRequest, IOException> failures = new HashMap<WriteRequest, IOException>();
+        for (PendingFile file : files) {
+            if (!failures.containsKey(file.request)) {
+                try {
+                    writeFile(file);
+                } catch (IOException e) {
+                    failures.put(file.request, e);
+                } catch (RuntimeException e) {
+                    failures.put(file.request, new IOException("Unable to write " + file.path, e));
+                }
+            }
+        }
+
+        for (WriteRequest request : batch) {
+            if (failures.containsKey(request)) {
+                request.future.setException(failures.get(request));
+            } else {
+                request.future.set(null);
+            }
+        }
+    }
+
+    private void writeFile(PendingFile file) throws IOException {
+        Tracer.Span span = tracer.start(Tracer.FILER, "write", file.path);
+        long start = System.nanoTime();
+        try {
+            int separator = file.path.lastIndexOf('/');
+            String pkg = separator == -1 ? "" : file.path.substring(0, separator);
+            String fileName = file.path.substring(separator + 1);
+
+            FileObject fileObject;
+            if (file.source) {
+                fileObject = filer.createSourceFile(new PackageClass(pkg, fileName).getFullyQualifiedName(),
+                        file.request.originatingElements);
+            } else {
+                fileObject = filer.createResource(StandardLocation.SOURCE_OUTPUT, pkg, fileName,
+                        file.request.originatingElements);
+            }
+
+            OutputStream outputStream = fileObject.openOutputStream();
+            try {
+                outputStream.write(file.content);
+                outputStream.flush();
+            } finally {
+                outputStream.close();
+            }
+            filesWritten.incrementAndGet();
+        } finally {
+            writeNanos.addAndGet(System.nanoTime() - start);
+            span.end();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public int getFilesWritten() {
+        return filesWritten.get();
+    }
+
+    public long getWriteTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(writeNanos.get());
+    }
+
+    private static final class WriteRequest {
+        private final Map<String, byte[]> sources;
+        private final Map<String, byte[]> resources;
+        private final Element[] originatingElements;
+        private final SettableFuture<Void> future = SettableFuture.create();
+
+        private WriteRequest(Map<String, byte[]> sources, Map<String, byte[]> resources, Element[] originatingElements) {
+            this.sources = sources;
+            this.resources = resources;
+            this.originatingElements = originatingElements;
+        }
+    }
+
+    private static final class PendingFile implements Comparable<PendingFile> {
+        private final WriteRequest request;
+        private final boolean source;
+        private final String path;
+        private final byte[] content;
+
+        private PendingFile(WriteRequest request, boolean source, String path, byte[] content) {
+            this.request = request;
+            this.source = source;
+            this.path = path;
+            this.content = content;
+        }
+
+        @Override
+        public int compareTo(PendingFile pendingFile) {
+            if (source != pendingFile.source) {
+                return source ? -1 : 1;
+            }
+            return path.compareTo(pendingFile.path);
+        }
+    }
+}
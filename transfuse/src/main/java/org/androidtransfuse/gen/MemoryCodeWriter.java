@@ -0,0 +1,66 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.gen;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JPackage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CodeWriter that captures the rendered codemodel output in memory, keyed by the package and file name of each file.
+ *
+ * @author John Ericksen
+ */
+public class MemoryCodeWriter extends CodeWriter {
+
+    private final Map<String, ByteArrayOutputStream> outputs = new LinkedHashMap<String, ByteArrayOutputStream>();
+
+    @Override
+    public OutputStream openBinary(JPackage pkg, String fileName) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputs.put(toPath(pkg, fileName), outputStream);
+        return outputStream;
+    }
+
+    private String toPath(JPackage pkg, String fileName) {
+        if (pkg.isUnnamed()) {
+            return fileName;
+        }
+        return pkg.name() + "/" + fileName;
+    }
+
+    @Override
+    public void close() {
+        //noop
+    }
+
+    /**
+     * Returns the captured output by path, in the form <code>package.name/FileName.ext</code>.
+     *
+     * @return captured output
+     */
+    public Map<String, byte[]> getOutput() {
+        Map<String, byte[]> output = new LinkedHashMap<String, byte[]>();
+        for (Map.Entry<String, ByteArrayOutputStream> outputEntry : outputs.entrySet()) {
+            output.put(outputEntry.getKey(), outputEntry.getValue().toByteArray());
+        }
+        return output;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.gen;
+
+import javax.lang.model.element.Element;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Code generation scoped set of the source elements responsible for the files generated by the current Transaction.
+ * Every file written through the FilerWriter is registered with these elements, allowing incremental builds to map
+ * each generated file back to the inputs it was generated from.
+ *
+ * @author John Ericksen
+ */
+public class OriginatingElements {
+
+    private final Set<Element> elements = new LinkedHashSet<Element>();
+
+    public synchronized void add(Element element) {
+        if (element != null) {
+            elements.add(element);
+        }
+    }
+
+    public synchronized void addAll(Collection<? extends Element> elementCollection) {
+        for (Element element : elementCollection) {
+            add(element);
+        }
+    }
+
+    public synchronized Element[] getElements() {
+        return elements.toArray(new Element[elements.size()]);
+    }
+}
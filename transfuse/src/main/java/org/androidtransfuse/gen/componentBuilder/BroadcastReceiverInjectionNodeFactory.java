@@ -21,8 +21,9 @@ import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.analysis.AnalysisContext;
 import org.androidtransfuse.analysis.AnalysisContextFactory;
 import org.androidtransfuse.analysis.InjectionPointFactory;
+import org.androidtransfuse.analysis.repository.ComponentRepositoryFactory;
+import org.androidtransfuse.analysis.repository.ComponentTypeBindings;
 import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
-import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
 import org.androidtransfuse.gen.variableBuilder.InjectionBindingBuilder;
 import org.androidtransfuse.model.InjectionNode;
 import org.androidtransfuse.model.MethodDescriptor;
@@ -38,26 +39,22 @@ public class BroadcastReceiverInjectionNodeFactory implements InjectionNodeFacto
 
     private final AnalysisContextFactory analysisContextFactory;
     private final InjectionPointFactory injectionPointFactory;
-    private final InjectionNodeBuilderRepositoryFactory variableBuilderRepositoryFactory;
-    private final InjectionNodeBuilderRepository injectionNodeBuilderRepository;
+    private final ComponentRepositoryFactory componentRepositoryFactory;
     private final ASTType astType;
     private final InjectionBindingBuilder injectionBindingBuilder;
-    private final InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory;
+    private final ComponentTypeBindings broadcastReceiverBindings = new BroadcastReceiverBindings();
 
     @Inject
     public BroadcastReceiverInjectionNodeFactory(@Assisted ASTType astType,
                                                  AnalysisContextFactory analysisContextFactory,
                                                  InjectionPointFactory injectionPointFactory,
-                                                 InjectionNodeBuilderRepositoryFactory variableBuilderRepositoryFactory,
-                                                 InjectionNodeBuilderRepository injectionNodeBuilderRepository,
-                                                 InjectionBindingBuilder injectionBindingBuilder, InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory) {
+                                                 ComponentRepositoryFactory componentRepositoryFactory,
+                                                 InjectionBindingBuilder injectionBindingBuilder) {
         this.analysisContextFactory = analysisContextFactory;
         this.injectionPointFactory = injectionPointFactory;
-        this.variableBuilderRepositoryFactory = variableBuilderRepositoryFactory;
-        this.injectionNodeBuilderRepository = injectionNodeBuilderRepository;
+        this.componentRepositoryFactory = componentRepositoryFactory;
         this.astType = astType;
         this.injectionBindingBuilder = injectionBindingBuilder;
-        this.injectionNodeBuilderRepositoryFactory = injectionNodeBuilderRepositoryFactory;
     }
 
     @Override
@@ -68,18 +65,20 @@ public class BroadcastReceiverInjectionNodeFactory implements InjectionNodeFacto
 
     private InjectionNodeBuilderRepository buildVariableBuilderMap(MethodDescriptor methodDescriptor) {
 
-        injectionNodeBuilderRepository.putType(android.content.BroadcastReceiver.class, injectionBindingBuilder.buildThis(android.content.BroadcastReceiver.class));
+        InjectionNodeBuilderRepository injectionNodeBuilderRepository = componentRepositoryFactory.buildComponentRepository(broadcastReceiverBindings);
 
         for (Map.Entry<ASTParameter, TypedExpression> parameterEntry : methodDescriptor.getParameters().entrySet()) {
             injectionNodeBuilderRepository.putType(parameterEntry.getKey().getASTType(), injectionBindingBuilder.buildExpression(parameterEntry.getValue()));
         }
 
-        injectionNodeBuilderRepositoryFactory.addApplicationInjections(injectionNodeBuilderRepository);
-
-        injectionNodeBuilderRepositoryFactory.addModuleConfiguration(injectionNodeBuilderRepository);
+        return injectionNodeBuilderRepository;
+    }
 
-        variableBuilderRepositoryFactory.addApplicationInjections(injectionNodeBuilderRepository);
+    private final class BroadcastReceiverBindings implements ComponentTypeBindings {
 
-        return injectionNodeBuilderRepository;
+        @Override
+        public void addBindings(InjectionNodeBuilderRepository injectionNodeBuilderRepository) {
+            injectionNodeBuilderRepository.putType(android.content.BroadcastReceiver.class, injectionBindingBuilder.buildThis(android.content.BroadcastReceiver.class));
+        }
     }
 }
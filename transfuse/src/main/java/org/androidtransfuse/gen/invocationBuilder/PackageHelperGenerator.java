@@ -20,6 +20,7 @@ import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.adapter.ASTVoidType;
 import org.androidtransfuse.analysis.TransfuseAnalysisException;
 import org.androidtransfuse.gen.ClassGenerationUtil;
+import org.androidtransfuse.gen.OriginatingElements;
 import org.androidtransfuse.gen.UniqueVariableNamer;
 import org.androidtransfuse.model.ConstructorInjectionPoint;
 import org.androidtransfuse.model.FieldInjectionPoint;
@@ -28,6 +29,7 @@ import org.androidtransfuse.model.PackageClass;
 import org.androidtransfuse.processor.AbstractCompletionTransactionWorker;
 
 import javax.inject.Inject;
+import javax.lang.model.util.Elements;
 import java.util.List;
 import java.util.Map;
 
@@ -40,16 +42,22 @@ public class PackageHelperGenerator extends AbstractCompletionTransactionWorker<
     private final JCodeModel codeModel;
     private final UniqueVariableNamer namer;
     private final ClassGenerationUtil generationUtil;
+    private final OriginatingElements originatingElements;
+    private final Elements elements;
 
     @Inject
     public PackageHelperGenerator(PackageHelperRepository repository,
                                   JCodeModel codeModel,
                                   UniqueVariableNamer namer,
-                                  ClassGenerationUtil generationUtil) {
+                                  ClassGenerationUtil generationUtil,
+                                  OriginatingElements originatingElements,
+                                  Elements elements) {
         this.repository = repository;
         this.codeModel = codeModel;
         this.namer = namer;
         this.generationUtil = generationUtil;
+        this.originatingElements = originatingElements;
+        this.elements = elements;
     }
 
     @Override
@@ -60,6 +68,7 @@ public class PackageHelperGenerator extends AbstractCompletionTransactionWorker<
             //constructor
             for (Map.Entry<ConstructorInjectionPoint, String> constructorEntry : packageHelper.getConstructorMapping().entrySet()) {
                 buildConstructorCall(constructorEntry.getKey(), constructorEntry.getValue(), packageHelperClass);
+                addOriginatingElement(constructorEntry.getKey().getContainingType());
             }
 
             //method
@@ -70,6 +79,7 @@ public class PackageHelperGenerator extends AbstractCompletionTransactionWorker<
                 List<ASTType> paramTypes = methodCallEntry.getKey().getParamTypes();
 
                 buildMethodCall(returnType, type, methodName, paramTypes, methodCallEntry.getValue(), packageHelperClass);
+                addOriginatingElement(type);
             }
 
             //field get
@@ -79,17 +89,24 @@ public class PackageHelperGenerator extends AbstractCompletionTransactionWorker<
                 String name = fieldGetEntry.getKey().getName();
 
                 buildFieldGet(returnType, variableType, name, fieldGetEntry.getValue(), packageHelperClass);
+                addOriginatingElement(variableType);
             }
 
             //field set
             for (Map.Entry<FieldInjectionPoint, String> fieldSetEntry : packageHelper.getFieldSetMapping().entrySet()) {
                 buildFieldSet(fieldSetEntry.getKey(), fieldSetEntry.getValue(), packageHelperClass);
+                addOriginatingElement(fieldSetEntry.getKey().getContainingType());
             }
         }
 
         return null;
     }
 
+    private void addOriginatingElement(ASTType accessedType) {
+        //helpers expose the non-public members of the accessed types
+        originatingElements.add(elements.getTypeElement(accessedType.getName()));
+    }
+
     private void buildConstructorCall(ConstructorInjectionPoint constructorInjectionPoint, String accessorMethodName, JDefinedClass helperClass) {
         JClass returnTypeRef = codeModel.ref(constructorInjectionPoint.getContainingType().getName());
         //get, ClassName, FG, fieldName
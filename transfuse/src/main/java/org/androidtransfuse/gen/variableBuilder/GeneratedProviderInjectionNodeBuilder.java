@@ -64,7 +64,7 @@ public class GeneratedProviderInjectionNodeBuilder implements InjectionNodeBuild
         }
 
         InjectionNode injectionNode = analyzer.analyze(astType, astType, context);
-        InjectionNode providerInjectionNode = injectionPointFactory.buildInjectionNode(providerGenericType, context);
+        InjectionNode providerInjectionNode = injectionPointFactory.buildExclusiveInjectionNode(providerGenericType, context);
         providerInjectionNode.addAspect(VariableBuilder.class, variableInjectionBuilderProvider.get());
 
         injectionNode.addAspect(VariableBuilder.class, variableInjectionBuilderFactory.buildGeneratedProviderVariableBuilder(providerInjectionNode));
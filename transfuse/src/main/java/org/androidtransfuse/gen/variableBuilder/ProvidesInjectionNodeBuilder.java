@@ -22,10 +22,12 @@ import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.analysis.AnalysisContext;
 import org.androidtransfuse.analysis.Analyzer;
 import org.androidtransfuse.analysis.InjectionPointFactory;
+import org.androidtransfuse.analysis.ParallelDependencyAnalyzer;
 import org.androidtransfuse.model.InjectionNode;
 
 import javax.inject.Inject;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -38,18 +40,21 @@ public class ProvidesInjectionNodeBuilder extends InjectionNodeBuilderNoAnnotati
     private final Analyzer analyzer;
     private final InjectionPointFactory injectionNodeFactory;
     private final VariableInjectionBuilderFactory variableInjectionBuilderFactory;
+    private final ParallelDependencyAnalyzer parallelDependencyAnalyzer;
 
     @Inject
     public ProvidesInjectionNodeBuilder(@Assisted ASTType moduleType,
                                         @Assisted ASTMethod providesMethod,
                                         Analyzer analyzer,
                                         InjectionPointFactory injectionNodeFactory,
-                                        VariableInjectionBuilderFactory variableInjectionBuilderFactory) {
+                                        VariableInjectionBuilderFactory variableInjectionBuilderFactory,
+                                        ParallelDependencyAnalyzer parallelDependencyAnalyzer) {
         this.moduleType = moduleType;
         this.providesMethod = providesMethod;
         this.analyzer = analyzer;
         this.injectionNodeFactory = injectionNodeFactory;
         this.variableInjectionBuilderFactory = variableInjectionBuilderFactory;
+        this.parallelDependencyAnalyzer = parallelDependencyAnalyzer;
     }
 
 
@@ -61,10 +66,17 @@ public class ProvidesInjectionNodeBuilder extends InjectionNodeBuilderNoAnnotati
 
         Map<ASTParameter, InjectionNode> dependencyAnalysis = new HashMap<ASTParameter, InjectionNode>();
 
-        for (ASTParameter parameter : providesMethod.getParameters()) {
-            InjectionNode parameterInjectionNode = injectionNodeFactory.buildInjectionNode(parameter.getASTType(), context);
+        List<ASTParameter> parameters = providesMethod.getParameters();
+        List<InjectionNode> parameterInjectionNodes = parallelDependencyAnalyzer.analyze(parameters, context,
+                new ParallelDependencyAnalyzer.DependencyAnalysis<ASTParameter>() {
+                    @Override
+                    public InjectionNode analyze(ASTParameter parameter, AnalysisContext parameterContext) {
+                        return injectionNodeFactory.buildInjectionNode(parameter.getASTType(), parameterContext);
+                    }
+                });
 
-            dependencyAnalysis.put(parameter, parameterInjectionNode);
+        for (int i = 0; i < parameters.size(); i++) {
+            dependencyAnalysis.put(parameters.get(i), parameterInjectionNodes.get(i));
         }
 
         injectionNode.addAspect(VariableBuilder.class, variableInjectionBuilderFactory.buildProvidesVariableBuilder(module, providesMethod, dependencyAnalysis));
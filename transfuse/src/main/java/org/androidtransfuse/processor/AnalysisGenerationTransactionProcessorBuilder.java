@@ -19,11 +19,15 @@ import com.google.inject.assistedinject.Assisted;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
 import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.config.TransfuseSetupGuiceModule;
 import org.androidtransfuse.gen.FilerResourceWriter;
 import org.androidtransfuse.gen.FilerSourceCodeWriter;
+import org.androidtransfuse.util.Tracer;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Builds a Transaction supporting the AnalysisGeneration
@@ -42,10 +46,12 @@ public class AnalysisGenerationTransactionProcessorBuilder implements Transactio
             Provider<JCodeModel> codeModelProvider,
             Provider<FilerSourceCodeWriter> sourceCodeWriterProvider,
             Provider<FilerResourceWriter> resourceCodeWriterProvider,
-            ScopedTransactionFactory scopedTransactionFactory) {
+            ScopedTransactionFactory scopedTransactionFactory,
+            @Named(TransfuseSetupGuiceModule.TRANSACTION_EXECUTOR) ExecutorService executorService,
+            Tracer tracer) {
         this.scopedTransactionFactory = scopedTransactionFactory;
-        transactionProcessor = new TransactionProcessorPool<Provider<ASTType>, JDefinedClass>();
-        this.workerProvider = new CodeGenerationWrapperProvider<Provider<ASTType>, JDefinedClass>(workerProvider, codeModelProvider, sourceCodeWriterProvider, resourceCodeWriterProvider);
+        transactionProcessor = new TransactionProcessorPool<Provider<ASTType>, JDefinedClass>(executorService);
+        this.workerProvider = new CodeGenerationWrapperProvider<Provider<ASTType>, JDefinedClass>(workerProvider, codeModelProvider, sourceCodeWriterProvider, resourceCodeWriterProvider, tracer);
     }
 
     @Override
@@ -17,6 +17,7 @@ package org.androidtransfuse.processor;
 
 import com.sun.codemodel.CodeWriter;
 import com.sun.codemodel.JCodeModel;
+import org.androidtransfuse.util.Tracer;
 import org.androidtransfuse.util.TransfuseRuntimeException;
 
 import java.io.IOException;
@@ -30,15 +31,18 @@ public class CodeGenerationScopedTransactionWorker<V, R> extends AbstractComplet
     private final CodeWriter codeWriter;
     private final CodeWriter resourceWriter;
     private final TransactionWorker<V, R> worker;
+    private final Tracer tracer;
 
     public CodeGenerationScopedTransactionWorker(JCodeModel codeModel,
                                                  CodeWriter codeWriter,
                                                  CodeWriter resourceWriter,
-                                                 TransactionWorker<V, R> worker) {
+                                                 TransactionWorker<V, R> worker,
+                                                 Tracer tracer) {
         this.codeModel = codeModel;
         this.codeWriter = codeWriter;
         this.resourceWriter = resourceWriter;
         this.worker = worker;
+        this.tracer = tracer;
     }
 
     @Override
@@ -46,7 +50,12 @@ public class CodeGenerationScopedTransactionWorker<V, R> extends AbstractComplet
         try {
             R result = worker.run(value);
 
-            codeModel.build(codeWriter, resourceWriter);
+            Tracer.Span span = tracer.start(Tracer.CODE_MODEL, worker.getClass(), value);
+            try {
+                codeModel.build(codeWriter, resourceWriter);
+            } finally {
+                span.end();
+            }
 
             return result;
         } catch (IOException e) {
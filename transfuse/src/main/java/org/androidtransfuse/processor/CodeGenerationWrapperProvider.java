@@ -18,6 +18,7 @@ package org.androidtransfuse.processor;
 import com.sun.codemodel.JCodeModel;
 import org.androidtransfuse.gen.FilerResourceWriter;
 import org.androidtransfuse.gen.FilerSourceCodeWriter;
+import org.androidtransfuse.util.Tracer;
 
 import javax.inject.Provider;
 
@@ -30,20 +31,23 @@ public class CodeGenerationWrapperProvider<V, R> implements Provider<Transaction
     private final Provider<FilerSourceCodeWriter> sourceCodeWriterProvider;
     private final Provider<FilerResourceWriter> resourceCodeWriterProvider;
     private final Provider<? extends TransactionWorker<V, R>> workerProvider;
+    private final Tracer tracer;
 
     public CodeGenerationWrapperProvider(Provider<? extends TransactionWorker<V, R>> workerProvider,
                                          Provider<JCodeModel> codeModelProvider,
                                          Provider<FilerSourceCodeWriter> sourceCodeWriterProvider,
-                                         Provider<FilerResourceWriter> resourceCodeWriterProvider) {
+                                         Provider<FilerResourceWriter> resourceCodeWriterProvider,
+                                         Tracer tracer) {
         this.codeModelProvider = codeModelProvider;
         this.sourceCodeWriterProvider = sourceCodeWriterProvider;
         this.resourceCodeWriterProvider = resourceCodeWriterProvider;
         this.workerProvider = workerProvider;
+        this.tracer = tracer;
     }
 
     @Override
     public TransactionWorker<V, R> get() {
         return new CodeGenerationScopedTransactionWorker<V, R>(
-                codeModelProvider.get(), sourceCodeWriterProvider.get(), resourceCodeWriterProvider.get(), workerProvider.get());
+                codeModelProvider.get(), sourceCodeWriterProvider.get(), resourceCodeWriterProvider.get(), workerProvider.get(), tracer);
     }
 }
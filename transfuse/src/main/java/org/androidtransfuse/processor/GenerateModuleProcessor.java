@@ -20,6 +20,7 @@ import org.androidtransfuse.model.manifest.Application;
 import org.androidtransfuse.model.manifest.Manifest;
 import org.androidtransfuse.util.Logger;
 import org.androidtransfuse.util.ManifestSerializer;
+import org.androidtransfuse.util.Tracer;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -37,6 +38,8 @@ public class GenerateModuleProcessor extends AbstractCompletionTransactionWorker
     private final Logger logger;
     private final File manifestFile;
     private ManifestSerializer manifestParser;
+    private final Tracer tracer;
+    private final ProcessingContextCache processingContextCache;
 
     @Inject
     public GenerateModuleProcessor(ManifestManager manifestManager,
@@ -45,23 +48,33 @@ public class GenerateModuleProcessor extends AbstractCompletionTransactionWorker
                                    Manifest originalManifest,
                                    Logger logger,
                                    @Named(TransfuseGenerateGuiceModule.MANIFEST_FILE) File manifestFile,
-                                   ManifestSerializer manifestParser) {
+                                   ManifestSerializer manifestParser,
+                                   Tracer tracer,
+                                   ProcessingContextCache processingContextCache) {
         this.manifestManager = manifestManager;
         this.merger = merger;
         this.originalManifest = originalManifest;
         this.logger = logger;
         this.manifestFile = manifestFile;
         this.manifestParser = manifestParser;
+        this.tracer = tracer;
+        this.processingContextCache = processingContextCache;
     }
 
     @Override
     public Void innerRun(Void value) {
 
-        //assembling generated code
-        Manifest updatedManifest = buildManifest();
+        Tracer.Span span = tracer.start(Tracer.MANIFEST, "merge", manifestFile);
+        try {
+            //assembling generated code
+            Manifest updatedManifest = buildManifest();
 
-        //write manifest back out, updating from processed classes
-        manifestParser.writeManifest(updatedManifest, manifestFile);
+            //write manifest back out, updating from processed classes
+            manifestParser.writeManifest(updatedManifest, manifestFile);
+            processingContextCache.invalidateManifest();
+        } finally {
+            span.end();
+        }
 
         return null;
     }
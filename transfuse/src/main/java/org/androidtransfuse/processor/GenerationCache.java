@@ -0,0 +1,221 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk cache of generated output, stored across javac invocations.  Each entry is keyed by the qualified name of
+ * the input type and is only returned if the fingerprint of the analysis inputs matches the stored fingerprint.
+ * Unreadable or stale entries are treated as misses.
+ *
+ * @author John Ericksen
+ */
+public class GenerationCache {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String EXTENSION = ".cache";
+
+    private final File directory;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Disabled cache, all lookups miss and nothing is stored.
+     */
+    public GenerationCache() {
+        this(null);
+    }
+
+    public GenerationCache(File directory) {
+        this.directory = directory;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Looks up the cached generation for the given key, returning null if absent or if the stored fingerprint does
+     * not match.
+     *
+     * @param key         qualified name of the input type
+     * @param fingerprint fingerprint of the current analysis inputs
+     * @return cached entry or null
+     */
+    public Entry get(String key, String fingerprint) {
+        Entry entry = read(key);
+        if (entry != null && entry.getFingerprint().equals(fingerprint)) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Reads the stored entry for the given key regardless of fingerprint.
+     *
+     * @param key qualified name of the input type
+     * @return cached entry or null
+     */
+    public Entry read(String key) {
+        if (!isEnabled()) {
+            return null;
+        }
+        File cacheFile = getFile(key);
+        if (!cacheFile.exists()) {
+            return null;
+        }
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+            if (input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            String fingerprint = input.readUTF();
+            String resultName = input.readUTF();
+            Map<String, byte[]> sources = readFiles(input);
+            Map<String, byte[]> resources = readFiles(input);
+
+            return new Entry(fingerprint, resultName, sources, resources);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * Stores the given entry, replacing any previous entry for the key.  The entry is written to a temporary file
+     * and renamed into place so concurrent or interrupted builds never observe a partial entry.
+     *
+     * @param key   qualified name of the input type
+     * @param entry generated output
+     */
+    public void put(String key, Entry entry) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!directory.exists() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new TransactionRuntimeException("Unable to create cache directory " + directory);
+        }
+        File cacheFile = getFile(key);
+        DataOutputStream output = null;
+        try {
+            File tempFile = File.createTempFile(key, ".tmp", directory);
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(entry.getFingerprint());
+            output.writeUTF(entry.getResultName());
+            writeFiles(output, entry.getSources());
+            writeFiles(output, entry.getResources());
+            output.close();
+            output = null;
+
+            if (!tempFile.renameTo(cacheFile)) {
+                cacheFile.delete();
+                if (!tempFile.renameTo(cacheFile)) {
+                    tempFile.delete();
+                }
+            }
+        } catch (IOException e) {
+            throw new TransactionRuntimeException("Unable to write generation cache entry for " + key, e);
+        } finally {
+            closeQuietly(output);
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(directory, key + EXTENSION);
+    }
+
+    private Map<String, byte[]> readFiles(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        Map<String, byte[]> files = new LinkedHashMap<String, byte[]>();
+        for (int i = 0; i < count; i++) {
+            String name = input.readUTF();
+            byte[] content = new byte[input.readInt()];
+            input.readFully(content);
+            files.put(name, content);
+        }
+        return files;
+    }
+
+    private void writeFiles(DataOutputStream output, Map<String, byte[]> files) throws IOException {
+        output.writeInt(files.size());
+        for (Map.Entry<String, byte[]> fileEntry : files.entrySet()) {
+            output.writeUTF(fileEntry.getKey());
+            output.writeInt(fileEntry.getValue().length);
+            output.write(fileEntry.getValue());
+        }
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                //ignore
+            }
+        }
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Generated output of a single transaction, source and resource files keyed by <code>package.name/FileName.ext</code>.
+     */
+    public static final class Entry {
+        private final String fingerprint;
+        private final String resultName;
+        private final Map<String, byte[]> sources;
+        private final Map<String, byte[]> resources;
+
+        public Entry(String fingerprint, String resultName, Map<String, byte[]> sources, Map<String, byte[]> resources) {
+            this.fingerprint = fingerprint;
+            this.resultName = resultName;
+            this.sources = Collections.unmodifiableMap(new LinkedHashMap<String, byte[]>(sources));
+            this.resources = Collections.unmodifiableMap(new LinkedHashMap<String, byte[]>(resources));
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getResultName() {
+            return resultName;
+        }
+
+        public Map<String, byte[]> getSources() {
+            return sources;
+        }
+
+        public Map<String, byte[]> getResources() {
+            return resources;
+        }
+    }
+}
@@ -22,17 +22,21 @@ import com.sun.codemodel.JDefinedClass;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.analysis.*;
 import org.androidtransfuse.annotations.*;
+import org.androidtransfuse.config.TransfuseSetupGuiceModule;
 import org.androidtransfuse.gen.AnalysisGenerationFactory;
 import org.androidtransfuse.model.ComponentDescriptor;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import java.lang.annotation.Annotation;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
- * Configures the Processor chain
+ * Configures the Processor graph.  Each stage is executed as soon as the stages it depends on complete, so independent
+ * stages, such as the Injectors and the individual Component types, execute concurrently.
  *
  *     +---------+             +--------------+    +----------+        +-----------------+
  * -+->| Modules +-------+--+->| Component(s) +-+->| Manifest |---+-+->| Package Helpers |
@@ -62,6 +66,8 @@ public class GeneratorRepositoryProvider implements Provider<GeneratorRepository
     private final ImplementedByProcessorBuilder implementedByProcessorBuilder;
     private final TransactionProcessorPool<Map<Provider<ASTType>, JDefinedClass>, Void> componentsRepositoryProcessor;
     private final ComponentsTransactionFactory componentsTransactionFactory;
+    private final ExecutorService executorService;
+    private final ExecutorService stageExecutor;
 
     @Inject
     public GeneratorRepositoryProvider(InjectorProcessor injectorProcessor,
@@ -77,7 +83,9 @@ public class GeneratorRepositoryProvider implements Provider<GeneratorRepository
                                        ModuleProcessorBuilder moduleProcessorBuilder,
                                        ImplementedByProcessorBuilder implementedByProcessorBuilder,
                                        TransactionProcessorPool<Map<Provider<ASTType>, JDefinedClass>, Void> componentsRepositoryProcessor,
-                                       ComponentsTransactionFactory componentsTransactionFactory) {
+                                       ComponentsTransactionFactory componentsTransactionFactory,
+                                       @Named(TransfuseSetupGuiceModule.TRANSACTION_EXECUTOR) ExecutorService executorService,
+                                       @Named(TransfuseSetupGuiceModule.STAGE_EXECUTOR) ExecutorService stageExecutor) {
         this.injectorProcessor = injectorProcessor;
         this.analysisGenerationFactory = analysisGenerationFactory;
         this.activityAnalysisProvider = activityAnalysisProvider;
@@ -92,23 +100,23 @@ public class GeneratorRepositoryProvider implements Provider<GeneratorRepository
         this.implementedByProcessorBuilder = implementedByProcessorBuilder;
         this.componentsRepositoryProcessor = componentsRepositoryProcessor;
         this.componentsTransactionFactory = componentsTransactionFactory;
+        this.executorService = executorService;
+        this.stageExecutor = stageExecutor;
     }
 
     @Override
     public GeneratorRepository get() {
 
         ImmutableMap.Builder<Class<? extends Annotation>, TransactionProcessorBuilder<Provider<ASTType>, ?>> processorMapBuilder = ImmutableMap.builder();
-        ImmutableSet.Builder<TransactionProcessor<Provider<ASTType>, JDefinedClass>> componentProcessors = ImmutableSet.builder();
 
         // Module and ImplementedBy configuration processing
         processorMapBuilder.put(TransfuseModule.class, moduleProcessorBuilder);
         processorMapBuilder.put(ImplementedBy.class, implementedByProcessorBuilder);
 
-        TransactionProcessor<Provider<ASTType>, Void> configurationProcessors = new TransactionProcessorComposite<Provider<ASTType>, Void>(
-                ImmutableSet.of(moduleProcessorBuilder.getTransactionProcessor(),
-                        implementedByProcessorBuilder.getTransactionProcessor()));
+        TransactionProcessor<Provider<ASTType>, Void> moduleProcessor = moduleProcessorBuilder.getTransactionProcessor();
+        TransactionProcessor<Provider<ASTType>, Void> implementedByProcessor = implementedByProcessorBuilder.getTransactionProcessor();
 
-        // Component processing
+        // Component processing, each component type is independent of the others
         Map<Class<? extends Annotation>, Provider<? extends Analysis<ComponentDescriptor>>> analyzers =
                 new HashMap<Class<? extends Annotation>, Provider<? extends Analysis<ComponentDescriptor>>>();
         analyzers.put(Application.class, applicationAnalysisProvider);
@@ -117,38 +125,39 @@ public class GeneratorRepositoryProvider implements Provider<GeneratorRepository
         analyzers.put(Service.class, serviceAnalysisProvider);
         analyzers.put(Fragment.class, fragmentAnalysisProvider);
 
+        TransactionProcessorGraph<Provider<ASTType>, JDefinedClass> componentsProcessor =
+                new TransactionProcessorGraph<Provider<ASTType>, JDefinedClass>(stageExecutor);
+
         for (Map.Entry<Class<? extends Annotation>, Provider<? extends Analysis<ComponentDescriptor>>> providerEntry : analyzers.entrySet()) {
             WorkerProvider workerProvider = analysisGenerationFactory.buildAnalysisGenerationProvider(providerEntry.getValue());
             AnalysisGenerationTransactionProcessorBuilder processorBuilder = processorFactory.buildBuilder(workerProvider);
 
-            componentProcessors.add(processorBuilder.getTransactionProcessor());
+            componentsProcessor.add(processorBuilder.getTransactionProcessor());
 
             processorMapBuilder.put(providerEntry.getKey(), processorBuilder);
         }
 
-        TransactionProcessor<Provider<ASTType>, JDefinedClass> componentsProcessor = new TransactionProcessorComposite<Provider<ASTType>, JDefinedClass>(componentProcessors.build());
+        TransactionProcessor<Map<Provider<ASTType>, JDefinedClass>, Void> componentsRepository =
+                new TransactionProcessorChannel<Provider<ASTType>, JDefinedClass, Void>(componentsProcessor, componentsRepositoryProcessor, componentsTransactionFactory);
 
         // Manifest processing (depends on components)
-        TransactionProcessor<Void, Void> manifestProcessor = new TransactionProcessorPredefined(ImmutableSet.of(new Transaction<Void, Void>(generateModuleProcessor)));
-        TransactionProcessor<Void, Void> componentProcessorCompletion = new TransactionProcessorChain(
-
-                new TransactionProcessorChannel<Provider<ASTType>, JDefinedClass, Void>(componentsProcessor, componentsRepositoryProcessor, componentsTransactionFactory), manifestProcessor);
-
-        ImmutableSet.Builder<TransactionProcessor<?, ?>> configurationDependentBuilders = ImmutableSet.builder();
-
-        configurationDependentBuilders.add(injectorProcessor.getTransactionProcessor());
-        configurationDependentBuilders.add(componentProcessorCompletion);
+        TransactionProcessor<Void, Void> manifestProcessor = new TransactionProcessorPredefined(executorService, ImmutableSet.of(new Transaction<Void, Void>(generateModuleProcessor)));
 
         processorMapBuilder.put(Injector.class, injectorProcessor);
 
+        TransactionProcessor<Provider<ASTType>, JDefinedClass> injectorsProcessor = injectorProcessor.getTransactionProcessor();
+
         // Package Helper processing (to be run last)
-        TransactionProcessor<Void, Void> packageHelperProcessor = new TransactionProcessorPredefined(ImmutableSet.of(packageHelperTransactionFactory.buildTransaction()));
+        TransactionProcessor<Void, Void> packageHelperProcessor = new TransactionProcessorPredefined(executorService, ImmutableSet.of(packageHelperTransactionFactory.buildTransaction()));
 
-        TransactionProcessor<?, ?> configurationDependentProcessors =
-                new TransactionProcessorComposite(configurationDependentBuilders.build());
+        TransactionProcessorGraph processor = new TransactionProcessorGraph(stageExecutor);
 
-        TransactionProcessor<Void, Void> processor = new TransactionProcessorChain(configurationProcessors,
-                new TransactionProcessorChain(configurationDependentProcessors, packageHelperProcessor));
+        processor.add(moduleProcessor);
+        processor.add(implementedByProcessor);
+        processor.add(injectorsProcessor, moduleProcessor, implementedByProcessor);
+        processor.add(componentsRepository, moduleProcessor, implementedByProcessor);
+        processor.add(manifestProcessor, componentsRepository);
+        processor.add(packageHelperProcessor, injectorsProcessor, componentsRepository, manifestProcessor);
 
         return new GeneratorRepository(processorMapBuilder.build(), processor);
     }
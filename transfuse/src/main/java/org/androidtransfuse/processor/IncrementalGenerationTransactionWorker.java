@@ -0,0 +1,110 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.gen.FilerWriter;
+import org.androidtransfuse.gen.MemoryCodeWriter;
+import org.androidtransfuse.gen.OriginatingElements;
+import org.androidtransfuse.util.Tracer;
+import org.androidtransfuse.util.TransfuseRuntimeException;
+
+import javax.inject.Provider;
+import java.io.IOException;
+
+/**
+ * Code generation worker that reuses the output of a previous javac invocation if the fingerprint of the input type
+ * is unchanged.  On a cache miss the wrapped worker is executed, the resulting code model is rendered in memory,
+ * handed to the FilerWriter and stored in the cache.  On a hit the cached output is handed directly to the FilerWriter and a
+ * reference to the previously generated class is returned in place of the analysis and generation result.
+ *
+ * @author John Ericksen
+ */
+public class IncrementalGenerationTransactionWorker extends AbstractCompletionTransactionWorker<Provider<ASTType>, JDefinedClass> {
+
+    private final JCodeModel codeModel;
+    private final FilerWriter filerWriter;
+    private final OriginatingElements originatingElements;
+    private final TransactionWorker<Provider<ASTType>, JDefinedClass> worker;
+    private final GenerationCache generationCache;
+    private final TypeFingerprinter fingerprinter;
+    private final Tracer tracer;
+
+    public IncrementalGenerationTransactionWorker(JCodeModel codeModel,
+                                                  FilerWriter filerWriter,
+                                                  OriginatingElements originatingElements,
+                                                  TransactionWorker<Provider<ASTType>, JDefinedClass> worker,
+                                                  GenerationCache generationCache,
+                                                  TypeFingerprinter fingerprinter,
+                                                  Tracer tracer) {
+        this.codeModel = codeModel;
+        this.filerWriter = filerWriter;
+        this.originatingElements = originatingElements;
+        this.worker = worker;
+        this.generationCache = generationCache;
+        this.fingerprinter = fingerprinter;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public JDefinedClass innerRun(Provider<ASTType> valueProvider) {
+        ASTType type = valueProvider.get();
+        String fingerprint = fingerprinter.fingerprint(type);
+
+        try {
+            GenerationCache.Entry entry = generationCache.get(type.getName(), fingerprint);
+            if (entry != null) {
+                write(entry);
+                return reference(entry.getResultName());
+            }
+
+            JDefinedClass result = worker.run(valueProvider);
+
+            MemoryCodeWriter sourceWriter = new MemoryCodeWriter();
+            MemoryCodeWriter resourceWriter = new MemoryCodeWriter();
+            Tracer.Span span = tracer.start(Tracer.CODE_MODEL, worker.getClass(), type.getName());
+            try {
+                codeModel.build(sourceWriter, resourceWriter);
+            } finally {
+                span.end();
+            }
+
+            entry = new GenerationCache.Entry(fingerprint, result.fullName(), sourceWriter.getOutput(), resourceWriter.getOutput());
+            write(entry);
+            generationCache.put(type.getName(), entry);
+
+            return result;
+        } catch (IOException e) {
+            throw new TransfuseRuntimeException("Unable to perform code generation", e);
+        }
+    }
+
+    private JDefinedClass reference(String className) {
+        try {
+            //standalone reference by name, the class itself has already been written
+            return new JCodeModel()._class(className);
+        } catch (JClassAlreadyExistsException e) {
+            throw new TransfuseRuntimeException("Unable to reference cached class " + className, e);
+        }
+    }
+
+    private void write(GenerationCache.Entry entry) throws IOException {
+        filerWriter.write(entry.getSources(), entry.getResources(), originatingElements.getElements());
+    }
+}
@@ -51,11 +51,11 @@ public class ManifestManager {
         this.manifestPackage = originalManifest.getApplicationPackage();
     }
 
-    public void setApplication(Application application) {
+    public synchronized void setApplication(Application application) {
         this.application = application;
     }
 
-    public void addActivity(Activity activity) {
+    public synchronized void addActivity(Activity activity) {
         try {
             updateMergeTags(Activity.class, activity);
             updateMergeTags(IntentFilter.class, activity.getIntentFilters());
@@ -66,7 +66,7 @@ public class ManifestManager {
         }
     }
 
-    public void addBroadcastReceiver(Receiver broadcastReceiver) {
+    public synchronized void addBroadcastReceiver(Receiver broadcastReceiver) {
         try {
             updateMergeTags(Receiver.class, broadcastReceiver);
             updateMergeTags(IntentFilter.class, broadcastReceiver.getIntentFilters());
@@ -83,7 +83,7 @@ public class ManifestManager {
         }
     }
 
-    public void addService(Service service) {
+    public synchronized void addService(Service service) {
         try {
             updateMergeTags(Service.class, service);
             updateMergeTags(IntentFilter.class, service.getIntentFilters());
@@ -94,7 +94,7 @@ public class ManifestManager {
         }
     }
 
-    public Manifest getManifest() throws MergerException {
+    public synchronized Manifest getManifest() throws MergerException {
         Manifest manifest = new Manifest();
         manifest.setApplicationPackage(manifestPackage);
 
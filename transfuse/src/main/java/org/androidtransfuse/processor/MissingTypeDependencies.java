@@ -0,0 +1,99 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import com.google.common.collect.ImmutableSet;
+
+import javax.inject.Singleton;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the types whose resolution failed on a missing type.  Types built in earlier rounds are reused, only the
+ * types recorded against a missing type that may have become resolvable have to be reloaded.
+ *
+ * @author John Ericksen
+ */
+@Singleton
+public class MissingTypeDependencies {
+
+    private final ConcurrentMap<String, Set<String>> dependents = new ConcurrentHashMap<String, Set<String>>();
+
+    /**
+     * Records the type enclosing the given element as depending on the given missing type.
+     *
+     * @param element     element referencing the missing type
+     * @param missingType simple or qualified name of the missing type, as reported by the MissingTypeException
+     */
+    public void record(Element element, String missingType) {
+        String dependent = getEnclosingTypeName(element);
+        if (dependent == null) {
+            return;
+        }
+        String key = missingType == null ? "" : missingType;
+        Set<String> types = dependents.get(key);
+        if (types == null) {
+            Set<String> created = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            types = dependents.putIfAbsent(key, created);
+            if (types == null) {
+                types = created;
+            }
+        }
+        types.add(dependent);
+    }
+
+    /**
+     * Removes the dependencies on missing types that may be resolvable in the given round.
+     *
+     * @param round current processing round
+     * @return names of the types depending on a resolvable missing type
+     */
+    public ImmutableSet<String> removeResolvable(ProcessingRound round) {
+        ImmutableSet.Builder<String> resolvable = ImmutableSet.builder();
+        Iterator<Map.Entry<String, Set<String>>> entryIterator = dependents.entrySet().iterator();
+        while (entryIterator.hasNext()) {
+            Map.Entry<String, Set<String>> entry = entryIterator.next();
+            if (round.isResolvable(entry.getKey().length() == 0 ? null : entry.getKey())) {
+                entryIterator.remove();
+                resolvable.addAll(entry.getValue());
+            }
+        }
+        return resolvable.build();
+    }
+
+    public boolean isEmpty() {
+        return dependents.isEmpty();
+    }
+
+    private String getEnclosingTypeName(Element element) {
+        //local and anonymous types are not reused across rounds, their named enclosing type is
+        for (Element current = element; current != null; current = current.getEnclosingElement()) {
+            if (current instanceof TypeElement) {
+                String name = ((TypeElement) current).getQualifiedName().toString();
+                if (name.length() > 0) {
+                    return name;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+/**
+ * Thrown when a Transaction encounters a type that cannot be resolved (yet), typically because it will be generated
+ * by an annotation processor in a later round.  The Transaction is deferred until the missing type becomes available.
+ *
+ * @author John Ericksen
+ */
+public class MissingTypeException extends TransactionRuntimeException {
+
+    private final String missingType;
+
+    public MissingTypeException(String message, String missingType) {
+        super(message);
+        this.missingType = missingType;
+    }
+
+    /**
+     * Name of the unresolved type, as referenced in the source.  This may either be a simple or qualified name.
+     *
+     * @return missing type name
+     */
+    public String getMissingType() {
+        return missingType;
+    }
+}
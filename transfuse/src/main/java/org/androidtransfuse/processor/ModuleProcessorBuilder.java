@@ -17,9 +17,12 @@ package org.androidtransfuse.processor;
 
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.analysis.module.ModuleTransactionWorker;
+import org.androidtransfuse.config.TransfuseSetupGuiceModule;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author John Ericksen
@@ -33,9 +36,10 @@ public class ModuleProcessorBuilder implements TransactionProcessorBuilder<Provi
     @Inject
     public ModuleProcessorBuilder(
             Provider<ModuleTransactionWorker> workerProvider,
-            ScopedTransactionFactory scopedTransactionFactory) {
+            ScopedTransactionFactory scopedTransactionFactory,
+            @Named(TransfuseSetupGuiceModule.TRANSACTION_EXECUTOR) ExecutorService executorService) {
         this.scopedTransactionFactory = scopedTransactionFactory;
-        this.transactionProcessor = new TransactionProcessorPool<Provider<ASTType>, Void>();
+        this.transactionProcessor = new TransactionProcessorPool<Provider<ASTType>, Void>(executorService);
         this.workerProvider = workerProvider;
     }
 
@@ -17,6 +17,7 @@ package org.androidtransfuse.processor;
 
 import org.androidtransfuse.config.EnterableScope;
 import org.androidtransfuse.config.TransfuseSetupGuiceModule;
+import org.androidtransfuse.util.Tracer;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -29,19 +30,25 @@ public class PackageHelperTransactionFactory {
 
     private final EnterableScope codeGenerationScope;
     private final Provider<TransactionWorker<Void, Void>> packageHelperGeneratorProvider;
+    private final Tracer tracer;
+    private final ProcessingRound processingRound;
 
     @Inject
     public PackageHelperTransactionFactory(
             @Named(TransfuseSetupGuiceModule.CODE_GENERATION_SCOPE) EnterableScope codeGenerationScope,
             @Named(TransfuseSetupGuiceModule.PACKAGE_HELPER_TRANSACTION_WORKER)
-            Provider<TransactionWorker<Void, Void>> packageHelperGeneratorProvider) {
+            Provider<TransactionWorker<Void, Void>> packageHelperGeneratorProvider,
+            Tracer tracer,
+            ProcessingRound processingRound) {
         this.packageHelperGeneratorProvider = packageHelperGeneratorProvider;
         this.codeGenerationScope = codeGenerationScope;
+        this.tracer = tracer;
+        this.processingRound = processingRound;
     }
 
     public Transaction<Void, Void> buildTransaction() {
         return new Transaction<Void, Void>(
-                new ScopedTransactionWorker<Void, Void>(codeGenerationScope, packageHelperGeneratorProvider)
+                new ScopedTransactionWorker<Void, Void>(codeGenerationScope, packageHelperGeneratorProvider, tracer, processingRound)
         );
     }
 }
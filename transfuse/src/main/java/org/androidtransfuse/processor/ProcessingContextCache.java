@@ -0,0 +1,172 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.element.ASTElementConverterFactory;
+import org.androidtransfuse.model.manifest.Manifest;
+import org.androidtransfuse.model.r.RBuilder;
+import org.androidtransfuse.model.r.RResource;
+import org.androidtransfuse.model.r.RResourceComposite;
+import org.androidtransfuse.util.ManifestLocator;
+import org.androidtransfuse.util.ManifestSerializer;
+import org.androidtransfuse.util.Tracer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import java.io.File;
+import java.util.Collection;
+
+import static com.google.common.collect.Collections2.transform;
+
+/**
+ * Holds the processing context (manifest location, parsed manifest and R mapping) for the duration of a single
+ * compilation.  The manifest location is determined once, the manifest is re-read only if the file changed on disk
+ * or was rewritten by Transfuse, and the application R is rebuilt only if the application package changes.
+ *
+ * @author John Ericksen
+ */
+@Singleton
+public class ProcessingContextCache {
+
+    private static final String ANDROID_R = "android.R";
+
+    private final ManifestLocator manifestLocator;
+    private final ManifestSerializer manifestParser;
+    private final RBuilder rBuilder;
+    private final Elements elements;
+    private final ASTElementConverterFactory astElementConverterFactory;
+    private final Tracer tracer;
+
+    private File manifestFile;
+    private Manifest manifest;
+    private long manifestLastModified;
+    private long manifestLength;
+    private String rClassName;
+    private RResource r;
+
+    private int manifestBuilds = 0;
+    private int manifestReuses = 0;
+    private int rBuilds = 0;
+    private int rReuses = 0;
+
+    @Inject
+    public ProcessingContextCache(ManifestLocator manifestLocator,
+                                  ManifestSerializer manifestParser,
+                                  RBuilder rBuilder,
+                                  Elements elements,
+                                  ASTElementConverterFactory astElementConverterFactory,
+                                  Tracer tracer) {
+        this.manifestLocator = manifestLocator;
+        this.manifestParser = manifestParser;
+        this.rBuilder = rBuilder;
+        this.elements = elements;
+        this.astElementConverterFactory = astElementConverterFactory;
+        this.tracer = tracer;
+    }
+
+    public synchronized File getManifestFile() {
+        if (manifestFile == null) {
+            Tracer.Span span = tracer.start(Tracer.MANIFEST, "locate");
+            try {
+                manifestFile = manifestLocator.findManifest();
+            } finally {
+                span.end();
+            }
+        }
+        return manifestFile;
+    }
+
+    public synchronized Manifest getManifest() {
+        File file = getManifestFile();
+        if (manifest != null && file.lastModified() == manifestLastModified && file.length() == manifestLength) {
+            manifestReuses++;
+            return manifest;
+        }
+
+        Tracer.Span span = tracer.start(Tracer.MANIFEST, "read");
+        try {
+            manifestLastModified = file.lastModified();
+            manifestLength = file.length();
+            manifest = manifestParser.readManifest(file);
+            manifestBuilds++;
+        } finally {
+            span.end();
+        }
+        return manifest;
+    }
+
+    /**
+     * Builds the composite of the application R and android.R, reusing the previous mapping if the application
+     * package has not changed.
+     *
+     * @return R mapping
+     */
+    public synchronized RResource getR() {
+        String applicationRClassName = getManifest().getApplicationPackage() + ".R";
+        if (r != null && applicationRClassName.equals(rClassName)) {
+            rReuses++;
+            return r;
+        }
+
+        r = new RResourceComposite(buildR(applicationRClassName), buildR(ANDROID_R));
+        rClassName = applicationRClassName;
+        rBuilds++;
+        return r;
+    }
+
+    /**
+     * Drops the parsed manifest, forcing it to be read again on next access.  Called when Transfuse rewrites the
+     * manifest, as the file timestamp may not change within the file system resolution.
+     */
+    public synchronized void invalidateManifest() {
+        manifest = null;
+    }
+
+    private RResource buildR(String className) {
+        Tracer.Span span = tracer.start(Tracer.R, className);
+        try {
+            TypeElement rTypeElement = elements.getTypeElement(className);
+            if (rTypeElement != null) {
+                Collection<? extends ASTType> rInnerTypes = transform(ElementFilter.typesIn(rTypeElement.getEnclosedElements()),
+                        astElementConverterFactory.buildASTElementConverter(ASTType.class));
+                return rBuilder.buildR(rInnerTypes);
+            }
+            return null;
+        } finally {
+            span.end();
+        }
+    }
+
+    public synchronized int getManifestBuilds() {
+        return manifestBuilds;
+    }
+
+    public synchronized int getManifestReuses() {
+        return manifestReuses;
+    }
+
+    public synchronized int getRBuilds() {
+        return rBuilds;
+    }
+
+    public synchronized int getRReuses() {
+        return rReuses;
+    }
+}
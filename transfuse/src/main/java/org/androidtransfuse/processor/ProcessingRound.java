@@ -0,0 +1,73 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.inject.Singleton;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks the types introduced in the current processing round.  Used to determine whether a Transaction deferred
+ * on a missing type should be retried: only if the missing type appeared this round or if this is the final round,
+ * where the Transaction is retried to report its errors.
+ *
+ * @author John Ericksen
+ */
+@Singleton
+public class ProcessingRound {
+
+    private volatile Set<String> roundTypes = Collections.emptySet();
+    private volatile boolean processingOver = false;
+
+    public void update(RoundEnvironment roundEnvironment) {
+        Set<String> types = new HashSet<String>();
+        addTypes(types, ElementFilter.typesIn(roundEnvironment.getRootElements()));
+
+        roundTypes = types;
+        processingOver = roundEnvironment.processingOver();
+    }
+
+    private void addTypes(Set<String> types, Iterable<TypeElement> typeElements) {
+        for (TypeElement typeElement : typeElements) {
+            types.add(typeElement.getQualifiedName().toString());
+            types.add(typeElement.getSimpleName().toString());
+            addTypes(types, ElementFilter.typesIn(typeElement.getEnclosedElements()));
+        }
+    }
+
+    /**
+     * Determines if the given missing type may have become resolvable this round.
+     *
+     * @param missingType simple or qualified type name, null if unknown
+     * @return resolvable
+     */
+    public boolean isResolvable(String missingType) {
+        return processingOver || missingType == null || roundTypes.contains(erase(missingType));
+    }
+
+    private String erase(String typeName) {
+        int typeArguments = typeName.indexOf('<');
+        if (typeArguments == -1) {
+            return typeName;
+        }
+        return typeName.substring(0, typeArguments);
+    }
+}
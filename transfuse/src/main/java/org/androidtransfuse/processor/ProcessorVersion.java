@@ -0,0 +1,101 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Identifies the build of the processor generating output, so output cached by an earlier build is not replayed
+ * after an upgrade.  A processor loaded from a jar is identified by the SHA-1 of the jar, covering unreleased builds
+ * sharing a version number.  Otherwise, as when run from a class directory, only the implementation version of the
+ * package is available.
+ *
+ * @author John Ericksen
+ */
+public final class ProcessorVersion {
+
+    private static final String UNVERSIONED = "unversioned";
+
+    private ProcessorVersion() {
+        //private utility class constructor
+    }
+
+    /**
+     * Describes the build of the processor containing the given class.
+     *
+     * @param processorClass class loaded from the processor jar
+     * @return version
+     */
+    public static String of(Class<?> processorClass) {
+        Package processorPackage = processorClass.getPackage();
+        String implementationVersion = processorPackage == null ? null : processorPackage.getImplementationVersion();
+        return of(implementationVersion, getLocation(processorClass));
+    }
+
+    static String of(String implementationVersion, File location) {
+        String version = implementationVersion == null ? UNVERSIONED : implementationVersion;
+        if (location != null && location.isFile()) {
+            try {
+                return version + ":" + digest(location);
+            } catch (IOException e) {
+                //fall back to the size and modification date of the jar
+                return version + ":" + location.length() + ":" + location.lastModified();
+            }
+        }
+        return version;
+    }
+
+    private static File getLocation(Class<?> processorClass) {
+        try {
+            CodeSource codeSource = processorClass.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return null;
+            }
+            return new File(codeSource.getLocation().toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            //not a file URI
+            return null;
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    private static String digest(File file) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(file));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[8192];
+            for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new TransactionRuntimeException("SHA-1 digest unavailable", e);
+        } finally {
+            input.close();
+        }
+    }
+}
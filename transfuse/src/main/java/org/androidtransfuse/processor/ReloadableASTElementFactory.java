@@ -18,6 +18,9 @@ package org.androidtransfuse.processor;
 import com.google.common.base.Function;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.adapter.element.ASTElementFactory;
+import org.androidtransfuse.analysis.AnalysisContributionCache;
+import org.androidtransfuse.analysis.AnnotatedMemberIndexFactory;
+import org.androidtransfuse.gen.OriginatingElementProvider;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -29,17 +32,52 @@ import java.util.Collection;
 import static com.google.common.collect.Collections2.transform;
 
 /**
+ * Supplies the ASTTypes of the elements of a round.  ASTTypes built in earlier rounds are reused, only the types
+ * which failed to resolve a missing type that may have been generated since are reloaded.
+ *
  * @author John Ericksen
  */
 public class ReloadableASTElementFactory implements Function<Element, Provider<ASTType>> {
 
     private final ASTElementFactory astElementFactory;
     private final Elements elements;
+    private final MissingTypeDependencies missingTypeDependencies;
+    private final ProcessingRound processingRound;
+    private final AnnotatedMemberIndexFactory annotatedMemberIndexFactory;
+    private final AnalysisContributionCache analysisContributionCache;
 
     @Inject
-    public ReloadableASTElementFactory(ASTElementFactory astElementFactory, Elements elements) {
+    public ReloadableASTElementFactory(ASTElementFactory astElementFactory,
+                                       Elements elements,
+                                       MissingTypeDependencies missingTypeDependencies,
+                                       ProcessingRound processingRound,
+                                       AnnotatedMemberIndexFactory annotatedMemberIndexFactory,
+                                       AnalysisContributionCache analysisContributionCache) {
         this.astElementFactory = astElementFactory;
         this.elements = elements;
+        this.missingTypeDependencies = missingTypeDependencies;
+        this.processingRound = processingRound;
+        this.annotatedMemberIndexFactory = annotatedMemberIndexFactory;
+        this.analysisContributionCache = analysisContributionCache;
+    }
+
+    /**
+     * Reloads the types depending on a missing type which may be resolvable this round, along with their analysis
+     * indexes.  Called at the start of each round, once the ProcessingRound is updated.
+     *
+     * @return number of types reloaded
+     */
+    public int reloadResolvable() {
+        int reloaded = 0;
+        for (String typeName : missingTypeDependencies.removeResolvable(processingRound)) {
+            ASTType type = astElementFactory.reload(typeName);
+            if (type != null) {
+                annotatedMemberIndexFactory.invalidate(type);
+                analysisContributionCache.invalidate(type);
+                reloaded++;
+            }
+        }
+        return reloaded;
     }
 
     public Collection<Provider<ASTType>> buildProviders(Collection<? extends Element> elementCollection) {
@@ -51,7 +89,7 @@ public class ReloadableASTElementFactory implements Function<Element, Provider<A
         return new ReloadableASTTypeProvider(input);
     }
 
-    private final class ReloadableASTTypeProvider implements Provider<ASTType> {
+    private final class ReloadableASTTypeProvider implements Provider<ASTType>, OriginatingElementProvider {
 
         private Element element;
 
@@ -65,5 +103,15 @@ public class ReloadableASTElementFactory implements Function<Element, Provider<A
 
             return astElementFactory.getType(typeElement);
         }
+
+        @Override
+        public Element getOriginatingElement() {
+            return element;
+        }
+
+        @Override
+        public String toString() {
+            return element.toString();
+        }
     }
 }
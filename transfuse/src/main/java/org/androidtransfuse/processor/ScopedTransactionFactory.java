@@ -17,6 +17,7 @@ package org.androidtransfuse.processor;
 
 import org.androidtransfuse.config.EnterableScope;
 import org.androidtransfuse.config.TransfuseSetupGuiceModule;
+import org.androidtransfuse.util.Tracer;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -28,13 +29,19 @@ import javax.inject.Provider;
 public class ScopedTransactionFactory {
 
     private final EnterableScope codeGenerationScope;
+    private final Tracer tracer;
+    private final ProcessingRound processingRound;
 
     @Inject
-    public ScopedTransactionFactory(@Named(TransfuseSetupGuiceModule.CODE_GENERATION_SCOPE) EnterableScope codeGenerationScope) {
+    public ScopedTransactionFactory(@Named(TransfuseSetupGuiceModule.CODE_GENERATION_SCOPE) EnterableScope codeGenerationScope,
+                                    Tracer tracer,
+                                    ProcessingRound processingRound) {
         this.codeGenerationScope = codeGenerationScope;
+        this.tracer = tracer;
+        this.processingRound = processingRound;
     }
 
     public <V, R> Transaction<V, R> buildTransaction(V value, Provider<? extends TransactionWorker<V, R>> workerProvider) {
-        return new Transaction<V, R>(value, new ScopedTransactionWorker<V, R>(codeGenerationScope, workerProvider));
+        return new Transaction<V, R>(value, new ScopedTransactionWorker<V, R>(codeGenerationScope, workerProvider, tracer, processingRound));
     }
 }
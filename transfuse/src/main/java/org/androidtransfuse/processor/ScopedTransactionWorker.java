@@ -16,14 +16,21 @@
 package org.androidtransfuse.processor;
 
 import org.androidtransfuse.config.EnterableScope;
+import org.androidtransfuse.gen.OriginatingElementProvider;
+import org.androidtransfuse.gen.OriginatingElements;
+import org.androidtransfuse.util.Tracer;
 
 import javax.inject.Provider;
+import java.util.Map;
 
 /**
  * Executes the given instance of a TransactionWorker with in a code generation scoped transaction.  A unique instance
  * of CodeModel is supplied in this scope which is used to generate code at the end of the transaction.  If a
  * TransactionRuntimeException is thrown this transaction will effectively reset and allow the TransactionWorker
  * to be retried at a later code generation round.
+ * <p/>
+ * The elements the Transaction input was built from are seeded into the scope as the OriginatingElements of the
+ * generated files.
  *
  * @author John Ericksen
  */
@@ -31,13 +38,20 @@ public class ScopedTransactionWorker<V, R> implements TransactionWorker<V, R> {
 
     private final EnterableScope simpleScope;
     private final Provider<? extends TransactionWorker<V, R>> workerProvider;
+    private final Tracer tracer;
+    private final ProcessingRound processingRound;
     private TransactionWorker<V, R> scoped = null;
     private boolean complete = false;
     private Exception error;
 
-    public ScopedTransactionWorker(EnterableScope simpleScope, Provider<? extends TransactionWorker<V, R>> workerProvider) {
+    public ScopedTransactionWorker(EnterableScope simpleScope,
+                                   Provider<? extends TransactionWorker<V, R>> workerProvider,
+                                   Tracer tracer,
+                                   ProcessingRound processingRound) {
         this.simpleScope = simpleScope;
         this.workerProvider = workerProvider;
+        this.tracer = tracer;
+        this.processingRound = processingRound;
     }
 
     @Override
@@ -48,8 +62,15 @@ public class ScopedTransactionWorker<V, R> implements TransactionWorker<V, R> {
     @Override
     public R run(V value) {
 
+        if (isDeferred()) {
+            //the type this transaction is waiting on has not appeared yet
+            return null;
+        }
+
+        Tracer.Span span = tracer.start(Tracer.TRANSACTION, value, null);
         try {
             simpleScope.enter();
+            simpleScope.seed(OriginatingElements.class, buildOriginatingElements(value));
 
             scoped = workerProvider.get();
             R result = scoped.run(value);
@@ -63,10 +84,35 @@ public class ScopedTransactionWorker<V, R> implements TransactionWorker<V, R> {
             complete = false;
         } finally {
             simpleScope.exit();
+            span.end();
         }
         return null;
     }
 
+    private OriginatingElements buildOriginatingElements(V value) {
+        OriginatingElements originatingElements = new OriginatingElements();
+        if (value instanceof Map) {
+            //aggregate Transactions originate from every input of the previous stage
+            for (Object key : ((Map) value).keySet()) {
+                addOriginatingElement(originatingElements, key);
+            }
+        } else {
+            addOriginatingElement(originatingElements, value);
+        }
+        return originatingElements;
+    }
+
+    private void addOriginatingElement(OriginatingElements originatingElements, Object value) {
+        if (value instanceof OriginatingElementProvider) {
+            originatingElements.add(((OriginatingElementProvider) value).getOriginatingElement());
+        }
+    }
+
+    private boolean isDeferred() {
+        return error instanceof MissingTypeException &&
+                !processingRound.isResolvable(((MissingTypeException) error).getMissingType());
+    }
+
     public Exception getError() {
         return error;
     }
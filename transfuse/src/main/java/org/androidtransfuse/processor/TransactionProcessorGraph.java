@@ -0,0 +1,141 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import com.google.common.collect.ImmutableSet;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Executes a set of TransactionProcessors according to their declared dependencies.  A processor is started as soon
+ * as every processor it depends on is complete, instead of waiting on a barrier between stages.  Processors without a
+ * dependency between them are executed concurrently.  As with the TransactionProcessorChain, a
+ * processor whose dependencies fail to complete is not executed and will be retried in a later round.
+ * <p/>
+ * Each processor's execute() blocks while waiting on its own Transactions, so processors are executed on the given
+ * stage executor rather than the Transaction executor to avoid starving the Transaction threads.
+ *
+ * @author John Ericksen
+ */
+public class TransactionProcessorGraph<V, R> implements TransactionProcessor<V, R> {
+
+    private final ExecutorService stageExecutor;
+    private final Map<TransactionProcessor<V, R>, ImmutableSet<TransactionProcessor<?, ?>>> dependencies =
+            new LinkedHashMap<TransactionProcessor<V, R>, ImmutableSet<TransactionProcessor<?, ?>>>();
+
+    public TransactionProcessorGraph(ExecutorService stageExecutor) {
+        this.stageExecutor = stageExecutor;
+    }
+
+    /**
+     * Adds the given processor to the graph, to be executed once all of the given dependencies are complete.
+     *
+     * @param processor    node to execute
+     * @param dependencies processors required to complete before the given processor is executed
+     * @return this graph, for chaining
+     */
+    public TransactionProcessorGraph<V, R> add(TransactionProcessor<V, R> processor, TransactionProcessor<?, ?>... dependencies) {
+        this.dependencies.put(processor, ImmutableSet.copyOf(dependencies));
+        return this;
+    }
+
+    @Override
+    public void execute() {
+        CompletionService<TransactionProcessor<V, R>> completionService =
+                new ExecutorCompletionService<TransactionProcessor<V, R>>(stageExecutor);
+        Set<TransactionProcessor<V, R>> started = new HashSet<TransactionProcessor<V, R>>();
+        RuntimeException error = null;
+        int running = startReady(completionService, started);
+
+        while (running > 0) {
+            try {
+                completionService.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransfuseAnalysisException("Graph executor interrupted", e);
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof RuntimeException ?
+                            (RuntimeException) e.getCause() :
+                            new TransfuseAnalysisException("Exception while executing processor", e.getCause());
+                }
+            }
+            running--;
+            if (error == null) {
+                running += startReady(completionService, started);
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private int startReady(CompletionService<TransactionProcessor<V, R>> completionService, Set<TransactionProcessor<V, R>> started) {
+        int count = 0;
+        for (Map.Entry<TransactionProcessor<V, R>, ImmutableSet<TransactionProcessor<?, ?>>> entry : dependencies.entrySet()) {
+            final TransactionProcessor<V, R> processor = entry.getKey();
+            if (!started.contains(processor) && !processor.isComplete() && isComplete(entry.getValue())) {
+                started.add(processor);
+                completionService.submit(new Callable<TransactionProcessor<V, R>>() {
+                    @Override
+                    public TransactionProcessor<V, R> call() {
+                        processor.execute();
+                        return processor;
+                    }
+                });
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean isComplete(Collection<? extends TransactionProcessor<?, ?>> processors) {
+        for (TransactionProcessor<?, ?> processor : processors) {
+            if (!processor.isComplete()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return isComplete(dependencies.keySet());
+    }
+
+    @Override
+    public ImmutableSet<Exception> getErrors() {
+        ImmutableSet.Builder<Exception> exceptions = ImmutableSet.builder();
+        for (TransactionProcessor<V, R> processor : dependencies.keySet()) {
+            exceptions.addAll(processor.getErrors());
+        }
+        return exceptions.build();
+    }
+
+    @Override
+    public Map<V, R> getResults() {
+        Map<V, R> results = new LinkedHashMap<V, R>();
+
+        for (TransactionProcessor<V, R> processor : dependencies.keySet()) {
+            results.putAll(processor.getResults());
+        }
+
+        return results;
+    }
+}
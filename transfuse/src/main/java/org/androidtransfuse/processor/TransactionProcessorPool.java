@@ -16,12 +16,17 @@
 package org.androidtransfuse.processor;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.androidtransfuse.analysis.TransfuseAnalysisException;
+import org.androidtransfuse.config.TransfuseSetupGuiceModule;
 
+import javax.inject.Inject;
+import javax.inject.Named;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
 
 /**
  * Runs the set of submitted Transactions.  If any of the transactions fails (isComplete() == false) the associated
@@ -30,12 +35,21 @@ import java.util.concurrent.TimeUnit;
  * gives external factors a chance to fill in any missing code that is required by a given Transaction to complete.
  * Additionally, if any external processors depend on code generated in a Transaction, this approach will generate
  * as much as possible despite encountering any errors.
+ * <p/>
+ * Transactions are run on the long-lived executor shared by every pool in the processing session.  execute() only
+ * waits on the transactions submitted to this pool, leaving the executor running for the next stage or round.
  *
  * @author John Ericksen
  */
 public class TransactionProcessorPool<V, R> implements TransactionProcessor<V, R> {
 
-    private final List<Transaction<V, R>> transactions = new ArrayList<Transaction<V, R>>();
+    private final Queue<Transaction<V, R>> transactions = new ConcurrentLinkedQueue<Transaction<V, R>>();
+    private final ExecutorService executorService;
+
+    @Inject
+    public TransactionProcessorPool(@Named(TransfuseSetupGuiceModule.TRANSACTION_EXECUTOR) ExecutorService executorService) {
+        this.executorService = executorService;
+    }
 
     /**
      * Submit a new transaction to the collection of transactions to execute.
@@ -51,30 +65,46 @@ public class TransactionProcessorPool<V, R> implements TransactionProcessor<V, R
      */
     public void execute() {
 
-        ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        List<Future<?>> futures = new ArrayList<Future<?>>();
 
         for (Transaction<V, R> transaction : transactions) {
             if (!transaction.isComplete()) {
-                executorService.execute(transaction);
+                futures.add(executorService.submit(transaction));
+            }
+        }
+
+        //wait on every transaction before reporting a failure, so none are left running on the shared executor
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            try {
+                Uninterruptibles.getUninterruptibly(future);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
             }
         }
 
-        try {
-            executorService.shutdown();
-            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            throw new TransfuseAnalysisException("Pool executor interrupted", e);
+        if (failure != null) {
+            throw new TransfuseAnalysisException("Exception while executing transaction", failure);
         }
     }
 
+    /**
+     * Returns the results of the completed transactions in submission order.  The results are built from the
+     * concurrent submission queue as a regular map as Void Transactions use null keys and values, which concurrent maps
+     * do not support.
+     *
+     * @return results keyed by Transaction value, or an empty map if any transaction is incomplete
+     */
     public Map<V, R> getResults() {
-        Map<V, R> aggregate = new HashMap<V, R>();
+        Map<V, R> aggregate = new LinkedHashMap<V, R>();
 
         for (Transaction<V, R> transaction : transactions) {
             if (transaction.isComplete()) {
                 aggregate.put(transaction.getValue(), transaction.getResult());
             } else {
-                return Collections.EMPTY_MAP;
+                return Collections.emptyMap();
             }
         }
 
@@ -18,15 +18,17 @@ package org.androidtransfuse.processor;
 import com.google.common.collect.ImmutableSet;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author John Ericksen
  */
 public class TransactionProcessorPredefined implements TransactionProcessor<Void, Void> {
 
-    private TransactionProcessorPool<Void, Void> transactionProcessor = new TransactionProcessorPool<Void, Void>();
+    private final TransactionProcessorPool<Void, Void> transactionProcessor;
 
-    public TransactionProcessorPredefined(ImmutableSet<Transaction<Void, Void>> transactions) {
+    public TransactionProcessorPredefined(ExecutorService executorService, ImmutableSet<Transaction<Void, Void>> transactions) {
+        transactionProcessor = new TransactionProcessorPool<Void, Void>(executorService);
         for (Transaction<Void, Void> transaction : transactions) {
             transactionProcessor.submit(transaction);
         }
@@ -61,6 +61,20 @@ public class TransfuseProcessor {
         generatorRepository.getProcessor().execute();
     }
 
+    /**
+     * Determines if every submitted component transaction has completed.
+     *
+     * @return true if no transaction is waiting to be retried
+     */
+    public boolean isComplete() {
+        for (TransactionProcessorBuilder transactionProcessor : generatorRepository.getComponentBuilders().values()) {
+            if (!transactionProcessor.getTransactionProcessor().isComplete()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void checkForErrors() {
         boolean errored = false;
         ImmutableSet.Builder<Exception> exceptions = ImmutableSet.builder();
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import org.androidtransfuse.adapter.*;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Computes a stable fingerprint of the analysis inputs of a type: its signature, annotations and members, its
+ * supertype chain and the signatures of the types it references.  Two invocations produce the same fingerprint only
+ * if none of these inputs changed, allowing previously generated output to be reused.  The version of the processor
+ * is part of the fingerprint, as a different processor build may generate different output from the same inputs.
+ *
+ * @author John Ericksen
+ */
+public class TypeFingerprinter {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String[] PLATFORM_PACKAGES = {"java.", "javax.", "android."};
+
+    private final String processorVersion;
+
+    /**
+     * @param processorVersion build of the processor generating the output, see ProcessorVersion
+     */
+    public TypeFingerprinter(String processorVersion) {
+        this.processorVersion = processorVersion;
+    }
+
+    public String fingerprint(ASTType type) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("v").append(FORMAT_VERSION).append(' ').append(processorVersion).append('\n');
+
+        Set<String> described = new HashSet<String>();
+        Set<ASTType> referenced = new LinkedHashSet<ASTType>();
+
+        appendStructure(builder, type, described, referenced);
+
+        for (ASTType referencedType : referenced) {
+            appendReference(builder, referencedType, described);
+        }
+
+        return digest(builder.toString());
+    }
+
+    private void appendStructure(StringBuilder builder, ASTType type, Set<String> described, Set<ASTType> referenced) {
+        if (type == null || !described.add(type.getName())) {
+            return;
+        }
+        builder.append("type ").append(type.getName());
+        appendGenerics(builder, type);
+        builder.append(type.isConcreteClass() ? " concrete" : " abstract").append('\n');
+        appendAnnotations(builder, type);
+
+        if (isPlatformType(type)) {
+            return;
+        }
+
+        for (ASTConstructor constructor : type.getConstructors()) {
+            builder.append(" constructor ").append(constructor.getAccessModifier());
+            appendParameters(builder, constructor.getParameters(), referenced);
+            appendAnnotations(builder, constructor);
+        }
+        for (ASTField field : type.getFields()) {
+            builder.append(" field ").append(field.getAccessModifier()).append(' ')
+                    .append(field.getName()).append(' ').append(describe(field.getASTType()));
+            builder.append(" = ").append(field.getConstantValue()).append('\n');
+            appendAnnotations(builder, field);
+            referenced.add(field.getASTType());
+        }
+        for (ASTMethod method : type.getMethods()) {
+            builder.append(" method ").append(method.getAccessModifier()).append(' ')
+                    .append(describe(method.getReturnType())).append(' ').append(method.getName());
+            appendParameters(builder, method.getParameters(), referenced);
+            appendAnnotations(builder, method);
+            referenced.add(method.getReturnType());
+        }
+
+        ASTType superClass = type.getSuperClass();
+        if (superClass != null) {
+            builder.append(" extends ").append(describe(superClass)).append('\n');
+        }
+        for (ASTType interfaceType : type.getInterfaces()) {
+            builder.append(" implements ").append(describe(interfaceType)).append('\n');
+        }
+        appendStructure(builder, superClass, described, referenced);
+        for (ASTType interfaceType : type.getInterfaces()) {
+            appendStructure(builder, interfaceType, described, referenced);
+        }
+    }
+
+    private void appendReference(StringBuilder builder, ASTType type, Set<String> described) {
+        if (type == null || !described.add(type.getName())) {
+            return;
+        }
+        builder.append("ref ").append(describe(type)).append('\n');
+        appendAnnotations(builder, type);
+        for (ASTType generic : type.getGenericParameters()) {
+            appendReference(builder, generic, described);
+        }
+        if (!isPlatformType(type)) {
+            ASTType superClass = type.getSuperClass();
+            if (superClass != null) {
+                builder.append(" extends ").append(describe(superClass)).append('\n');
+                appendReference(builder, superClass, described);
+            }
+            for (ASTType interfaceType : type.getInterfaces()) {
+                builder.append(" implements ").append(describe(interfaceType)).append('\n');
+                appendReference(builder, interfaceType, described);
+            }
+        }
+    }
+
+    private void appendParameters(StringBuilder builder, List<ASTParameter> parameters, Set<ASTType> referenced) {
+        builder.append('(');
+        for (ASTParameter parameter : parameters) {
+            builder.append(describe(parameter.getASTType())).append(' ').append(parameter.getName()).append(',');
+            referenced.add(parameter.getASTType());
+        }
+        builder.append(")\n");
+        for (ASTParameter parameter : parameters) {
+            appendAnnotations(builder, parameter);
+        }
+    }
+
+    private void appendGenerics(StringBuilder builder, ASTType type) {
+        List<ASTType> genericParameters = type.getGenericParameters();
+        if (!genericParameters.isEmpty()) {
+            builder.append('<');
+            for (ASTType genericParameter : genericParameters) {
+                builder.append(describe(genericParameter)).append(',');
+            }
+            builder.append('>');
+        }
+    }
+
+    private void appendAnnotations(StringBuilder builder, ASTBase base) {
+        for (ASTAnnotation annotation : base.getAnnotations()) {
+            builder.append("  ");
+            appendAnnotation(builder, annotation);
+            builder.append('\n');
+        }
+    }
+
+    private void appendAnnotation(StringBuilder builder, ASTAnnotation annotation) {
+        builder.append('@').append(annotation.getASTType().getName()).append('(');
+        List<String> propertyNames = new ArrayList<String>(annotation.getPropertyNames());
+        Collections.sort(propertyNames);
+        for (String propertyName : propertyNames) {
+            builder.append(propertyName).append('=');
+            appendValue(builder, annotation.getProperty(propertyName, Object.class));
+            builder.append(',');
+        }
+        builder.append(')');
+    }
+
+    private void appendValue(StringBuilder builder, Object value) {
+        if (value instanceof ASTType) {
+            builder.append(describe((ASTType) value)).append(".class");
+        } else if (value instanceof ASTAnnotation) {
+            appendAnnotation(builder, (ASTAnnotation) value);
+        } else if (value instanceof ASTBase) {
+            //enum constants
+            builder.append(((ASTBase) value).getName());
+        } else if (value instanceof Object[]) {
+            builder.append('{');
+            for (Object element : (Object[]) value) {
+                appendValue(builder, element);
+                builder.append(',');
+            }
+            builder.append('}');
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private String describe(ASTType type) {
+        if (type == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(type.getName());
+        appendGenerics(builder, type);
+        return builder.toString();
+    }
+
+    private boolean isPlatformType(ASTType type) {
+        for (String platformPackage : PLATFORM_PACKAGES) {
+            if (type.getName().startsWith(platformPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String digest(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(input.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new TransactionRuntimeException("SHA-1 digest unavailable", e);
+        } catch (UnsupportedEncodingException e) {
+            throw new TransactionRuntimeException("UTF-8 encoding unavailable", e);
+        }
+    }
+}
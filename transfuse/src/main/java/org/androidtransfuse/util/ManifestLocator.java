@@ -16,6 +16,7 @@
 package org.androidtransfuse.util;
 
 import org.androidtransfuse.analysis.TransfuseAnalysisException;
+import org.androidtransfuse.config.TransfuseOptions;
 
 import javax.annotation.processing.Filer;
 import javax.inject.Inject;
@@ -53,14 +54,23 @@ public class ManifestLocator {
 
     private final Filer filer;
     private final Logger logger;
+    private final TransfuseOptions options;
 
     @Inject
-    public ManifestLocator(Filer filer, Logger logger) {
+    public ManifestLocator(Filer filer, Logger logger, TransfuseOptions options) {
         this.filer = filer;
         this.logger = logger;
+        this.options = options;
     }
 
     public File findManifest() {
+        File configuredManifest = options.getManifestFile();
+        if (configuredManifest != null) {
+            if (!configuredManifest.exists()) {
+                throw new TransfuseAnalysisException("Configured AndroidManifest.xml file [" + configuredManifest.getAbsolutePath() + "] does not exist");
+            }
+            return configuredManifest;
+        }
         try {
             return findManifestFileThrowing();
         } catch (URISyntaxException e) {
@@ -0,0 +1,294 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.util;
+
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records timed spans of the processor phases (manifest location, R building, Transactions, code generation, Filer
+ * writes, manifest merging) when enabled via the transfuse.trace processor option.  The recorded spans are written
+ * as a Chrome trace-event JSON file (viewable in chrome://tracing) accompanied by a plain-text summary of the
+ * longest spans.
+ * <p/>
+ * When disabled, start() returns a shared no-op Span and nothing is recorded.
+ *
+ * @author John Ericksen
+ */
+public class Tracer {
+
+    public static final String MANIFEST = "manifest";
+    public static final String R = "r";
+    public static final String TRANSACTION = "transaction";
+    public static final String CODE_MODEL = "codemodel";
+    public static final String FILER = "filer";
+    public static final String ROUND = "round";
+
+    /**
+     * A started unit of work, recorded when ended.
+     */
+    public interface Span {
+        void end();
+    }
+
+    private static final Span NO_OP_SPAN = new Span() {
+        @Override
+        public void end() {
+            //noop
+        }
+    };
+
+    private final File traceDirectory;
+    private final int summarySize;
+    private final long origin = System.nanoTime();
+    private final Queue<TraceEvent> events = new ConcurrentLinkedQueue<TraceEvent>();
+
+    /**
+     * Builds a disabled Tracer.
+     */
+    public Tracer() {
+        this(null, 0);
+    }
+
+    public Tracer(File traceDirectory, int summarySize) {
+        this.traceDirectory = traceDirectory;
+        this.summarySize = summarySize;
+    }
+
+    public boolean isEnabled() {
+        return traceDirectory != null;
+    }
+
+    /**
+     * Begins a span on the current thread.  The returned Span must be ended, typically in a finally block.
+     *
+     * @param category phase being traced
+     * @param name     element or unit of work being traced
+     * @return span to end
+     */
+    public Span start(final String category, final String name) {
+        return start(category, name, null);
+    }
+
+    /**
+     * Begins a span on the current thread, named from the given parts.  The parts are only described if tracing is
+     * enabled, so callers do not build names for disabled traces.
+     *
+     * @param category phase being traced
+     * @param name     element or unit of work being traced, described by describe()
+     * @param detail   optional detail appended to the name, described by describe()
+     * @return span to end
+     */
+    public Span start(final String category, final Object name, final Object detail) {
+        if (!isEnabled()) {
+            return NO_OP_SPAN;
+        }
+        String description = describe(detail);
+        final String spanName = description.length() == 0 ? describe(name) : describe(name) + " " + description;
+        final Thread thread = Thread.currentThread();
+        final long start = System.nanoTime();
+        return new Span() {
+            @Override
+            public void end() {
+                events.add(new TraceEvent(category, spanName, thread.getId(), thread.getName(),
+                        (start - origin) / 1000, (System.nanoTime() - start) / 1000));
+            }
+        };
+    }
+
+    /**
+     * Describes the given Transaction value or span name part for use as a span name.  Classes are described by
+     * their simple name.
+     *
+     * @param value transaction input or name part
+     * @return description
+     */
+    public static String describe(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Class) {
+            return ((Class) value).getSimpleName();
+        }
+        if (value instanceof Map) {
+            return ((Map) value).size() + " inputs";
+        }
+        return value.toString();
+    }
+
+    /**
+     * Writes the recorded spans to {prefix}-trace.json and {prefix}-trace.txt under the configured trace directory.
+     *
+     * @param prefix file name prefix, distinguishing the processors sharing the directory
+     */
+    public void write(String prefix) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<TraceEvent> recorded = new ArrayList<TraceEvent>(events);
+        if (!traceDirectory.exists() && !traceDirectory.mkdirs()) {
+            throw new TransfuseAnalysisException("Unable to create trace directory " + traceDirectory);
+        }
+        try {
+            writeFile(new File(traceDirectory, prefix + "-trace.json"), buildTraceEvents(recorded));
+            writeFile(new File(traceDirectory, prefix + "-trace.txt"), buildSummary(recorded));
+        } catch (IOException e) {
+            throw new TransfuseAnalysisException("Unable to write trace output to " + traceDirectory, e);
+        }
+    }
+
+    private void writeFile(File file, String contents) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(contents);
+        } finally {
+            writer.close();
+        }
+    }
+
+    protected String buildTraceEvents(List<TraceEvent> recorded) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"traceEvents\":[");
+        boolean first = true;
+        for (TraceEvent event : recorded) {
+            if (!first) {
+                builder.append(",");
+            }
+            first = false;
+            builder.append("\n{\"name\":\"").append(escape(event.getName()))
+                    .append("\",\"cat\":\"").append(escape(event.getCategory()))
+                    .append("\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(event.getThreadId())
+                    .append(",\"ts\":").append(event.getStart())
+                    .append(",\"dur\":").append(event.getDuration())
+                    .append(",\"args\":{\"thread\":\"").append(escape(event.getThreadName())).append("\"}}");
+        }
+        builder.append("\n],\"displayTimeUnit\":\"ms\"}\n");
+        return builder.toString();
+    }
+
+    protected String buildSummary(List<TraceEvent> recorded) {
+        Map<String, long[]> categoryTotals = new TreeMap<String, long[]>();
+        for (TraceEvent event : recorded) {
+            if (!categoryTotals.containsKey(event.getCategory())) {
+                categoryTotals.put(event.getCategory(), new long[2]);
+            }
+            long[] totals = categoryTotals.get(event.getCategory());
+            totals[0]++;
+            totals[1] += event.getDuration();
+        }
+
+        List<TraceEvent> sorted = new ArrayList<TraceEvent>(recorded);
+        Collections.sort(sorted, new Comparator<TraceEvent>() {
+            @Override
+            public int compare(TraceEvent one, TraceEvent two) {
+                return Long.valueOf(two.getDuration()).compareTo(one.getDuration());
+            }
+        });
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("Transfuse processor trace: ").append(recorded.size()).append(" spans\n\n");
+        builder.append(String.format("%-12s %8s %12s%n", "category", "count", "total ms"));
+        for (Map.Entry<String, long[]> entry : categoryTotals.entrySet()) {
+            builder.append(String.format("%-12s %8d %12.3f%n", entry.getKey(), entry.getValue()[0], entry.getValue()[1] / 1000.0));
+        }
+        builder.append("\nTop ").append(Math.min(summarySize, sorted.size())).append(" spans\n\n");
+        builder.append(String.format("%12s  %-12s %-24s %s%n", "ms", "category", "thread", "name"));
+        for (TraceEvent event : sorted.subList(0, Math.min(summarySize, sorted.size()))) {
+            builder.append(String.format("%12.3f  %-12s %-24s %s%n",
+                    event.getDuration() / 1000.0, event.getCategory(), event.getThreadName(), event.getName()));
+        }
+        return builder.toString();
+    }
+
+    private static String escape(String value) {
+        StringBuilder builder = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.toString();
+    }
+
+    protected List<TraceEvent> getEvents() {
+        return new ArrayList<TraceEvent>(events);
+    }
+
+    protected static final class TraceEvent {
+        private final String category;
+        private final String name;
+        private final long threadId;
+        private final String threadName;
+        private final long start;
+        private final long duration;
+
+        private TraceEvent(String category, String name, long threadId, String threadName, long start, long duration) {
+            this.category = category;
+            this.name = name;
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.start = start;
+            this.duration = duration;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+    }
+}
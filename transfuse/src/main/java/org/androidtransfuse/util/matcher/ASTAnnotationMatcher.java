@@ -34,6 +34,10 @@ public class ASTAnnotationMatcher implements Matcher<Collection<ASTAnnotation>>
         this.annotation = annotation;
     }
 
+    public ImmutableSet<ASTAnnotation> getAnnotations() {
+        return annotation;
+    }
+
     @Override
     public boolean matches(Collection<ASTAnnotation> input) {
 
@@ -32,6 +32,10 @@ public class ASTAnnotationTypeMatcher implements Matcher<Collection<ASTAnnotatio
         this.types = types;
     }
 
+    public ImmutableSet<ASTType> getTypes() {
+        return types;
+    }
+
     @Override
     public boolean matches(Collection<ASTAnnotation> annotations) {
 
@@ -32,6 +32,13 @@ public class ASTTypeMatcher implements Matcher<ASTType> {
         this.ignoreGenerics = ignoreGenerics;
     }
 
+    /**
+     * @return matched type, or null if any type matches
+     */
+    public ASTType getASTType() {
+        return astType;
+    }
+
     public boolean matches(ASTType astType) {
 
         if(this.astType != null){
@@ -37,6 +37,14 @@ public class InjectionSignatureMatcher implements Matcher<InjectionSignature> {
         this.annotationMatchers = annotationMatchers;
     }
 
+    public Matcher<? super ASTType> getASTTypeMatcher() {
+        return astTypeMatcher;
+    }
+
+    public Collection<Matcher<Collection<ASTAnnotation>>> getAnnotationMatchers() {
+        return annotationMatchers;
+    }
+
     @Override
     public boolean matches(InjectionSignature signature) {
         if(!astTypeMatcher.matches(signature.getType())){
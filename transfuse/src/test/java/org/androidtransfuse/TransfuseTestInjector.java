@@ -21,6 +21,7 @@ import com.google.inject.Key;
 import com.google.inject.Stage;
 import com.google.inject.name.Names;
 import org.androidtransfuse.config.TransfuseGenerateGuiceModule;
+import org.androidtransfuse.config.TransfuseOptions;
 import org.androidtransfuse.config.TransfuseSetupGuiceModule;
 import org.androidtransfuse.model.manifest.Application;
 import org.androidtransfuse.model.manifest.Manifest;
@@ -35,11 +36,19 @@ import org.androidtransfuse.util.TestingScope;
 public class TransfuseTestInjector {
 
     public static void inject(Object input) {
-        Injector injector = getInjector(input);
+        inject(input, new TransfuseOptions());
+    }
+
+    public static void inject(Object input, TransfuseOptions options) {
+        Injector injector = getInjector(input, options);
         injector.injectMembers(input);
     }
 
     public static Injector getInjector(Object input) {
+        return getInjector(input, new TransfuseOptions());
+    }
+
+    public static Injector getInjector(Object input, TransfuseOptions options) {
         Manifest manifest = new Manifest();
 
         manifest.getApplications().add(new Application());
@@ -50,7 +59,7 @@ public class TransfuseTestInjector {
         configurationScope.seed(Key.get(Manifest.class, Names.named(TransfuseGenerateGuiceModule.ORIGINAL_MANIFEST)), manifest);
 
         return Guice.createInjector(Stage.DEVELOPMENT,
-                new TransfuseSetupGuiceModule(new JavaUtilLogger(input), new NoOpFiler(), new NoOpElements(), new TestingScope()),
+                new TransfuseSetupGuiceModule(new JavaUtilLogger(input), new NoOpFiler(), new NoOpElements(), new TestingScope(), options),
                 new TransfuseGenerateGuiceModule(configurationScope));
     }
 }
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter;
+
+import android.app.Activity;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.annotations.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class ASTAnnotationIndexTest {
+
+    @SuppressWarnings("unchecked")
+    public static final Class<? extends Annotation>[] QUERIES = new Class[]{
+            Inject.class, Named.class, Extra.class, Resource.class, SystemService.class, Preference.class,
+            NonConfigurationInstance.class, OnCreate.class, OnResume.class, OnPause.class, OnDestroy.class,
+            Observes.class, RegisterListener.class, Layout.class, Singleton.class, Deprecated.class};
+
+    @Activity(label = "Annotated")
+    @Layout(1)
+    public static class AnnotatedComponent {
+        @Inject @Named("one") Object one;
+        @Inject @Named("two") Object two;
+        @Inject @Extra("three") String three;
+        @Inject @Extra(value = "four", optional = true) String four;
+        @Inject @Resource(5) String five;
+        @Inject @Resource(6) String six;
+        @Inject @Preference(value = "seven", defaultValue = "") String seven;
+        @Inject @SystemService("eight") Object eight;
+        @Inject @NonConfigurationInstance Object nine;
+        @Inject Object ten;
+
+        @Inject
+        public void setEleven(@Named("eleven") Object eleven, @Extra("twelve") String twelve) {
+        }
+
+        @OnCreate
+        public void onCreate() {
+        }
+
+        @OnResume
+        public void onResume() {
+        }
+
+        @OnPause
+        public void onPause() {
+        }
+
+        @OnDestroy
+        @Deprecated
+        public void onDestroy() {
+        }
+
+        public void onEvent(@Observes Object event) {
+        }
+    }
+
+    @Inject
+    private ASTClassFactory astClassFactory;
+
+    @Before
+    public void setUp() {
+        TransfuseTestInjector.inject(this);
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        for (ASTBase astBase : getAnnotatedMembers(astClassFactory.getType(AnnotatedComponent.class))) {
+            for (Class<? extends Annotation> query : QUERIES) {
+                ASTAnnotation expected = ASTUtils.getInstance().getAnnotation(query, astBase.getAnnotations());
+
+                assertSame(expected, astBase.getASTAnnotation(query));
+            }
+        }
+    }
+
+    @Test
+    public void testIndex() {
+        ASTType componentType = astClassFactory.getType(AnnotatedComponent.class);
+        ASTAnnotationIndex index = ASTAnnotationIndex.build(componentType.getAnnotations());
+
+        assertTrue(index.contains(Layout.class));
+        assertEquals(Layout.class.getCanonicalName(), index.get(Layout.class).getASTType().getName());
+        assertFalse(index.contains(Inject.class));
+        assertNull(index.get(Inject.class));
+        assertFalse(ASTAnnotationIndex.build(new ArrayList<ASTAnnotation>()).contains(Layout.class));
+    }
+
+    public static List<ASTBase> getAnnotatedMembers(ASTType type) {
+        List<ASTBase> members = new ArrayList<ASTBase>();
+        members.add(type);
+        members.addAll(type.getFields());
+        members.addAll(type.getConstructors());
+        for (ASTMethod method : type.getMethods()) {
+            members.add(method);
+            members.addAll(method.getParameters());
+        }
+        return members;
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter;
+
+import android.app.*;
+import android.content.BroadcastReceiver;
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Parcelable;
+import android.preference.PreferenceActivity;
+import android.support.v4.app.FragmentActivity;
+import android.view.KeyEvent;
+import android.view.View;
+import android.view.Window;
+import android.widget.AutoCompleteTextView;
+import android.widget.Button;
+import android.widget.ListView;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.io.Serializable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author John Ericksen
+ */
+public class ASTSupertypesTest {
+
+    public static final Class<?>[] HIERARCHY = {
+            Activity.class, ListActivity.class, PreferenceActivity.class, FragmentActivity.class, Service.class,
+            IntentService.class, BroadcastReceiver.class, Application.class, Button.class, AutoCompleteTextView.class,
+            ListView.class, Object.class};
+    public static final Class<?>[] INHERITABLES = {
+            Object.class, Context.class, ContextWrapper.class, Activity.class, View.class, ComponentCallbacks.class,
+            KeyEvent.Callback.class, Window.Callback.class, View.OnClickListener.class, Parcelable.class,
+            Serializable.class};
+
+    @Inject
+    private ASTClassFactory astClassFactory;
+
+    @Before
+    public void setUp() {
+        TransfuseTestInjector.inject(this);
+    }
+
+    @Test
+    public void testMatchesRecursiveInheritance() {
+        ASTUtils astUtils = ASTUtils.getInstance();
+        for (Class<?> typeClass : HIERARCHY) {
+            ASTType astType = astClassFactory.getType(typeClass);
+            ASTSupertypes supertypes = ASTSupertypes.build(astType);
+
+            for (Class<?> inheritableClass : INHERITABLES) {
+                ASTType inheritable = astClassFactory.getType(inheritableClass);
+                String message = typeClass.getName() + " -> " + inheritableClass.getName();
+
+                assertEquals(message, astUtils.inherits(astType, inheritable, true, true), astType.inheritsFrom(inheritable));
+                assertEquals(message, astUtils.inherits(astType, inheritable, false, true), astType.extendsFrom(inheritable));
+                assertEquals(message, astUtils.inherits(astType, inheritable, true, false), astType.implementsFrom(inheritable));
+                assertEquals(message, astUtils.inherits(astType, inheritable, false, false), supertypes.contains(inheritable, false, false));
+            }
+        }
+    }
+
+    @Test
+    public void testSelf() {
+        ASTType activityType = astClassFactory.getType(Activity.class);
+        ASTSupertypes supertypes = ASTSupertypes.build(activityType);
+
+        assertEquals(true, supertypes.contains(activityType, false, false));
+        assertEquals(false, supertypes.contains(null, true, true));
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter;
+
+import org.androidtransfuse.model.PackageClass;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class ASTTypeCacheTest {
+
+    private static final int TYPES = 300;
+    private static final int THREADS = 8;
+    private static final int LOOKUPS = 2000;
+
+    private ASTTypeCache<Integer> cache;
+    private AtomicInteger[] builds;
+
+    @Before
+    public void setUp() {
+        cache = new ASTTypeCache<Integer>();
+        builds = new AtomicInteger[TYPES];
+        for (int i = 0; i < TYPES; i++) {
+            builds[i] = new AtomicInteger();
+        }
+    }
+
+    @Test
+    public void testSelfReference() {
+        GraphType type = (GraphType) cache.get(0, new GraphBuilder(0, Collections.singletonList(0)));
+
+        ASTType reference = type.getReferences().get(0);
+        assertTrue(reference instanceof ASTTypeVirtualProxy);
+        assertEquals(type, reference);
+        assertSame(type, cache.get(0, new GraphBuilder(0, Collections.<Integer>emptyList())));
+        assertEquals(1, builds[0].get());
+    }
+
+    @Test
+    public void testFailedBuildEvicted() {
+        try {
+            cache.get(0, new FailingBuilder(0));
+            fail("Expected build failure");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+
+        assertEquals(0, cache.size());
+        assertNotNull(cache.get(0, new GraphBuilder(0, Collections.<Integer>emptyList())));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testFailedDependencyEvicted() {
+        try {
+            cache.get(0, new GraphBuilder(0, Arrays.asList(1, 2)) {
+                @Override
+                protected ASTType reference(int key) {
+                    if (key == 2) {
+                        return cache.get(key, new FailingBuilder(key));
+                    }
+                    return cache.get(key, new GraphBuilder(key, Collections.<Integer>emptyList()));
+                }
+            });
+            fail("Expected build failure");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testBoundedCacheEvictsColdTypes() {
+        cache = new ASTTypeCache<Integer>(2);
+
+        ASTType live = cache.get(0, leaf(0));
+        WeakReference<ASTType> cold = new WeakReference<ASTType>(cache.get(1, leaf(1)));
+        for (int i = 2; i < 6; i++) {
+            cache.get(i, leaf(i));
+        }
+        for (int i = 0; i < 20 && cold.get() != null; i++) {
+            System.gc();
+        }
+        assertNull(cold.get());
+
+        //recently used
+        assertNotNull(cache.get(5, leaf(5)));
+        assertEquals(1, builds[5].get());
+        //still referenced
+        assertSame(live, cache.get(0, leaf(0)));
+        assertEquals(1, builds[0].get());
+        //collected
+        assertNotNull(cache.get(1, leaf(1)));
+        assertEquals(2, builds[1].get());
+
+        assertEquals(7, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertTrue(cache.getEvictions() >= 1);
+    }
+
+    @Test
+    public void testConcurrentOverlappingGraphs() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<ASTType>>> results = new ArrayList<Future<List<ASTType>>>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            final Random random = new Random(thread);
+            results.add(executorService.submit(new Callable<List<ASTType>>() {
+                @Override
+                public List<ASTType> call() throws Exception {
+                    start.await();
+                    List<ASTType> resolved = new ArrayList<ASTType>();
+                    for (int i = 0; i < LOOKUPS; i++) {
+                        int key = random.nextInt(TYPES);
+                        resolved.add(cache.get(key, new GraphBuilder(key, neighbours(key))));
+                    }
+                    return resolved;
+                }
+            }));
+        }
+        start.countDown();
+
+        Map<String, ASTType> canonical = new HashMap<String, ASTType>();
+        for (Future<List<ASTType>> result : results) {
+            for (ASTType type : result.get(60, TimeUnit.SECONDS)) {
+                assertTrue(type instanceof GraphType);
+                assertLoaded((GraphType) type, new HashSet<ASTType>());
+                if (canonical.containsKey(type.getName())) {
+                    assertSame(canonical.get(type.getName()), type);
+                }
+                canonical.put(type.getName(), type);
+            }
+        }
+        executorService.shutdown();
+
+        for (int i = 0; i < TYPES; i++) {
+            //every type is reachable through its successor
+            assertEquals("Type " + i + " build count", 1, builds[i].get());
+        }
+    }
+
+    private void assertLoaded(GraphType type, Set<ASTType> visited) {
+        if (visited.add(type)) {
+            for (ASTType reference : type.getReferences()) {
+                //throws if the placeholder was never loaded
+                reference.getMethods();
+                if (reference instanceof GraphType) {
+                    assertLoaded((GraphType) reference, visited);
+                }
+            }
+        }
+    }
+
+    private GraphBuilder leaf(int key) {
+        return new GraphBuilder(key, Collections.<Integer>emptyList());
+    }
+
+    private static List<Integer> neighbours(int key) {
+        //cyclic, overlapping references
+        return Arrays.asList((key + 1) % TYPES, (key * 7 + 3) % TYPES, key, (key + TYPES - 1) % TYPES);
+    }
+
+    private class GraphBuilder implements ASTTypeCache.Builder {
+
+        private final int key;
+        private final List<Integer> references;
+
+        private GraphBuilder(int key, List<Integer> references) {
+            this.key = key;
+            this.references = references;
+        }
+
+        @Override
+        public PackageClass getPackageClass() {
+            return new PackageClass("example", "Type" + key);
+        }
+
+        @Override
+        public ASTType build() {
+            builds[key].incrementAndGet();
+            List<ASTType> referenceTypes = new ArrayList<ASTType>();
+            for (Integer reference : references) {
+                Thread.yield();
+                referenceTypes.add(reference(reference));
+            }
+            return new GraphType(getPackageClass().getFullyQualifiedName(), referenceTypes);
+        }
+
+        protected ASTType reference(int reference) {
+            return cache.get(reference, new GraphBuilder(reference, neighbours(reference)));
+        }
+    }
+
+    private final class FailingBuilder implements ASTTypeCache.Builder {
+
+        private final int key;
+
+        private FailingBuilder(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public PackageClass getPackageClass() {
+            return new PackageClass("example", "Type" + key);
+        }
+
+        @Override
+        public ASTType build() {
+            throw new IllegalStateException("Unable to build " + key);
+        }
+    }
+
+    private static final class GraphType extends ASTStringType {
+
+        private final List<ASTType> references;
+
+        private GraphType(String name, List<ASTType> references) {
+            super(name);
+            this.references = references;
+        }
+
+        public List<ASTType> getReferences() {
+            return references;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter;
+
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class ASTUtilsTest {
+
+    @Test
+    public void testIntern() {
+        ASTUtils astUtils = ASTUtils.getInstance();
+        String name = astUtils.intern(new String("example.Type"));
+
+        assertSame(name, astUtils.intern(new String("example.Type")));
+        assertNotSame(name, astUtils.intern(new String("example.Other")));
+    }
+
+    @Test
+    public void testInternedTypeNames() {
+        ASTClassFactory firstFactory = TransfuseTestInjector.getInjector(this).getInstance(ASTClassFactory.class);
+        ASTClassFactory secondFactory = TransfuseTestInjector.getInjector(this).getInstance(ASTClassFactory.class);
+
+        ASTType first = firstFactory.getType(StringBuilder.class);
+        ASTType second = secondFactory.getType(StringBuilder.class);
+
+        assertNotSame(first, second);
+        assertSame(first.getName(), second.getName());
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(ASTUtils.getInstance().hashName(StringBuilder.class.getCanonicalName()), first.hashCode());
+        assertFalse(first.equals(firstFactory.getType(StringBuffer.class)));
+    }
+}
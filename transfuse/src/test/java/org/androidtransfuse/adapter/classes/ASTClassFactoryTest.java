@@ -0,0 +1,139 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.classes;
+
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTField;
+import org.androidtransfuse.adapter.ASTMaterializationStatistics;
+import org.androidtransfuse.adapter.ASTMethod;
+import org.androidtransfuse.adapter.ASTParameter;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class ASTClassFactoryTest {
+
+    private static final int THREADS = 8;
+    //overlapping, mutually referencing type graphs
+    private static final Class<?>[] TYPES = {
+            String.class, StringBuilder.class, Object.class, Class.class, Thread.class, ThreadGroup.class,
+            HashMap.class, TreeMap.class, ConcurrentHashMap.class, ArrayList.class, LinkedList.class,
+            Collections.class, Executors.class, ThreadPoolExecutor.class, Integer.class, Enum.class};
+
+    @Inject
+    private ASTClassFactory astClassFactory;
+    @Inject
+    private ASTMaterializationStatistics statistics;
+
+    @Before
+    public void setUp() {
+        TransfuseTestInjector.inject(this, getOptions());
+    }
+
+    protected TransfuseOptions getOptions() {
+        return new TransfuseOptions();
+    }
+
+    @Test
+    public void testSelfReference() {
+        ASTType stringType = astClassFactory.getType(String.class);
+
+        ASTMethod concat = null;
+        for (ASTMethod method : stringType.getMethods()) {
+            if (method.getName().equals("concat")) {
+                concat = method;
+            }
+        }
+        assertNotNull(concat);
+        assertEquals(stringType, concat.getReturnType());
+        assertSame(stringType, astClassFactory.getType(String.class));
+    }
+
+    @Test
+    public void testConcurrentOverlappingGraphs() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<Class<?>, ASTType>>> results = new ArrayList<Future<Map<Class<?>, ASTType>>>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int offset = thread;
+            results.add(executorService.submit(new Callable<Map<Class<?>, ASTType>>() {
+                @Override
+                public Map<Class<?>, ASTType> call() throws Exception {
+                    start.await();
+                    Map<Class<?>, ASTType> resolved = new HashMap<Class<?>, ASTType>();
+                    //each thread walks the types in a different order
+                    for (int i = 0; i < TYPES.length; i++) {
+                        Class<?> type = TYPES[(i + offset) % TYPES.length];
+                        ASTType astType = astClassFactory.getType(type);
+                        assertResolved(astType);
+                        resolved.put(type, astType);
+                    }
+                    return resolved;
+                }
+            }));
+        }
+        start.countDown();
+
+        Map<Class<?>, ASTType> canonical = null;
+        for (Future<Map<Class<?>, ASTType>> result : results) {
+            Map<Class<?>, ASTType> resolved = result.get(60, TimeUnit.SECONDS);
+            if (canonical == null) {
+                canonical = resolved;
+            }
+            for (Class<?> type : TYPES) {
+                assertSame(canonical.get(type), resolved.get(type));
+            }
+        }
+        executorService.shutdown();
+    }
+
+    private void assertResolved(ASTType astType) {
+        //referenced types must be loaded, placeholders throw otherwise
+        for (ASTField field : astType.getFields()) {
+            field.getASTType().isConcreteClass();
+        }
+        for (ASTMethod method : astType.getMethods()) {
+            method.getReturnType().isConcreteClass();
+            for (ASTParameter parameter : method.getParameters()) {
+                parameter.getASTType().isConcreteClass();
+            }
+        }
+    }
+
+    @Test
+    public void testLazyMembers() {
+        ASTType bitSetType = astClassFactory.getType(BitSet.class);
+        long methodsMaterialized = statistics.getMaterialized(ASTMaterializationStatistics.Member.METHODS);
+
+        assertFalse(bitSetType.getMethods().isEmpty());
+        assertEquals(methodsMaterialized + 1, statistics.getMaterialized(ASTMaterializationStatistics.Member.METHODS));
+
+        //memoized
+        assertSame(bitSetType.getMethods(), bitSetType.getMethods());
+        assertEquals(methodsMaterialized + 1, statistics.getMaterialized(ASTMaterializationStatistics.Member.METHODS));
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.classes;
+
+import com.google.common.collect.ImmutableMap;
+import org.androidtransfuse.config.TransfuseOptions;
+
+/**
+ * Runs the ASTClassFactory tests against the class file backend.
+ *
+ * @author John Ericksen
+ */
+public class ClassFileASTClassFactoryTest extends ASTClassFactoryTest {
+
+    @Override
+    protected TransfuseOptions getOptions() {
+        return new TransfuseOptions(ImmutableMap.of(TransfuseOptions.AST_BACKEND, TransfuseOptions.ASTBackend.CLASSFILE.name()));
+    }
+}
@@ -0,0 +1,318 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import android.app.Activity;
+import com.google.common.collect.ImmutableMap;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.*;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Named;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the types built from the platform type index are equivalent to the types built through reflection.
+ * Subclasses run the same checks against the other descriptor sources.
+ *
+ * @author John Ericksen
+ */
+public class ASTDescriptorFactoryTest {
+
+    private File indexFile;
+    private ASTClassFactory reflectionFactory;
+    private ASTClassFactory descriptorBackedFactory;
+
+    @Before
+    public void setUp() throws IOException {
+        List<Class<?>> indexed = new ArrayList<Class<?>>();
+        indexed.addAll(Arrays.asList(ASTSupertypesTest.HIERARCHY));
+        indexed.add(DescriptorTarget.class);
+        indexed.add(DescriptorTarget.Values.class);
+        indexed.add(List.class);
+        indexFile = PlatformTypeIndexTest.writeIndex("test", indexed);
+
+        reflectionFactory = TransfuseTestInjector.getInjector(this).getInstance(ASTClassFactory.class);
+        descriptorBackedFactory = TransfuseTestInjector.getInjector(this, getOptions(indexFile)).getInstance(ASTClassFactory.class);
+    }
+
+    protected TransfuseOptions getOptions(File indexFile) {
+        return new TransfuseOptions(ImmutableMap.of(TransfuseOptions.PLATFORM_INDEX, indexFile.getAbsolutePath()));
+    }
+
+    /**
+     * Compares the annotation names of an element built through reflection with the descriptor built element.
+     */
+    protected void assertAnnotationsEquivalent(String message, Set<String> expected, Set<String> actual) {
+        assertEquals(message, expected, actual);
+    }
+
+    @After
+    public void tearDown() {
+        assertTrue(indexFile.delete());
+    }
+
+    @Test
+    public void testEquivalence() {
+        for (Class<?> typeClass : ASTSupertypesTest.HIERARCHY) {
+            ASTType expected = reflectionFactory.getType(typeClass);
+            ASTType actual = descriptorBackedFactory.getType(typeClass);
+
+            assertTrue(actual instanceof ASTDescriptorType);
+            assertTypeEquivalent(expected, actual);
+
+            for (Class<?> inheritableClass : ASTSupertypesTest.INHERITABLES) {
+                ASTType inheritable = reflectionFactory.getType(inheritableClass);
+                assertEquals(expected.inheritsFrom(inheritable), actual.inheritsFrom(inheritable));
+                assertEquals(expected.extendsFrom(inheritable), actual.extendsFrom(inheritable));
+                assertEquals(expected.implementsFrom(inheritable), actual.implementsFrom(inheritable));
+            }
+        }
+    }
+
+    @Test
+    public void testTargetEquivalence() {
+        ASTType expected = reflectionFactory.getType(DescriptorTarget.class);
+        ASTType actual = descriptorBackedFactory.getType(DescriptorTarget.class);
+
+        assertTypeEquivalent(expected, actual);
+        assertEquals(getGenericSignatures(expected, true), getGenericSignatures(actual, true));
+
+        Map<String, Object> expectedConstants = new HashMap<String, Object>();
+        for (ASTField field : expected.getFields()) {
+            expectedConstants.put(field.getName(), field.getConstantValue());
+        }
+        for (ASTField field : actual.getFields()) {
+            assertEquals(expectedConstants.get(field.getName()), field.getConstantValue());
+        }
+    }
+
+    @Test
+    public void testGenericEquivalence() {
+        ASTType expected = reflectionFactory.getType(List.class);
+        ASTType actual = descriptorBackedFactory.getType(List.class);
+
+        assertTrue(actual instanceof ASTDescriptorType);
+        assertTypeEquivalent(expected, actual);
+        assertSame(actual, descriptorBackedFactory.getType(List.class.getName()));
+
+        //reflection does not build type variable arguments, so only the parameterized member types are compared
+        assertEquals(getGenericSignatures(expected, false), getGenericSignatures(actual, false));
+        boolean parameterized = false;
+        for (ASTMethod method : actual.getMethods()) {
+            if (method.getName().equals("subList")) {
+                List<ASTType> genericParameters = method.getReturnType().getGenericParameters();
+                assertEquals(1, genericParameters.size());
+                assertTrue(genericParameters.get(0) instanceof ASTEmptyType);
+                assertEquals("E", genericParameters.get(0).getName());
+                parameterized = true;
+            }
+        }
+        assertTrue(parameterized);
+    }
+
+    @Test
+    public void testTypeNames() {
+        assertSame(descriptorBackedFactory.getType(Activity.class), descriptorBackedFactory.getType(Activity.class.getName()));
+        assertEquals(reflectionFactory.getType(String[][].class), descriptorBackedFactory.getType("java.lang.String[][]"));
+        assertEquals(reflectionFactory.getType(int.class), descriptorBackedFactory.getType("int"));
+        assertEquals(reflectionFactory.getType(DescriptorTarget.Values.class), descriptorBackedFactory.getType(DescriptorTarget.Values.class.getName()));
+    }
+
+    @Test
+    public void testAnnotationInstance() {
+        DescriptorTarget.Values expected = DescriptorTarget.class.getAnnotation(DescriptorTarget.Values.class);
+        DescriptorTarget.Values actual = descriptorBackedFactory.getType(DescriptorTarget.class).getAnnotation(DescriptorTarget.Values.class);
+
+        assertNotNull(actual);
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(DescriptorTarget.Values.class, actual.annotationType());
+        assertEquals(Activity.class, actual.classValue());
+        assertArrayEquals(new Class[]{String.class, int[].class}, actual.classArrayValue());
+        assertEquals("nested", actual.annotationValue().value());
+        assertEquals('c', actual.charValue());
+    }
+
+    @Test
+    public void testAnnotationProperties() {
+        ASTAnnotation annotation = descriptorBackedFactory.getType(DescriptorTarget.class).getASTAnnotation(DescriptorTarget.Values.class);
+
+        assertEquals(descriptorBackedFactory.getType(Activity.class), annotation.getProperty("classValue", ASTType.class));
+        assertEquals(42, annotation.getProperty("intValue", Integer.class).intValue());
+        assertEquals("value", annotation.getProperty("stringValue", String.class));
+        assertEquals("nested", annotation.getProperty("annotationValue", ASTAnnotation.class).getProperty("value", String.class));
+        assertEquals(new HashSet<String>(reflectionFactory.getType(DescriptorTarget.class).getASTAnnotation(DescriptorTarget.Values.class).getPropertyNames()),
+                new HashSet<String>(annotation.getPropertyNames()));
+    }
+
+    @Test
+    public void testMemberAnnotations() {
+        ASTType target = descriptorBackedFactory.getType(DescriptorTarget.class);
+
+        ASTField field = target.getFields().iterator().next();
+        for (ASTField targetField : target.getFields()) {
+            if (targetField.getName().equals("field")) {
+                field = targetField;
+            }
+        }
+        assertEquals("field", field.getAnnotation(Named.class).value());
+
+        ASTConstructor constructor = target.getConstructors().iterator().next();
+        assertTrue(constructor.isAnnotated(javax.inject.Inject.class));
+        assertEquals("parameter", constructor.getParameters().get(0).getAnnotation(Named.class).value());
+    }
+
+    private void assertTypeEquivalent(ASTType expected, ASTType actual) {
+        String message = expected.getName();
+        assertEquals(message, expected.getName(), actual.getName());
+        assertEquals(message, expected.getPackageClass(), actual.getPackageClass());
+        assertEquals(message, expected.isConcreteClass(), actual.isConcreteClass());
+        assertEquals(message, getName(expected.getSuperClass()), getName(actual.getSuperClass()));
+        assertEquals(message, getNames(expected.getInterfaces()), getNames(actual.getInterfaces()));
+        assertAnnotationsEquivalent(message, getAnnotationNames(expected.getAnnotations()), getAnnotationNames(actual.getAnnotations()));
+
+        assertMembersEquivalent(message, getMethodSignatures(expected.getMethods()), getMethodSignatures(actual.getMethods()));
+        assertMembersEquivalent(message, getConstructorSignatures(expected.getConstructors()), getConstructorSignatures(actual.getConstructors()));
+        assertMembersEquivalent(message, getFieldSignatures(expected.getFields()), getFieldSignatures(actual.getFields()));
+    }
+
+    private void assertMembersEquivalent(String message, Map<String, Set<String>> expected, Map<String, Set<String>> actual) {
+        assertEquals(message, expected.keySet(), actual.keySet());
+        for (Map.Entry<String, Set<String>> expectedEntry : expected.entrySet()) {
+            assertAnnotationsEquivalent(message + " " + expectedEntry.getKey(), expectedEntry.getValue(), actual.get(expectedEntry.getKey()));
+        }
+    }
+
+    private String getName(ASTType type) {
+        return type == null ? null : type.getName();
+    }
+
+    private Set<String> getNames(Collection<ASTType> types) {
+        Set<String> names = new HashSet<String>();
+        for (ASTType type : types) {
+            names.add(type.getName());
+        }
+        return names;
+    }
+
+    private Set<String> getAnnotationNames(Collection<ASTAnnotation> annotations) {
+        Set<String> names = new HashSet<String>();
+        for (ASTAnnotation annotation : annotations) {
+            names.add(annotation.getASTType().getName());
+        }
+        return names;
+    }
+
+    /**
+     * @return annotation names, of the element and its parameters, by member signature
+     */
+    private Map<String, Set<String>> getMethodSignatures(Collection<ASTMethod> methods) {
+        Map<String, Set<String>> signatures = new HashMap<String, Set<String>>();
+        for (ASTMethod method : methods) {
+            signatures.put(method.getAccessModifier() + " " + method.getReturnType().getName() + " " + method.getName()
+                    + getParameterSignature(method.getParameters()) + " throws " + getNames(method.getThrowsTypes()),
+                    getAnnotationNames(method.getAnnotations(), method.getParameters()));
+        }
+        return signatures;
+    }
+
+    /**
+     * @return supertypes, method and field types, with their generic parameters if requested
+     */
+    private Set<String> getGenericSignatures(ASTType type, boolean withParameters) {
+        Set<String> signatures = new HashSet<String>();
+        signatures.add("extends " + getGenericName(type.getSuperClass(), withParameters));
+        for (ASTType interfaceType : type.getInterfaces()) {
+            signatures.add("implements " + getGenericName(interfaceType, withParameters));
+        }
+        for (ASTMethod method : type.getMethods()) {
+            StringBuilder builder = new StringBuilder();
+            builder.append(getGenericName(method.getReturnType(), withParameters)).append(' ').append(method.getName()).append('(');
+            for (ASTParameter parameter : method.getParameters()) {
+                builder.append(getGenericName(parameter.getASTType(), withParameters)).append(',');
+            }
+            signatures.add(builder.append(')').toString());
+        }
+        for (ASTField field : type.getFields()) {
+            signatures.add(getGenericName(field.getASTType(), withParameters) + " " + field.getName());
+        }
+        return signatures;
+    }
+
+    private String getGenericName(ASTType type, boolean withParameters) {
+        if (type == null) {
+            return null;
+        }
+        if (!(type instanceof ASTGenericTypeWrapper)) {
+            return type.getName();
+        }
+        if (!withParameters) {
+            return type.getName() + "<>";
+        }
+        StringBuilder builder = new StringBuilder(type.getName()).append('<');
+        for (ASTType parameter : type.getGenericParameters()) {
+            builder.append(parameter == null ? "?" : parameter.getName()).append(',');
+        }
+        return builder.append('>').toString();
+    }
+
+    private Map<String, Set<String>> getConstructorSignatures(Collection<ASTConstructor> constructors) {
+        Map<String, Set<String>> signatures = new HashMap<String, Set<String>>();
+        for (ASTConstructor constructor : constructors) {
+            signatures.put(constructor.getAccessModifier() + " " + constructor.getName()
+                    + getParameterSignature(constructor.getParameters()) + " throws " + getNames(constructor.getThrowsTypes()),
+                    getAnnotationNames(constructor.getAnnotations(), constructor.getParameters()));
+        }
+        return signatures;
+    }
+
+    private Map<String, Set<String>> getFieldSignatures(Collection<ASTField> fields) {
+        Map<String, Set<String>> signatures = new HashMap<String, Set<String>>();
+        for (ASTField field : fields) {
+            signatures.put(field.getAccessModifier() + " " + field.getASTType().getName() + " " + field.getName(),
+                    getAnnotationNames(field.getAnnotations()));
+        }
+        return signatures;
+    }
+
+    private String getParameterSignature(List<ASTParameter> parameters) {
+        StringBuilder builder = new StringBuilder("(");
+        for (ASTParameter parameter : parameters) {
+            builder.append(parameter.getASTType().getName()).append(',');
+        }
+        return builder.append(')').toString();
+    }
+
+    private Set<String> getAnnotationNames(Collection<ASTAnnotation> annotations, List<ASTParameter> parameters) {
+        Set<String> names = getAnnotationNames(annotations);
+        for (int i = 0; i < parameters.size(); i++) {
+            for (String name : getAnnotationNames(parameters.get(i).getAnnotations())) {
+                names.add(i + ":" + name);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import com.google.common.collect.ImmutableMap;
+import org.androidtransfuse.config.TransfuseOptions;
+
+import java.io.File;
+import java.util.Set;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the descriptor equivalence tests against the class file backend, without the platform type index.
+ *
+ * @author John Ericksen
+ */
+public class ClassFileDescriptorFactoryTest extends ASTDescriptorFactoryTest {
+
+    @Override
+    protected TransfuseOptions getOptions(File indexFile) {
+        return new TransfuseOptions(ImmutableMap.of(TransfuseOptions.AST_BACKEND, TransfuseOptions.ASTBackend.CLASSFILE.name()));
+    }
+
+    /**
+     * Class files also carry the CLASS retention annotations reflection does not see.
+     */
+    @Override
+    protected void assertAnnotationsEquivalent(String message, Set<String> expected, Set<String> actual) {
+        assertTrue(message + " " + expected + " " + actual, actual.containsAll(expected));
+    }
+}
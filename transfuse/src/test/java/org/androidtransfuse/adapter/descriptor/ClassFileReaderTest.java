@@ -0,0 +1,182 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import android.app.Activity;
+import android.view.View;
+import org.androidtransfuse.adapter.ASTSupertypesTest;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class ClassFileReaderTest {
+
+    private static final Class<?>[] TYPES = {
+            DescriptorTarget.class, DescriptorTarget.Values.class, InitializationTarget.Tracker.class, String.class,
+            HashMap.class, ArrayList.class, Map.Entry.class, Activity.class, View.class, View.OnClickListener.class};
+
+    private final ReflectionDescriptorReader reflectionReader = new ReflectionDescriptorReader();
+    private final ClassFileTypeSource classFileSource = new ClassFileTypeSource(ClassFileReaderTest.class.getClassLoader());
+
+    @Test
+    public void testEquivalentToReflection() {
+        List<Class<?>> types = new ArrayList<Class<?>>(Arrays.asList(TYPES));
+        types.addAll(Arrays.asList(ASTSupertypesTest.HIERARCHY));
+        for (Class<?> type : types) {
+            TypeDescriptor expected = reflectionReader.read(type);
+            TypeDescriptor actual = classFileSource.find(type.getName());
+
+            assertNotNull(type.getName(), actual);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(type.getName(), expected.getModifiers(), actual.getModifiers());
+            assertEquals(expected.getSuperClassName(), actual.getSuperClassName());
+            assertEquals(expected.getInterfaceNames(), actual.getInterfaceNames());
+            assertEquals(type.getName(), expected.getSignature(), actual.getSignature());
+            assertTrue(getAnnotationNames(actual.getAnnotations()).containsAll(getAnnotationNames(expected.getAnnotations())));
+
+            Map<String, FieldDescriptor> actualFields = new HashMap<String, FieldDescriptor>();
+            for (FieldDescriptor field : actual.getFields()) {
+                actualFields.put(field.getName(), field);
+            }
+            assertEquals(expected.getFields().size(), actualFields.size());
+            for (FieldDescriptor expectedField : expected.getFields()) {
+                FieldDescriptor actualField = actualFields.get(expectedField.getName());
+                String message = type.getName() + "." + expectedField.getName();
+                assertNotNull(message, actualField);
+                assertEquals(message, expectedField.getModifiers(), actualField.getModifiers());
+                assertEquals(message, expectedField.getTypeName(), actualField.getTypeName());
+                assertEquals(message, expectedField.getSignature(), actualField.getSignature());
+                if (actualField.getConstantValue() != null) {
+                    assertEquals(message, expectedField.getConstantValue(), actualField.getConstantValue());
+                }
+            }
+
+            Map<String, MethodDescriptor> actualMethods = new HashMap<String, MethodDescriptor>();
+            for (MethodDescriptor method : actual.getMethods()) {
+                actualMethods.put(getSignature(method), method);
+            }
+            assertEquals(expected.getMethods().size(), actualMethods.size());
+            for (MethodDescriptor expectedMethod : expected.getMethods()) {
+                MethodDescriptor actualMethod = actualMethods.get(getSignature(expectedMethod));
+                String message = type.getName() + "." + getSignature(expectedMethod);
+                assertNotNull(message, actualMethod);
+                assertEquals(message, expectedMethod.getModifiers(), actualMethod.getModifiers());
+                assertEquals(message, expectedMethod.getReturnTypeName(), actualMethod.getReturnTypeName());
+                assertEquals(message, expectedMethod.getExceptionTypeNames(), actualMethod.getExceptionTypeNames());
+                assertEquals(message, expectedMethod.getDefaultValue(), actualMethod.getDefaultValue());
+                assertTrue(message, getAnnotationNames(actualMethod.getAnnotations()).containsAll(getAnnotationNames(expectedMethod.getAnnotations())));
+                for (int i = 0; i < expectedMethod.getParameterTypeNames().size(); i++) {
+                    assertTrue(message, getAnnotationNames(actualMethod.getParameterAnnotations().get(i))
+                            .containsAll(getAnnotationNames(expectedMethod.getParameterAnnotations().get(i))));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAnnotationValues() {
+        TypeDescriptor target = classFileSource.find(DescriptorTarget.class.getName());
+        AnnotationDescriptor values = target.getAnnotations().get(0);
+
+        assertEquals(DescriptorTarget.Values.class.getName(), values.getTypeName());
+        assertEquals(42, values.getValues().get("intValue"));
+        assertEquals(Long.MAX_VALUE, values.getValues().get("longValue"));
+        assertEquals("value", values.getValues().get("stringValue"));
+        assertEquals(new ClassReference(Activity.class.getName()), values.getValues().get("classValue"));
+        assertEquals(new EnumReference("java.lang.annotation.ElementType", "FIELD"), values.getValues().get("enumValue"));
+        assertEquals(Arrays.asList(1, 2, 3), values.getValues().get("arrayValue"));
+        assertEquals("nested", ((AnnotationDescriptor) values.getValues().get("annotationValue")).getValues().get("value"));
+        //defaults are described by the annotation type
+        assertFalse(values.getValues().containsKey("charValue"));
+    }
+
+    @Test
+    public void testNotInitialized() {
+        TypeDescriptor descriptor = classFileSource.find("org.androidtransfuse.adapter.descriptor.InitializationTarget");
+
+        assertNotNull(descriptor);
+        assertFalse(descriptor.getMethods().isEmpty());
+        assertFalse(InitializationTarget.Tracker.INITIALIZED.get());
+    }
+
+    @Test
+    public void testGenericSignatures() {
+        TypeDescriptor descriptor = classFileSource.find(List.class.getName());
+
+        assertEquals("<E:Ljava/lang/Object;>Ljava/lang/Object;Ljava/util/Collection<TE;>;", descriptor.getSignature());
+        assertEquals("(II)Ljava/util/List<TE;>;", getMethod(descriptor, "subList").getSignature());
+        assertNull(getMethod(descriptor, "size").getSignature());
+    }
+
+    @Test
+    public void testGenericNotInitialized() {
+        TypeDescriptor descriptor = classFileSource.find("org.androidtransfuse.adapter.descriptor.GenericInitializationTarget");
+
+        assertNotNull(descriptor);
+        assertEquals("<T:Ljava/lang/Object;>Ljava/lang/Object;", descriptor.getSignature());
+        assertEquals("Ljava/util/List<Ljava/lang/String;>;", descriptor.getFields().get(0).getSignature());
+        assertEquals("(Ljava/util/Map<Ljava/lang/String;TT;>;)Ljava/util/List<TT;>;", getMethod(descriptor, "method").getSignature());
+        assertFalse(GenericInitializationTarget.Tracker.INITIALIZED.get());
+    }
+
+    @Test
+    public void testMissing() {
+        assertNull(classFileSource.find("org.androidtransfuse.Missing"));
+        assertNull(classFileSource.find("int"));
+        assertNull(classFileSource.find("java.lang.String[]"));
+    }
+
+    @Test
+    public void testTypeNames() {
+        assertEquals("int[][]", ClassFileReader.getTypeName("[[I"));
+        assertEquals("java.util.Map$Entry", ClassFileReader.getTypeName("Ljava/util/Map$Entry;"));
+        assertEquals("java.lang.String[]", ClassFileReader.getTypeName("[Ljava/lang/String;"));
+    }
+
+    @Test(expected = TransfuseAnalysisException.class)
+    public void testNotAClassFile() {
+        new ClassFileReader().read(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+    }
+
+    private MethodDescriptor getMethod(TypeDescriptor descriptor, String name) {
+        for (MethodDescriptor method : descriptor.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        fail(name);
+        return null;
+    }
+
+    private String getSignature(MethodDescriptor method) {
+        //covariant bridge methods differ only by return type
+        return method.getReturnTypeName() + " " + method.getName() + method.getParameterTypeNames();
+    }
+
+    private Set<String> getAnnotationNames(List<AnnotationDescriptor> annotations) {
+        Set<String> names = new HashSet<String>();
+        for (AnnotationDescriptor annotation : annotations) {
+            names.add(annotation.getTypeName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import android.app.Activity;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Target covering each kind of annotation value and member described by the TypeDescriptors.
+ *
+ * @author John Ericksen
+ */
+@DescriptorTarget.Values(
+        intValue = 42,
+        longValue = Long.MAX_VALUE,
+        stringValue = "value",
+        classValue = Activity.class,
+        enumValue = ElementType.FIELD,
+        arrayValue = {1, 2, 3},
+        annotationValue = @Named("nested"))
+public class DescriptorTarget extends Activity implements Runnable {
+
+    public static final int CONSTANT = 7;
+    public static final String STRING_CONSTANT = "constant";
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Values {
+        int intValue();
+
+        long longValue();
+
+        String stringValue();
+
+        Class<?> classValue();
+
+        ElementType enumValue();
+
+        int[] arrayValue();
+
+        Named annotationValue();
+
+        char charValue() default 'c';
+
+        double doubleValue() default 1.5;
+
+        Class<?>[] classArrayValue() default {String.class, int[].class};
+    }
+
+    @Inject
+    @Named("field")
+    private Runnable field;
+
+    private List<String> names;
+
+    @Inject
+    public DescriptorTarget(@Named("parameter") String parameter) throws IllegalStateException {
+    }
+
+    @Override
+    public void run() {
+    }
+
+    @Inject
+    protected String[][] method(int primitive, @Named("parameter") Object[] array) {
+        return null;
+    }
+
+    protected Map<String, Integer> map(List<Object[]> values) {
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Generic counterpart of InitializationTarget, to verify generic signatures are described without initializing the
+ * class.
+ *
+ * @author John Ericksen
+ */
+public class GenericInitializationTarget<T> {
+
+    static {
+        Tracker.INITIALIZED.set(true);
+    }
+
+    /**
+     * Holds the flag outside of the tracked class, so it may be read without initializing it.
+     */
+    public static final class Tracker {
+        public static final AtomicBoolean INITIALIZED = new AtomicBoolean();
+
+        private Tracker() {
+        }
+    }
+
+    private List<String> names;
+
+    public List<T> method(Map<String, T> values) {
+        return null;
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records its own static initialization, to verify class files are described without initializing the class.
+ *
+ * @author John Ericksen
+ */
+public class InitializationTarget {
+
+    static {
+        Tracker.INITIALIZED.set(true);
+    }
+
+    /**
+     * Holds the flag outside of the tracked class, so it may be read without initializing it.
+     */
+    public static final class Tracker {
+        public static final AtomicBoolean INITIALIZED = new AtomicBoolean();
+
+        private Tracker() {
+        }
+    }
+
+    public void method() {
+    }
+}
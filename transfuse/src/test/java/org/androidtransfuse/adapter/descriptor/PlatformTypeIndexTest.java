@@ -0,0 +1,153 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.adapter.descriptor;
+
+import org.androidtransfuse.adapter.ASTSupertypesTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class PlatformTypeIndexTest {
+
+    private static final String PLATFORM_VERSION = "test-17";
+
+    private final ReflectionDescriptorReader reflectionReader = new ReflectionDescriptorReader();
+    private List<Class<?>> indexed;
+    private File indexFile;
+    private PlatformTypeIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        indexed = new ArrayList<Class<?>>();
+        indexed.addAll(Arrays.asList(ASTSupertypesTest.HIERARCHY));
+        indexed.addAll(Arrays.asList(ASTSupertypesTest.INHERITABLES));
+        indexed.add(DescriptorTarget.class);
+        indexed.add(DescriptorTarget.Values.class);
+        indexed.add(List.class);
+
+        indexFile = writeIndex(PLATFORM_VERSION, indexed);
+        index = new PlatformTypeIndex(indexFile);
+    }
+
+    @After
+    public void tearDown() {
+        assertTrue(indexFile.delete());
+    }
+
+    public static File writeIndex(String platformVersion, List<Class<?>> classes) throws IOException {
+        ReflectionDescriptorReader reader = new ReflectionDescriptorReader();
+        List<TypeDescriptor> types = new ArrayList<TypeDescriptor>();
+        for (Class<?> clazz : classes) {
+            types.add(reader.read(clazz));
+        }
+        File file = File.createTempFile("platform", ".index");
+        new PlatformTypeIndexWriter().write(file, platformVersion, types);
+        return file;
+    }
+
+    @Test
+    public void testDisabled() {
+        PlatformTypeIndex disabled = new PlatformTypeIndex();
+
+        assertFalse(disabled.isEnabled());
+        assertNull(disabled.find(DescriptorTarget.class.getName()));
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    public void testHeader() {
+        assertTrue(index.isEnabled());
+        assertEquals(PLATFORM_VERSION, index.getPlatformVersion());
+        //duplicates are only indexed once
+        assertEquals(new HashSet<Class<?>>(indexed).size(), index.size());
+    }
+
+    @Test
+    public void testMissingType() {
+        assertNull(index.find("org.androidtransfuse.Missing"));
+        assertNull(index.find(""));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        for (Class<?> clazz : indexed) {
+            TypeDescriptor expected = reflectionReader.read(clazz);
+            TypeDescriptor actual = index.find(clazz.getName());
+
+            assertNotNull(clazz.getName(), actual);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getModifiers(), actual.getModifiers());
+            assertEquals(expected.getSuperClassName(), actual.getSuperClassName());
+            assertEquals(expected.getInterfaceNames(), actual.getInterfaceNames());
+            assertEquals(expected.getSignature(), actual.getSignature());
+            assertEquals(expected.getAnnotations(), actual.getAnnotations());
+
+            assertEquals(expected.getFields().size(), actual.getFields().size());
+            for (int i = 0; i < expected.getFields().size(); i++) {
+                FieldDescriptor expectedField = expected.getFields().get(i);
+                FieldDescriptor actualField = actual.getFields().get(i);
+                assertEquals(expectedField.getName(), actualField.getName());
+                assertEquals(expectedField.getModifiers(), actualField.getModifiers());
+                assertEquals(expectedField.getTypeName(), actualField.getTypeName());
+                assertEquals(expectedField.getSignature(), actualField.getSignature());
+                assertEquals(expectedField.getAnnotations(), actualField.getAnnotations());
+                assertEquals(expectedField.getConstantValue(), actualField.getConstantValue());
+            }
+
+            assertEquals(expected.getMethods().size(), actual.getMethods().size());
+            for (int i = 0; i < expected.getMethods().size(); i++) {
+                MethodDescriptor expectedMethod = expected.getMethods().get(i);
+                MethodDescriptor actualMethod = actual.getMethods().get(i);
+                assertEquals(expectedMethod.getName(), actualMethod.getName());
+                assertEquals(expectedMethod.getModifiers(), actualMethod.getModifiers());
+                assertEquals(expectedMethod.getReturnTypeName(), actualMethod.getReturnTypeName());
+                assertEquals(expectedMethod.getSignature(), actualMethod.getSignature());
+                assertEquals(expectedMethod.getParameterTypeNames(), actualMethod.getParameterTypeNames());
+                assertEquals(expectedMethod.getParameterAnnotations(), actualMethod.getParameterAnnotations());
+                assertEquals(expectedMethod.getExceptionTypeNames(), actualMethod.getExceptionTypeNames());
+                assertEquals(expectedMethod.getAnnotations(), actualMethod.getAnnotations());
+                assertEquals(expectedMethod.getDefaultValue(), actualMethod.getDefaultValue());
+            }
+        }
+    }
+
+    @Test
+    public void testConstants() {
+        TypeDescriptor target = index.find(DescriptorTarget.class.getName());
+
+        for (FieldDescriptor field : target.getFields()) {
+            if (field.getName().equals("CONSTANT")) {
+                assertEquals(DescriptorTarget.CONSTANT, field.getConstantValue());
+            } else if (field.getName().equals("STRING_CONSTANT")) {
+                assertEquals(DescriptorTarget.STRING_CONSTANT, field.getConstantValue());
+            } else {
+                assertNull(field.getConstantValue());
+            }
+        }
+    }
+}
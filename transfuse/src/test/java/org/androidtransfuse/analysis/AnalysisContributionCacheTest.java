@@ -0,0 +1,207 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTMethod;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.analysis.astAnalyzer.ASTAnalysisAdaptor;
+import org.androidtransfuse.analysis.astAnalyzer.CachedASTAnalysis;
+import org.androidtransfuse.analysis.astAnalyzer.ListenerAnalysis;
+import org.androidtransfuse.analysis.astAnalyzer.ListenerAspect;
+import org.androidtransfuse.analysis.targets.ListenerBase;
+import org.androidtransfuse.annotations.OnCreate;
+import org.androidtransfuse.annotations.OnPause;
+import org.androidtransfuse.annotations.OnResume;
+import org.androidtransfuse.model.InjectionNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.lang.annotation.Annotation;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class AnalysisContributionCacheTest {
+
+    public static class ShadowingTarget extends ListenerBase {
+        //does not override the package-private ListenerBase.onCreate()
+        @OnCreate
+        void onCreate() {
+        }
+    }
+
+    public static class OverridingTarget extends ListenerBase {
+        @Override
+        @OnResume
+        public void onResume() {
+        }
+
+        @OnPause
+        public void onPause() {
+        }
+    }
+
+    public static class GenericBase<T> {
+        @OnCreate
+        public void onCreate() {
+        }
+
+        @OnPause
+        public void onPause(T value) {
+        }
+    }
+
+    public static class StringTarget extends GenericBase<String> {
+        @OnResume
+        public void onResume() {
+        }
+    }
+
+    public static class IntegerTarget extends GenericBase<Integer> {
+        @Override
+        @OnPause
+        public void onPause(Integer value) {
+        }
+    }
+
+    public static class CountingAnalysis extends ASTAnalysisAdaptor implements CachedASTAnalysis<Integer> {
+        private int builds = 0;
+
+        @Override
+        public Integer buildContribution(ASTType astType) {
+            builds++;
+            return astType.getMethods().size();
+        }
+
+        @Override
+        public void applyContribution(InjectionNode injectionNode, ASTType concreteType, Integer contribution, AnalysisContext context) {
+        }
+    }
+
+    @Inject
+    private Analyzer analyzer;
+    @Inject
+    private ListenerAnalysis listenerAnalysis;
+    @Inject
+    private AnalysisContributionCache analysisContributionCache;
+    @Inject
+    private ASTClassFactory astClassFactory;
+    @Inject
+    private SimpleAnalysisContextFactory simpleAnalysisContextFactory;
+    private AnalysisContext analysisContext;
+
+    @Before
+    public void setUp() {
+        TransfuseTestInjector.inject(this);
+        analysisContext = simpleAnalysisContextFactory.buildContext();
+    }
+
+    @Test
+    public void testPackagePrivateShadowing() {
+        InjectionNode injectionNode = analyze(ShadowingTarget.class);
+
+        assertListenersEqual(injectionNode, OnCreate.class);
+        assertListenersEqual(injectionNode, OnResume.class);
+        assertEquals(1, getListeners(injectionNode, OnResume.class).size());
+    }
+
+    @Test
+    public void testOverriding() {
+        InjectionNode injectionNode = analyze(OverridingTarget.class);
+
+        assertListenersEqual(injectionNode, OnCreate.class);
+        assertListenersEqual(injectionNode, OnResume.class);
+        assertListenersEqual(injectionNode, OnPause.class);
+        assertEquals(1, getListeners(injectionNode, OnResume.class).size());
+        assertEquals(1, getListeners(injectionNode, OnPause.class).size());
+    }
+
+    @Test
+    public void testGenericBase() {
+        InjectionNode stringNode = analyze(StringTarget.class);
+        InjectionNode integerNode = analyze(IntegerTarget.class);
+
+        for (Class<? extends Annotation> annotation : new Class[]{OnCreate.class, OnResume.class, OnPause.class}) {
+            assertListenersEqual(stringNode, annotation);
+            assertListenersEqual(integerNode, annotation);
+        }
+        assertEquals(1, getListeners(stringNode, OnPause.class).size());
+        assertFalse(integerNode.getAspect(ListenerAspect.class).contains(astClassFactory.getType(OnResume.class)));
+    }
+
+    @Test
+    public void testSharedBaseContribution() {
+        ASTType baseType = astClassFactory.getType(ShadowingTarget.class).getSuperClass();
+        Object contribution = analysisContributionCache.getContribution(baseType, listenerAnalysis);
+
+        analyze(ShadowingTarget.class);
+        analyze(OverridingTarget.class);
+
+        assertSame(contribution, analysisContributionCache.getContribution(baseType, listenerAnalysis));
+        assertSame(baseType, astClassFactory.getType(OverridingTarget.class).getSuperClass());
+    }
+
+    @Test
+    public void testBuiltOncePerType() {
+        ASTType baseType = astClassFactory.getType(ListenerBase.class);
+        CountingAnalysis countingAnalysis = new CountingAnalysis();
+
+        assertEquals(Integer.valueOf(2), analysisContributionCache.getContribution(baseType, countingAnalysis));
+        assertEquals(Integer.valueOf(2), analysisContributionCache.getContribution(baseType, countingAnalysis));
+        assertEquals(1, countingAnalysis.builds);
+
+        analysisContributionCache.invalidate(baseType);
+
+        assertEquals(Integer.valueOf(2), analysisContributionCache.getContribution(baseType, countingAnalysis));
+        assertEquals(2, countingAnalysis.builds);
+    }
+
+    private InjectionNode analyze(Class<?> type) {
+        ASTType astType = astClassFactory.getType(type);
+        return analyzer.analyze(astType, astType, analysisContext);
+    }
+
+    /**
+     * Compares the cached listeners with those found by visiting each method of the hierarchy, as before caching.
+     */
+    private void assertListenersEqual(InjectionNode injectionNode, Class<? extends Annotation> annotation) {
+        InjectionNode uncached = new InjectionNode(injectionNode.getASTType());
+        scan(uncached, injectionNode.getASTType());
+
+        assertEquals(getListeners(uncached, annotation), getListeners(injectionNode, annotation));
+    }
+
+    private void scan(InjectionNode injectionNode, ASTType concreteType) {
+        if (concreteType.getSuperClass() != null) {
+            scan(injectionNode, concreteType.getSuperClass());
+        }
+        for (ASTMethod astMethod : concreteType.getMethods()) {
+            listenerAnalysis.analyzeMethod(injectionNode, concreteType, astMethod, analysisContext);
+        }
+    }
+
+    private Set<ASTMethod> getListeners(InjectionNode injectionNode, Class<? extends Annotation> annotation) {
+        ListenerAspect listenerAspect = injectionNode.getAspect(ListenerAspect.class);
+        assertNotNull(listenerAspect);
+        return listenerAspect.getListeners(astClassFactory.getType(annotation));
+    }
+}
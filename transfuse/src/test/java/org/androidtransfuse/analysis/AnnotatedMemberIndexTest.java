@@ -0,0 +1,107 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import com.google.common.collect.ImmutableSet;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTField;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.annotations.Observes;
+import org.androidtransfuse.annotations.OnCreate;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class AnnotatedMemberIndexTest {
+
+    public static class Target {
+        @Inject Object injected;
+        @Inject @Named("named") Object named;
+        Object plain;
+
+        @Inject
+        public void setValue(Object value) {
+        }
+
+        public void onEvent(@Observes Object event) {
+        }
+
+        @OnCreate
+        public void onCreate() {
+        }
+
+        public void plain() {
+        }
+    }
+
+    @Inject
+    private ASTClassFactory astClassFactory;
+    @Inject
+    private AnnotatedMemberIndexFactory annotatedMemberIndexFactory;
+    private ASTType targetType;
+
+    @Before
+    public void setUp() {
+        TransfuseTestInjector.inject(this);
+        targetType = astClassFactory.getType(Target.class);
+    }
+
+    @Test
+    public void testFields() {
+        AnnotatedMemberIndex index = annotatedMemberIndexFactory.getIndex(targetType);
+
+        List<ASTField> injectFields = index.getFields(annotations(Inject.class));
+        assertEquals(2, injectFields.size());
+        assertEquals("named", getOnly(index.getFields(annotations(Named.class))).getName());
+
+        assertTrue(index.getFields(annotations(OnCreate.class)).isEmpty());
+    }
+
+    @Test
+    public void testMethods() {
+        AnnotatedMemberIndex index = annotatedMemberIndexFactory.getIndex(targetType);
+
+        assertEquals("setValue", getOnly(index.getMethods(annotations(Inject.class))).getName());
+        //indexed by parameter annotation
+        assertEquals("onEvent", getOnly(index.getMethods(annotations(Observes.class))).getName());
+        assertEquals(2, index.getMethods(ImmutableSet.<Class<? extends Annotation>>of(Inject.class, OnCreate.class)).size());
+        assertTrue(index.getMethods(annotations(Named.class)).isEmpty());
+    }
+
+    @Test
+    public void testCached() {
+        assertSame(annotatedMemberIndexFactory.getIndex(targetType), annotatedMemberIndexFactory.getIndex(targetType));
+    }
+
+    private ImmutableSet<Class<? extends Annotation>> annotations(Class<? extends Annotation> annotation) {
+        return ImmutableSet.<Class<? extends Annotation>>of(annotation);
+    }
+
+    private <T> T getOnly(List<T> members) {
+        assertEquals(1, members.size());
+        return members.get(0);
+    }
+}
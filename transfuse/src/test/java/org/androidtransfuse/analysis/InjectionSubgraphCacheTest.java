@@ -0,0 +1,209 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.analysis.astAnalyzer.ASTInjectionAspect;
+import org.androidtransfuse.analysis.astAnalyzer.VirtualProxyAspect;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
+import org.androidtransfuse.analysis.targets.A;
+import org.androidtransfuse.analysis.targets.B;
+import org.androidtransfuse.analysis.targets.BImpl;
+import org.androidtransfuse.analysis.targets.C;
+import org.androidtransfuse.benchmark.CompileBenchmark;
+import org.androidtransfuse.benchmark.SyntheticApplicationGenerator;
+import org.androidtransfuse.benchmark.SyntheticApplicationSize;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.androidtransfuse.gen.classloader.MemoryClassLoader;
+import org.androidtransfuse.gen.variableBuilder.VariableInjectionBuilderFactory;
+import org.androidtransfuse.model.FieldInjectionPoint;
+import org.androidtransfuse.model.InjectionNode;
+import org.androidtransfuse.util.matcher.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class InjectionSubgraphCacheTest {
+
+    public static class Client {}
+
+    public static class ClientImpl extends Client {}
+
+    public static class Repository {
+        @Inject
+        public Repository(Client client) {}
+    }
+
+    public static class Consumer {
+        @Inject
+        private Repository repository;
+        @Inject
+        private Client client;
+    }
+
+    @Inject
+    private InjectionPointFactory injectionPointFactory;
+    @Inject
+    private InjectionSubgraphCache subgraphCache;
+    @Inject
+    private SimpleAnalysisContextFactory analysisContextFactory;
+    @Inject
+    private Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider;
+    @Inject
+    private InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory;
+    @Inject
+    private VariableInjectionBuilderFactory variableInjectionBuilderFactory;
+    @Inject
+    private ASTClassFactory astClassFactory;
+
+    @Before
+    public void setUp() {
+        TransfuseTestInjector.inject(this);
+    }
+
+    @Test
+    public void testSubgraphSharedAcrossComponents() {
+        InjectionNode first = injectionPointFactory.buildInjectionNode(Repository.class, buildComponentContext());
+        InjectionNode second = injectionPointFactory.buildInjectionNode(Repository.class, buildComponentContext());
+
+        assertSame(first, second);
+        assertEquals(1, subgraphCache.getHits());
+    }
+
+    @Test
+    public void testNodesDistinctWithinComponent() {
+        AnalysisContext firstContext = buildComponentContext();
+        InjectionNode firstConsumer = injectionPointFactory.buildInjectionNode(Consumer.class, firstContext);
+        InjectionNode secondConsumer = injectionPointFactory.buildInjectionNode(Consumer.class, firstContext);
+        InjectionNode otherConsumer = injectionPointFactory.buildInjectionNode(Consumer.class, buildComponentContext());
+
+        //each injection point of a component is generated as a distinct instance
+        assertNotSame(firstConsumer, secondConsumer);
+        assertSame(firstConsumer, otherConsumer);
+
+        InjectionNode repository = getField(firstConsumer, Repository.class);
+        InjectionNode client = getField(firstConsumer, Client.class);
+        assertNotSame(client, getConstructorParameter(repository, 0));
+    }
+
+    @Test
+    public void testComponentSpecificBindingNotShared() {
+        InjectionNode shared = injectionPointFactory.buildInjectionNode(Repository.class, buildComponentContext());
+
+        AnalysisContext specificContext = buildComponentContext();
+        specificContext.getInjectionNodeBuilders().putType(Client.class,
+                variableInjectionBuilderFactory.buildVariableInjectionNodeBuilder(astClassFactory.getType(ClientImpl.class)));
+        InjectionNode specific = injectionPointFactory.buildInjectionNode(Repository.class, specificContext);
+
+        assertNotSame(shared, specific);
+        assertEquals(ClientImpl.class.getCanonicalName(), getConstructorParameter(specific, 0).getClassName());
+
+        //the component specific subgraph is not memoized
+        assertSame(shared, injectionPointFactory.buildInjectionNode(Repository.class, buildComponentContext()));
+    }
+
+    @Test
+    public void testDependencyLoopNotShared() {
+        //A -> B (BImpl) -> C -> A, B bound by a module
+        injectionNodeBuilderRepositoryFactory.putModuleConfig(Matchers.type(astClassFactory.getType(B.class)).build(),
+                variableInjectionBuilderFactory.buildVariableInjectionNodeBuilder(astClassFactory.getType(BImpl.class)));
+
+        InjectionNode a = injectionPointFactory.buildInjectionNode(A.class, buildComponentContext());
+        InjectionNode c = injectionPointFactory.buildInjectionNode(C.class, buildComponentContext());
+
+        //C -> A -> B -> C loops back to the root C, not to the C of the subgraph built for A
+        InjectionNode cA = getConstructorParameter(c, 0);
+        InjectionNode cAB = getConstructorParameter(cA, 0);
+        assertNotSame(a, cA);
+        assertTrue(cAB.containsAspect(VirtualProxyAspect.class));
+        assertSame(c, getConstructorParameter(cAB, 0));
+
+        assertSame(a, injectionPointFactory.buildInjectionNode(A.class, buildComponentContext()));
+    }
+
+    @Test
+    public void testDisabled() {
+        Injector injector = TransfuseTestInjector.getInjector(this,
+                new TransfuseOptions(ImmutableMap.of(TransfuseOptions.SUBGRAPH_CACHE, "false")));
+        injector.injectMembers(this);
+
+        InjectionNode first = injectionPointFactory.buildInjectionNode(Repository.class, buildComponentContext());
+        InjectionNode second = injectionPointFactory.buildInjectionNode(Repository.class, buildComponentContext());
+
+        assertNotSame(first, second);
+        assertEquals(0, subgraphCache.getHits());
+        assertEquals(0, subgraphCache.size());
+    }
+
+    @Test
+    public void testGeneratedOutputMatches() throws IOException {
+        Map<String, String> sources = new SyntheticApplicationGenerator().generate(SyntheticApplicationSize.scaled(1));
+
+        //variables are numbered across components, generate them in a fixed order
+        String sequential = "-A" + TransfuseOptions.PARALLELISM + "=1";
+
+        MemoryClassLoader sharedClassLoader = new MemoryClassLoader();
+        new CompileBenchmark().compile(sources, sharedClassLoader, ImmutableList.of(sequential));
+        MemoryClassLoader unsharedClassLoader = new MemoryClassLoader();
+        new CompileBenchmark().compile(sources, unsharedClassLoader,
+                ImmutableList.of(sequential, "-A" + TransfuseOptions.SUBGRAPH_CACHE + "=false"));
+
+        assertEquals(unsharedClassLoader.getGeneratedSourceNames(), sharedClassLoader.getGeneratedSourceNames());
+        for (String generated : sharedClassLoader.getGeneratedSourceNames()) {
+            assertEquals(withoutDate(unsharedClassLoader.getGeneratedSource(generated)),
+                    withoutDate(sharedClassLoader.getGeneratedSource(generated)));
+        }
+    }
+
+    private AnalysisContext buildComponentContext() {
+        InjectionNodeBuilderRepository injectionNodeBuilderRepository = injectionNodeBuilderRepositoryProvider.get();
+        injectionNodeBuilderRepositoryFactory.addModuleConfiguration(injectionNodeBuilderRepository);
+        return analysisContextFactory.buildContext(injectionNodeBuilderRepository);
+    }
+
+    private InjectionNode getConstructorParameter(InjectionNode injectionNode, int index) {
+        return injectionNode.getAspect(ASTInjectionAspect.class).getConstructorInjectionPoint().getInjectionNodes().get(index);
+    }
+
+    private InjectionNode getField(InjectionNode injectionNode, Class<?> type) {
+        for (FieldInjectionPoint fieldInjectionPoint : injectionNode.getAspect(ASTInjectionAspect.class).getFieldInjectionPoints()) {
+            if (fieldInjectionPoint.getInjectionNode().getClassName().equals(type.getCanonicalName())) {
+                return fieldInjectionPoint.getInjectionNode();
+            }
+        }
+        fail("No field injection of " + type);
+        return null;
+    }
+
+    private String withoutDate(String source) {
+        assertNotNull(source);
+        return source.replaceAll("date = \"[^\"]*\"", "");
+    }
+}
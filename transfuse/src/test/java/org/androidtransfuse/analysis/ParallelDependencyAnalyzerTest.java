@@ -0,0 +1,261 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.analysis.astAnalyzer.ASTInjectionAspect;
+import org.androidtransfuse.analysis.astAnalyzer.VirtualProxyAspect;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.androidtransfuse.config.TransfuseSetupGuiceModule;
+import org.androidtransfuse.gen.variableBuilder.VariableInjectionBuilderFactory;
+import org.androidtransfuse.model.InjectionNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class ParallelDependencyAnalyzerTest {
+
+    private static final int PARALLELISM = 4;
+    private static final int RUNS = 20;
+
+    //Root -> First -> Leaf
+    //  |        `-> Client -> Service -> Leaf
+    //  |                         `-> Client (back link)
+    //  |-> Service -> ...
+    //  |-> Client -> ...
+    //  `-> Leaf
+
+    public static class Root {
+        @Inject
+        public Root(First first, Service service, Client client, Leaf leaf) {
+        }
+    }
+
+    public static class First {
+        @Inject
+        public First(Leaf leaf, Client client) {
+        }
+    }
+
+    public static interface Service {
+    }
+
+    public static class ServiceImpl implements Service {
+        @Inject
+        public ServiceImpl(Leaf leaf, Client client) {
+        }
+    }
+
+    public static class Client {
+        @Inject
+        public Client(Service service) {
+        }
+    }
+
+    public static class Leaf {
+        //empty
+    }
+
+    private Injector parallelInjector;
+    private Injector sequentialInjector;
+
+    @Before
+    public void setup() {
+        parallelInjector = TransfuseTestInjector.getInjector(this,
+                new TransfuseOptions(ImmutableMap.of(TransfuseOptions.ANALYSIS_PARALLELISM, Integer.toString(PARALLELISM))));
+        sequentialInjector = TransfuseTestInjector.getInjector(this);
+    }
+
+    @After
+    public void tearDown() {
+        parallelInjector.getInstance(Key.get(ExecutorService.class, Names.named(TransfuseSetupGuiceModule.ANALYSIS_EXECUTOR))).shutdown();
+        sequentialInjector.getInstance(Key.get(ExecutorService.class, Names.named(TransfuseSetupGuiceModule.ANALYSIS_EXECUTOR))).shutdown();
+    }
+
+    @Test
+    public void testSiblingsAnalyzedInParallel() {
+        final CountDownLatch lastAnalyzed = new CountDownLatch(1);
+        final ASTType leafType = parallelInjector.getInstance(ASTClassFactory.class).getType(Leaf.class);
+
+        List<InjectionNode> injectionNodes = analyze(parallelInjector, ImmutableList.of(0, 1, 2),
+                new ParallelDependencyAnalyzer.DependencyAnalysis<Integer>() {
+                    @Override
+                    public InjectionNode analyze(Integer dependency, AnalysisContext context) {
+                        if (dependency == 0) {
+                            //only completes if a later sibling is analyzed by another thread
+                            try {
+                                assertTrue(lastAnalyzed.await(10, TimeUnit.SECONDS));
+                            } catch (InterruptedException e) {
+                                throw new TransfuseAnalysisException("Interrupted", e);
+                            }
+                        }
+                        if (dependency == 2) {
+                            lastAnalyzed.countDown();
+                        }
+                        return new InjectionNode(leafType);
+                    }
+                });
+
+        assertEquals(3, injectionNodes.size());
+        assertEquals(3, new HashSet<InjectionNode>(injectionNodes).size());
+    }
+
+    @Test
+    public void testResultOrder() {
+        final ASTClassFactory astClassFactory = parallelInjector.getInstance(ASTClassFactory.class);
+        List<Class<?>> dependencies = ImmutableList.<Class<?>>of(Root.class, First.class, Client.class, Leaf.class, Service.class);
+
+        List<InjectionNode> injectionNodes = analyze(parallelInjector, dependencies,
+                new ParallelDependencyAnalyzer.DependencyAnalysis<Class<?>>() {
+                    @Override
+                    public InjectionNode analyze(Class<?> dependency, AnalysisContext context) {
+                        return new InjectionNode(astClassFactory.getType(dependency));
+                    }
+                });
+
+        assertEquals(dependencies.size(), injectionNodes.size());
+        for (int i = 0; i < dependencies.size(); i++) {
+            assertEquals(dependencies.get(i).getName(), injectionNodes.get(i).getClassName());
+        }
+    }
+
+    @Test
+    public void testFirstFailureThrown() {
+        try {
+            analyze(parallelInjector, ImmutableList.of(0, 1, 2, 3),
+                    new ParallelDependencyAnalyzer.DependencyAnalysis<Integer>() {
+                        @Override
+                        public InjectionNode analyze(Integer dependency, AnalysisContext context) {
+                            if (dependency > 0) {
+                                throw new TransfuseAnalysisException("failed " + dependency);
+                            }
+                            return null;
+                        }
+                    });
+            fail();
+        } catch (TransfuseAnalysisException e) {
+            assertEquals("failed 1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCyclicGraph() {
+        for (int i = 0; i < RUNS; i++) {
+            InjectionNode root = analyzeRoot(parallelInjector);
+
+            List<InjectionNode> rootDependencies = getDependencies(root);
+            assertEquals(4, rootDependencies.size());
+            InjectionNode service = rootDependencies.get(1);
+            InjectionNode client = rootDependencies.get(2);
+
+            //Root -> Service -> Client -> Service back link
+            assertTrue(isProxyRequired(service));
+            InjectionNode serviceClient = getDependencies(service).get(1);
+            assertSame(service, getDependencies(serviceClient).get(0));
+
+            //Root -> Client -> Service -> Client back link, proxied through the Service interface
+            assertFalse(isProxyRequired(client));
+            InjectionNode clientService = getDependencies(client).get(0);
+            assertTrue(isProxyRequired(clientService));
+            assertSame(client, getDependencies(clientService).get(1));
+        }
+    }
+
+    @Test
+    public void testDeterministicGraph() {
+        String expected = describe(analyzeRoot(sequentialInjector));
+
+        for (int i = 0; i < RUNS; i++) {
+            assertEquals(expected, describe(analyzeRoot(parallelInjector)));
+        }
+    }
+
+    private <T> List<InjectionNode> analyze(Injector injector, List<T> dependencies, ParallelDependencyAnalyzer.DependencyAnalysis<T> analysis) {
+        AnalysisContext context = injector.getInstance(SimpleAnalysisContextFactory.class).buildContext();
+        return injector.getInstance(ParallelDependencyAnalyzer.class).analyze(dependencies, context, analysis);
+    }
+
+    private InjectionNode analyzeRoot(Injector injector) {
+        ASTClassFactory astClassFactory = injector.getInstance(ASTClassFactory.class);
+        VariableInjectionBuilderFactory variableInjectionBuilderFactory = injector.getInstance(VariableInjectionBuilderFactory.class);
+        AnalysisContext context = injector.getInstance(SimpleAnalysisContextFactory.class).buildContext();
+
+        context.getInjectionNodeBuilders().putType(Service.class,
+                variableInjectionBuilderFactory.buildVariableInjectionNodeBuilder(astClassFactory.getType(ServiceImpl.class)));
+
+        ASTType rootType = astClassFactory.getType(Root.class);
+        return injector.getInstance(Analyzer.class).analyze(rootType, rootType, context);
+    }
+
+    private List<InjectionNode> getDependencies(InjectionNode injectionNode) {
+        ASTInjectionAspect injectionAspect = injectionNode.getAspect(ASTInjectionAspect.class);
+        if (injectionAspect == null || injectionAspect.getConstructorInjectionPoints().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return injectionAspect.getConstructorInjectionPoint().getInjectionNodes();
+    }
+
+    private String describe(InjectionNode root) {
+        StringBuilder builder = new StringBuilder();
+        describe(root, new ArrayDeque<InjectionNode>(), Collections.newSetFromMap(new IdentityHashMap<InjectionNode, Boolean>()), builder);
+        return builder.toString();
+    }
+
+    private void describe(InjectionNode injectionNode, Deque<InjectionNode> path, Set<InjectionNode> described, StringBuilder builder) {
+        builder.append(injectionNode.getASTType().getName());
+        if (isProxyRequired(injectionNode)) {
+            builder.append("*");
+        }
+        if (path.contains(injectionNode)) {
+            builder.append("^");
+            return;
+        }
+        //InjectionNodes are distinct instances outside of dependency loops
+        assertTrue(described.add(injectionNode));
+        path.push(injectionNode);
+        builder.append("(");
+        for (InjectionNode dependency : getDependencies(injectionNode)) {
+            describe(dependency, path, described, builder);
+            builder.append(" ");
+        }
+        builder.append(")");
+        path.pop();
+    }
+
+    private boolean isProxyRequired(InjectionNode injectionNode) {
+        VirtualProxyAspect proxyAspect = injectionNode.getAspect(VirtualProxyAspect.class);
+
+        return proxyAspect != null && proxyAspect.isProxyRequired();
+    }
+}
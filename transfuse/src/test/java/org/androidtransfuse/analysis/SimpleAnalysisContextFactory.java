@@ -35,8 +35,12 @@ public class SimpleAnalysisContextFactory {
     private Provider<AOPRepository> aopRepositoryProvider;
 
     public AnalysisContext buildContext() {
+        return buildContext(variableBuilderRepository);
+    }
+
+    public AnalysisContext buildContext(InjectionNodeBuilderRepository injectionNodeBuilderRepository) {
         return new AnalysisContext(
-                variableBuilderRepository,
+                injectionNodeBuilderRepository,
                 analysisRepositoryFactory.get(),
                 aopRepositoryProvider.get()
         );
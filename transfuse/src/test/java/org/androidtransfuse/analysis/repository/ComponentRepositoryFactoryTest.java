@@ -0,0 +1,215 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis.repository;
+
+import android.content.SharedPreferences;
+import android.content.res.Resources;
+import com.google.common.collect.ImmutableList;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTAnnotation;
+import org.androidtransfuse.adapter.ASTField;
+import org.androidtransfuse.adapter.ASTStringType;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+import org.androidtransfuse.gen.variableBuilder.InjectionNodeBuilder;
+import org.androidtransfuse.model.InjectionSignature;
+import org.androidtransfuse.util.matcher.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author John Ericksen
+ */
+public class ComponentRepositoryFactoryTest {
+
+    public static class ModuleBound {}
+    public static class ComponentTypeBound {}
+    public static class ComponentBound {}
+    public static class Unbound {}
+
+    public static class Target {
+        ModuleBound moduleBound;
+        @Named("module") ModuleBound qualified;
+        ComponentTypeBound componentTypeBound;
+        ComponentBound componentBound;
+        Unbound unbound;
+        Provider<Unbound> provider;
+        Resources resources;
+        SharedPreferences sharedPreferences;
+    }
+
+    public class TestComponentTypeBindings implements ComponentTypeBindings {
+        private int calls = 0;
+
+        @Override
+        public void addBindings(InjectionNodeBuilderRepository repository) {
+            calls++;
+            repository.putType(ComponentTypeBound.class, componentTypeBuilder);
+        }
+    }
+
+    @Inject
+    private ComponentRepositoryFactory componentRepositoryFactory;
+    @Inject
+    private InjectionNodeBuilderRepositoryFactory injectionNodeBuilderRepositoryFactory;
+    @Inject
+    private Provider<InjectionNodeBuilderRepository> injectionNodeBuilderRepositoryProvider;
+    @Inject
+    private ASTClassFactory astClassFactory;
+    private TestComponentTypeBindings componentTypeBindings;
+    private InjectionNodeBuilder moduleBuilder;
+    private InjectionNodeBuilder qualifiedBuilder;
+    private InjectionNodeBuilder componentTypeBuilder;
+    private InjectionNodeBuilder componentBuilder;
+    private List<InjectionSignature> signatures;
+
+    @Before
+    public void setUp() {
+        TransfuseTestInjector.inject(this);
+        componentTypeBindings = new TestComponentTypeBindings();
+        moduleBuilder = mock(InjectionNodeBuilder.class);
+        qualifiedBuilder = mock(InjectionNodeBuilder.class);
+        componentTypeBuilder = mock(InjectionNodeBuilder.class);
+        componentBuilder = mock(InjectionNodeBuilder.class);
+
+        ASTType moduleBoundType = astClassFactory.getType(ModuleBound.class);
+        injectionNodeBuilderRepositoryFactory.putModuleConfig(Matchers.type(moduleBoundType).build(), moduleBuilder);
+        injectionNodeBuilderRepositoryFactory.putInjectionSignatureConfig(
+                Matchers.type(moduleBoundType).annotated().byAnnotation(getField("qualified").getASTAnnotation(Named.class)).build(),
+                qualifiedBuilder);
+
+        signatures = new ArrayList<InjectionSignature>();
+        for (ASTField field : astClassFactory.getType(Target.class).getFields()) {
+            signatures.add(new InjectionSignature(field.getASTType(), field.getAnnotations()));
+        }
+        signatures.add(new InjectionSignature(new ASTStringType("android.app.AlarmManager"), Collections.<ASTAnnotation>emptySet()));
+    }
+
+    @Test
+    public void testEquivalence() {
+        InjectionNodeBuilderRepository flat = buildFlatRepository();
+        InjectionNodeBuilderRepository layered = componentRepositoryFactory.buildComponentRepository(componentTypeBindings);
+        layered.putType(ComponentBound.class, componentBuilder);
+
+        for (InjectionSignature signature : signatures) {
+            InjectionNodeBuilder flatBinding = flat.getBinding(signature);
+            InjectionNodeBuilder layeredBinding = layered.getBinding(signature);
+
+            if (flatBinding == null) {
+                assertNull(signature.toString(), layeredBinding);
+            } else {
+                //application bindings are built anew for each repository
+                assertNotNull(signature.toString(), layeredBinding);
+                assertEquals(signature.toString(), flatBinding.getClass(), layeredBinding.getClass());
+            }
+        }
+
+        assertSame(moduleBuilder, layered.getBinding(getSignature("moduleBound")));
+        assertSame(qualifiedBuilder, layered.getBinding(getSignature("qualified")));
+        assertSame(componentTypeBuilder, layered.getBinding(getSignature("componentTypeBound")));
+        assertSame(componentBuilder, layered.getBinding(getSignature("componentBound")));
+        assertNull(layered.getBinding(getSignature("unbound")));
+        assertNotNull(layered.getBinding(getSignature("provider")));
+        assertNotNull(layered.getBinding(getSignature("resources")));
+    }
+
+    @Test
+    public void testMultipleMatchesAcrossLayers() {
+        InjectionNodeBuilderRepository flat = buildFlatRepository();
+        flat.putType(ModuleBound.class, componentBuilder);
+        InjectionNodeBuilderRepository layered = componentRepositoryFactory.buildComponentRepository(componentTypeBindings);
+        layered.putType(ModuleBound.class, componentBuilder);
+
+        for (InjectionNodeBuilderRepository repository : ImmutableList.of(flat, layered)) {
+            try {
+                repository.getBinding(getSignature("moduleBound"));
+                fail("Expected multiple matches");
+            } catch (TransfuseAnalysisException e) {
+                //expected
+            }
+        }
+    }
+
+    @Test
+    public void testSharedLayers() {
+        InjectionNodeBuilderRepository first = componentRepositoryFactory.buildComponentRepository(componentTypeBindings);
+        first.putType(ComponentBound.class, componentBuilder);
+        InjectionNodeBuilderRepository second = componentRepositoryFactory.buildComponentRepository(componentTypeBindings);
+
+        assertEquals(1, componentTypeBindings.calls);
+        assertNotSame(first, second);
+        assertSame(componentBuilder, first.getBinding(getSignature("componentBound")));
+        assertNull(second.getBinding(getSignature("componentBound")));
+        assertSame(componentTypeBuilder, second.getBinding(getSignature("componentTypeBound")));
+        //application bindings are shared, not copied
+        assertSame(first.getBinding(getSignature("resources")), second.getBinding(getSignature("resources")));
+    }
+
+    @Test
+    public void testModuleConfigurationChange() {
+        componentRepositoryFactory.buildComponentRepository(componentTypeBindings);
+        InjectionNodeBuilder unboundBuilder = mock(InjectionNodeBuilder.class);
+        injectionNodeBuilderRepositoryFactory.putModuleConfig(Matchers.type(astClassFactory.getType(Unbound.class)).build(), unboundBuilder);
+
+        InjectionNodeBuilderRepository repository = componentRepositoryFactory.buildComponentRepository(componentTypeBindings);
+
+        assertSame(unboundBuilder, repository.getBinding(getSignature("unbound")));
+        assertSame(componentTypeBuilder, repository.getBinding(getSignature("componentTypeBound")));
+        assertEquals(2, componentTypeBindings.calls);
+    }
+
+    @Test(expected = TransfuseAnalysisException.class)
+    public void testFrozen() {
+        InjectionNodeBuilderRepository repository = injectionNodeBuilderRepositoryProvider.get();
+        repository.freeze();
+
+        repository.putType(ComponentBound.class, componentBuilder);
+    }
+
+    private InjectionNodeBuilderRepository buildFlatRepository() {
+        InjectionNodeBuilderRepository repository = injectionNodeBuilderRepositoryProvider.get();
+        componentTypeBindings.addBindings(repository);
+        repository.putType(ComponentBound.class, componentBuilder);
+        injectionNodeBuilderRepositoryFactory.addApplicationInjections(repository);
+        injectionNodeBuilderRepositoryFactory.addModuleConfiguration(repository);
+        return repository;
+    }
+
+    private ASTField getField(String name) {
+        for (ASTField field : astClassFactory.getType(Target.class).getFields()) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private InjectionSignature getSignature(String fieldName) {
+        ASTField field = getField(fieldName);
+        return new InjectionSignature(field.getASTType(), field.getAnnotations());
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.analysis.repository;
+
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTAnnotation;
+import org.androidtransfuse.adapter.ASTField;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+import org.androidtransfuse.gen.variableBuilder.InjectionNodeBuilder;
+import org.androidtransfuse.model.InjectionSignature;
+import org.androidtransfuse.util.matcher.Matcher;
+import org.androidtransfuse.util.matcher.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author John Ericksen
+ */
+public class InjectionNodeBuilderRepositoryTest {
+
+    public static class Service {}
+
+    public static class Target {
+        Service plain;
+        @Named("a") Service a;
+        @Named("b") Service b;
+        @Named("c") Service c;
+        @Named("a") Object object;
+        Provider<Service> provider;
+    }
+
+    @Inject
+    private InjectionNodeBuilderRepository repository;
+    @Inject
+    private ASTClassFactory astClassFactory;
+    private ASTType targetType;
+    private InjectionNodeBuilder builder;
+    private InjectionNodeBuilder otherBuilder;
+
+    @Before
+    public void setUp() {
+        TransfuseTestInjector.inject(this);
+        targetType = astClassFactory.getType(Target.class);
+        builder = mock(InjectionNodeBuilder.class);
+        otherBuilder = mock(InjectionNodeBuilder.class);
+    }
+
+    @Test
+    public void testTypeBinding() {
+        repository.putType(Service.class, builder);
+
+        assertSame(builder, repository.getBinding(signature("plain")));
+        assertNull(repository.getBinding(new InjectionSignature(astClassFactory.getType(Object.class), Collections.<ASTAnnotation>emptySet())));
+    }
+
+    @Test
+    public void testGenericsIgnored() {
+        repository.putTypeMatcher(Matchers.type(astClassFactory.getType(Provider.class)).ignoreGenerics().build(), builder);
+
+        assertSame(builder, repository.getBinding(signature("provider")));
+    }
+
+    @Test
+    public void testQualifiedBinding() {
+        repository.putSignatureMatcher(Matchers.type(astClassFactory.getType(Service.class)).annotated().byAnnotation(qualifier("a")).build(), builder);
+        repository.putSignatureMatcher(Matchers.type(astClassFactory.getType(Service.class)).annotated().byAnnotation(qualifier("b")).build(), otherBuilder);
+
+        assertSame(builder, repository.getBinding(signature("a")));
+        assertSame(otherBuilder, repository.getBinding(signature("b")));
+        assertNull(repository.getBinding(signature("plain")));
+    }
+
+    @Test(expected = TransfuseAnalysisException.class)
+    public void testUnmatchedQualifier() {
+        repository.putSignatureMatcher(Matchers.type(astClassFactory.getType(Service.class)).annotated().byAnnotation(qualifier("a")).build(), builder);
+        repository.putType(Service.class, otherBuilder);
+
+        repository.getBinding(signature("c"));
+    }
+
+    @Test
+    public void testAnnotationBinding() {
+        repository.putAnnotation(Named.class, builder);
+
+        assertSame(builder, repository.getBinding(signature("c")));
+        assertSame(builder, repository.getBinding(signature("object")));
+        assertNull(repository.getBinding(signature("plain")));
+    }
+
+    @Test
+    public void testQualifierPrecedence() {
+        repository.putAnnotation(Named.class, builder);
+        repository.putType(Service.class, otherBuilder);
+
+        assertSame(builder, repository.getBinding(signature("a")));
+        assertSame(otherBuilder, repository.getBinding(signature("plain")));
+    }
+
+    @Test
+    public void testPatternBinding() {
+        repository.putTypeMatcher(new Matcher<ASTType>() {
+            @Override
+            public boolean matches(ASTType input) {
+                return input.getName().startsWith(InjectionNodeBuilderRepositoryTest.class.getName());
+            }
+        }, builder);
+
+        assertSame(builder, repository.getBinding(signature("plain")));
+        assertNull(repository.getBinding(signature("provider")));
+    }
+
+    @Test(expected = TransfuseAnalysisException.class)
+    public void testMultipleIndexedMatches() {
+        repository.putType(Service.class, builder);
+        repository.putType(Service.class, otherBuilder);
+
+        repository.getBinding(signature("plain"));
+    }
+
+    @Test(expected = TransfuseAnalysisException.class)
+    public void testMultipleIndexedAndPatternMatches() {
+        repository.putType(Service.class, builder);
+        repository.putTypeMatcher(new Matcher<ASTType>() {
+            @Override
+            public boolean matches(ASTType input) {
+                return true;
+            }
+        }, otherBuilder);
+
+        repository.getBinding(signature("plain"));
+    }
+
+    private ASTField field(String name) {
+        for (ASTField field : targetType.getFields()) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private InjectionSignature signature(String fieldName) {
+        ASTField field = field(fieldName);
+        return new InjectionSignature(field.getASTType(), field.getAnnotations());
+    }
+
+    private ASTAnnotation qualifier(String fieldName) {
+        return field(fieldName).getASTAnnotation(Named.class);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTMethod;
+import org.androidtransfuse.adapter.ASTSupertypesTest;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.MethodSignature;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+
+import java.util.*;
+
+/**
+ * Map heavy microbenchmark of the AST keys used throughout analysis.  Types and method signatures of the Android
+ * component and view hierarchies are loaded into hash maps by one ASTClassFactory and looked up with the equal, but
+ * distinct, instances built by a second factory, as happens between rounds and between the class and element
+ * adapters.  Run across revisions to compare the cost of ASTType and MethodSignature equality and hashing.
+ * <p/>
+ * Run from the test classpath:
+ * <pre>
+ * java -cp ... org.androidtransfuse.benchmark.ASTKeyBenchmark [iterations]
+ * </pre>
+ *
+ * @author John Ericksen
+ */
+public class ASTKeyBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 1000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+
+        ASTKeyBenchmark benchmark = new ASTKeyBenchmark();
+        List<ASTType> storedTypes = getTypes(TransfuseTestInjector.getInjector(benchmark).getInstance(ASTClassFactory.class));
+        List<ASTType> lookupTypes = getTypes(TransfuseTestInjector.getInjector(benchmark).getInstance(ASTClassFactory.class));
+
+        List<MethodSignature> storedSignatures = getSignatures(storedTypes);
+        List<MethodSignature> lookupSignatures = getSignatures(lookupTypes);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            lookup(storedTypes, lookupTypes, iterations);
+            lookup(storedSignatures, lookupSignatures, iterations);
+        }
+
+        System.out.println("key\tentries\tns/lookup");
+        System.out.println("ASTType\t" + storedTypes.size() + "\t" + lookup(storedTypes, lookupTypes, iterations));
+        System.out.println("MethodSignature\t" + storedSignatures.size() + "\t" + lookup(storedSignatures, lookupSignatures, iterations));
+    }
+
+    private static List<ASTType> getTypes(ASTClassFactory astClassFactory) {
+        Set<ASTType> types = new LinkedHashSet<ASTType>();
+        for (Class<?> typeClass : ASTSupertypesTest.HIERARCHY) {
+            for (ASTType type = astClassFactory.getType(typeClass); type != null; type = type.getSuperClass()) {
+                types.add(type);
+                types.addAll(type.getInterfaces());
+            }
+        }
+        return new ArrayList<ASTType>(types);
+    }
+
+    private static List<MethodSignature> getSignatures(List<ASTType> types) {
+        List<MethodSignature> signatures = new ArrayList<MethodSignature>();
+        for (ASTType type : types) {
+            for (ASTMethod method : type.getMethods()) {
+                signatures.add(new MethodSignature(method));
+            }
+        }
+        return signatures;
+    }
+
+    private static <T> long lookup(List<T> stored, List<T> lookups, int iterations) {
+        Map<T, Integer> map = new HashMap<T, Integer>();
+        for (int i = 0; i < stored.size(); i++) {
+            map.put(stored.get(i), i);
+        }
+
+        long found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (T lookup : lookups) {
+                if (map.containsKey(lookup)) {
+                    found++;
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        if (found != (long) iterations * lookups.size()) {
+            throw new IllegalStateException("Equal keys were not found");
+        }
+        return nanos / found;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTAnnotationIndexTest;
+import org.androidtransfuse.adapter.ASTBase;
+import org.androidtransfuse.adapter.ASTUtils;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+/**
+ * Microbenchmark comparing the linear <code>ASTUtils.getAnnotation()</code> scan with the per element annotation
+ * index backing <code>ASTBase.getASTAnnotation()</code>.  Every member of a component with many annotated fields,
+ * methods and parameters is queried for the annotations the analyzers look for.
+ * <p/>
+ * Run from the test classpath:
+ * <pre>
+ * java -cp ... org.androidtransfuse.benchmark.AnnotationIndexBenchmark [iterations]
+ * </pre>
+ *
+ * @author John Ericksen
+ */
+public class AnnotationIndexBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 100000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+
+        ASTClassFactory astClassFactory = TransfuseTestInjector.getInjector(new AnnotationIndexBenchmark()).getInstance(ASTClassFactory.class);
+        List<ASTBase> members = ASTAnnotationIndexTest.getAnnotatedMembers(
+                astClassFactory.getType(ASTAnnotationIndexTest.AnnotatedComponent.class));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            scan(members, iterations);
+            index(members, iterations);
+        }
+
+        long queries = (long) iterations * members.size() * ASTAnnotationIndexTest.QUERIES.length;
+        System.out.println("strategy\tmembers\tqueries\tns/query");
+        System.out.println("scan\t" + members.size() + "\t" + queries + "\t" + scan(members, iterations) / queries);
+        System.out.println("index\t" + members.size() + "\t" + queries + "\t" + index(members, iterations) / queries);
+    }
+
+    private static long scan(List<ASTBase> members, int iterations) {
+        ASTUtils astUtils = ASTUtils.getInstance();
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (ASTBase member : members) {
+                for (Class<? extends Annotation> query : ASTAnnotationIndexTest.QUERIES) {
+                    if (astUtils.getAnnotation(query, member.getAnnotations()) != null) {
+                        found++;
+                    }
+                }
+            }
+        }
+        return report(start, found);
+    }
+
+    private static long index(List<ASTBase> members, int iterations) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (ASTBase member : members) {
+                for (Class<? extends Annotation> query : ASTAnnotationIndexTest.QUERIES) {
+                    if (member.getASTAnnotation(query) != null) {
+                        found++;
+                    }
+                }
+            }
+        }
+        return report(start, found);
+    }
+
+    private static long report(long start, int found) {
+        long nanos = System.nanoTime() - start;
+        //consume the result so the lookups are not eliminated
+        if (found < 0) {
+            System.out.println(found);
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import com.google.inject.Injector;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTAnnotation;
+import org.androidtransfuse.adapter.ASTStringType;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
+import org.androidtransfuse.gen.variableBuilder.InjectionNodeBuilder;
+import org.androidtransfuse.model.InjectionSignature;
+import org.androidtransfuse.util.matcher.Matcher;
+import org.androidtransfuse.util.matcher.Matchers;
+
+import javax.inject.Named;
+import java.util.*;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the binding resolution of an InjectionNodeBuilderRepository carrying the application bindings, including
+ * the system services, and a large module configuration of type and qualified bindings.  Injection points resolving to
+ * a type binding, a qualified binding and the default binding are resolved against the indexed repository, and
+ * against a repository whose module matchers are wrapped so they cannot be indexed and are scanned on each lookup, as
+ * every binding was before indexing.
+ * <p/>
+ * Run from the test classpath:
+ * <pre>
+ * java -cp ... org.androidtransfuse.benchmark.BindingResolutionBenchmark [bindings] [injection points]
+ * </pre>
+ *
+ * @author John Ericksen
+ */
+public class BindingResolutionBenchmark {
+
+    private static final int DEFAULT_BINDINGS = 500;
+    private static final int DEFAULT_INJECTION_POINTS = 5000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    public static class Qualified {
+        @Named("module")
+        Object value;
+    }
+
+    public static void main(String[] args) {
+        int bindings = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BINDINGS;
+        int injectionPoints = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_INJECTION_POINTS;
+
+        Injector injector = TransfuseTestInjector.getInjector(new BindingResolutionBenchmark());
+        ASTClassFactory astClassFactory = injector.getInstance(ASTClassFactory.class);
+        ASTAnnotation qualifier = astClassFactory.getType(Qualified.class).getFields().iterator().next().getASTAnnotation(Named.class);
+
+        InjectionNodeBuilderRepository indexed = buildRepository(injector, bindings, qualifier, false);
+        InjectionNodeBuilderRepository scanned = buildRepository(injector, bindings, qualifier, true);
+        List<InjectionSignature> signatures = buildSignatures(bindings, injectionPoints, qualifier);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            resolve(indexed, signatures);
+            resolve(scanned, signatures);
+        }
+
+        System.out.println("repository\tbindings\tinjection points\tns/lookup");
+        report("indexed", indexed, bindings, signatures);
+        report("scanned", scanned, bindings, signatures);
+    }
+
+    private static InjectionNodeBuilderRepository buildRepository(Injector injector, int bindings, ASTAnnotation qualifier, boolean scanned) {
+        InjectionNodeBuilderRepository repository = injector.getInstance(InjectionNodeBuilderRepository.class);
+        injector.getInstance(InjectionNodeBuilderRepositoryFactory.class).addApplicationInjections(repository);
+
+        for (int i = 0; i < bindings; i++) {
+            putType(repository, Matchers.type(moduleType(i)).build(), scanned);
+            putSignature(repository, Matchers.type(qualifiedType(i)).annotated().byAnnotation(qualifier).build(), scanned);
+        }
+        return repository;
+    }
+
+    private static void putType(InjectionNodeBuilderRepository repository, final Matcher<ASTType> matcher, boolean scanned) {
+        InjectionNodeBuilder builder = mock(InjectionNodeBuilder.class);
+        if (scanned) {
+            repository.putTypeMatcher(new Matcher<ASTType>() {
+                @Override
+                public boolean matches(ASTType input) {
+                    return matcher.matches(input);
+                }
+            }, builder);
+        } else {
+            repository.putTypeMatcher(matcher, builder);
+        }
+    }
+
+    private static void putSignature(InjectionNodeBuilderRepository repository, final Matcher<InjectionSignature> matcher, boolean scanned) {
+        InjectionNodeBuilder builder = mock(InjectionNodeBuilder.class);
+        if (scanned) {
+            repository.putSignatureMatcher(new Matcher<InjectionSignature>() {
+                @Override
+                public boolean matches(InjectionSignature input) {
+                    return matcher.matches(input);
+                }
+            }, builder);
+        } else {
+            repository.putSignatureMatcher(matcher, builder);
+        }
+    }
+
+    private static List<InjectionSignature> buildSignatures(int bindings, int injectionPoints, ASTAnnotation qualifier) {
+        Random random = new Random(0);
+        List<InjectionSignature> signatures = new ArrayList<InjectionSignature>();
+        for (int i = 0; i < injectionPoints; i++) {
+            int binding = random.nextInt(bindings);
+            switch (i % 10) {
+                case 0:
+                    //default binding
+                    signatures.add(new InjectionSignature(new ASTStringType("benchmark.Unbound" + binding), Collections.<ASTAnnotation>emptySet()));
+                    break;
+                case 1:
+                case 2:
+                    signatures.add(new InjectionSignature(qualifiedType(binding), Collections.singleton(qualifier)));
+                    break;
+                default:
+                    signatures.add(new InjectionSignature(moduleType(binding), Collections.<ASTAnnotation>emptySet()));
+            }
+        }
+        return signatures;
+    }
+
+    private static void report(String name, InjectionNodeBuilderRepository repository, int bindings, List<InjectionSignature> signatures) {
+        long nanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            nanos += resolve(repository, signatures);
+        }
+        System.out.println(name + "\t" + bindings + "\t" + signatures.size() + "\t" + nanos / ROUNDS / signatures.size());
+    }
+
+    private static long resolve(InjectionNodeBuilderRepository repository, List<InjectionSignature> signatures) {
+        int resolved = 0;
+        long start = System.nanoTime();
+        for (InjectionSignature signature : signatures) {
+            if (repository.getBinding(signature) != null) {
+                resolved++;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        if (resolved == 0) {
+            throw new IllegalStateException("No injection point resolved");
+        }
+        return nanos;
+    }
+
+    private static ASTType moduleType(int i) {
+        return new ASTStringType("benchmark.Module" + i);
+    }
+
+    private static ASTType qualifiedType(int i) {
+        return new ASTStringType("benchmark.Qualified" + i);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import android.app.Activity;
+import com.google.common.io.ByteStreams;
+import org.androidtransfuse.adapter.descriptor.ClassFileReader;
+import org.androidtransfuse.adapter.descriptor.ReflectionDescriptorReader;
+import org.androidtransfuse.adapter.descriptor.TypeDescriptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Throughput benchmark of the class file reader over every class of a jar, by default the android.jar on the test
+ * classpath.  The class files are read into memory up front, so only parsing is measured: headers alone (names and
+ * supertypes, as needed to build an ASTType) and headers with every member and annotation decoded.  A single
+ * reflective pass, loading each class, is listed for reference.
+ * <p/>
+ * Run from the test classpath:
+ * <pre>
+ * java -cp ... org.androidtransfuse.benchmark.ClassFileReaderBenchmark [jar] [rounds]
+ * </pre>
+ *
+ * @author John Ericksen
+ */
+public class ClassFileReaderBenchmark {
+
+    private static final int DEFAULT_ROUNDS = 10;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final String CLASS_EXTENSION = ".class";
+
+    public static void main(String[] args) throws IOException, URISyntaxException {
+        File jar = args.length > 0 ? new File(args[0]) : new File(Activity.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+
+        List<String> names = new ArrayList<String>();
+        List<byte[]> classFiles = new ArrayList<byte[]>();
+        long totalBytes = 0;
+        JarFile jarFile = new JarFile(jar);
+        try {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(CLASS_EXTENSION)) {
+                    InputStream inputStream = jarFile.getInputStream(entry);
+                    try {
+                        byte[] bytes = ByteStreams.toByteArray(inputStream);
+                        classFiles.add(bytes);
+                        totalBytes += bytes.length;
+                    } finally {
+                        inputStream.close();
+                    }
+                    names.add(entry.getName().substring(0, entry.getName().length() - CLASS_EXTENSION.length()).replace('/', '.'));
+                }
+            }
+        } finally {
+            jarFile.close();
+        }
+
+        System.out.println(jar + ": " + classFiles.size() + " classes, " + totalBytes / 1024 + " KiB");
+
+        ClassFileReader reader = new ClassFileReader();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            parse(reader, classFiles, false);
+            parse(reader, classFiles, true);
+        }
+
+        long headerNanos = 0;
+        long memberNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            headerNanos += parse(reader, classFiles, false);
+            memberNanos += parse(reader, classFiles, true);
+        }
+
+        System.out.println("strategy\tclasses/s\tMiB/s");
+        report("headers", classFiles.size(), totalBytes, headerNanos / rounds);
+        report("members", classFiles.size(), totalBytes, memberNanos / rounds);
+        report("reflection (1 pass)", names.size(), totalBytes, reflect(names));
+    }
+
+    private static long parse(ClassFileReader reader, List<byte[]> classFiles, boolean members) {
+        int count = 0;
+        long start = System.nanoTime();
+        for (byte[] classFile : classFiles) {
+            TypeDescriptor descriptor = reader.read(classFile);
+            count += descriptor.getInterfaceNames().size();
+            if (members) {
+                count += descriptor.getMethods().size() + descriptor.getFields().size() + descriptor.getAnnotations().size();
+            }
+        }
+        return consume(start, count);
+    }
+
+    private static long reflect(List<String> names) {
+        ReflectionDescriptorReader reader = new ReflectionDescriptorReader();
+        ClassLoader classLoader = ClassFileReaderBenchmark.class.getClassLoader();
+        int count = 0;
+        long start = System.nanoTime();
+        for (String name : names) {
+            try {
+                TypeDescriptor descriptor = reader.read(Class.forName(name, false, classLoader));
+                count += descriptor.getMethods().size() + descriptor.getFields().size();
+            } catch (ClassNotFoundException e) {
+                count--;
+            } catch (LinkageError e) {
+                count--;
+            }
+        }
+        return consume(start, count);
+    }
+
+    private static long consume(long start, int count) {
+        long nanos = System.nanoTime() - start;
+        //consume the result so the parsing is not eliminated
+        if (count == Integer.MIN_VALUE) {
+            System.out.println(count);
+        }
+        return nanos;
+    }
+
+    private static void report(String strategy, int classes, long bytes, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.println(strategy + "\t" + Math.round(classes / seconds) + "\t" + Math.round(bytes / seconds / (1024 * 1024)));
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import org.androidtransfuse.ParcelAnnotationProcessor;
+import org.androidtransfuse.TransfuseAnnotationProcessor;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.androidtransfuse.gen.classloader.MemoryClassLoader;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * End-to-end benchmark compiling procedurally generated applications of increasing size in memory with the Transfuse
+ * and Parcel annotation processors.  For each size the wall time, process CPU time, allocated bytes and peak heap
+ * of the compilation are reported, as the median over the measured iterations.
+ * <p/>
+ * Run from the test classpath:
+ * <pre>
+ * java -cp ... org.androidtransfuse.benchmark.CompileBenchmark [scale...]
+ * </pre>
+ * Each argument is a SyntheticApplicationSize scale (default 1 5 10 25).  The number of warmup and measured
+ * iterations are configured by the <code>transfuse.benchmark.warmup</code> (default 2) and
+ * <code>transfuse.benchmark.iterations</code> (default 5) system properties.  If the
+ * <code>transfuse.benchmark.output</code> system property is given, results are appended to the named CSV file to
+ * track scalability across builds.
+ *
+ * @author John Ericksen
+ */
+public class CompileBenchmark {
+
+    private static final int DEFAULT_WARMUP = 2;
+    private static final int DEFAULT_ITERATIONS = 5;
+    private static final int[] DEFAULT_SCALES = {1, 5, 10, 25};
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private final SyntheticApplicationGenerator generator = new SyntheticApplicationGenerator();
+
+    public static void main(String[] args) throws IOException {
+        int[] scales = DEFAULT_SCALES;
+        if (args.length > 0) {
+            scales = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                scales[i] = Integer.parseInt(args[i]);
+            }
+        }
+        int warmup = Integer.getInteger("transfuse.benchmark.warmup", DEFAULT_WARMUP);
+        int iterations = Integer.getInteger("transfuse.benchmark.iterations", DEFAULT_ITERATIONS);
+        String output = System.getProperty("transfuse.benchmark.output");
+
+        CompileBenchmark benchmark = new CompileBenchmark();
+
+        System.out.println("scale\tsources\twall(ms)\tcpu(ms)\talloc(MB)\tpeak heap(MB)");
+        for (int scale : scales) {
+            SyntheticApplicationSize size = SyntheticApplicationSize.scaled(scale);
+            Map<String, String> sources = benchmark.generator.generate(size);
+
+            for (int i = 0; i < warmup; i++) {
+                benchmark.compile(sources);
+            }
+            List<CompileMeasurement> measurements = new ArrayList<CompileMeasurement>();
+            for (int i = 0; i < iterations; i++) {
+                measurements.add(benchmark.compile(sources));
+            }
+            CompileMeasurement median = CompileMeasurement.median(measurements);
+
+            System.out.println(scale + "\t" + sources.size() + "\t" + median.getWallMillis() + "\t" +
+                    median.getCpuMillis() + "\t" + megabytes(median.getAllocatedBytes()) + "\t" +
+                    megabytes(median.getPeakHeapBytes()));
+            if (output != null) {
+                append(new File(output), scale, size, sources.size(), median);
+            }
+        }
+    }
+
+    /**
+     * Compiles the given sources once with both Transfuse processors, measuring the compilation.
+     *
+     * @param sources sources by class name
+     * @return measurement
+     */
+    public CompileMeasurement compile(Map<String, String> sources) throws IOException {
+        return compile(sources, new MemoryClassLoader(), Collections.<String>emptyList());
+    }
+
+    /**
+     * Compiles the given sources once with both Transfuse processors into the given class loader, passing the given
+     * additional compiler options, measuring the compilation.
+     *
+     * @param sources     sources by class name
+     * @param classLoader class loader holding the compiled and generated output
+     * @param options     additional compiler options
+     * @return measurement
+     */
+    public CompileMeasurement compile(Map<String, String> sources, MemoryClassLoader classLoader, List<String> options) throws IOException {
+        File manifestDirectory = File.createTempFile("synthetic", "");
+        if (!manifestDirectory.delete() || !manifestDirectory.mkdirs()) {
+            throw new IOException("Unable to create " + manifestDirectory);
+        }
+        try {
+            //Transfuse merges the generated components into the manifest, start each compilation from the original
+            File manifest = new File(manifestDirectory, "AndroidManifest.xml");
+            FileUtils.writeStringToFile(manifest, SyntheticApplicationGenerator.MANIFEST);
+
+            List<String> compilerOptions = new ArrayList<String>();
+            compilerOptions.add("-A" + TransfuseOptions.MANIFEST + "=" + manifest.getAbsolutePath());
+            compilerOptions.addAll(options);
+
+            ResourceSampler sampler = new ResourceSampler();
+
+            System.gc();
+            sampler.start();
+            long start = System.nanoTime();
+            boolean success = classLoader.add(sources,
+                    ImmutableList.of(new TransfuseAnnotationProcessor(), new ParcelAnnotationProcessor()),
+                    compilerOptions);
+            long wallNanos = System.nanoTime() - start;
+            sampler.stop();
+
+            if (!success) {
+                throw new IllegalStateException("Synthetic application failed to compile");
+            }
+
+            return new CompileMeasurement(wallNanos / 1000000, sampler.getCpuNanos() / 1000000,
+                    sampler.getAllocatedBytes(), sampler.getPeakHeapBytes());
+        } finally {
+            FileUtils.deleteDirectory(manifestDirectory);
+        }
+    }
+
+    private static long megabytes(long bytes) {
+        return bytes < 0 ? -1 : bytes / MEGABYTE;
+    }
+
+    private static void append(File output, int scale, SyntheticApplicationSize size, int sourceCount, CompileMeasurement measurement) throws IOException {
+        boolean header = !output.exists();
+        PrintWriter writer = new PrintWriter(new FileWriter(output, true));
+        try {
+            if (header) {
+                writer.println("timestamp,scale,size,sources,wallMillis,cpuMillis,allocatedBytes,peakHeapBytes");
+            }
+            writer.println(System.currentTimeMillis() + "," + scale + ",\"" + size + "\"," + sourceCount + "," +
+                    measurement.getWallMillis() + "," + measurement.getCpuMillis() + "," +
+                    measurement.getAllocatedBytes() + "," + measurement.getPeakHeapBytes());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Samples the JVM while a compilation runs.  The processors execute on their own short-lived thread pools, so
+     * per-thread allocation counters are polled and the last value seen for each thread is kept, losing at most one
+     * sampling interval of allocation for threads that exit between samples.  Allocation is reported as -1 if the
+     * JVM does not support per-thread allocation counters.
+     */
+    private static final class ResourceSampler implements Runnable {
+
+        private static final long INTERVAL_MILLIS = 5;
+
+        private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        private final OperatingSystemMXBean operatingSystemMXBean = ManagementFactory.getOperatingSystemMXBean();
+        private final Map<Long, Long> baseline = new HashMap<Long, Long>();
+        private final Map<Long, Long> allocated = new HashMap<Long, Long>();
+        private final boolean allocationSupported;
+        private long peakHeap;
+        private long startCpu;
+        private long cpuNanos;
+        private volatile boolean running;
+        private Thread thread;
+
+        private ResourceSampler() {
+            allocationSupported = threadMXBean instanceof com.sun.management.ThreadMXBean &&
+                    ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported();
+        }
+
+        public void start() {
+            startCpu = getProcessCpuNanos();
+            sampleAllocation(baseline);
+            running = true;
+            thread = new Thread(this, "benchmark-sampler");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        public void stop() {
+            running = false;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sample();
+            cpuNanos = getProcessCpuNanos() - startCpu;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                sample();
+                try {
+                    Thread.sleep(INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private synchronized void sample() {
+            sampleAllocation(allocated);
+            peakHeap = Math.max(peakHeap, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        }
+
+        private void sampleAllocation(Map<Long, Long> values) {
+            if (allocationSupported) {
+                long[] ids = threadMXBean.getAllThreadIds();
+                long[] bytes = ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(ids);
+                for (int i = 0; i < ids.length; i++) {
+                    if (bytes[i] >= 0) {
+                        values.put(ids[i], bytes[i]);
+                    }
+                }
+            }
+        }
+
+        private long getProcessCpuNanos() {
+            if (operatingSystemMXBean instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) operatingSystemMXBean).getProcessCpuTime();
+            }
+            return threadMXBean.getCurrentThreadCpuTime();
+        }
+
+        public synchronized long getAllocatedBytes() {
+            if (!allocationSupported) {
+                return -1;
+            }
+            long total = 0;
+            for (Map.Entry<Long, Long> entry : allocated.entrySet()) {
+                Long start = baseline.get(entry.getKey());
+                total += entry.getValue() - (start == null ? 0 : start);
+            }
+            return total;
+        }
+
+        public synchronized long getPeakHeapBytes() {
+            return peakHeap;
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+    }
+}
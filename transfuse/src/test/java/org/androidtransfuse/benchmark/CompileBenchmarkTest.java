@@ -0,0 +1,57 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Keeps the benchmark application compiling as the processors evolve.
+ *
+ * @author John Ericksen
+ */
+public class CompileBenchmarkTest {
+
+    private SyntheticApplicationGenerator generator;
+
+    @Before
+    public void setUp() {
+        generator = new SyntheticApplicationGenerator();
+    }
+
+    @Test
+    public void testGeneratedSize() {
+        Map<String, String> sources = generator.generate(SyntheticApplicationSize.scaled(1));
+
+        //20 injectables, 4 per module, 8 components and 5 parcels
+        assertEquals(37, sources.size());
+        assertTrue(sources.containsKey(SyntheticApplicationGenerator.PACKAGE + ".SyntheticModule0"));
+        assertTrue(sources.get(SyntheticApplicationGenerator.PACKAGE + ".SyntheticParcel1").contains("SyntheticParcel0 previous"));
+    }
+
+    @Test
+    public void testSyntheticApplicationCompiles() throws IOException {
+        CompileMeasurement measurement = new CompileBenchmark().compile(generator.generate(SyntheticApplicationSize.scaled(1)));
+
+        assertTrue(measurement.getWallMillis() >= 0);
+        assertTrue(measurement.getPeakHeapBytes() > 0);
+    }
+}
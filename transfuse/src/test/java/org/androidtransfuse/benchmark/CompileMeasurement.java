@@ -0,0 +1,81 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resources consumed by a single benchmark compilation.
+ *
+ * @author John Ericksen
+ */
+public class CompileMeasurement {
+
+    private final long wallMillis;
+    private final long cpuMillis;
+    private final long allocatedBytes;
+    private final long peakHeapBytes;
+
+    public CompileMeasurement(long wallMillis, long cpuMillis, long allocatedBytes, long peakHeapBytes) {
+        this.wallMillis = wallMillis;
+        this.cpuMillis = cpuMillis;
+        this.allocatedBytes = allocatedBytes;
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    /**
+     * Builds the per-metric median of the given measurements.
+     *
+     * @param measurements non-empty list of measurements
+     * @return median measurement
+     */
+    public static CompileMeasurement median(List<CompileMeasurement> measurements) {
+        List<Long> wall = new ArrayList<Long>();
+        List<Long> cpu = new ArrayList<Long>();
+        List<Long> allocated = new ArrayList<Long>();
+        List<Long> peakHeap = new ArrayList<Long>();
+        for (CompileMeasurement measurement : measurements) {
+            wall.add(measurement.wallMillis);
+            cpu.add(measurement.cpuMillis);
+            allocated.add(measurement.allocatedBytes);
+            peakHeap.add(measurement.peakHeapBytes);
+        }
+        return new CompileMeasurement(median(wall), median(cpu), median(allocated), median(peakHeap));
+    }
+
+    private static long median(List<Long> values) {
+        Collections.sort(values);
+        return values.get(values.size() / 2);
+    }
+
+    public long getWallMillis() {
+        return wallMillis;
+    }
+
+    public long getCpuMillis() {
+        return cpuMillis;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+}
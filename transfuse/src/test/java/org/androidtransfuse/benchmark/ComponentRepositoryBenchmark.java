@@ -0,0 +1,150 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import com.google.inject.Injector;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTAnnotation;
+import org.androidtransfuse.adapter.ASTStringType;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.analysis.repository.ComponentRepositoryFactory;
+import org.androidtransfuse.analysis.repository.ComponentTypeBindings;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
+import org.androidtransfuse.gen.variableBuilder.InjectionNodeBuilder;
+import org.androidtransfuse.model.InjectionSignature;
+import org.androidtransfuse.util.matcher.Matchers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the time and allocation of building the InjectionNodeBuilderRepository of many components, and resolving a
+ * few bindings from each, against a large module configuration.  Repositories are built either as before, by copying
+ * the application injections, module configuration and component type bindings into a new repository per component,
+ * or as a layer over the shared layers of the ComponentRepositoryFactory.  Allocation is measured with the per-thread
+ * allocation counter, reported as -1 if the JVM does not support it.
+ * <p/>
+ * Run from the test classpath:
+ * <pre>
+ * java -cp ... org.androidtransfuse.benchmark.ComponentRepositoryBenchmark [components] [module bindings]
+ * </pre>
+ *
+ * @author John Ericksen
+ */
+public class ComponentRepositoryBenchmark {
+
+    private static final int DEFAULT_COMPONENTS = 1000;
+    private static final int DEFAULT_MODULE_BINDINGS = 200;
+    private static final int LOOKUPS = 20;
+    private static final int WARMUP_ROUNDS = 3;
+
+    private static final class BenchmarkComponentTypeBindings implements ComponentTypeBindings {
+        private final InjectionNodeBuilder builder = mock(InjectionNodeBuilder.class);
+
+        @Override
+        public void addBindings(InjectionNodeBuilderRepository repository) {
+            for (int i = 0; i < 4; i++) {
+                repository.putType(new ASTStringType("benchmark.ComponentType" + i), builder);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int components = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COMPONENTS;
+        int moduleBindings = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MODULE_BINDINGS;
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            build(false, components, moduleBindings);
+            build(true, components, moduleBindings);
+        }
+
+        System.out.println("repositories\tcomponents\tmodule bindings\tms\tbytes/component");
+        build(false, components, moduleBindings).print("copied", components, moduleBindings);
+        build(true, components, moduleBindings).print("layered", components, moduleBindings);
+    }
+
+    private static Measurement build(boolean layered, int components, int moduleBindings) {
+        Injector injector = TransfuseTestInjector.getInjector(new ComponentRepositoryBenchmark());
+        InjectionNodeBuilderRepositoryFactory repositoryFactory = injector.getInstance(InjectionNodeBuilderRepositoryFactory.class);
+        ComponentRepositoryFactory componentRepositoryFactory = injector.getInstance(ComponentRepositoryFactory.class);
+        ComponentTypeBindings componentTypeBindings = new BenchmarkComponentTypeBindings();
+
+        List<InjectionSignature> signatures = new ArrayList<InjectionSignature>();
+        for (int i = 0; i < moduleBindings; i++) {
+            ASTType type = new ASTStringType("benchmark.Module" + i);
+            repositoryFactory.putModuleConfig(Matchers.type(type).build(), mock(InjectionNodeBuilder.class));
+            if (i % (moduleBindings / LOOKUPS + 1) == 0) {
+                signatures.add(new InjectionSignature(type, Collections.<ASTAnnotation>emptySet()));
+            }
+        }
+        InjectionNodeBuilder componentBuilder = mock(InjectionNodeBuilder.class);
+
+        long startBytes = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < components; i++) {
+            InjectionNodeBuilderRepository repository;
+            if (layered) {
+                repository = componentRepositoryFactory.buildComponentRepository(componentTypeBindings);
+            } else {
+                repository = injector.getInstance(InjectionNodeBuilderRepository.class);
+                componentTypeBindings.addBindings(repository);
+                repositoryFactory.addApplicationInjections(repository);
+                repositoryFactory.addModuleConfiguration(repository);
+            }
+            repository.putType(new ASTStringType("benchmark.Component" + i), componentBuilder);
+
+            for (InjectionSignature signature : signatures) {
+                if (repository.getBinding(signature) == null) {
+                    throw new IllegalStateException("Unresolved binding " + signature);
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = startBytes < 0 ? -1 : getAllocatedBytes() - startBytes;
+
+        return new Measurement(nanos, bytes);
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean &&
+                ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static final class Measurement {
+        private final long nanos;
+        private final long bytes;
+
+        private Measurement(long nanos, long bytes) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+
+        private void print(String name, int components, int moduleBindings) {
+            System.out.println(name + "\t" + components + "\t" + moduleBindings + "\t" + nanos / 1000000 + "\t" +
+                    (bytes < 0 ? -1 : bytes / components));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import org.androidtransfuse.NoOpElements;
+import org.androidtransfuse.config.CachingElements;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Contention benchmark comparing a globally locked Elements facade against the CachingElements facade under
+ * concurrent lookups of a shared set of types, as seen by the analysis threads.  For each facade the wall time and
+ * the number of underlying resolutions are reported.
+ * <p/>
+ * Run from the test classpath:
+ * <pre>
+ * java -cp ... org.androidtransfuse.benchmark.ElementsContentionBenchmark [threads]
+ * </pre>
+ *
+ * @author John Ericksen
+ */
+public class ElementsContentionBenchmark {
+
+    private static final int DEFAULT_THREADS = 8;
+    private static final int LOOKUPS = 5000;
+    private static final int TYPES = 200;
+    private static final long RESOLUTION_NANOS = 20000;
+
+    private final Map<String, TypeElement> types = new HashMap<String, TypeElement>();
+    private final List<String> names = new ArrayList<String>();
+    private final int threads;
+
+    public ElementsContentionBenchmark(int threads) {
+        this.threads = threads;
+        for (int i = 0; i < TYPES; i++) {
+            String name = "org.test.Type" + i;
+            names.add(name);
+            types.put(name, mock(TypeElement.class));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+
+        ElementsContentionBenchmark benchmark = new ElementsContentionBenchmark(threads);
+
+        SlowElements lockedDelegate = benchmark.new SlowElements();
+        SlowElements cachingDelegate = benchmark.new SlowElements();
+
+        long locked = benchmark.run(new LockedElements(lockedDelegate));
+        long caching = benchmark.run(new CachingElements(cachingDelegate));
+
+        System.out.println("facade\tthreads\tlookups\tms\tresolutions");
+        System.out.println("global lock\t" + threads + "\t" + threads * LOOKUPS + "\t" +
+                TimeUnit.NANOSECONDS.toMillis(locked) + "\t" + lockedDelegate.resolutions.get());
+        System.out.println("caching\t" + threads + "\t" + threads * LOOKUPS + "\t" +
+                TimeUnit.NANOSECONDS.toMillis(caching) + "\t" + cachingDelegate.resolutions.get());
+    }
+
+    private long run(final Elements elements) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int thread = 0; thread < threads; thread++) {
+                final int offset = thread;
+                futures.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < LOOKUPS; i++) {
+                            String name = names.get((i + offset) % TYPES);
+                            if (types.get(name) != elements.getTypeElement(name)) {
+                                throw new IllegalStateException("Unexpected element resolved for " + name);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - startTime;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private final class SlowElements extends NoOpElements {
+
+        private final AtomicInteger resolutions = new AtomicInteger();
+
+        @Override
+        public TypeElement getTypeElement(CharSequence charSequence) {
+            resolutions.incrementAndGet();
+            long end = System.nanoTime() + RESOLUTION_NANOS;
+            while (System.nanoTime() < end) {
+                //simulates symbol completion work
+            }
+            return types.get(charSequence.toString());
+        }
+    }
+
+    /**
+     * Previous global lock approach, every call is serialized.
+     */
+    private static final class LockedElements extends NoOpElements {
+
+        private final Elements elements;
+
+        private LockedElements(Elements elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public synchronized TypeElement getTypeElement(CharSequence charSequence) {
+            return elements.getTypeElement(charSequence);
+        }
+    }
+}
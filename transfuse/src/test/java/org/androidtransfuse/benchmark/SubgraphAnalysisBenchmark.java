@@ -0,0 +1,142 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.androidtransfuse.analysis.AnalysisContext;
+import org.androidtransfuse.analysis.InjectionPointFactory;
+import org.androidtransfuse.analysis.InjectionSubgraphCache;
+import org.androidtransfuse.analysis.SimpleAnalysisContextFactory;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepository;
+import org.androidtransfuse.analysis.repository.InjectionNodeBuilderRepositoryFactory;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.androidtransfuse.gen.classloader.MemoryClassLoader;
+
+import javax.annotation.processing.Processor;
+import java.util.*;
+
+/**
+ * Measures the injection analysis of many components sharing the injectable graph of the synthetic application, with
+ * and without the InjectionSubgraphCache.  Each component is analyzed with its own InjectionNodeBuilderRepository and
+ * AnalysisContext, injecting the root injectables as the synthetic components do.  The injectable types are compiled
+ * in memory and loaded beforehand so only the analysis is timed.
+ * <p/>
+ * Run from the test classpath:
+ * <pre>
+ * java -cp ... org.androidtransfuse.benchmark.SubgraphAnalysisBenchmark [components] [scale]
+ * </pre>
+ *
+ * @author John Ericksen
+ */
+public class SubgraphAnalysisBenchmark {
+
+    private static final int DEFAULT_COMPONENTS = 80;
+    private static final int DEFAULT_SCALE = 5;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws ClassNotFoundException {
+        int components = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COMPONENTS;
+        SyntheticApplicationSize size = SyntheticApplicationSize.scaled(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SCALE);
+
+        List<Class<?>> injectables = loadInjectables(size);
+        List<Class<?>> roots = injectables.subList(0, Math.max(1, size.getInjectables() / size.getDepth()));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            analyze(true, components, size, injectables, roots);
+            analyze(false, components, size, injectables, roots);
+        }
+
+        System.out.println("subgraphs\tcomponents\tms/round\thits\tmisses");
+        report(true, components, size, injectables, roots);
+        report(false, components, size, injectables, roots);
+    }
+
+    private static List<Class<?>> loadInjectables(SyntheticApplicationSize size) throws ClassNotFoundException {
+        Map<String, String> sources = new SyntheticApplicationGenerator().generate(size);
+        Map<String, String> injectableSources = new LinkedHashMap<String, String>();
+        for (int i = 0; i < size.getInjectables(); i++) {
+            String name = SyntheticApplicationGenerator.PACKAGE + ".Injectable" + i;
+            injectableSources.put(name, sources.get(name));
+        }
+
+        MemoryClassLoader classLoader = new MemoryClassLoader();
+        if (!classLoader.add(injectableSources, Collections.<Processor>emptyList(), ImmutableList.of("-proc:none"))) {
+            throw new IllegalStateException("Synthetic injectables failed to compile");
+        }
+
+        List<Class<?>> injectables = new ArrayList<Class<?>>();
+        for (String name : injectableSources.keySet()) {
+            injectables.add(classLoader.loadClass(name));
+        }
+        return injectables;
+    }
+
+    private static void report(boolean shared, int components, SyntheticApplicationSize size, List<Class<?>> injectables, List<Class<?>> roots) {
+        long nanos = 0;
+        InjectionSubgraphCache subgraphCache = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            Analysis analysis = analyze(shared, components, size, injectables, roots);
+            nanos += analysis.nanos;
+            subgraphCache = analysis.subgraphCache;
+        }
+        System.out.println(shared + "\t" + components + "\t" + nanos / ROUNDS / 1000000 + "\t" +
+                subgraphCache.getHits() + "\t" + subgraphCache.getMisses());
+    }
+
+    private static Analysis analyze(boolean shared, int components, SyntheticApplicationSize size, List<Class<?>> injectables, List<Class<?>> roots) {
+        Injector injector = TransfuseTestInjector.getInjector(new SubgraphAnalysisBenchmark(),
+                new TransfuseOptions(ImmutableMap.of(TransfuseOptions.SUBGRAPH_CACHE, Boolean.toString(shared))));
+        ASTClassFactory astClassFactory = injector.getInstance(ASTClassFactory.class);
+        InjectionPointFactory injectionPointFactory = injector.getInstance(InjectionPointFactory.class);
+        InjectionNodeBuilderRepositoryFactory repositoryFactory = injector.getInstance(InjectionNodeBuilderRepositoryFactory.class);
+        SimpleAnalysisContextFactory contextFactory = injector.getInstance(SimpleAnalysisContextFactory.class);
+
+        //build the AST up front, only the analysis is measured
+        for (Class<?> injectable : injectables) {
+            ASTType type = astClassFactory.getType(injectable);
+            type.getConstructors();
+            type.getMethods();
+            type.getFields();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < components; i++) {
+            InjectionNodeBuilderRepository repository = injector.getInstance(InjectionNodeBuilderRepository.class);
+            repositoryFactory.addModuleConfiguration(repository);
+            AnalysisContext context = contextFactory.buildContext(repository);
+            for (int j = 0; j < size.getFanOut(); j++) {
+                injectionPointFactory.buildInjectionNode(roots.get((i + j) % roots.size()), context);
+            }
+        }
+        return new Analysis(System.nanoTime() - start, injector.getInstance(InjectionSubgraphCache.class));
+    }
+
+    private static final class Analysis {
+        private final long nanos;
+        private final InjectionSubgraphCache subgraphCache;
+
+        private Analysis(long nanos, InjectionSubgraphCache subgraphCache) {
+            this.nanos = nanos;
+            this.subgraphCache = subgraphCache;
+        }
+    }
+}
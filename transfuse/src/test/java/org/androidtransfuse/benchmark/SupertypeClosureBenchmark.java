@@ -0,0 +1,112 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTSupertypesTest;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.ASTUtils;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+
+import javax.inject.Inject;
+
+/**
+ * Microbenchmark comparing the recursive <code>ASTUtils.inherits()</code> hierarchy walk with the memoized supertype
+ * closure backing <code>ASTType.inheritsFrom()</code>, over the Android component and view hierarchies.
+ * <p/>
+ * Run from the test classpath:
+ * <pre>
+ * java -cp ... org.androidtransfuse.benchmark.SupertypeClosureBenchmark [iterations]
+ * </pre>
+ *
+ * @author John Ericksen
+ */
+public class SupertypeClosureBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 100000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Inject
+    private ASTClassFactory astClassFactory;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+
+        SupertypeClosureBenchmark benchmark = new SupertypeClosureBenchmark();
+        TransfuseTestInjector.inject(benchmark);
+
+        ASTType[] types = benchmark.getTypes(ASTSupertypesTest.HIERARCHY);
+        ASTType[] inheritables = benchmark.getTypes(ASTSupertypesTest.INHERITABLES);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            recursive(types, inheritables, iterations);
+            closure(types, inheritables, iterations);
+        }
+
+        long checks = (long) iterations * types.length * inheritables.length;
+        System.out.println("strategy\tchecks\tns/check");
+        System.out.println("recursive\t" + checks + "\t" + recursive(types, inheritables, iterations) / checks);
+        System.out.println("closure\t" + checks + "\t" + closure(types, inheritables, iterations) / checks);
+    }
+
+    private ASTType[] getTypes(Class<?>[] classes) {
+        ASTType[] types = new ASTType[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            types[i] = astClassFactory.getType(classes[i]);
+        }
+        return types;
+    }
+
+    private static long recursive(ASTType[] types, ASTType[] inheritables, int iterations) {
+        ASTUtils astUtils = ASTUtils.getInstance();
+        int matches = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (ASTType type : types) {
+                for (ASTType inheritable : inheritables) {
+                    if (astUtils.inherits(type, inheritable, true, true)) {
+                        matches++;
+                    }
+                }
+            }
+        }
+        return report(start, matches);
+    }
+
+    private static long closure(ASTType[] types, ASTType[] inheritables, int iterations) {
+        int matches = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (ASTType type : types) {
+                for (ASTType inheritable : inheritables) {
+                    if (type.inheritsFrom(inheritable)) {
+                        matches++;
+                    }
+                }
+            }
+        }
+        return report(start, matches);
+    }
+
+    private static long report(long start, int matches) {
+        long nanos = System.nanoTime() - start;
+        //consume the result so the checks are not eliminated
+        if (matches < 0) {
+            System.out.println(matches);
+        }
+        return nanos;
+    }
+}
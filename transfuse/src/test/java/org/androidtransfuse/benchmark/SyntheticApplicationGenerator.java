@@ -0,0 +1,219 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Procedurally generates the sources of a synthetic Transfuse application of the given size.
+ * <p/>
+ * Injectable types are arranged in <code>depth</code> levels, each type depending on <code>fanOut</code> types of
+ * the next level through a rotating mix of constructor, field and method injection.  Components inject the first
+ * level along with the interface bound (@Bind) and the type provided (@Provides) by one of the modules.  Each @Parcel
+ * type references the previous one, building a chain of nested parcels.
+ *
+ * @author John Ericksen
+ */
+public class SyntheticApplicationGenerator {
+
+    public static final String PACKAGE = "example.synthetic";
+
+    public static final String MANIFEST =
+            "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+            "<manifest xmlns:android=\"http://schemas.android.com/apk/res/android\" package=\"" + PACKAGE + "\">\n" +
+            "    <application android:label=\"Synthetic\"/>\n" +
+            "</manifest>\n";
+
+    public Map<String, String> generate(SyntheticApplicationSize size) {
+        Map<String, String> sources = new LinkedHashMap<String, String>();
+
+        List<List<Integer>> levels = buildLevels(size);
+
+        for (int i = 0; i < size.getInjectables(); i++) {
+            add(sources, "Injectable" + i, buildInjectable(i, dependencies(i, levels, size)));
+        }
+        for (int i = 0; i < size.getModules(); i++) {
+            int dependency = levels.get(0).get(i % levels.get(0).size());
+            add(sources, "Bound" + i, "public interface Bound" + i + " {}\n");
+            add(sources, "Bound" + i + "Impl", buildBoundImpl(i, dependency));
+            add(sources, "Provided" + i, buildProvided(i, dependency));
+            add(sources, "SyntheticModule" + i, buildModule(i, dependency));
+        }
+        for (int i = 0; i < size.getActivities(); i++) {
+            add(sources, "SyntheticActivity" + i, buildComponent("SyntheticActivity" + i,
+                    "@Activity(label = \"Activity " + i + "\")\n", "@OnCreate\n    public void onCreate()", i, levels, size));
+        }
+        for (int i = 0; i < size.getFragments(); i++) {
+            add(sources, "SyntheticFragment" + i, buildComponent("SyntheticFragment" + i,
+                    "@Fragment\n", "@OnActivityCreated\n    public void onActivityCreated()", i, levels, size));
+        }
+        for (int i = 0; i < size.getServices(); i++) {
+            add(sources, "SyntheticService" + i, buildComponent("SyntheticService" + i,
+                    "@Service\n", "@OnCreate\n    public void onCreate()", i, levels, size));
+        }
+        for (int i = 0; i < size.getReceivers(); i++) {
+            add(sources, "SyntheticReceiver" + i, buildComponent("SyntheticReceiver" + i,
+                    "@BroadcastReceiver\n@Intent(type = IntentType.ACTION, name = \"SyntheticReceiver" + i + "\")\n",
+                    "@OnReceive\n    public void onReceive()", i, levels, size));
+        }
+        for (int i = 0; i < size.getParcels(); i++) {
+            add(sources, "SyntheticParcel" + i, buildParcel(i));
+        }
+
+        return sources;
+    }
+
+    private void add(Map<String, String> sources, String name, String body) {
+        sources.put(PACKAGE + "." + name,
+                "package " + PACKAGE + ";\n\n" +
+                "import org.androidtransfuse.annotations.*;\n" +
+                "import javax.inject.Inject;\n\n" +
+                body);
+    }
+
+    private List<List<Integer>> buildLevels(SyntheticApplicationSize size) {
+        List<List<Integer>> levels = new ArrayList<List<Integer>>();
+        for (int i = 0; i < size.getDepth(); i++) {
+            levels.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < size.getInjectables(); i++) {
+            levels.get((int) ((long) i * size.getDepth() / size.getInjectables())).add(i);
+        }
+        return levels;
+    }
+
+    private List<Integer> dependencies(int index, List<List<Integer>> levels, SyntheticApplicationSize size) {
+        List<Integer> dependencies = new ArrayList<Integer>();
+        int level = (int) ((long) index * size.getDepth() / size.getInjectables());
+        if (level + 1 < levels.size()) {
+            List<Integer> next = levels.get(level + 1);
+            for (int i = 0; i < size.getFanOut() && i < next.size(); i++) {
+                dependencies.add(next.get((index * size.getFanOut() + i) % next.size()));
+            }
+        }
+        return dependencies;
+    }
+
+    private String buildInjectable(int index, List<Integer> dependencies) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("public class Injectable").append(index).append(" {\n");
+        switch (index % 3) {
+            case 0:
+                //constructor injection
+                for (int dependency : dependencies) {
+                    builder.append("    private final Injectable").append(dependency).append(" dependency").append(dependency).append(";\n");
+                }
+                builder.append("    @Inject\n    public Injectable").append(index).append("(");
+                for (int i = 0; i < dependencies.size(); i++) {
+                    if (i > 0) {
+                        builder.append(", ");
+                    }
+                    builder.append("Injectable").append(dependencies.get(i)).append(" dependency").append(dependencies.get(i));
+                }
+                builder.append(") {\n");
+                for (int dependency : dependencies) {
+                    builder.append("        this.dependency").append(dependency).append(" = dependency").append(dependency).append(";\n");
+                }
+                builder.append("    }\n");
+                break;
+            case 1:
+                //field injection
+                for (int dependency : dependencies) {
+                    builder.append("    @Inject\n    private Injectable").append(dependency).append(" dependency").append(dependency).append(";\n");
+                }
+                break;
+            default:
+                //method injection
+                for (int dependency : dependencies) {
+                    builder.append("    private Injectable").append(dependency).append(" dependency").append(dependency).append(";\n");
+                    builder.append("    @Inject\n    public void setDependency").append(dependency).append("(Injectable").append(dependency).append(" dependency) {\n");
+                    builder.append("        this.dependency").append(dependency).append(" = dependency;\n    }\n");
+                }
+        }
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    private String buildBoundImpl(int index, int dependency) {
+        return "public class Bound" + index + "Impl implements Bound" + index + " {\n" +
+                "    private final Injectable" + dependency + " dependency;\n" +
+                "    @Inject\n" +
+                "    public Bound" + index + "Impl(Injectable" + dependency + " dependency) {\n" +
+                "        this.dependency = dependency;\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    private String buildProvided(int index, int dependency) {
+        return "public class Provided" + index + " {\n" +
+                "    private final Injectable" + dependency + " dependency;\n" +
+                "    public Provided" + index + "(Injectable" + dependency + " dependency) {\n" +
+                "        this.dependency = dependency;\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    private String buildModule(int index, int dependency) {
+        return "@TransfuseModule\n" +
+                "@Bindings({@Bind(type = Bound" + index + ".class, to = Bound" + index + "Impl.class)})\n" +
+                "public class SyntheticModule" + index + " {\n" +
+                "    @Provides\n" +
+                "    public Provided" + index + " getProvided" + index + "(Injectable" + dependency + " dependency) {\n" +
+                "        return new Provided" + index + "(dependency);\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    private String buildComponent(String name, String annotations, String lifecycleMethod, int index,
+                                  List<List<Integer>> levels, SyntheticApplicationSize size) {
+        List<Integer> roots = levels.get(0);
+        StringBuilder builder = new StringBuilder();
+        builder.append(annotations).append("public class ").append(name).append(" {\n");
+        for (int i = 0; i < size.getFanOut() && i < roots.size(); i++) {
+            int root = roots.get((index + i) % roots.size());
+            builder.append("    @Inject\n    private Injectable").append(root).append(" injectable").append(root).append(";\n");
+        }
+        if (size.getModules() > 0) {
+            int module = index % size.getModules();
+            builder.append("    @Inject\n    private Bound").append(module).append(" bound;\n");
+            builder.append("    @Inject\n    private Provided").append(module).append(" provided;\n");
+        }
+        builder.append("    ").append(lifecycleMethod).append(" {}\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    private String buildParcel(int index) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("@Parcel\npublic class SyntheticParcel").append(index).append(" {\n");
+        builder.append("    private String name;\n    private int count;\n");
+        builder.append("    public String getName() { return name; }\n");
+        builder.append("    public void setName(String name) { this.name = name; }\n");
+        builder.append("    public int getCount() { return count; }\n");
+        builder.append("    public void setCount(int count) { this.count = count; }\n");
+        if (index > 0) {
+            String previous = "SyntheticParcel" + (index - 1);
+            builder.append("    private ").append(previous).append(" previous;\n");
+            builder.append("    public ").append(previous).append(" getPrevious() { return previous; }\n");
+            builder.append("    public void setPrevious(").append(previous).append(" previous) { this.previous = previous; }\n");
+        }
+        builder.append("}\n");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.benchmark;
+
+/**
+ * Shape of a procedurally generated application compiled by the CompileBenchmark.
+ *
+ * @author John Ericksen
+ */
+public class SyntheticApplicationSize {
+
+    private final int activities;
+    private final int fragments;
+    private final int services;
+    private final int receivers;
+    private final int injectables;
+    private final int depth;
+    private final int fanOut;
+    private final int modules;
+    private final int parcels;
+
+    public SyntheticApplicationSize(int activities, int fragments, int services, int receivers,
+                                    int injectables, int depth, int fanOut, int modules, int parcels) {
+        this.activities = activities;
+        this.fragments = fragments;
+        this.services = services;
+        this.receivers = receivers;
+        this.injectables = Math.max(injectables, depth);
+        this.depth = Math.max(depth, 1);
+        this.fanOut = Math.max(fanOut, 1);
+        this.modules = modules;
+        this.parcels = parcels;
+    }
+
+    /**
+     * Builds a size growing linearly with the given scale: per unit of scale, 4 activities, 2 fragments, 1 service,
+     * 1 receiver, 20 injectable types, 1 module and 5 @Parcel types.  Graph depth and fan-out are held constant.
+     *
+     * @param scale size multiplier
+     * @return size
+     */
+    public static SyntheticApplicationSize scaled(int scale) {
+        return new SyntheticApplicationSize(4 * scale, 2 * scale, scale, scale, 20 * scale, 5, 3, scale, 5 * scale);
+    }
+
+    public int getActivities() {
+        return activities;
+    }
+
+    public int getFragments() {
+        return fragments;
+    }
+
+    public int getServices() {
+        return services;
+    }
+
+    public int getReceivers() {
+        return receivers;
+    }
+
+    public int getInjectables() {
+        return injectables;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    public int getModules() {
+        return modules;
+    }
+
+    public int getParcels() {
+        return parcels;
+    }
+
+    @Override
+    public String toString() {
+        return "activities=" + activities + " fragments=" + fragments + " services=" + services +
+                " receivers=" + receivers + " injectables=" + injectables + " depth=" + depth +
+                " fanOut=" + fanOut + " modules=" + modules + " parcels=" + parcels;
+    }
+}
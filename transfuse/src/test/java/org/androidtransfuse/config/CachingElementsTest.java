@@ -0,0 +1,131 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.config;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author John Ericksen
+ */
+public class CachingElementsTest {
+
+    private static final String TYPE_NAME = "org.test.Type";
+    private static final String MISSING_NAME = "org.test.Missing";
+
+    private CachingElements cachingElements;
+    private Elements mockElements;
+    private TypeElement typeElement;
+
+    @Before
+    public void setUp() {
+        mockElements = mock(Elements.class);
+        typeElement = mock(TypeElement.class);
+
+        when(mockElements.getTypeElement(TYPE_NAME)).thenReturn(typeElement);
+
+        cachingElements = new CachingElements(mockElements);
+    }
+
+    @Test
+    public void testMemoized() {
+        assertSame(typeElement, cachingElements.getTypeElement(TYPE_NAME));
+        assertSame(typeElement, cachingElements.getTypeElement(new StringBuilder(TYPE_NAME)));
+
+        verify(mockElements, times(1)).getTypeElement(TYPE_NAME);
+    }
+
+    @Test
+    public void testMissNotCached() {
+        assertNull(cachingElements.getTypeElement(MISSING_NAME));
+        assertNull(cachingElements.getTypeElement(MISSING_NAME));
+
+        verify(mockElements, times(2)).getTypeElement(MISSING_NAME);
+    }
+
+    @Test
+    public void testClear() {
+        PackageElement packageElement = mock(PackageElement.class);
+        when(mockElements.getPackageOf(typeElement)).thenReturn(packageElement);
+
+        cachingElements.getTypeElement(TYPE_NAME);
+        cachingElements.getPackageOf(typeElement);
+        cachingElements.clear();
+        cachingElements.getTypeElement(TYPE_NAME);
+        assertSame(packageElement, cachingElements.getPackageOf(typeElement));
+
+        verify(mockElements, times(2)).getTypeElement(TYPE_NAME);
+        verify(mockElements, times(2)).getPackageOf(typeElement);
+    }
+
+    @Test
+    public void testConcurrentLookupResolvedOnce() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        when(mockElements.getTypeElement(TYPE_NAME)).thenAnswer(new Answer<TypeElement>() {
+            @Override
+            public TypeElement answer(InvocationOnMock invocation) throws Throwable {
+                release.await();
+                return typeElement;
+            }
+        });
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TypeElement>> futures = new ArrayList<Future<TypeElement>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(new Callable<TypeElement>() {
+                    @Override
+                    public TypeElement call() {
+                        return cachingElements.getTypeElement(TYPE_NAME);
+                    }
+                }));
+            }
+            release.countDown();
+
+            for (Future<TypeElement> future : futures) {
+                assertSame(typeElement, future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        verify(mockElements, times(1)).getTypeElement(TYPE_NAME);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailureNotCached() {
+        when(mockElements.getTypeElement(MISSING_NAME)).thenThrow(new IllegalStateException());
+
+        try {
+            cachingElements.getTypeElement(MISSING_NAME);
+        } finally {
+            reset(mockElements);
+            assertNull(cachingElements.getTypeElement(MISSING_NAME));
+        }
+    }
+}
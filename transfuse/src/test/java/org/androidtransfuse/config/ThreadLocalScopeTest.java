@@ -21,6 +21,11 @@ import com.google.inject.Provider;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static org.junit.Assert.*;
 
 /**
@@ -124,4 +129,37 @@ public class ThreadLocalScopeTest {
 
         scope.exit();
     }
+
+    @Test
+    public void testWrap() throws Exception {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+        scope.enter();
+
+        Callable<ScopedTarget> scoped = scope.wrap(new Callable<ScopedTarget>() {
+            @Override
+            public ScopedTarget call() {
+                return provider.get();
+            }
+        });
+
+        assertEquals(target, executorService.submit(scoped).get());
+
+        scope.exit();
+
+        //the executor thread leaves the scoping block once the Callable completes
+        try {
+            executorService.submit(new Callable<ScopedTarget>() {
+                @Override
+                public ScopedTarget call() {
+                    return provider.get();
+                }
+            }).get();
+            assertTrue(false);
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof OutOfScopeException);
+        }
+
+        executorService.shutdown();
+    }
 }
@@ -16,6 +16,8 @@
 package org.androidtransfuse.gen;
 
 import com.sun.codemodel.JCodeModel;
+import org.androidtransfuse.util.Tracer;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -25,7 +27,6 @@ import javax.tools.StandardLocation;
 import java.io.IOException;
 import java.io.OutputStream;
 
-import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,12 +36,14 @@ public class FilerResourceWriterTest {
 
     private static final String TEST_PACKAGE = "org.test";
     private static final String TEST_FILENAME = "Tester";
+    private static final byte[] CONTENT = "content".getBytes();
 
     private FilerResourceWriter resourceWriter;
     private Filer mockFiler;
     private FileObject mockFile;
     private OutputStream mockOutputStream;
     private JCodeModel codeModel;
+    private FilerWriter filerWriter;
 
     @Before
     public void setUp() throws Exception {
@@ -48,7 +51,8 @@ public class FilerResourceWriterTest {
         mockFile = mock(FileObject.class);
         mockOutputStream = mock(OutputStream.class);
 
-        resourceWriter = new FilerResourceWriter(mockFiler);
+        filerWriter = new FilerWriter(mockFiler, 4, new Tracer());
+        resourceWriter = new FilerResourceWriter(filerWriter, new OriginatingElements());
         codeModel = new JCodeModel();
     }
 
@@ -58,10 +62,16 @@ public class FilerResourceWriterTest {
         when(mockFiler.createResource(StandardLocation.SOURCE_OUTPUT, TEST_PACKAGE, TEST_FILENAME)).thenReturn(mockFile);
         when(mockFile.openOutputStream()).thenReturn(mockOutputStream);
 
-        assertEquals(mockOutputStream, resourceWriter.openBinary(codeModel._package(TEST_PACKAGE), TEST_FILENAME));
+        resourceWriter.openBinary(codeModel._package(TEST_PACKAGE), TEST_FILENAME).write(CONTENT);
 
         resourceWriter.close();
+        verify(mockOutputStream).write(CONTENT);
         verify(mockOutputStream).flush();
         verify(mockOutputStream).close();
     }
+
+    @After
+    public void tearDown() {
+        filerWriter.shutdown();
+    }
 }
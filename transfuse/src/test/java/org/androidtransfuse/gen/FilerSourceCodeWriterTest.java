@@ -16,6 +16,8 @@
 package org.androidtransfuse.gen;
 
 import com.sun.codemodel.JCodeModel;
+import org.androidtransfuse.util.Tracer;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -24,7 +26,6 @@ import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.OutputStream;
 
-import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.*;
 
 /**
@@ -34,12 +35,14 @@ public class FilerSourceCodeWriterTest {
 
     private static final String TEST_PACKAGE = "org.test";
     private static final String TEST_CLASS = "Tester";
+    private static final byte[] CONTENT = "content".getBytes();
 
     private FilerSourceCodeWriter codeWriter;
     private Filer mockFiler;
     private JavaFileObject mockFile;
     private OutputStream mockOutputStream;
     private JCodeModel codeModel;
+    private FilerWriter filerWriter;
 
     @Before
     public void setUp() throws Exception {
@@ -47,7 +50,8 @@ public class FilerSourceCodeWriterTest {
         mockFile = mock(JavaFileObject.class);
         mockOutputStream = mock(OutputStream.class);
 
-        codeWriter = new FilerSourceCodeWriter(mockFiler);
+        filerWriter = new FilerWriter(mockFiler, 4, new Tracer());
+        codeWriter = new FilerSourceCodeWriter(filerWriter, new OriginatingElements());
         codeModel = new JCodeModel();
     }
 
@@ -57,10 +61,28 @@ public class FilerSourceCodeWriterTest {
         when(mockFiler.createSourceFile(TEST_PACKAGE + "." + TEST_CLASS)).thenReturn(mockFile);
         when(mockFile.openOutputStream()).thenReturn(mockOutputStream);
 
-        assertEquals(mockOutputStream, codeWriter.openBinary(codeModel._package(TEST_PACKAGE), TEST_CLASS));
+        OutputStream outputStream = codeWriter.openBinary(codeModel._package(TEST_PACKAGE), TEST_CLASS);
+        outputStream.write(CONTENT);
+
+        verify(mockFiler, never()).createSourceFile(anyString());
 
         codeWriter.close();
+        verify(mockOutputStream).write(CONTENT);
         verify(mockOutputStream).flush();
         verify(mockOutputStream).close();
     }
+
+    @Test(expected = IOException.class)
+    public void testWriteFailure() throws IOException {
+
+        when(mockFiler.createSourceFile(TEST_PACKAGE + "." + TEST_CLASS)).thenThrow(new IOException());
+
+        codeWriter.openBinary(codeModel._package(TEST_PACKAGE), TEST_CLASS).write(CONTENT);
+        codeWriter.close();
+    }
+
+    @After
+    public void tearDown() {
+        filerWriter.shutdown();
+    }
 }
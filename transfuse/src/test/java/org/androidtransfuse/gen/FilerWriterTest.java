@@ -0,0 +1,209 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.gen;
+
+import org.androidtransfuse.util.Tracer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author John Ericksen
+ */
+public class FilerWriterTest {
+
+    private static final Map<String, byte[]> EMPTY = Collections.emptyMap();
+
+    private FilerWriter filerWriter;
+    private Filer mockFiler;
+
+    @Before
+    public void setUp() throws IOException {
+        mockFiler = mock(Filer.class);
+        when(mockFiler.createSourceFile(anyString())).thenAnswer(new FileAnswer());
+
+        filerWriter = new FilerWriter(mockFiler, 8, new Tracer());
+    }
+
+    @After
+    public void tearDown() {
+        filerWriter.shutdown();
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        filerWriter.write(source("test/First.java"), EMPTY);
+
+        verify(mockFiler).createSourceFile("test.First");
+        assertEquals(1, filerWriter.getFilesWritten());
+        assertEquals(0, filerWriter.getQueueDepth());
+    }
+
+    @Test
+    public void testOriginatingElements() throws IOException {
+        Element first = mock(TypeElement.class);
+        Element second = mock(TypeElement.class);
+        when(mockFiler.createSourceFile("test.Origin", first, second)).thenAnswer(new FileAnswer());
+
+        filerWriter.write(source("test/Origin.java"), EMPTY, new Element[]{first, second});
+
+        verify(mockFiler).createSourceFile("test.Origin", first, second);
+        assertEquals(1, filerWriter.getFilesWritten());
+    }
+
+    @Test
+    public void testDrainedBatchWrittenInPathOrder() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(mockFiler.createSourceFile("test.Blocking")).thenAnswer(new Answer<JavaFileObject>() {
+            @Override
+            public JavaFileObject answer(InvocationOnMock invocation) throws Throwable {
+                blocked.countDown();
+                release.await();
+                return new FileAnswer().answer(invocation);
+            }
+        });
+
+        Future<Void> blocking = filerWriter.submit(source("test/Blocking.java"), EMPTY);
+        blocked.await();
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        futures.add(filerWriter.submit(source("test/C.java"), EMPTY));
+        futures.add(filerWriter.submit(source("test/A.java"), EMPTY));
+        futures.add(filerWriter.submit(source("test/B.java"), EMPTY));
+
+        assertEquals(3, filerWriter.getQueueDepth());
+        assertEquals(3, filerWriter.getMaxQueueDepth());
+
+        release.countDown();
+        blocking.get();
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+
+        InOrder inOrder = inOrder(mockFiler);
+        inOrder.verify(mockFiler).createSourceFile("test.Blocking");
+        inOrder.verify(mockFiler).createSourceFile("test.A");
+        inOrder.verify(mockFiler).createSourceFile("test.B");
+        inOrder.verify(mockFiler).createSourceFile("test.C");
+        assertEquals(4, filerWriter.getFilesWritten());
+    }
+
+    @Test
+    public void testFailureReportedToSubmitter() throws Exception {
+        when(mockFiler.createSourceFile("test.Failing")).thenThrow(new IOException("failed"));
+
+        Future<Void> failing = filerWriter.submit(source("test/Failing.java"), EMPTY);
+        Future<Void> succeeding = filerWriter.submit(source("test/Succeeding.java"), EMPTY);
+
+        try {
+            failing.get();
+            fail("Expected write failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        succeeding.get();
+
+        verify(mockFiler).createSourceFile("test.Succeeding");
+    }
+
+    @Test
+    public void testErrorReportedToSubmitter() throws Exception {
+        when(mockFiler.createSourceFile("test.Error")).thenThrow(new AssertionError("error"));
+
+        try {
+            filerWriter.write(source("test/Error.java"), EMPTY);
+            fail("Expected write failure");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof AssertionError);
+        }
+
+        //the writer thread survives the failed batch
+        filerWriter.write(source("test/Next.java"), EMPTY);
+        verify(mockFiler).createSourceFile("test.Next");
+    }
+
+    @Test
+    public void testSubmitRacingShutdown() throws Exception {
+        final List<Future<Void>> futures = Collections.synchronizedList(new ArrayList<Future<Void>>());
+        Thread submitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        futures.add(filerWriter.submit(source("test/Race" + i + ".java"), EMPTY));
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        });
+        submitter.start();
+        filerWriter.shutdown();
+        submitter.join();
+
+        //every request is either written or rejected, none is left queued behind the shutdown
+        for (Future<Void> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteAfterShutdown() throws IOException {
+        filerWriter.shutdown();
+
+        filerWriter.write(source("test/Late.java"), EMPTY);
+    }
+
+    private Map<String, byte[]> source(String path) {
+        return Collections.singletonMap(path, path.getBytes());
+    }
+
+    private static final class FileAnswer implements Answer<JavaFileObject> {
+        @Override
+        public JavaFileObject answer(InvocationOnMock invocation) throws Throwable {
+            JavaFileObject file = mock(JavaFileObject.class);
+            when(file.openOutputStream()).thenReturn(new ByteArrayOutputStream());
+            return file;
+        }
+    }
+}
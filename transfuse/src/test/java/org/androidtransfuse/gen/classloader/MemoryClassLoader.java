@@ -15,6 +15,7 @@
  */
 package org.androidtransfuse.gen.classloader;
 
+import javax.annotation.processing.Processor;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.ToolProvider;
@@ -42,6 +43,45 @@ public class MemoryClassLoader extends ClassLoader {
         this.compiler.getTask(null, this.manager, null, null, null, list).call();
     }
 
+    /**
+     * Compiles the given sources, running the given annotation processors with the given compiler options.
+     *
+     * @return compilation success
+     */
+    public boolean add(Map<String, String> map, Iterable<? extends Processor> processors, Iterable<String> options) {
+        List<Source> list = new ArrayList<Source>();
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            list.add(new Source(entry.getKey(), JavaFileObject.Kind.SOURCE, entry.getValue()));
+        }
+        JavaCompiler.CompilationTask task = this.compiler.getTask(null, this.manager, null, options, null, list);
+        task.setProcessors(processors);
+        return task.call();
+    }
+
+    /**
+     * Returns the content of a source file generated during compilation, or null if no such file was generated.
+     */
+    public String getGeneratedSource(String classname) {
+        synchronized (this.manager) {
+            Output output = this.manager.sources.get(classname);
+            if (output == null) {
+                return null;
+            }
+            return output.getCharContent(true).toString();
+        }
+    }
+
+    /**
+     * Returns the names of the source files generated during compilation, in order.
+     */
+    public List<String> getGeneratedSourceNames() {
+        synchronized (this.manager) {
+            List<String> names = new ArrayList<String>(this.manager.sources.keySet());
+            Collections.sort(names);
+            return names;
+        }
+    }
+
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
         synchronized (this.manager) {
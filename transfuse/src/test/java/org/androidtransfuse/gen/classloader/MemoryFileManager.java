@@ -21,6 +21,7 @@ import java.util.Map;
 
 class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
     public final Map<String, Output> map = new HashMap<String, Output>();
+    public final Map<String, Output> sources = new HashMap<String, Output>();
 
     MemoryFileManager(JavaCompiler compiler) {
         super(compiler.getStandardFileManager(null, null, null));
@@ -31,6 +32,9 @@ class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
             (Location location, String name, JavaFileObject.Kind kind, FileObject source) {
         Output mc = new Output(name, kind);
         this.map.put(name, mc);
+        if (kind == JavaFileObject.Kind.SOURCE) {
+            this.sources.put(name, mc);
+        }
         return mc;
     }
 }
\ No newline at end of file
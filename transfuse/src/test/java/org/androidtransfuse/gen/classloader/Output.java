@@ -30,6 +30,11 @@ class Output extends SimpleJavaFileObject {
         return this.outputStream.toByteArray();
     }
 
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return new String(toByteArray());
+    }
+
     @Override
     public ByteArrayOutputStream openOutputStream() {
         return this.outputStream;
@@ -17,6 +17,7 @@ package org.androidtransfuse.processor;
 
 import com.sun.codemodel.CodeWriter;
 import com.sun.codemodel.JCodeModel;
+import org.androidtransfuse.util.Tracer;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -50,7 +51,7 @@ public class CodeGenerationScopedTransactionWorkerTest {
         mockResourceWriter = mock(CodeWriter.class);
         mockWorker = mock(TransactionWorker.class);
 
-        worker = new CodeGenerationScopedTransactionWorker<Object, Object>(mockCodeModel, mockCodeWriter, mockResourceWriter, mockWorker);
+        worker = new CodeGenerationScopedTransactionWorker<Object, Object>(mockCodeModel, mockCodeWriter, mockResourceWriter, mockWorker, new Tracer());
     }
 
     @Test
@@ -0,0 +1,324 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import com.google.common.collect.ImmutableList;
+import org.androidtransfuse.ParcelAnnotationProcessor;
+import org.androidtransfuse.TransfuseAnnotationProcessor;
+import org.androidtransfuse.benchmark.SyntheticApplicationGenerator;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.androidtransfuse.gen.classloader.MemoryClassLoader;
+import org.androidtransfuse.util.Tracer;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compiles a @Parcel and an @Injector depending on types generated in later rounds by another annotation processor, in
+ * the style of the integrationTestGenerator ProxyGenerator.
+ *
+ * @author John Ericksen
+ */
+public class DeferredTransactionTest {
+
+    private static final String TARGET = "example.round.RoundTarget";
+
+    private static final String SOURCE =
+            "package example.round;\n" +
+            "@org.androidtransfuse.annotations.Parcel\n" +
+            "public class RoundTarget {\n" +
+            "    private GeneratedTarget value;\n" +
+            "    public GeneratedTarget getValue() { return value; }\n" +
+            "    public void setValue(GeneratedTarget value) { this.value = value; }\n" +
+            "}\n";
+
+    private static final String GENERATED_TARGET = "example.round.GeneratedTarget";
+
+    private static final String GENERATED_SOURCE =
+            "package example.round;\n" +
+            "@org.androidtransfuse.annotations.Parcel\n" +
+            "public class GeneratedTarget {\n" +
+            "    private String name;\n" +
+            "    public String getName() { return name; }\n" +
+            "    public void setName(String name) { this.name = name; }\n" +
+            "}\n";
+
+    private static final String INJECTOR = "example.round.RoundInjector";
+
+    private static final String INJECTOR_SOURCE =
+            "package example.round;\n" +
+            "@org.androidtransfuse.annotations.Injector\n" +
+            "public interface RoundInjector {\n" +
+            "    GeneratedDependency getDependency();\n" +
+            "}\n";
+
+    private static final String GENERATED_DEPENDENCY = "example.round.GeneratedDependency";
+
+    private static final String GENERATED_DEPENDENCY_SOURCE =
+            "package example.round;\n" +
+            "public class GeneratedDependency {}\n";
+
+    private static final String GENERIC_INJECTOR = "example.round.GenericInjector";
+
+    private static final String GENERIC_INJECTOR_SOURCE =
+            "package example.round;\n" +
+            "@org.androidtransfuse.annotations.Injector\n" +
+            "public interface GenericInjector {\n" +
+            "    GeneratedGeneric<String> getGeneric();\n" +
+            "}\n";
+
+    private static final String GENERATED_GENERIC = "example.round.GeneratedGeneric";
+
+    private static final String GENERATED_GENERIC_SOURCE =
+            "package example.round;\n" +
+            "public class GeneratedGeneric<T> {}\n";
+
+    private static final String UNBOUND_INJECTOR = "example.round.UnboundInjector";
+
+    private static final String UNBOUND_INJECTOR_SOURCE =
+            "package example.round;\n" +
+            "@org.androidtransfuse.annotations.Injector\n" +
+            "public interface UnboundInjector {\n" +
+            "    Runnable getRunnable();\n" +
+            "}\n";
+
+    private File traceDirectory;
+    private File manifestDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        traceDirectory = File.createTempFile("trace", "");
+        assertTrue(traceDirectory.delete());
+        manifestDirectory = File.createTempFile("manifest", "");
+        assertTrue(manifestDirectory.delete());
+        assertTrue(manifestDirectory.mkdirs());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(traceDirectory);
+        FileUtils.deleteDirectory(manifestDirectory);
+    }
+
+    @Test
+    public void testRetriedWhenDependencyGenerated() throws IOException {
+        MemoryClassLoader classLoader = new MemoryClassLoader();
+
+        boolean success = classLoader.add(Collections.singletonMap(TARGET, SOURCE),
+                ImmutableList.of(new RoundGenerator(), new ParcelAnnotationProcessor()),
+                ImmutableList.of("-A" + TransfuseOptions.TRACE + "=" + traceDirectory.getAbsolutePath()));
+
+        assertTrue(success);
+        assertNotNull(classLoader.getGeneratedSource(TARGET + "$$Parcelable"));
+        assertNotNull(classLoader.getGeneratedSource(GENERATED_TARGET + "$$Parcelable"));
+
+        //analysed in the first round and once GeneratedTarget appeared, skipped in the round between
+        String trace = FileUtils.readFileToString(new File(traceDirectory, "parcel-trace.json"));
+        assertEquals(2, count(trace, "{\"name\":\"" + TARGET + "\",\"cat\":\"" + Tracer.TRANSACTION + "\""));
+    }
+
+    @Test
+    public void testOutputMatchesSingleRound() {
+        MemoryClassLoader multiRoundClassLoader = new MemoryClassLoader();
+        assertTrue(multiRoundClassLoader.add(Collections.singletonMap(TARGET, SOURCE),
+                ImmutableList.of(new RoundGenerator(), new ParcelAnnotationProcessor()),
+                Collections.<String>emptyList()));
+
+        Map<String, String> sources = new HashMap<String, String>();
+        sources.put(TARGET, SOURCE);
+        sources.put(GENERATED_TARGET, GENERATED_SOURCE);
+        MemoryClassLoader singleRoundClassLoader = new MemoryClassLoader();
+        assertTrue(singleRoundClassLoader.add(sources,
+                ImmutableList.of(new ParcelAnnotationProcessor()),
+                Collections.<String>emptyList()));
+
+        //types reused from the first round generate the same output as types built in a single round
+        for (String parcelable : ImmutableList.of(TARGET + "$$Parcelable", GENERATED_TARGET + "$$Parcelable")) {
+            assertEquals(withoutDate(singleRoundClassLoader.getGeneratedSource(parcelable)),
+                    withoutDate(multiRoundClassLoader.getGeneratedSource(parcelable)));
+        }
+    }
+
+    @Test
+    public void testComponentRetriedInRoundWithoutTransfuseAnnotations() throws IOException {
+        MemoryClassLoader classLoader = new MemoryClassLoader();
+
+        //GeneratedDependency is the only type of the second round, which brings no Transfuse annotations
+        boolean success = classLoader.add(Collections.singletonMap(INJECTOR, INJECTOR_SOURCE),
+                ImmutableList.of(new ComponentGenerator(0, GENERATED_DEPENDENCY, GENERATED_DEPENDENCY_SOURCE),
+                        new TransfuseAnnotationProcessor()),
+                componentOptions());
+
+        assertTrue(success);
+        assertNotNull(classLoader.getGeneratedSource(INJECTOR + "Impl"));
+    }
+
+    @Test
+    public void testComponentRetriedWhenGenericDependencyGenerated() throws Exception {
+        MemoryClassLoader classLoader = new MemoryClassLoader();
+
+        boolean success = classLoader.add(Collections.singletonMap(GENERIC_INJECTOR, GENERIC_INJECTOR_SOURCE),
+                ImmutableList.of(new ComponentGenerator(1, GENERATED_GENERIC, GENERATED_GENERIC_SOURCE),
+                        new TransfuseAnnotationProcessor()),
+                componentOptions());
+
+        assertTrue(success);
+        assertNotNull(classLoader.getGeneratedSource(GENERIC_INJECTOR + "Impl"));
+        //retried in the round GeneratedGeneric appeared rather than the final round, so the injector was compiled
+        assertNotNull(classLoader.loadClass(GENERIC_INJECTOR + "Impl"));
+    }
+
+    @Test
+    public void testIncompleteComponentReportedInFinalRound() throws IOException {
+        MemoryClassLoader classLoader = new MemoryClassLoader();
+
+        //Runnable has no binding, the injector transaction never completes and fails the final round
+        boolean success;
+        try {
+            success = classLoader.add(Collections.singletonMap(UNBOUND_INJECTOR, UNBOUND_INJECTOR_SOURCE),
+                    ImmutableList.of(new TransfuseAnnotationProcessor()),
+                    componentOptions());
+        } catch (RuntimeException e) {
+            success = false;
+        }
+
+        assertFalse(success);
+        assertNull(classLoader.getGeneratedSource(UNBOUND_INJECTOR + "Impl"));
+    }
+
+    private List<String> componentOptions() throws IOException {
+        File manifest = new File(manifestDirectory, "AndroidManifest.xml");
+        FileUtils.writeStringToFile(manifest, SyntheticApplicationGenerator.MANIFEST);
+
+        List<String> options = new ArrayList<String>();
+        options.add("-A" + TransfuseOptions.MANIFEST + "=" + manifest.getAbsolutePath());
+        return options;
+    }
+
+    private String withoutDate(String source) {
+        assertNotNull(source);
+        return source.replaceAll("date = \"[^\"]*\"", "");
+    }
+
+    private int count(String input, String value) {
+        int count = 0;
+        int index = input.indexOf(value);
+        while (index != -1) {
+            count++;
+            index = input.indexOf(value, index + value.length());
+        }
+        return count;
+    }
+
+    /**
+     * Generates an unrelated type in the first round and the @Parcel dependency of RoundTarget in the second.
+     */
+    @SupportedAnnotationTypes("org.androidtransfuse.annotations.Parcel")
+    @SupportedSourceVersion(SourceVersion.RELEASE_6)
+    public static class RoundGenerator extends AbstractProcessor {
+
+        private int round = 0;
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            try {
+                if (round == 0) {
+                    write("example.round.Intermediate",
+                            "package example.round;\n" +
+                            "public class Intermediate {}\n");
+                } else if (round == 1) {
+                    write(GENERATED_TARGET, GENERATED_SOURCE);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to generate round " + round, e);
+            }
+            round++;
+            return false;
+        }
+
+        private void write(String name, String content) throws IOException {
+            DeferredTransactionTest.write(processingEnv, name, content);
+        }
+    }
+
+    /**
+     * Generates the dependency of an @Injector in the given round, as a plain type without Transfuse annotations.  An
+     * unrelated type is generated in each earlier round to guarantee the rounds happen.
+     */
+    @SupportedAnnotationTypes("org.androidtransfuse.annotations.Injector")
+    @SupportedSourceVersion(SourceVersion.RELEASE_6)
+    public static class ComponentGenerator extends AbstractProcessor {
+
+        private final int generationRound;
+        private final String name;
+        private final String source;
+        private int round = 0;
+
+        public ComponentGenerator(int generationRound, String name, String source) {
+            this.generationRound = generationRound;
+            this.name = name;
+            this.source = source;
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            try {
+                if (round < generationRound) {
+                    write(processingEnv, "example.round.ComponentIntermediate" + round,
+                            "package example.round;\n" +
+                            "public class ComponentIntermediate" + round + " {}\n");
+                } else if (round == generationRound) {
+                    write(processingEnv, name, source);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to generate round " + round, e);
+            }
+            round++;
+            return false;
+        }
+    }
+
+    private static void write(ProcessingEnvironment processingEnv, String name, String content) throws IOException {
+        JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(name);
+        Writer writer = sourceFile.openWriter();
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+}
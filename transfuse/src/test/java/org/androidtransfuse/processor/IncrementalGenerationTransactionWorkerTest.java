@@ -0,0 +1,158 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import com.google.common.collect.ImmutableList;
+import org.androidtransfuse.ParcelAnnotationProcessor;
+import org.androidtransfuse.config.TransfuseOptions;
+import org.androidtransfuse.gen.classloader.MemoryClassLoader;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compiles @Parcel sources in memory across multiple javac invocations sharing a generation cache.
+ *
+ * @author John Ericksen
+ */
+public class IncrementalGenerationTransactionWorkerTest {
+
+    private static final String TARGET = "example.cache.CacheTarget";
+    private static final String GENERATED = "example.cache.CacheTarget$$Parcelable";
+    private static final String GENERATED_PATH = "example.cache/CacheTarget$$Parcelable.java";
+    private static final String MARKER = "// reused from cache";
+
+    private static final String SOURCE =
+            "package example.cache;\n" +
+            "@org.androidtransfuse.annotations.Parcel\n" +
+            "public class CacheTarget {\n" +
+            "    private String value;\n" +
+            "    public String getValue() { return value; }\n" +
+            "    public void setValue(String value) { this.value = value; }\n" +
+            "}\n";
+
+    private static final String UPDATED_SOURCE =
+            "package example.cache;\n" +
+            "@org.androidtransfuse.annotations.Parcel\n" +
+            "public class CacheTarget {\n" +
+            "    private String value;\n" +
+            "    private String other;\n" +
+            "    public String getValue() { return value; }\n" +
+            "    public void setValue(String value) { this.value = value; }\n" +
+            "    public String getOther() { return other; }\n" +
+            "    public void setOther(String other) { this.other = other; }\n" +
+            "}\n";
+
+    private File cacheDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDirectory = File.createTempFile("cache", "");
+        assertTrue(cacheDirectory.delete());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(cacheDirectory);
+    }
+
+    @Test
+    public void testOutputCached() {
+        String generated = compile(SOURCE);
+
+        assertNotNull(generated);
+        GenerationCache.Entry entry = new GenerationCache(cacheDirectory).read(TARGET);
+        assertNotNull(entry);
+        assertEquals(GENERATED, entry.getResultName());
+        assertEquals(generated, new String(entry.getSources().get(GENERATED_PATH)));
+    }
+
+    @Test
+    public void testUnchangedInputReused() {
+        compile(SOURCE);
+        markCachedOutput();
+
+        String generated = compile(SOURCE);
+
+        assertTrue(generated.contains(MARKER));
+    }
+
+    @Test
+    public void testChangedInputInvalidated() {
+        compile(SOURCE);
+        markCachedOutput();
+
+        String generated = compile(UPDATED_SOURCE);
+
+        assertFalse(generated.contains(MARKER));
+        assertTrue(generated.contains("getOther"));
+        assertFalse(new String(new GenerationCache(cacheDirectory).read(TARGET).getSources().get(GENERATED_PATH)).contains(MARKER));
+    }
+
+    @Test
+    public void testCacheDisabled() {
+        GenerationCache generationCache = new GenerationCache();
+
+        generationCache.put(TARGET, new GenerationCache.Entry("fingerprint", GENERATED,
+                Collections.<String, byte[]>emptyMap(), Collections.<String, byte[]>emptyMap()));
+
+        assertNull(generationCache.get(TARGET, "fingerprint"));
+        assertFalse(cacheDirectory.exists());
+    }
+
+    @Test
+    public void testFingerprintMismatch() {
+        GenerationCache generationCache = new GenerationCache(cacheDirectory);
+
+        generationCache.put(TARGET, new GenerationCache.Entry("fingerprint", GENERATED,
+                Collections.<String, byte[]>emptyMap(), Collections.<String, byte[]>emptyMap()));
+
+        assertNull(generationCache.get(TARGET, "changed"));
+        assertNotNull(generationCache.get(TARGET, "fingerprint"));
+        assertEquals(1, generationCache.getHits());
+        assertEquals(1, generationCache.getMisses());
+    }
+
+    private void markCachedOutput() {
+        GenerationCache generationCache = new GenerationCache(cacheDirectory);
+        GenerationCache.Entry entry = generationCache.read(TARGET);
+
+        Map<String, byte[]> sources = new LinkedHashMap<String, byte[]>(entry.getSources());
+        sources.put(GENERATED_PATH, (new String(sources.get(GENERATED_PATH)) + MARKER + "\n").getBytes());
+
+        generationCache.put(TARGET, new GenerationCache.Entry(entry.getFingerprint(), entry.getResultName(), sources, entry.getResources()));
+    }
+
+    private String compile(String source) {
+        MemoryClassLoader classLoader = new MemoryClassLoader();
+
+        boolean success = classLoader.add(Collections.singletonMap(TARGET, source),
+                ImmutableList.of(new ParcelAnnotationProcessor()),
+                ImmutableList.of("-A" + TransfuseOptions.CACHE + "=" + cacheDirectory.getAbsolutePath()));
+
+        assertTrue(success);
+        return classLoader.getGeneratedSource(GENERATED);
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.androidtransfuse.ParcelAnnotationProcessor;
+import org.androidtransfuse.gen.ParcelsGenerator;
+import org.androidtransfuse.gen.classloader.MemoryClassLoader;
+import org.junit.Test;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the originating elements the processors register generated files with, as read by incremental builds.
+ *
+ * @author John Ericksen
+ */
+public class OriginatingElementsTest {
+
+    private static final String FIRST = "example.origin.First";
+    private static final String SECOND = "example.origin.Second";
+
+    @Test
+    public void testParcelOriginatingElements() {
+        Map<String, String> sources = new HashMap<String, String>();
+        sources.put(FIRST, parcel("First"));
+        sources.put(SECOND, parcel("Second"));
+
+        RecordingProcessor processor = new RecordingProcessor(new ParcelAnnotationProcessor());
+
+        MemoryClassLoader classLoader = new MemoryClassLoader();
+        assertTrue(classLoader.add(sources, ImmutableList.of(processor), Collections.<String>emptyList()));
+
+        Map<String, Set<String>> origins = processor.getOriginatingElements();
+
+        //isolated per type
+        assertEquals(ImmutableSet.of(FIRST), origins.get(FIRST + "$$Parcelable"));
+        assertEquals(ImmutableSet.of(SECOND), origins.get(SECOND + "$$Parcelable"));
+        //aggregated over every @Parcel
+        assertEquals(ImmutableSet.of(FIRST, SECOND), origins.get(ParcelsGenerator.REPOSITORY_NAME.getFullyQualifiedName()));
+    }
+
+    private static String parcel(String name) {
+        return "package example.origin;\n" +
+                "@org.androidtransfuse.annotations.Parcel\n" +
+                "public class " + name + " {\n" +
+                "    private String value;\n" +
+                "    public String getValue() { return value; }\n" +
+                "    public void setValue(String value) { this.value = value; }\n" +
+                "}\n";
+    }
+
+    /**
+     * Wraps the given processor, recording the originating elements passed to the Filer, similar to the Filer
+     * decoration incremental build tools apply.
+     */
+    private static final class RecordingProcessor extends AbstractProcessor {
+
+        private final Processor delegate;
+        private final Map<String, Set<String>> originatingElements = new HashMap<String, Set<String>>();
+
+        private RecordingProcessor(Processor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Set<String> getSupportedOptions() {
+            return delegate.getSupportedOptions();
+        }
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return delegate.getSupportedAnnotationTypes();
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return delegate.getSupportedSourceVersion();
+        }
+
+        @Override
+        public synchronized void init(ProcessingEnvironment processingEnv) {
+            super.init(processingEnv);
+            delegate.init(new RecordingEnvironment(processingEnv));
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            return delegate.process(annotations, roundEnv);
+        }
+
+        private synchronized void record(String name, Element[] elements) {
+            Set<String> names = new HashSet<String>();
+            for (Element element : elements) {
+                names.add(((TypeElement) element).getQualifiedName().toString());
+            }
+            originatingElements.put(name, names);
+        }
+
+        public synchronized Map<String, Set<String>> getOriginatingElements() {
+            return new HashMap<String, Set<String>>(originatingElements);
+        }
+
+        private final class RecordingEnvironment implements ProcessingEnvironment {
+
+            private final ProcessingEnvironment environment;
+            private final Filer filer;
+
+            private RecordingEnvironment(ProcessingEnvironment environment) {
+                this.environment = environment;
+                this.filer = new RecordingFiler(environment.getFiler());
+            }
+
+            @Override
+            public Map<String, String> getOptions() {
+                return environment.getOptions();
+            }
+
+            @Override
+            public Messager getMessager() {
+                return environment.getMessager();
+            }
+
+            @Override
+            public Filer getFiler() {
+                return filer;
+            }
+
+            @Override
+            public Elements getElementUtils() {
+                return environment.getElementUtils();
+            }
+
+            @Override
+            public Types getTypeUtils() {
+                return environment.getTypeUtils();
+            }
+
+            @Override
+            public SourceVersion getSourceVersion() {
+                return environment.getSourceVersion();
+            }
+
+            @Override
+            public Locale getLocale() {
+                return environment.getLocale();
+            }
+        }
+
+        private final class RecordingFiler implements Filer {
+
+            private final Filer filer;
+
+            private RecordingFiler(Filer filer) {
+                this.filer = filer;
+            }
+
+            @Override
+            public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+                record(name.toString(), originatingElements);
+                return filer.createSourceFile(name, originatingElements);
+            }
+
+            @Override
+            public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+                record(name.toString(), originatingElements);
+                return filer.createClassFile(name, originatingElements);
+            }
+
+            @Override
+            public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+                record(pkg + "/" + relativeName, originatingElements);
+                return filer.createResource(location, pkg, relativeName, originatingElements);
+            }
+
+            @Override
+            public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+                return filer.getResource(location, pkg, relativeName);
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.androidtransfuse.processor;
 import com.sun.codemodel.JDefinedClass;
 import org.androidtransfuse.adapter.ASTType;
 import org.androidtransfuse.config.ThreadLocalScope;
+import org.androidtransfuse.util.Tracer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -38,7 +39,7 @@ public class ParcelTransactionFactoryTest {
     public void setup() {
         input = mock(Provider.class);
         ThreadLocalScope simpleScope = new ThreadLocalScope();
-        ScopedTransactionFactory scopedTransactionFactory = new ScopedTransactionFactory(simpleScope);
+        ScopedTransactionFactory scopedTransactionFactory = new ScopedTransactionFactory(simpleScope, new Tracer(), new ProcessingRound());
         Provider<TransactionWorker<Provider<ASTType>, JDefinedClass>> workerProvider = mock(Provider.class);
         factory = new ParcelTransactionFactory(scopedTransactionFactory, workerProvider);
     }
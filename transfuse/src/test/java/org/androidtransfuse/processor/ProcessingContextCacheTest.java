@@ -0,0 +1,134 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import org.androidtransfuse.adapter.element.ASTElementConverterFactory;
+import org.androidtransfuse.model.manifest.Manifest;
+import org.androidtransfuse.model.r.RBuilder;
+import org.androidtransfuse.model.r.RResource;
+import org.androidtransfuse.util.ManifestLocator;
+import org.androidtransfuse.util.ManifestSerializer;
+import org.androidtransfuse.util.Tracer;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.lang.model.util.Elements;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author John Ericksen
+ */
+public class ProcessingContextCacheTest {
+
+    private static final String PACKAGE = "org.example";
+
+    private ProcessingContextCache processingContextCache;
+    private ManifestLocator mockLocator;
+    private ManifestSerializer mockSerializer;
+    private Elements mockElements;
+    private Manifest manifest;
+    private File manifestFile;
+
+    @Before
+    public void setUp() throws IOException {
+        manifestFile = File.createTempFile("AndroidManifest", ".xml");
+        FileUtils.writeStringToFile(manifestFile, "<manifest/>");
+
+        mockLocator = mock(ManifestLocator.class);
+        mockSerializer = mock(ManifestSerializer.class);
+        mockElements = mock(Elements.class);
+        manifest = new Manifest();
+        manifest.setApplicationPackage(PACKAGE);
+
+        when(mockLocator.findManifest()).thenReturn(manifestFile);
+        when(mockSerializer.readManifest(manifestFile)).thenReturn(manifest);
+
+        processingContextCache = new ProcessingContextCache(mockLocator, mockSerializer, new RBuilder(), mockElements,
+                mock(ASTElementConverterFactory.class), new Tracer());
+    }
+
+    @After
+    public void tearDown() {
+        assertTrue(manifestFile.delete());
+    }
+
+    @Test
+    public void testReuse() {
+        Manifest first = processingContextCache.getManifest();
+        RResource firstR = processingContextCache.getR();
+        Manifest second = processingContextCache.getManifest();
+        RResource secondR = processingContextCache.getR();
+
+        assertSame(manifest, first);
+        assertSame(first, second);
+        assertSame(firstR, secondR);
+        assertEquals(manifestFile, processingContextCache.getManifestFile());
+
+        verify(mockLocator, times(1)).findManifest();
+        verify(mockSerializer, times(1)).readManifest(manifestFile);
+        verify(mockElements, times(1)).getTypeElement(PACKAGE + ".R");
+        verify(mockElements, times(1)).getTypeElement("android.R");
+
+        assertEquals(1, processingContextCache.getManifestBuilds());
+        assertEquals(1, processingContextCache.getRBuilds());
+        assertEquals(1, processingContextCache.getRReuses());
+    }
+
+    @Test
+    public void testManifestChanged() throws IOException {
+        processingContextCache.getManifest();
+
+        FileUtils.writeStringToFile(manifestFile, "<manifest package=\"org.example\"/>");
+
+        processingContextCache.getManifest();
+
+        verify(mockSerializer, times(2)).readManifest(manifestFile);
+        assertEquals(2, processingContextCache.getManifestBuilds());
+        assertEquals(0, processingContextCache.getManifestReuses());
+    }
+
+    @Test
+    public void testManifestInvalidated() {
+        processingContextCache.getManifest();
+        processingContextCache.invalidateManifest();
+        processingContextCache.getManifest();
+
+        verify(mockSerializer, times(2)).readManifest(manifestFile);
+        verify(mockLocator, times(1)).findManifest();
+    }
+
+    @Test
+    public void testPackageChangeRebuildsR() {
+        processingContextCache.getR();
+
+        Manifest updated = new Manifest();
+        updated.setApplicationPackage("org.updated");
+        when(mockSerializer.readManifest(manifestFile)).thenReturn(updated);
+        processingContextCache.invalidateManifest();
+
+        processingContextCache.getR();
+
+        verify(mockElements).getTypeElement("org.updated.R");
+        verify(mockElements, times(2)).getTypeElement("android.R");
+        assertEquals(2, processingContextCache.getRBuilds());
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import org.androidtransfuse.TransfuseTestInjector;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.adapter.classes.ASTClassFactory;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class ProcessorVersionTest {
+
+    public static class Target {
+        private String value;
+    }
+
+    private File jar;
+
+    @Before
+    public void setUp() throws IOException {
+        jar = File.createTempFile("processor", ".jar");
+    }
+
+    @After
+    public void tearDown() {
+        assertTrue(jar.delete());
+    }
+
+    @Test
+    public void testJarContentVersion() throws IOException {
+        FileUtils.writeStringToFile(jar, "build 1");
+        String version = ProcessorVersion.of("1.0", jar);
+
+        assertEquals(version, ProcessorVersion.of("1.0", jar));
+        assertTrue(version.startsWith("1.0:"));
+
+        //unreleased build sharing the version number
+        FileUtils.writeStringToFile(jar, "build 2");
+        assertFalse(version.equals(ProcessorVersion.of("1.0", jar)));
+    }
+
+    @Test
+    public void testDirectoryVersion() {
+        assertEquals("1.0", ProcessorVersion.of("1.0", jar.getParentFile()));
+        assertEquals("unversioned", ProcessorVersion.of(null, null));
+    }
+
+    @Test
+    public void testFingerprintInvalidatedByVersion() {
+        ASTType type = TransfuseTestInjector.getInjector(this).getInstance(ASTClassFactory.class).getType(Target.class);
+
+        String fingerprint = new TypeFingerprinter("1.0").fingerprint(type);
+
+        assertEquals(fingerprint, new TypeFingerprinter("1.0").fingerprint(type));
+        assertFalse(fingerprint.equals(new TypeFingerprinter("1.1").fingerprint(type)));
+    }
+}
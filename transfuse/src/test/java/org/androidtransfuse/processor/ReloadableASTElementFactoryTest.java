@@ -0,0 +1,251 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import com.google.common.collect.ImmutableList;
+import org.androidtransfuse.adapter.ASTField;
+import org.androidtransfuse.adapter.ASTMaterializationStatistics;
+import org.androidtransfuse.adapter.ASTType;
+import org.androidtransfuse.config.CachingElements;
+import org.androidtransfuse.gen.classloader.MemoryClassLoader;
+import org.junit.Test;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+import static org.androidtransfuse.config.TransfuseInjector.buildInjector;
+import static org.junit.Assert.*;
+
+/**
+ * Resolves the same types over several rounds, one of them depending on a type generated in the first round.
+ *
+ * @author John Ericksen
+ */
+public class ReloadableASTElementFactoryTest {
+
+    private static final String STABLE = "example.reload.Stable";
+    private static final String DEPENDENT = "example.reload.Dependent";
+    private static final String GENERATED = "example.reload.GeneratedDependency";
+    private static final String HOLDER = "example.reload.Holder";
+
+    @Test
+    public void testTypesReusedAcrossRounds() {
+        Map<String, String> sources = new HashMap<String, String>();
+        sources.put(STABLE,
+                "package example.reload;\n" +
+                "public class Stable {\n" +
+                "    private String value;\n" +
+                "}\n");
+        sources.put(DEPENDENT,
+                "package example.reload;\n" +
+                "public class Dependent extends Stable {\n" +
+                "    private GeneratedDependency dependency;\n" +
+                "}\n");
+
+        ResolvingProcessor processor = new ResolvingProcessor();
+
+        MemoryClassLoader classLoader = new MemoryClassLoader();
+        assertTrue(classLoader.add(sources, ImmutableList.of(processor), Collections.<String>emptyList()));
+
+        assertEquals(3, processor.rounds.size());
+        Round first = processor.rounds.get(0);
+        Round second = processor.rounds.get(1);
+        Round last = processor.rounds.get(2);
+
+        //the field type is missing until generated
+        assertNull(first.dependencyType);
+        assertEquals(GENERATED, second.dependencyType);
+
+        //types from earlier rounds are reused, only the type depending on the generated type is reloaded
+        assertSame(first.stable, second.stable);
+        assertSame(first.stable, last.stable);
+        assertSame(first.dependent, second.dependent);
+        assertSame(first.stable, second.dependent.getSuperClass());
+        assertEquals(0, first.reloaded);
+        assertEquals(1, second.reloaded);
+        assertEquals(0, last.reloaded);
+
+        assertTrue(first.typesBuilt > 0);
+        assertTrue(second.typesBuilt < first.typesBuilt);
+        assertEquals(0, last.typesBuilt);
+        assertEquals(1, processor.statistics.getReloads());
+    }
+
+    @Test
+    public void testMembersMaterializedInLaterRound() {
+        MaterializingProcessor processor = new MaterializingProcessor();
+
+        MemoryClassLoader classLoader = new MemoryClassLoader();
+        assertTrue(classLoader.add(Collections.singletonMap(HOLDER,
+                "package example.reload;\n" +
+                "public class Holder {\n" +
+                "    private GeneratedDependency dependency;\n" +
+                "}\n"), ImmutableList.of(processor), Collections.<String>emptyList()));
+
+        //built in the first round, its fields are first accessed once the dependency is generated
+        assertSame(processor.holders.get(0), processor.holders.get(1));
+        assertEquals(GENERATED, processor.fieldType);
+        assertEquals(0, processor.statistics.getReloads());
+    }
+
+    private static final class Round {
+        private ASTType stable;
+        private ASTType dependent;
+        private String dependencyType;
+        private int reloaded;
+        private long typesBuilt;
+    }
+
+    /**
+     * Resolves the Stable and Dependent types each round, generating the dependency of Dependent in the first round.
+     */
+    @SupportedAnnotationTypes("*")
+    @SupportedSourceVersion(SourceVersion.RELEASE_6)
+    public static class ResolvingProcessor extends AbstractProcessor {
+
+        @Inject
+        private ReloadableASTElementFactory reloadableASTElementFactory;
+        @Inject
+        private CachingElements cachingElements;
+        @Inject
+        private ProcessingRound processingRound;
+        @Inject
+        private ASTMaterializationStatistics statistics;
+
+        private final List<Round> rounds = new ArrayList<Round>();
+
+        @Override
+        public synchronized void init(ProcessingEnvironment processingEnv) {
+            super.init(processingEnv);
+            buildInjector(processingEnv).injectMembers(this);
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            long typesBuilt = statistics.getTypes();
+
+            cachingElements.clear();
+            processingRound.update(roundEnv);
+
+            Round round = new Round();
+            round.reloaded = reloadableASTElementFactory.reloadResolvable();
+            round.stable = resolve(STABLE);
+            round.dependent = resolve(DEPENDENT);
+            try {
+                for (ASTField field : round.dependent.getFields()) {
+                    round.dependencyType = field.getASTType().getName();
+                }
+            } catch (MissingTypeException e) {
+                round.dependencyType = null;
+            }
+
+            if (rounds.isEmpty()) {
+                write(GENERATED,
+                        "package example.reload;\n" +
+                        "public class GeneratedDependency {}\n");
+            }
+
+            round.typesBuilt = statistics.getTypes() - typesBuilt;
+            rounds.add(round);
+            return false;
+        }
+
+        private ASTType resolve(String name) {
+            TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(name);
+            Provider<ASTType> provider = reloadableASTElementFactory.apply(typeElement);
+            return provider.get();
+        }
+
+        private void write(String name, String content) {
+            ReloadableASTElementFactoryTest.write(processingEnv, name, content);
+        }
+    }
+
+    /**
+     * Builds Holder in the first round without accessing its members, generates its field type, and reads its fields
+     * in the second round.
+     */
+    @SupportedAnnotationTypes("*")
+    @SupportedSourceVersion(SourceVersion.RELEASE_6)
+    public static class MaterializingProcessor extends AbstractProcessor {
+
+        @Inject
+        private ReloadableASTElementFactory reloadableASTElementFactory;
+        @Inject
+        private CachingElements cachingElements;
+        @Inject
+        private ProcessingRound processingRound;
+        @Inject
+        private ASTMaterializationStatistics statistics;
+
+        private final List<ASTType> holders = new ArrayList<ASTType>();
+        private String fieldType;
+
+        @Override
+        public synchronized void init(ProcessingEnvironment processingEnv) {
+            super.init(processingEnv);
+            buildInjector(processingEnv).injectMembers(this);
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            cachingElements.clear();
+            processingRound.update(roundEnv);
+            reloadableASTElementFactory.reloadResolvable();
+
+            TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(HOLDER);
+            ASTType holder = reloadableASTElementFactory.apply(typeElement).get();
+
+            if (holders.isEmpty()) {
+                write(processingEnv, GENERATED,
+                        "package example.reload;\n" +
+                        "public class GeneratedDependency {}\n");
+            } else if (holders.size() == 1) {
+                for (ASTField field : holder.getFields()) {
+                    fieldType = field.getASTType().getName();
+                }
+            }
+
+            holders.add(holder);
+            return false;
+        }
+    }
+
+    private static void write(ProcessingEnvironment processingEnv, String name, String content) {
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(name);
+            Writer writer = sourceFile.openWriter();
+            try {
+                writer.write(content);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to generate " + name, e);
+        }
+    }
+}
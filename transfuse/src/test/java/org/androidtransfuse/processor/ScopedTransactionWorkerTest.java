@@ -0,0 +1,120 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import org.androidtransfuse.util.TestingScope;
+import org.androidtransfuse.util.Tracer;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.inject.Provider;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author John Ericksen
+ */
+public class ScopedTransactionWorkerTest {
+
+    private static final String MISSING = "example.Generated";
+    private static final String OUTPUT = "output";
+
+    private ScopedTransactionWorker<String, String> scopedWorker;
+    private ProcessingRound processingRound;
+    private TransactionWorker<String, String> mockWorker;
+    private Provider<TransactionWorker<String, String>> mockWorkerProvider;
+
+    @Before
+    public void setUp() {
+        processingRound = new ProcessingRound();
+        mockWorker = mock(TransactionWorker.class);
+        mockWorkerProvider = mock(Provider.class);
+
+        when(mockWorkerProvider.get()).thenReturn(mockWorker);
+        when(mockWorker.run("input"))
+                .thenThrow(new MissingTypeException("missing", "Generated"))
+                .thenReturn(OUTPUT);
+        when(mockWorker.isComplete()).thenReturn(true);
+
+        scopedWorker = new ScopedTransactionWorker<String, String>(new TestingScope(), mockWorkerProvider, new Tracer(), processingRound);
+    }
+
+    @Test
+    public void testDeferredUntilMissingTypeAppears() {
+        processingRound.update(round(false, "example.Unrelated"));
+        assertNull(scopedWorker.run("input"));
+        assertFalse(scopedWorker.isComplete());
+        assertTrue(scopedWorker.getError() instanceof MissingTypeException);
+
+        //missing type still absent, analysis is not rerun
+        processingRound.update(round(false, "example.Other"));
+        assertNull(scopedWorker.run("input"));
+        verify(mockWorkerProvider, times(1)).get();
+
+        processingRound.update(round(false, MISSING));
+        assertEquals(OUTPUT, scopedWorker.run("input"));
+        assertTrue(scopedWorker.isComplete());
+        verify(mockWorkerProvider, times(2)).get();
+    }
+
+    @Test
+    public void testRetriedInFinalRound() {
+        processingRound.update(round(false, "example.Unrelated"));
+        scopedWorker.run("input");
+
+        processingRound.update(round(true));
+        assertEquals(OUTPUT, scopedWorker.run("input"));
+        verify(mockWorkerProvider, times(2)).get();
+    }
+
+    private RoundEnvironment round(boolean processingOver, String... typeNames) {
+        RoundEnvironment roundEnvironment = mock(RoundEnvironment.class);
+        Set<Element> rootElements = new HashSet<Element>();
+        for (String typeName : typeNames) {
+            rootElements.add(type(typeName));
+        }
+        when(roundEnvironment.getRootElements()).thenReturn((Set) rootElements);
+        when(roundEnvironment.processingOver()).thenReturn(processingOver);
+        return roundEnvironment;
+    }
+
+    private TypeElement type(String qualifiedName) {
+        TypeElement typeElement = mock(TypeElement.class);
+        Name qualified = name(qualifiedName);
+        Name simple = name(qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1));
+        when(typeElement.getKind()).thenReturn(ElementKind.CLASS);
+        when(typeElement.getQualifiedName()).thenReturn(qualified);
+        when(typeElement.getSimpleName()).thenReturn(simple);
+        when(typeElement.getEnclosedElements()).thenReturn((List) Collections.emptyList());
+        return typeElement;
+    }
+
+    private Name name(String value) {
+        Name name = mock(Name.class);
+        when(name.toString()).thenReturn(value);
+        return name;
+    }
+}
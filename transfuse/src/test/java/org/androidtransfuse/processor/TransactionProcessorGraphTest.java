@@ -0,0 +1,219 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.processor;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author John Ericksen
+ */
+public class TransactionProcessorGraphTest {
+
+    private ExecutorService stageExecutor;
+    private TransactionProcessorGraph graph;
+    private TransactionProcessor mockProcessor1;
+    private TransactionProcessor mockProcessor2;
+
+    @Before
+    public void setUp() throws Exception {
+        stageExecutor = Executors.newCachedThreadPool();
+        mockProcessor1 = mock(TransactionProcessor.class);
+        mockProcessor2 = mock(TransactionProcessor.class);
+
+        graph = new TransactionProcessorGraph(stageExecutor);
+        graph.add(mockProcessor1);
+        graph.add(mockProcessor2, mockProcessor1);
+    }
+
+    @After
+    public void tearDown() {
+        stageExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testExecution() {
+        when(mockProcessor1.isComplete()).thenReturn(true);
+        when(mockProcessor2.isComplete()).thenReturn(false);
+
+        graph.execute();
+
+        verify(mockProcessor2).execute();
+    }
+
+    @Test
+    public void testDependencyIncomplete() {
+        when(mockProcessor1.isComplete()).thenReturn(false);
+        when(mockProcessor2.isComplete()).thenReturn(false);
+
+        graph.execute();
+
+        verify(mockProcessor1).execute();
+        verify(mockProcessor2, times(0)).execute();
+    }
+
+    @Test
+    public void testAlreadyComplete() {
+        when(mockProcessor1.isComplete()).thenReturn(true);
+        when(mockProcessor2.isComplete()).thenReturn(true);
+
+        graph.execute();
+
+        verify(mockProcessor1, times(0)).execute();
+        verify(mockProcessor2, times(0)).execute();
+    }
+
+    @Test
+    public void testCompletionStatus() {
+        when(mockProcessor1.isComplete()).thenReturn(true);
+        when(mockProcessor2.isComplete()).thenReturn(true);
+        assertTrue(graph.isComplete());
+
+        when(mockProcessor1.isComplete()).thenReturn(false);
+        assertFalse(graph.isComplete());
+
+        when(mockProcessor1.isComplete()).thenReturn(true);
+        when(mockProcessor2.isComplete()).thenReturn(false);
+        assertFalse(graph.isComplete());
+    }
+
+    @Test
+    public void testDependentExecutedAfterDependencyCompletes() {
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        TransactionProcessorPool<String, String> first = buildPool(order, "first");
+        TransactionProcessorPool<String, String> second = buildPool(order, "second");
+        TransactionProcessorPool<String, String> third = buildPool(order, "third");
+
+        TransactionProcessorGraph<String, String> pipeline = new TransactionProcessorGraph<String, String>(stageExecutor);
+        pipeline.add(third, second);
+        pipeline.add(second, first);
+        pipeline.add(first);
+
+        pipeline.execute();
+
+        assertTrue(pipeline.isComplete());
+        assertEquals(3, order.size());
+        assertEquals("first", order.get(0));
+        assertEquals("second", order.get(1));
+        assertEquals("third", order.get(2));
+    }
+
+    @Test
+    public void testResultsInAdditionOrder() {
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        TransactionProcessorPool<String, String> first = buildPool(order, "first");
+        TransactionProcessorPool<String, String> second = buildPool(order, "second");
+
+        TransactionProcessorGraph<String, String> pipeline = new TransactionProcessorGraph<String, String>(stageExecutor);
+        pipeline.add(first);
+        pipeline.add(second);
+
+        pipeline.execute();
+
+        List<String> keys = new ArrayList<String>(pipeline.getResults().keySet());
+
+        assertEquals(2, keys.size());
+        assertEquals("first", keys.get(0));
+        assertEquals("second", keys.get(1));
+    }
+
+    @Test(timeout = 5000)
+    public void testIndependentProcessorsExecuteConcurrently() {
+        final CountDownLatch latch = new CountDownLatch(2);
+
+        TransactionProcessor processor1 = mock(TransactionProcessor.class);
+        TransactionProcessor processor2 = mock(TransactionProcessor.class);
+
+        TransactionProcessorGraph concurrentGraph = new TransactionProcessorGraph(stageExecutor);
+        concurrentGraph.add(new LatchedProcessor(processor1, latch));
+        concurrentGraph.add(new LatchedProcessor(processor2, latch));
+
+        // Would block indefinitely if the processors were executed sequentially
+        concurrentGraph.execute();
+
+        verify(processor1).execute();
+        verify(processor2).execute();
+    }
+
+    @Test
+    public void testErrorPropagation() {
+        when(mockProcessor1.isComplete()).thenReturn(false);
+        doThrow(new TransactionRuntimeException("failure")).when(mockProcessor1).execute();
+
+        try {
+            graph.execute();
+            fail();
+        } catch (TransactionRuntimeException e) {
+            verify(mockProcessor2, times(0)).execute();
+        }
+    }
+
+    private TransactionProcessorPool<String, String> buildPool(final List<String> order, final String name) {
+        TransactionProcessorPool<String, String> pool = new TransactionProcessorPool<String, String>(MoreExecutors.sameThreadExecutor());
+
+        pool.submit(new Transaction<String, String>(name, new AbstractCompletionTransactionWorker<String, String>() {
+            @Override
+            public String innerRun(String value) {
+                order.add(value);
+                return value;
+            }
+        }));
+
+        return pool;
+    }
+
+    private static final class LatchedProcessor extends TransactionProcessorComposite {
+
+        private final CountDownLatch latch;
+        private boolean complete = false;
+
+        private LatchedProcessor(TransactionProcessor delegate, CountDownLatch latch) {
+            super(ImmutableSet.of(delegate));
+            this.latch = latch;
+        }
+
+        @Override
+        public void execute() {
+            super.execute();
+            latch.countDown();
+            try {
+                assertTrue(latch.await(2, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new TransactionRuntimeException(e);
+            }
+            complete = true;
+        }
+
+        @Override
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+}
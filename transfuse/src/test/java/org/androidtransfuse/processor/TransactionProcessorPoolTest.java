@@ -15,14 +15,20 @@
  */
 package org.androidtransfuse.processor;
 
+import com.google.common.util.concurrent.MoreExecutors;
+import org.androidtransfuse.analysis.TransfuseAnalysisException;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static junit.framework.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 /**
@@ -34,10 +40,17 @@ public class TransactionProcessorPoolTest {
     private static final String TEST_OUTPUT = "output";
 
     private TransactionProcessorPool<String, String> pool;
+    private ExecutorService executorService;
 
     @Before
     public void setUp() throws Exception {
-        pool = new TransactionProcessorPool<String, String>();
+        executorService = Executors.newFixedThreadPool(2);
+        pool = new TransactionProcessorPool<String, String>(executorService);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
     }
 
     @Test
@@ -85,4 +98,78 @@ public class TransactionProcessorPoolTest {
         assertEquals(1, results.size());
         assertEquals(TEST_OUTPUT, results.get(TEST_INPUT));
     }
+
+    @Test
+    public void testSharedExecutorRemainsAvailable() {
+        TransactionProcessorPool<String, String> secondPool = new TransactionProcessorPool<String, String>(executorService);
+
+        pool.submit(buildTransaction(TEST_INPUT));
+        pool.execute();
+
+        assertFalse(executorService.isShutdown());
+
+        secondPool.submit(buildTransaction(TEST_OUTPUT));
+        secondPool.execute();
+
+        assertTrue(pool.isComplete());
+        assertTrue(secondPool.isComplete());
+    }
+
+    @Test
+    public void testResultsInSubmissionOrder() {
+        TransactionProcessorPool<String, String> sameThreadPool =
+                new TransactionProcessorPool<String, String>(MoreExecutors.sameThreadExecutor());
+
+        for (int i = 0; i < 100; i++) {
+            sameThreadPool.submit(buildTransaction(TEST_INPUT + i));
+        }
+        sameThreadPool.execute();
+
+        int i = 0;
+        for (String key : sameThreadPool.getResults().keySet()) {
+            assertEquals(TEST_INPUT + i++, key);
+        }
+        assertEquals(100, i);
+    }
+
+    @Test
+    public void testFailureWaitsOnRemainingTransactions() {
+        Transaction<String, String> failing = mock(Transaction.class);
+        when(failing.isComplete()).thenReturn(false);
+        doThrow(new IllegalStateException("failed")).when(failing).run();
+
+        Transaction<String, String> slow = new Transaction<String, String>(TEST_INPUT, new AbstractCompletionTransactionWorker<String, String>() {
+            @Override
+            public String innerRun(String value) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return TEST_OUTPUT;
+            }
+        });
+
+        pool.submit(failing);
+        pool.submit(slow);
+
+        try {
+            pool.execute();
+            fail();
+        } catch (TransfuseAnalysisException e) {
+            assertEquals("failed", e.getCause().getMessage());
+        }
+
+        //the remaining transaction is not left running on the shared executor
+        assertTrue(slow.isComplete());
+    }
+
+    private Transaction<String, String> buildTransaction(String input) {
+        return new Transaction<String, String>(input, new AbstractCompletionTransactionWorker<String, String>() {
+            @Override
+            public String innerRun(String value) {
+                return TEST_OUTPUT;
+            }
+        });
+    }
 }
@@ -20,6 +20,7 @@ import com.google.inject.Provider;
 import org.androidtransfuse.config.EnterableScope;
 
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 
 public class TestingScope implements EnterableScope {
 
@@ -39,18 +40,25 @@ public class TestingScope implements EnterableScope {
         seed(Key.get(clazz), value);
     }
 
+    @Override
+    public <T> Callable<T> wrap(Callable<T> callable) {
+        return callable;
+    }
+
     @Override
     public <T> Provider<T> scope(final Key<T> key, final Provider<T> unscoped) {
         return new Provider<T>() {
             @Override
             @SuppressWarnings("unchecked")
             public T get() {
-                // if values is null return null otherwise return the stored value of one exists
-                if (!values.containsKey(key)) {
-                    T object = unscoped.get();
-                    values.put(key, object);
+                synchronized (values) {
+                    // if values is null return null otherwise return the stored value of one exists
+                    if (!values.containsKey(key)) {
+                        T object = unscoped.get();
+                        values.put(key, object);
+                    }
+                    return (T) values.get(key);
                 }
-                return (T) values.get(key);
             }
         };
     }
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2013 John Ericksen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.androidtransfuse.util;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author John Ericksen
+ */
+public class TracerTest {
+
+    private File traceDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        traceDirectory = File.createTempFile("trace", "");
+        assertTrue(traceDirectory.delete());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(traceDirectory);
+    }
+
+    @Test
+    public void testDisabled() {
+        Tracer tracer = new Tracer();
+
+        tracer.start(Tracer.TRANSACTION, "test").end();
+        tracer.write("test");
+
+        assertFalse(tracer.isEnabled());
+        assertTrue(tracer.getEvents().isEmpty());
+        assertFalse(traceDirectory.exists());
+    }
+
+    @Test
+    public void testDisabledNameNotDescribed() {
+        Tracer tracer = new Tracer();
+
+        Object name = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("name described while tracing is disabled");
+            }
+        };
+
+        tracer.start(Tracer.TRANSACTION, name, name).end();
+
+        assertTrue(tracer.getEvents().isEmpty());
+    }
+
+    @Test
+    public void testNameParts() {
+        Tracer tracer = new Tracer(traceDirectory, 10);
+
+        tracer.start(Tracer.CODE_MODEL, TracerTest.class, "example.Activity").end();
+        tracer.start(Tracer.ROUND, "round", null).end();
+
+        assertEquals("TracerTest example.Activity", tracer.getEvents().get(0).getName());
+        assertEquals("round", tracer.getEvents().get(1).getName());
+    }
+
+    @Test
+    public void testSpanRecorded() {
+        Tracer tracer = new Tracer(traceDirectory, 10);
+
+        tracer.start(Tracer.TRANSACTION, "example.Activity").end();
+
+        assertEquals(1, tracer.getEvents().size());
+        Tracer.TraceEvent event = tracer.getEvents().get(0);
+        assertEquals(Tracer.TRANSACTION, event.getCategory());
+        assertEquals("example.Activity", event.getName());
+        assertEquals(Thread.currentThread().getId(), event.getThreadId());
+        assertEquals(Thread.currentThread().getName(), event.getThreadName());
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        Tracer tracer = new Tracer(traceDirectory, 2);
+
+        for (int i = 0; i < 5; i++) {
+            tracer.start(Tracer.FILER, "create \"quoted\" " + i).end();
+        }
+        tracer.write("test");
+
+        String json = FileUtils.readFileToString(new File(traceDirectory, "test-trace.json"));
+        String summary = FileUtils.readFileToString(new File(traceDirectory, "test-trace.txt"));
+
+        assertTrue(json.startsWith("{\"traceEvents\":["));
+        assertTrue(json.contains("\"cat\":\"filer\""));
+        assertTrue(json.contains("create \\\"quoted\\\" 4"));
+        assertTrue(summary.contains("Top 2 spans"));
+        assertTrue(summary.contains("filer"));
+    }
+}